@@ -26,6 +26,9 @@ import com.labymedia.ultralight.config.UltralightViewConfig;
 import com.labymedia.ultralight.ffi.ObjectWithHandle;
 import com.labymedia.ultralight.ffi.RefPtr;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * The core of Ultralight. You should initialize it after setting up
  * your Platform config and drivers.
@@ -56,6 +59,9 @@ public class UltralightRenderer implements ObjectWithHandle {
     // C++ RefPtr of the object
     private final RefPtr<UltralightRenderer> ptr;
 
+    // Hooks run after every update
+    private final List<Runnable> updateHooks;
+
     /**
      * Constructs a new {@link UltralightRenderer} from the given native
      * {@link RefPtr}.
@@ -65,6 +71,7 @@ public class UltralightRenderer implements ObjectWithHandle {
     @NativeCall
     private UltralightRenderer(RefPtr<UltralightRenderer> ptr) {
         this.ptr = ptr;
+        this.updateHooks = new CopyOnWriteArrayList<>();
     }
 
     // TODO: Session API
@@ -86,8 +93,60 @@ public class UltralightRenderer implements ObjectWithHandle {
     /**
      * Update timers and dispatch internal callbacks. You should call this often
      * from your main application loop.
+     * <p>
+     * After Ultralight has been updated, the registered update hooks are run in
+     * the order they have been added. A failing hook does not prevent the
+     * remaining hooks from running.
+     *
+     * @throws RuntimeException If a hook fails, the first failure is rethrown
+     *                          after all hooks have run, further failures are
+     *                          suppressed
+     */
+    public void update() {
+        nativeUpdate();
+
+        RuntimeException failure = null;
+        for (Runnable hook : updateHooks) {
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Updates timers and dispatches internal callbacks of Ultralight.
      */
-    public native void update();
+    private native void nativeUpdate();
+
+    /**
+     * Adds a hook which is run on the calling thread of {@link #update()} after
+     * every update, for example to dispatch work which has been queued by
+     * Javascript during the frame.
+     *
+     * @param hook The hook to add
+     */
+    public void addUpdateHook(Runnable hook) {
+        updateHooks.add(hook);
+    }
+
+    /**
+     * Removes a hook previously added with {@link #addUpdateHook(Runnable)}.
+     *
+     * @param hook The hook to remove
+     */
+    public void removeUpdateHook(Runnable hook) {
+        updateHooks.remove(hook);
+    }
 
     /**
      * Render all active views to display lists and dispatch calls to GPUDriver.
@@ -36,7 +36,7 @@ public class JavascriptClass implements ObjectWithHandle {
      *
      * @param handle The native handle to wrap
      */
-    private JavascriptClass(long handle) {
+    JavascriptClass(long handle) {
         this.handle = new DeletableObject<>(handle, JavascriptClass::release);
     }
 
@@ -47,6 +47,18 @@ public class JavascriptClass implements ObjectWithHandle {
      */
     private static native void release(long handle);
 
+    /**
+     * Releases this class immediately instead of waiting for it to be garbage collected.
+     * <p>
+     * Javascript objects created from this class keep their own reference and stay valid, but this instance must not
+     * be used anymore afterwards.
+     *
+     * @return {@code true} if the class has been released, {@code false} if it had been released already
+     */
+    public boolean delete() {
+        return handle.delete();
+    }
+
     @Override
     public long getHandle() {
         return handle.get();
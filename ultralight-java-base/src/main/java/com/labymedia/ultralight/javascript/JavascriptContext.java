@@ -22,6 +22,8 @@ package com.labymedia.ultralight.javascript;
 import com.labymedia.ultralight.annotation.NativeType;
 import com.labymedia.ultralight.ffi.ObjectWithHandle;
 
+import java.nio.ByteBuffer;
+
 /**
  * A JavaScript execution context. Holds the global object and other execution state.
  */
@@ -137,6 +139,101 @@ public class JavascriptContext implements ObjectWithHandle, JavascriptLockedObje
      */
     public native JavascriptObject makeArray(JavascriptValue... arguments) throws JavascriptException;
 
+    /**
+     * Creates a new Javascript typed array viewing the memory of the given buffer.
+     * <p>
+     * The memory is shared without copying, changes made by either Java or Javascript are visible to the other side.
+     * The buffer is kept alive until the typed array has been garbage collected by Javascript. Javascript expects
+     * multi-byte elements to be in {@link java.nio.ByteOrder#nativeOrder()}.
+     *
+     * @param type   The type of the typed array to create, {@link JavascriptTypedArrayType#BUFFER} creates an
+     *               {@code ArrayBuffer}
+     * @param buffer The direct buffer to view, its capacity needs to be a multiple of the element size
+     * @return The created typed array
+     * @throws JavascriptException      If the creation of the typed array fails
+     * @throws IllegalArgumentException If the buffer is not direct or the type is
+     *                                  {@link JavascriptTypedArrayType#NONE}
+     */
+    public native JavascriptObject makeTypedArray(JavascriptTypedArrayType type, ByteBuffer buffer)
+            throws JavascriptException;
+
+    /**
+     * Creates a new Javascript typed array containing a copy of the elements of a Java primitive array.
+     * <p>
+     * Unlike {@link #makeTypedArray(JavascriptTypedArrayType, ByteBuffer)} the memory is not shared, the elements
+     * are copied directly into memory owned by Javascript without any intermediate buffer. The bits of the elements
+     * are copied as is, so signed Java integers are reinterpreted as unsigned ones for the unsigned types.
+     *
+     * @param type  The type of the typed array to create
+     * @param array The primitive array to copy, {@code byte[]} for the 8 bit types, {@code short[]} or
+     *              {@code char[]} for {@link JavascriptTypedArrayType#UINT16}, {@code short[]} for
+     *              {@link JavascriptTypedArrayType#INT16}, {@code int[]} for the 32 bit integer types,
+     *              {@code float[]} for {@link JavascriptTypedArrayType#FLOAT32} and {@code double[]} for
+     *              {@link JavascriptTypedArrayType#FLOAT64}
+     * @return The created typed array
+     * @throws JavascriptException      If the creation of the typed array fails
+     * @throws IllegalArgumentException If the type of the array does not match the type of the typed array or the
+     *                                  type is {@link JavascriptTypedArrayType#BUFFER} or
+     *                                  {@link JavascriptTypedArrayType#NONE}
+     */
+    public JavascriptObject makeTypedArrayCopy(JavascriptTypedArrayType type, Object array)
+            throws JavascriptException {
+        if (type == null) {
+            throw new NullPointerException("type can't be null");
+        } else if (array == null) {
+            throw new NullPointerException("array can't be null");
+        }
+
+        Class<?> expectedType = componentType(type);
+        if (expectedType == null) {
+            throw new IllegalArgumentException("Can't copy into a typed array of type " + type);
+        }
+
+        Class<?> componentType = array.getClass().getComponentType();
+        if (componentType != expectedType && !(componentType == char.class && type == JavascriptTypedArrayType.UINT16)) {
+            // Elements of the same size would be reinterpreted silently, for example integers as floats
+            throw new IllegalArgumentException(
+                    "Can't copy a " + array.getClass().getSimpleName() + " into a typed array of type " + type);
+        }
+
+        return nativeMakeTypedArrayCopy(type, array);
+    }
+
+    /**
+     * Retrieves the primitive type matching the elements of a typed array type.
+     *
+     * @param type The type to retrieve the primitive type for
+     * @return The primitive type of the elements, or {@code null}, if the type has no elements
+     */
+    private static Class<?> componentType(JavascriptTypedArrayType type) {
+        switch (type) {
+            case INT8:
+            case UINT8:
+            case UINT8_CLAMPED:
+                return byte.class;
+
+            case INT16:
+            case UINT16:
+                return short.class;
+
+            case INT32:
+            case UINT32:
+                return int.class;
+
+            case FLOAT32:
+                return float.class;
+
+            case FLOAT64:
+                return double.class;
+
+            default:
+                return null;
+        }
+    }
+
+    private native JavascriptObject nativeMakeTypedArrayCopy(JavascriptTypedArrayType type, Object array)
+            throws JavascriptException;
+
     /**
      * Creates a new Javascript date object.
      *
@@ -42,7 +42,7 @@ public class JavascriptContextLock implements AutoCloseable, ObjectWithHandle {
      * @param handle A handle to the native lock to wrap
      */
     @NativeCall
-    private JavascriptContextLock(long handle) {
+    JavascriptContextLock(long handle) {
         this.handle = handle;
         this.lockedObjects = new ArrayList<>();
 
@@ -23,6 +23,8 @@ import com.labymedia.ultralight.annotation.NativeCall;
 import com.labymedia.ultralight.annotation.NativeType;
 import com.labymedia.ultralight.annotation.Unsigned;
 
+import java.lang.reflect.Array;
+
 @NativeType("JSObjectRef")
 public class JavascriptObject extends JavascriptValue {
     /**
@@ -90,6 +92,46 @@ public class JavascriptObject extends JavascriptValue {
      */
     public native boolean deleteProperty(String propertyName) throws JavascriptException;
 
+    /**
+     * Tests whether the object has the given property.
+     *
+     * @param propertyKey The prepared name of the property to test for
+     * @return {@code true} if a property matching the given name exists, {@code false} otherwise
+     */
+    public native boolean hasProperty(JavascriptPropertyKey propertyKey);
+
+    /**
+     * Retrieves a property of the object.
+     *
+     * @param propertyKey The prepared name of the property to retrieve
+     * @return The value of the property if it exists, a {@link JavascriptType#UNDEFINED} value else
+     * @throws JavascriptException If an error occurs while retrieving the property
+     */
+    public native JavascriptValue getProperty(JavascriptPropertyKey propertyKey) throws JavascriptException;
+
+    /**
+     * Sets a property of the object.
+     *
+     * @param propertyKey The prepared name of the property to set
+     * @param value       The new value of the property
+     * @param attributes  A combination of {@link JavascriptPropertyAttributes} logically OR'ed together
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setProperty(
+            JavascriptPropertyKey propertyKey,
+            JavascriptValue value,
+            @NativeType("JSPropertyAttributes") int attributes
+    ) throws JavascriptException;
+
+    /**
+     * Deletes a property of the object.
+     *
+     * @param propertyKey The prepared name of the property to delete
+     * @return {@code true} if the deletion succeeded, {@code false} otherwise
+     * @throws JavascriptException If an error occurs while deleting the property
+     */
+    public native boolean deleteProperty(JavascriptPropertyKey propertyKey) throws JavascriptException;
+
     /**
      * Tests whether the object has a property for the given property key.
      *
@@ -151,6 +193,324 @@ public class JavascriptObject extends JavascriptValue {
     public native void setPropertyAtIndex(
             @NativeType("unsigned") @Unsigned long propertyIndex, JavascriptValue value) throws JavascriptException;
 
+    /**
+     * Retrieves a property of the object converted to a number.
+     * <p>
+     * Unlike {@code getProperty(propertyName).toNumber()} this only crosses into native code once and does not
+     * allocate an intermediate {@link JavascriptValue}. Missing properties convert to {@link Double#NaN}.
+     *
+     * @param propertyName The name of the property to retrieve
+     * @return The value of the property converted to a number
+     * @throws JavascriptException If an error occurs while retrieving or converting the property
+     */
+    public native double getNumberProperty(String propertyName) throws JavascriptException;
+
+    /**
+     * Retrieves a property of the object converted to a number.
+     *
+     * @param propertyKey The prepared name of the property to retrieve
+     * @return The value of the property converted to a number
+     * @throws JavascriptException If an error occurs while retrieving or converting the property
+     * @see #getNumberProperty(String)
+     */
+    public native double getNumberProperty(JavascriptPropertyKey propertyKey) throws JavascriptException;
+
+    /**
+     * Retrieves a property of the object converted to a boolean.
+     * <p>
+     * Unlike {@code getProperty(propertyName).toBoolean()} this only crosses into native code once and does not
+     * allocate an intermediate {@link JavascriptValue}. Missing properties convert to {@code false}.
+     *
+     * @param propertyName The name of the property to retrieve
+     * @return The value of the property converted to a boolean
+     * @throws JavascriptException If an error occurs while retrieving the property
+     */
+    public native boolean getBooleanProperty(String propertyName) throws JavascriptException;
+
+    /**
+     * Retrieves a property of the object converted to a boolean.
+     *
+     * @param propertyKey The prepared name of the property to retrieve
+     * @return The value of the property converted to a boolean
+     * @throws JavascriptException If an error occurs while retrieving the property
+     * @see #getBooleanProperty(String)
+     */
+    public native boolean getBooleanProperty(JavascriptPropertyKey propertyKey) throws JavascriptException;
+
+    /**
+     * Retrieves a property of the object converted to a string.
+     * <p>
+     * Unlike {@code getProperty(propertyName).toStringCopy()} this only crosses into native code once and does not
+     * allocate an intermediate {@link JavascriptValue}. The conversion follows the Javascript rules, so missing
+     * properties convert to {@code "undefined"}.
+     *
+     * @param propertyName The name of the property to retrieve
+     * @return The value of the property converted to a string
+     * @throws JavascriptException If an error occurs while retrieving or converting the property
+     */
+    public native String getStringProperty(String propertyName) throws JavascriptException;
+
+    /**
+     * Retrieves a property of the object converted to a string.
+     *
+     * @param propertyKey The prepared name of the property to retrieve
+     * @return The value of the property converted to a string
+     * @throws JavascriptException If an error occurs while retrieving or converting the property
+     * @see #getStringProperty(String)
+     */
+    public native String getStringProperty(JavascriptPropertyKey propertyKey) throws JavascriptException;
+
+    /**
+     * Sets a property of the object to a number without allocating an intermediate {@link JavascriptValue}.
+     *
+     * @param propertyName The name of the property to set
+     * @param value        The new value of the property
+     * @param attributes   A combination of {@link JavascriptPropertyAttributes} logically OR'ed together
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setNumberProperty(
+            String propertyName,
+            double value,
+            @NativeType("JSPropertyAttributes") int attributes
+    ) throws JavascriptException;
+
+    /**
+     * Sets a property of the object to a number without allocating an intermediate {@link JavascriptValue}.
+     *
+     * @param propertyKey The prepared name of the property to set
+     * @param value       The new value of the property
+     * @param attributes  A combination of {@link JavascriptPropertyAttributes} logically OR'ed together
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setNumberProperty(
+            JavascriptPropertyKey propertyKey,
+            double value,
+            @NativeType("JSPropertyAttributes") int attributes
+    ) throws JavascriptException;
+
+    /**
+     * Sets a property of the object to a boolean without allocating an intermediate {@link JavascriptValue}.
+     *
+     * @param propertyName The name of the property to set
+     * @param value        The new value of the property
+     * @param attributes   A combination of {@link JavascriptPropertyAttributes} logically OR'ed together
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setBooleanProperty(
+            String propertyName,
+            boolean value,
+            @NativeType("JSPropertyAttributes") int attributes
+    ) throws JavascriptException;
+
+    /**
+     * Sets a property of the object to a boolean without allocating an intermediate {@link JavascriptValue}.
+     *
+     * @param propertyKey The prepared name of the property to set
+     * @param value       The new value of the property
+     * @param attributes  A combination of {@link JavascriptPropertyAttributes} logically OR'ed together
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setBooleanProperty(
+            JavascriptPropertyKey propertyKey,
+            boolean value,
+            @NativeType("JSPropertyAttributes") int attributes
+    ) throws JavascriptException;
+
+    /**
+     * Sets a property of the object to a string without allocating an intermediate {@link JavascriptValue}.
+     *
+     * @param propertyName The name of the property to set
+     * @param value        The new value of the property, or {@code null} to set the property to {@code null}
+     * @param attributes   A combination of {@link JavascriptPropertyAttributes} logically OR'ed together
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setStringProperty(
+            String propertyName,
+            String value,
+            @NativeType("JSPropertyAttributes") int attributes
+    ) throws JavascriptException;
+
+    /**
+     * Sets a property of the object to a string without allocating an intermediate {@link JavascriptValue}.
+     *
+     * @param propertyKey The prepared name of the property to set
+     * @param value       The new value of the property, or {@code null} to set the property to {@code null}
+     * @param attributes  A combination of {@link JavascriptPropertyAttributes} logically OR'ed together
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setStringProperty(
+            JavascriptPropertyKey propertyKey,
+            String value,
+            @NativeType("JSPropertyAttributes") int attributes
+    ) throws JavascriptException;
+
+    /**
+     * Retrieves a property of the object using the given index converted to a number.
+     *
+     * @param propertyIndex The index of the property to retrieve
+     * @return The value of the property converted to a number, {@link Double#NaN} if the index is out of range
+     * @throws JavascriptException If an error occurs while retrieving or converting the property
+     * @see #getNumberProperty(String)
+     */
+    public native double getNumberPropertyAtIndex(
+            @NativeType("unsigned") @Unsigned long propertyIndex) throws JavascriptException;
+
+    /**
+     * Retrieves a property of the object using the given index converted to a boolean.
+     *
+     * @param propertyIndex The index of the property to retrieve
+     * @return The value of the property converted to a boolean, {@code false} if the index is out of range
+     * @throws JavascriptException If an error occurs while retrieving the property
+     * @see #getBooleanProperty(String)
+     */
+    public native boolean getBooleanPropertyAtIndex(
+            @NativeType("unsigned") @Unsigned long propertyIndex) throws JavascriptException;
+
+    /**
+     * Retrieves a property of the object using the given index converted to a string.
+     *
+     * @param propertyIndex The index of the property to retrieve
+     * @return The value of the property converted to a string, {@code "undefined"} if the index is out of range
+     * @throws JavascriptException If an error occurs while retrieving or converting the property
+     * @see #getStringProperty(String)
+     */
+    public native String getStringPropertyAtIndex(
+            @NativeType("unsigned") @Unsigned long propertyIndex) throws JavascriptException;
+
+    /**
+     * Sets a property of the object using the given index to a number.
+     *
+     * @param propertyIndex The index of the property to set
+     * @param value         The new value of the property
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setNumberPropertyAtIndex(
+            @NativeType("unsigned") @Unsigned long propertyIndex, double value) throws JavascriptException;
+
+    /**
+     * Sets a property of the object using the given index to a boolean.
+     *
+     * @param propertyIndex The index of the property to set
+     * @param value         The new value of the property
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setBooleanPropertyAtIndex(
+            @NativeType("unsigned") @Unsigned long propertyIndex, boolean value) throws JavascriptException;
+
+    /**
+     * Sets a property of the object using the given index to a string.
+     *
+     * @param propertyIndex The index of the property to set
+     * @param value         The new value of the property, or {@code null} to set the property to {@code null}
+     * @throws JavascriptException If an error occurs while setting the property
+     */
+    public native void setStringPropertyAtIndex(
+            @NativeType("unsigned") @Unsigned long propertyIndex, String value) throws JavascriptException;
+
+    /**
+     * Retrieves the size of the memory backing this typed array or {@code ArrayBuffer}.
+     *
+     * @return The size of the memory in bytes
+     * @throws JavascriptException      If an error occurs while retrieving the memory
+     * @throws IllegalStateException    If this object is not a typed array or {@code ArrayBuffer}
+     * @throws IllegalArgumentException If the memory is too large to be copied into a Java array
+     */
+    public native int getTypedArrayByteLength() throws JavascriptException;
+
+    /**
+     * Copies the memory backing this typed array or {@code ArrayBuffer} into a Java primitive array.
+     * <p>
+     * The bytes are copied as they are, in native byte order, so the elements of a typed array are copied into a
+     * primitive array of the same element type without any conversion. As the memory is copied, the array stays
+     * valid after the context has been unlocked.
+     *
+     * @param array The numeric primitive array to copy into, its size in bytes needs to match the size returned by
+     *              {@link #getTypedArrayByteLength()}
+     * @throws JavascriptException      If an error occurs while retrieving the memory
+     * @throws IllegalStateException    If this object is not a typed array or {@code ArrayBuffer}
+     * @throws IllegalArgumentException If the array is not a numeric primitive array or its size does not match
+     */
+    public void copyTypedArrayBytes(Object array) throws JavascriptException {
+        if (array == null) {
+            throw new NullPointerException("array can't be null");
+        }
+
+        Class<?> componentType = array.getClass().getComponentType();
+        if (componentType == null || !componentType.isPrimitive() || componentType == boolean.class) {
+            throw new IllegalArgumentException("Expected a numeric primitive array, got " + array.getClass().getName());
+        }
+
+        long byteLength = (long) Array.getLength(array) * elementSize(componentType);
+        if (byteLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The array is too large to be copied into");
+        }
+
+        nativeCopyTypedArrayBytes(array, (int) byteLength);
+    }
+
+    /**
+     * Retrieves the size in bytes of a numeric primitive type.
+     *
+     * @param type The primitive type to retrieve the size for
+     * @return The size of the primitive type in bytes
+     */
+    private static int elementSize(Class<?> type) {
+        if (type == byte.class) {
+            return 1;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else {
+            return 8;
+        }
+    }
+
+    private native void nativeCopyTypedArrayBytes(Object array, int byteLength) throws JavascriptException;
+
+    /**
+     * Retrieves all elements of this array like object at once.
+     * <p>
+     * This is equivalent to reading the {@code length} property and calling {@link #getPropertyAtIndex(long)} for
+     * every index, but only crosses into native code once.
+     *
+     * @return The elements of this object
+     * @throws JavascriptException      If an error occurs while retrieving the elements
+     * @throws IllegalArgumentException If the length of this object does not fit into a Java array
+     */
+    public native JavascriptValue[] getElements() throws JavascriptException;
+
+    /**
+     * Retrieves a range of elements of this array like object at once.
+     *
+     * @param fromIndex The index of the first element to retrieve, inclusive
+     * @param toIndex   The index of the last element to retrieve, exclusive
+     * @return The elements in the given range, indices out of range are {@link JavascriptType#UNDEFINED} values
+     * @throws JavascriptException      If an error occurs while retrieving the elements
+     * @throws IllegalArgumentException If the range is invalid
+     */
+    public native JavascriptValue[] getElements(int fromIndex, int toIndex) throws JavascriptException;
+
+    /**
+     * Retrieves all elements of this array like object as numbers at once.
+     *
+     * @return The elements of this object
+     * @throws JavascriptException      If an error occurs while retrieving the elements
+     * @throws IllegalStateException    If an element is not a number
+     * @throws IllegalArgumentException If the length of this object does not fit into a Java array
+     */
+    public native double[] toDoubleArray() throws JavascriptException;
+
+    /**
+     * Retrieves all elements of this array like object as strings at once.
+     *
+     * @return The elements of this object, {@code null} and {@code undefined} elements are {@code null}
+     * @throws JavascriptException      If an error occurs while retrieving the elements
+     * @throws IllegalStateException    If an element is neither a string, {@code null} nor {@code undefined}
+     * @throws IllegalArgumentException If the length of this object does not fit into a Java array
+     */
+    public native String[] toStringArray() throws JavascriptException;
+
     /**
      * Retrieves the private data of the object.
      *
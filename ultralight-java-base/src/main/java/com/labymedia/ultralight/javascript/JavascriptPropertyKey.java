@@ -0,0 +1,108 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.javascript;
+
+import com.labymedia.ultralight.annotation.NativeType;
+import com.labymedia.ultralight.ffi.ObjectWithHandle;
+import com.labymedia.ultralight.ffi.gc.DeletableObject;
+
+/**
+ * A property name which has been converted to a Javascript string ahead of time.
+ * <p>
+ * Accessing a property by a {@link String} converts the name to a Javascript string on every access. Keys keep their
+ * Javascript string alive and can be reused for any number of accesses on any object, which makes them the preferred
+ * way of accessing the same properties repeatedly. Keys are not bound to a context and may be created on any thread.
+ */
+@NativeType("JSStringRef")
+public final class JavascriptPropertyKey implements ObjectWithHandle {
+    /**
+     * Creates a new key for a property name.
+     *
+     * @param name The name of the property
+     * @return The created key
+     * @throws NullPointerException If the name is {@code null}
+     */
+    public static JavascriptPropertyKey of(String name) {
+        if (name == null) {
+            throw new NullPointerException("name");
+        }
+
+        return new JavascriptPropertyKey(name, create(name));
+    }
+
+    /**
+     * Creates a retained Javascript string from a Java string.
+     *
+     * @param name The string to convert
+     * @return The native handle of the created Javascript string
+     */
+    private static native long create(String name);
+
+    /**
+     * Releases a Javascript string by decrementing its reference count.
+     *
+     * @param handle The native handle to decrement the reference count of
+     */
+    private static native void release(long handle);
+
+    private final String name;
+    private final DeletableObject<Long> handle;
+
+    /**
+     * Constructs a new {@link JavascriptPropertyKey} wrapping an existing native handle.
+     *
+     * @param name   The name of the property
+     * @param handle The native handle to wrap
+     */
+    private JavascriptPropertyKey(String name, long handle) {
+        this.name = name;
+        this.handle = new DeletableObject<>(handle, JavascriptPropertyKey::release);
+    }
+
+    /**
+     * Retrieves the name of the property this key refers to.
+     *
+     * @return The name of the property
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Releases this key immediately instead of waiting for it to be garbage collected.
+     * <p>
+     * This instance must not be used anymore afterwards.
+     *
+     * @return {@code true} if the key has been released, {@code false} if it had been released already
+     */
+    public boolean delete() {
+        return handle.delete();
+    }
+
+    @Override
+    public long getHandle() {
+        return handle.get();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
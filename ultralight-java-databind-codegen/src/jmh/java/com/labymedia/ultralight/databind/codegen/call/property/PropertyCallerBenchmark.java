@@ -0,0 +1,159 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.codegen.call.property;
+
+import com.labymedia.ultralight.databind.call.property.MethodHandlePropertyCaller;
+import com.labymedia.ultralight.databind.call.property.PropertyCaller;
+import com.labymedia.ultralight.databind.call.property.ReflectivePropertyCaller;
+import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link PropertyCaller} implementations against each other and against a direct call.
+ * <p>
+ * Run using {@code ./gradlew :ultralight-java-databind-codegen:jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PropertyCallerBenchmark {
+    @Param({"reflective", "method-handle", "generated", "generated-per-class"})
+    public String caller;
+
+    private PropertyCaller propertyCaller;
+
+    private Target target;
+    private Method addMethod;
+    private Method joinMethod;
+    private Method staticMethod;
+    private Constructor<?> constructor;
+    private Field field;
+
+    private Object[] addParameters;
+    private Object[] joinParameters;
+    private Object[] staticParameters;
+    private Object[] constructorParameters;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        switch (caller) {
+            case "reflective":
+                propertyCaller = new ReflectivePropertyCaller.Factory().create();
+                break;
+
+            case "method-handle":
+                propertyCaller = new MethodHandlePropertyCaller.Factory().create();
+                break;
+
+            case "generated":
+                propertyCaller = new GeneratedPropertyCaller.Factory().create();
+                break;
+
+            case "generated-per-class":
+                propertyCaller = new GeneratedPropertyCaller.Factory(CallerGenerationMode.PER_CLASS).create();
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown caller " + caller);
+        }
+
+        target = new Target(1);
+        addMethod = Target.class.getMethod("add", int.class, double.class);
+        joinMethod = Target.class.getMethod("join", String[].class);
+        staticMethod = Target.class.getMethod("twice", long.class);
+        constructor = Target.class.getConstructor(int.class);
+        field = Target.class.getField("value");
+
+        addParameters = new Object[]{2, 3.0};
+        joinParameters = new Object[]{new String[]{"a", "b", "c"}};
+        staticParameters = new Object[]{21L};
+        constructorParameters = new Object[]{42};
+    }
+
+    @Benchmark
+    public double directMethod() {
+        return target.add(2, 3.0);
+    }
+
+    @Benchmark
+    public Object method() throws JavascriptInteropException {
+        return propertyCaller.callMethod(target, addMethod, addParameters);
+    }
+
+    @Benchmark
+    public Object varArgsMethod() throws JavascriptInteropException {
+        return propertyCaller.callMethod(target, joinMethod, joinParameters);
+    }
+
+    @Benchmark
+    public Object staticMethod() throws JavascriptInteropException {
+        return propertyCaller.callMethod(null, staticMethod, staticParameters);
+    }
+
+    @Benchmark
+    public Object constructor() throws JavascriptInteropException {
+        return propertyCaller.callConstructor(constructor, constructorParameters);
+    }
+
+    @Benchmark
+    public Object fieldGet() throws JavascriptInteropException {
+        return propertyCaller.callFieldGet(target, field);
+    }
+
+    @Benchmark
+    public void fieldSet() throws JavascriptInteropException {
+        propertyCaller.callFieldSet(target, field, 7);
+    }
+
+    /**
+     * Class the properties are called on.
+     */
+    public static class Target {
+        public int value;
+
+        public Target(int value) {
+            this.value = value;
+        }
+
+        public double add(int a, double b) {
+            return value + a + b;
+        }
+
+        public String join(String... parts) {
+            return String.join(",", parts);
+        }
+
+        public static long twice(long in) {
+            return in * 2;
+        }
+    }
+}
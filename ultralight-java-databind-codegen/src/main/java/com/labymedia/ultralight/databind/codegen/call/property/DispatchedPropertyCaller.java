@@ -0,0 +1,44 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.codegen.call.property;
+
+/**
+ * {@link SingleGeneratedPropertyCaller} calling a single property through a {@link GeneratedPropertyDispatcher}.
+ */
+final class DispatchedPropertyCaller implements SingleGeneratedPropertyCaller {
+    private final GeneratedPropertyDispatcher dispatcher;
+    private final int index;
+
+    /**
+     * Constructs a new {@link DispatchedPropertyCaller}.
+     *
+     * @param dispatcher The dispatcher of the class declaring the property
+     * @param index      The index of the property within the dispatcher
+     */
+    DispatchedPropertyCaller(GeneratedPropertyDispatcher dispatcher, int index) {
+        this.dispatcher = dispatcher;
+        this.index = index;
+    }
+
+    @Override
+    public Object callProperty(Object instance, Object[] parameters) {
+        return dispatcher.dispatch(index, instance, parameters);
+    }
+}
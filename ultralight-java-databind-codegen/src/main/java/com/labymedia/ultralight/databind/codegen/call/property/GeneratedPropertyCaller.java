@@ -22,49 +22,32 @@ package com.labymedia.ultralight.databind.codegen.call.property;
 import com.labymedia.ultralight.databind.call.property.PropertyCaller;
 import com.labymedia.ultralight.databind.call.property.ReflectivePropertyCaller;
 import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
-import javassist.CannotCompileException;
-import javassist.NotFoundException;
 
-import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.reflect.Modifier;
 
 /**
  * Calls properties on java objects or classes via lazy-bytecode-generated {@link SingleGeneratedPropertyCaller}s.
  * This implementation is recommended if there are a lot of calls in a short time on the same property.
  * Although this implementation is faster than {@link ReflectivePropertyCaller},
  * the first call might be slower because of the lazy generation.
+ * <p>
+ * Generated callers are kept in a {@link GeneratedPropertyCallerRegistry}, which is shared by all instances created
+ * by the same {@link Factory}, so every member is only generated once even if it is inherited by many bound
+ * classes.
  */
 public class GeneratedPropertyCaller implements PropertyCaller {
 
     /**
-     * All already generated {@link SingleGeneratedPropertyCaller}s for methods.
+     * Registry holding all already generated {@link SingleGeneratedPropertyCaller}s.
      */
-    private final Map<Method, SingleGeneratedPropertyCaller> methodCallers;
-    /**
-     * All already generated {@link SingleGeneratedPropertyCaller}s for constructors.
-     */
-    private final Map<Constructor<?>, SingleGeneratedPropertyCaller> constructorCallers;
-    /**
-     * All already generated {@link SingleGeneratedPropertyCaller}s for fields.
-     */
-    private final Map<Field, SingleGeneratedPropertyCaller> fieldCallers;
+    private final GeneratedPropertyCallerRegistry registry;
 
-    /**
-     * Generator for new {@link SingleGeneratedPropertyCaller}s.
-     */
-    private final PropertyCallerGenerator callerGenerator;
-
-    private GeneratedPropertyCaller() {
-        this.methodCallers = new HashMap<>();
-        this.constructorCallers = new HashMap<>();
-        this.fieldCallers = new HashMap<>();
-
-        this.callerGenerator = new PropertyCallerGenerator();
+    private GeneratedPropertyCaller(GeneratedPropertyCallerRegistry registry) {
+        this.registry = registry;
     }
 
     /**
@@ -72,13 +55,7 @@ public class GeneratedPropertyCaller implements PropertyCaller {
      */
     @Override
     public Object callMethod(Object instance, Method method, Object[] parameters) throws JavascriptInteropException {
-        SingleGeneratedPropertyCaller propertyCaller = this.methodCallers.computeIfAbsent(method, key -> {
-            try {
-                return this.callerGenerator.generateMethodCaller(method);
-            } catch (NotFoundException | CannotCompileException | IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException | IOException exception) {
-                throw new CallerGenerationException("Failed to generate caller for method " + method.getName(), exception);
-            }
-        });
+        SingleGeneratedPropertyCaller propertyCaller = this.registry.methodCaller(method);
 
         try {
             return propertyCaller.callProperty(instance, parameters);
@@ -92,13 +69,7 @@ public class GeneratedPropertyCaller implements PropertyCaller {
      */
     @Override
     public Object callConstructor(Constructor<?> constructor, Object[] parameters) throws JavascriptInteropException {
-        SingleGeneratedPropertyCaller propertyCaller = this.constructorCallers.computeIfAbsent(constructor, key -> {
-            try {
-                return this.callerGenerator.generateConstructorCaller(key);
-            } catch (NotFoundException | IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException | IOException | CannotCompileException exception) {
-                throw new CallerGenerationException("Failed to generate caller for constructor", exception);
-            }
-        });
+        SingleGeneratedPropertyCaller propertyCaller = this.registry.constructorCaller(constructor);
 
         try {
             return propertyCaller.callProperty(null, parameters);
@@ -112,13 +83,7 @@ public class GeneratedPropertyCaller implements PropertyCaller {
      */
     @Override
     public Object callFieldGet(Object instance, Field field) throws JavascriptInteropException {
-        SingleGeneratedPropertyCaller propertyCaller = this.fieldCallers.computeIfAbsent(field, key -> {
-            try {
-                return this.callerGenerator.generateFieldCaller(key);
-            } catch (NotFoundException | CannotCompileException | IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException | IOException exception) {
-                throw new CallerGenerationException("Failed to generate caller for field " + field.getName(), exception);
-            }
-        });
+        SingleGeneratedPropertyCaller propertyCaller = this.registry.fieldCaller(field);
 
         try {
             return propertyCaller.callProperty(instance, null);
@@ -132,13 +97,14 @@ public class GeneratedPropertyCaller implements PropertyCaller {
      */
     @Override
     public void callFieldSet(Object instance, Field field, Object value) throws JavascriptInteropException {
-        SingleGeneratedPropertyCaller propertyCaller = this.fieldCallers.computeIfAbsent(field, key -> {
-            try {
-                return this.callerGenerator.generateFieldCaller(key);
-            } catch (NotFoundException | CannotCompileException | IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException | IOException exception) {
-                throw new CallerGenerationException("Failed to generate caller for field " + field.getName(), exception);
-            }
-        });
+        if (Modifier.isFinal(field.getModifiers())) {
+            // Fail the same way as field.set(...) does in the reflective caller
+            throw new JavascriptInteropException(
+                    "Unable to access field: " + field.getName(),
+                    new IllegalAccessException("Can not set final field " + field.getName()));
+        }
+
+        SingleGeneratedPropertyCaller propertyCaller = this.registry.fieldCaller(field);
 
         try {
             propertyCaller.callProperty(instance, new Object[]{value});
@@ -147,17 +113,64 @@ public class GeneratedPropertyCaller implements PropertyCaller {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(Member member) throws JavascriptInteropException {
+        try {
+            if (member instanceof Method) {
+                this.registry.methodCaller((Method) member);
+            } else if (member instanceof Constructor) {
+                this.registry.constructorCaller((Constructor<?>) member);
+            } else if (member instanceof Field) {
+                this.registry.fieldCaller((Field) member);
+            }
+        } catch (CallerGenerationException exception) {
+            throw new JavascriptInteropException("Failed to prepare " + member.getName(), exception);
+        }
+    }
+
     /**
      * Factory for {@link GeneratedPropertyCaller}.
      */
     public static class Factory implements PropertyCaller.Factory {
+        private final GeneratedPropertyCallerRegistry registry;
+
+        /**
+         * Constructs a new {@link Factory} generating one class per member into a registry owned by the factory.
+         */
+        public Factory() {
+            this(CallerGenerationMode.PER_MEMBER);
+        }
+
+        /**
+         * Constructs a new {@link Factory} using the given generation mode and a registry owned by the factory.
+         *
+         * @param mode The layout of the generated classes, {@link CallerGenerationMode#PER_CLASS} is recommended
+         *             for large API surfaces
+         */
+        public Factory(CallerGenerationMode mode) {
+            this(new GeneratedPropertyCallerRegistry(mode));
+        }
+
+        /**
+         * Constructs a new {@link Factory} whose callers share the given registry. Pass
+         * {@link GeneratedPropertyCallerRegistry#shared(CallerGenerationMode)} to share generated callers between
+         * all factories of the process.
+         *
+         * @param registry The registry to retrieve and store generated callers from and in
+         */
+        public Factory(GeneratedPropertyCallerRegistry registry) {
+            this.registry = registry;
+        }
 
         /**
          * @return A new {@link GeneratedPropertyCaller} instance
          */
         @Override
         public GeneratedPropertyCaller create() {
-            return new GeneratedPropertyCaller();
+            return new GeneratedPropertyCaller(registry);
         }
     }
 }
@@ -0,0 +1,189 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.codegen.call.property;
+
+import javassist.CannotCompileException;
+import javassist.NotFoundException;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread safe registry of {@link SingleGeneratedPropertyCaller}s keyed by the {@link Member} they call.
+ * <p>
+ * Every member is generated exactly once per registry, no matter how many {@link GeneratedPropertyCaller}s
+ * request it. Lookups of already generated callers don't lock, generation is serialized on the registry.
+ * <p>
+ * A registry strongly references the members and generated classes it contains. By default every
+ * {@link GeneratedPropertyCaller.Factory} owns its registry, so they become unreachable together with the factory.
+ */
+public final class GeneratedPropertyCallerRegistry {
+    /**
+     * Retrieves the process wide registry for a certain generation mode.
+     * <p>
+     * The shared registry lives as long as the JVM and keeps every member it has generated a caller for, including
+     * the generated classes. Only opt into it if the bound classes are never unloaded, for example when they are
+     * not loaded by plugin or mod class loaders.
+     *
+     * @param mode The layout of the generated classes
+     * @return The shared registry
+     */
+    public static GeneratedPropertyCallerRegistry shared(CallerGenerationMode mode) {
+        return SharedRegistries.REGISTRIES.get(mode);
+    }
+
+    private final Map<Member, SingleGeneratedPropertyCaller> callers;
+    private final PropertyCallerGenerator callerGenerator;
+
+    /**
+     * Constructs a new, empty {@link GeneratedPropertyCallerRegistry}.
+     * <p>
+     * Use a dedicated registry instead of the {@link #shared(CallerGenerationMode) shared} one if the bound classes
+     * need to be unloaded, as a registry keeps all members it has generated callers for.
+     *
+     * @param mode The layout of the generated classes
+     */
+    public GeneratedPropertyCallerRegistry(CallerGenerationMode mode) {
+        this.callers = new ConcurrentHashMap<>();
+        this.callerGenerator = new PropertyCallerGenerator(mode);
+    }
+
+    /**
+     * Retrieves the caller for a certain method, generating it if required.
+     *
+     * @param method The method which the caller should call
+     * @return The caller for the method
+     * @throws CallerGenerationException If the caller can't be generated
+     */
+    public SingleGeneratedPropertyCaller methodCaller(Method method) {
+        return this.caller(method, () -> this.callerGenerator.generateMethodCaller(method));
+    }
+
+    /**
+     * Retrieves the caller for a certain constructor, generating it if required.
+     *
+     * @param constructor The constructor which the caller should call
+     * @return The caller for the constructor
+     * @throws CallerGenerationException If the caller can't be generated
+     */
+    public SingleGeneratedPropertyCaller constructorCaller(Constructor<?> constructor) {
+        return this.caller(constructor, () -> this.callerGenerator.generateConstructorCaller(constructor));
+    }
+
+    /**
+     * Retrieves the caller for a certain field, generating it if required.
+     *
+     * @param field The field which the caller should access
+     * @return The caller for the field
+     * @throws CallerGenerationException If the caller can't be generated
+     */
+    public SingleGeneratedPropertyCaller fieldCaller(Field field) {
+        return this.caller(field, () -> this.callerGenerator.generateFieldCaller(field));
+    }
+
+    /**
+     * Retrieves the caller for a certain member, generating it if required. Lookups of already generated callers
+     * don't lock, generation is serialized on the generator.
+     *
+     * @param member    The member which the caller should call
+     * @param generator The function generating the caller
+     * @return The caller for the member
+     * @throws CallerGenerationException If the caller can't be generated
+     */
+    private SingleGeneratedPropertyCaller caller(Member member, CallerGenerator generator) {
+        SingleGeneratedPropertyCaller caller = this.callers.get(member);
+        if (caller != null) {
+            return caller;
+        }
+
+        synchronized (this.callerGenerator) {
+            caller = this.callers.get(member);
+            if (caller == null) {
+                try {
+                    caller = generator.generate();
+                } catch (NotFoundException | CannotCompileException | IOException | ReflectiveOperationException exception) {
+                    throw new CallerGenerationException(
+                            "Failed to generate caller for " + describe(member), exception);
+                }
+
+                this.callers.put(member, caller);
+            }
+
+            return caller;
+        }
+    }
+
+    /**
+     * Describes a member for error messages.
+     *
+     * @param member The member to describe
+     * @return The description of the member
+     */
+    private static String describe(Member member) {
+        if (member instanceof Constructor) {
+            return "constructor";
+        }
+
+        return (member instanceof Method ? "method " : "field ") + member.getName();
+    }
+
+    /**
+     * Retrieves the amount of members callers have been generated for.
+     *
+     * @return The amount of generated callers
+     */
+    public int size() {
+        return this.callers.size();
+    }
+
+    /**
+     * Function generating a single caller.
+     */
+    @FunctionalInterface
+    private interface CallerGenerator {
+        /**
+         * Generates the caller.
+         *
+         * @return The generated caller
+         */
+        SingleGeneratedPropertyCaller generate()
+                throws NotFoundException, CannotCompileException, IOException, ReflectiveOperationException;
+    }
+
+    /**
+     * Lazily initialized holder of the shared registries, so they are only created when opted into.
+     */
+    private static final class SharedRegistries {
+        private static final Map<CallerGenerationMode, GeneratedPropertyCallerRegistry> REGISTRIES;
+
+        static {
+            REGISTRIES = new EnumMap<>(CallerGenerationMode.class);
+            for (CallerGenerationMode mode : CallerGenerationMode.values()) {
+                REGISTRIES.put(mode, new GeneratedPropertyCallerRegistry(mode));
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.codegen.call.property;
+
+/**
+ * Represents a bytecode-generated caller which directly calls all properties of a certain class without reflection,
+ * selecting the property by its index.
+ */
+public interface GeneratedPropertyDispatcher {
+
+    /**
+     * Calls the property with the given index directly.
+     *
+     * @param index      The index of the property to call
+     * @param instance   The instance the property belongs to or {@code null} if the property belongs to a class.
+     * @param parameters The parameters the property should be called with or {@code null} if the property does not support arguments.
+     * @return The result of the call or {@code null} if the property has no result
+     */
+    Object dispatch(int index, Object instance, Object[] parameters);
+}
@@ -23,12 +23,14 @@ import javassist.CannotCompileException;
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
 import javassist.NotFoundException;
 
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.security.SecureClassLoader;
@@ -39,6 +41,9 @@ import java.util.function.Consumer;
 
 /**
  * Generates certain {@link SingleGeneratedPropertyCaller}s.
+ * <p>
+ * Depending on the {@link CallerGenerationMode} either one class is generated per member, or one
+ * {@link GeneratedPropertyDispatcher} is generated per declaring class and shared by the callers of all its members.
  */
 public class PropertyCallerGenerator {
 
@@ -65,13 +70,44 @@ public class PropertyCallerGenerator {
         }
     };
 
+    private static final Class<?> DISPATCHER_INTERFACE = GeneratedPropertyDispatcher.class;
+
+    private static final Method DISPATCH_METHOD = DISPATCHER_INTERFACE.getDeclaredMethods()[0];
+
+    private static final String DISPATCHER_CLASS_NAME_BASE = "Generated" + DISPATCHER_INTERFACE.getSimpleName() + "_%s";
+
+    private static final String INDEX_PARAMETER_NAME = "index";
+
     private final DefinableClassLoader classLoader;
 
     private final ClassPool classPool;
 
+    private final CallerGenerationMode mode;
+
+    /**
+     * All already generated dispatchers, only used with {@link CallerGenerationMode#PER_CLASS}.
+     * A {@code null} value marks a class which could not be compiled into a dispatcher.
+     */
+    private final Map<Class<?>, ClassDispatcher> dispatchers;
+
     public PropertyCallerGenerator() {
+        this(CallerGenerationMode.PER_MEMBER);
+    }
+
+    /**
+     * Constructs a new {@link PropertyCallerGenerator} using the given generation mode.
+     *
+     * @param mode The layout of the generated classes
+     */
+    public PropertyCallerGenerator(CallerGenerationMode mode) {
         this.classLoader = new DefinableClassLoader(this.getClass().getClassLoader());
-        this.classPool = ClassPool.getDefault();
+
+        // the default pool is shared by everything in the JVM and not thread safe, every generator gets its own,
+        // guarded by the registry owning the generator
+        this.classPool = new ClassPool(true);
+        this.classPool.appendClassPath(new LoaderClassPath(this.getClass().getClassLoader()));
+        this.mode = mode;
+        this.dispatchers = new HashMap<>();
     }
 
     /**
@@ -81,6 +117,51 @@ public class PropertyCallerGenerator {
      * @return The new {@link SingleGeneratedPropertyCaller}
      */
     public SingleGeneratedPropertyCaller generateMethodCaller(Method method) throws NotFoundException, CannotCompileException, IOException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        SingleGeneratedPropertyCaller dispatched = this.dispatchedCaller(method);
+        if (dispatched != null) {
+            return dispatched;
+        }
+
+        return this.generateCaller(this.methodCallBody(method));
+    }
+
+    /**
+     * Generates a new {@link SingleGeneratedPropertyCaller} for a certain constructor.
+     *
+     * @param constructor The constructor which the caller should call
+     * @return The new {@link SingleGeneratedPropertyCaller}
+     */
+    public SingleGeneratedPropertyCaller generateConstructorCaller(Constructor<?> constructor) throws NotFoundException, CannotCompileException, IOException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        SingleGeneratedPropertyCaller dispatched = this.dispatchedCaller(constructor);
+        if (dispatched != null) {
+            return dispatched;
+        }
+
+        return this.generateCaller(this.constructorCallBody(constructor));
+    }
+
+    /**
+     * Generates a new {@link SingleGeneratedPropertyCaller} for a certain field, allows get and set operations.
+     *
+     * @param field The field which the caller should call
+     * @return The new {@link SingleGeneratedPropertyCaller}
+     */
+    public SingleGeneratedPropertyCaller generateFieldCaller(Field field) throws NotFoundException, CannotCompileException, IOException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        SingleGeneratedPropertyCaller dispatched = this.dispatchedCaller(field);
+        if (dispatched != null) {
+            return dispatched;
+        }
+
+        return this.generateCaller(this.fieldCallBody(field));
+    }
+
+    /**
+     * Builds the body calling a certain method.
+     *
+     * @param method The method which should be called
+     * @return The body as string
+     */
+    private String methodCallBody(Method method) {
         boolean returnsVoid = method.getReturnType().equals(void.class);
 
         StringBuilder methodContentBuilder = new StringBuilder(returnsVoid ? "" : "return ");
@@ -96,49 +177,56 @@ public class PropertyCallerGenerator {
         if (returnsVoid) {
             methodContentBuilder.append("return null;");
         }
-        return this.generateCaller(methodContentBuilder.toString());
+        return methodContentBuilder.toString();
     }
 
     /**
-     * Generates a new {@link SingleGeneratedPropertyCaller} for a certain constructor.
+     * Builds the body calling a certain constructor.
      *
-     * @param constructor The constructor which the caller should call
-     * @return The new {@link SingleGeneratedPropertyCaller}
+     * @param constructor The constructor which should be called
+     * @return The body as string
      */
-    public SingleGeneratedPropertyCaller generateConstructorCaller(Constructor<?> constructor) throws NotFoundException, CannotCompileException, IOException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+    private String constructorCallBody(Constructor<?> constructor) {
         String declaringClassName = constructor.getDeclaringClass().getName();
 
         StringBuilder methodContentBuilder = new StringBuilder("return new ")
                 .append(declaringClassName)
                 .append("(");
         this.appendParameters(methodContentBuilder, constructor.getParameterTypes()).append(");");
-        return this.generateCaller(methodContentBuilder.toString());
+        return methodContentBuilder.toString();
     }
 
     /**
-     * Generates a new {@link SingleGeneratedPropertyCaller} for a certain field, allows get and set operations.
+     * Builds the body getting or setting a certain field.
      *
-     * @param field The field which the caller should call
-     * @return The new {@link SingleGeneratedPropertyCaller}
+     * @param field The field which should be accessed
+     * @return The body as string
      */
-    public SingleGeneratedPropertyCaller generateFieldCaller(Field field) throws NotFoundException, CannotCompileException, IOException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+    private String fieldCallBody(Field field) {
         Class<?> type = field.getType();
+        StringBuilder methodContentBuilder = new StringBuilder();
+
+        // final fields can't be assigned from outside the declaring class, GeneratedPropertyCaller rejects setting
+        // them before calling into the generated code, just like the reflective caller does
+        if (!Modifier.isFinal(field.getModifiers())) {
+            // when the caller is called with arguments, the field value will be set to the first argument
+            methodContentBuilder.append("if (")
+                    .append(PARAMETERS_PARAMETER_NAME)
+                    .append(" != null && ")
+                    .append(PARAMETERS_PARAMETER_NAME)
+                    .append(".length == 1) { ");
+
+            this.castInstance(methodContentBuilder, field.getDeclaringClass(), field.getModifiers())
+                    .append(".")
+                    .append(field.getName())
+                    .append(" = ");
 
-        // when the caller is called with arguments, the field value will be set to the first argument
-        StringBuilder methodContentBuilder = new StringBuilder("if (")
-                .append(PARAMETERS_PARAMETER_NAME)
-                .append(" != null && ")
-                .append(PARAMETERS_PARAMETER_NAME)
-                .append(".length == 1) { ");
-
-        this.castInstance(methodContentBuilder, field.getDeclaringClass(), field.getModifiers())
-                .append(".")
-                .append(field.getName())
-                .append(" = ");
+            this.castParameter(methodContentBuilder, type, 0)
+                    .append(";")
+                    .append(" return null; } ");
+        }
 
-        this.castParameter(methodContentBuilder, type, 0)
-                .append(";")
-                .append(" return null; } return ");
+        methodContentBuilder.append("return ");
 
         // when no arguments are present, just return the field value
         this.wrapPrimitiveType(methodContentBuilder, type, builder ->
@@ -146,7 +234,7 @@ public class PropertyCallerGenerator {
                         .append(".")
                         .append(field.getName()))
                 .append(";");
-        return this.generateCaller(methodContentBuilder.toString());
+        return methodContentBuilder.toString();
     }
 
     /**
@@ -157,17 +245,137 @@ public class PropertyCallerGenerator {
     private SingleGeneratedPropertyCaller generateCaller(String methodContent) throws NotFoundException, CannotCompileException, IOException, NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
         CtClass ctClass = this.classPool.makeClass(
                 String.format(CLASS_NAME_BASE, UUID.randomUUID().toString().replace("-", "")));
-        ctClass.addInterface(this.classPool.get(GENERATION_INTERFACE.getName()));
 
-        ctClass.addMethod(CtNewMethod.make(String.format(
-                "public Object %s(Object %s, Object[] %s) { %s }",
-                CALL_METHOD.getName(),
-                INSTANCE_PARAMETER_NAME,
-                PARAMETERS_PARAMETER_NAME,
-                methodContent), ctClass));
+        try {
+            ctClass.addInterface(this.classPool.get(GENERATION_INTERFACE.getName()));
+
+            ctClass.addMethod(CtNewMethod.make(String.format(
+                    "public Object %s(Object %s, Object[] %s) { %s }",
+                    CALL_METHOD.getName(),
+                    INSTANCE_PARAMETER_NAME,
+                    PARAMETERS_PARAMETER_NAME,
+                    methodContent), ctClass));
+
+            Class<?> generatedClass = this.classLoader.defineClass(ctClass.getName(), ctClass.toBytecode());
+            return (SingleGeneratedPropertyCaller) generatedClass.getConstructor().newInstance();
+        } finally {
+            // the class pool would otherwise keep the compiled class forever
+            ctClass.detach();
+        }
+    }
+
+    /**
+     * Retrieves a caller dispatching to a certain member through the dispatcher of its declaring class,
+     * generating the dispatcher if required.
+     *
+     * @param member The member which the caller should call
+     * @return The dispatching caller, or {@code null}, if the member can't be called through a dispatcher
+     */
+    private SingleGeneratedPropertyCaller dispatchedCaller(Member member) throws NotFoundException, IOException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        if (this.mode != CallerGenerationMode.PER_CLASS) {
+            return null;
+        }
 
-        Class<?> generatedClass = this.classLoader.defineClass(ctClass.getName(), ctClass.toBytecode());
-        return (SingleGeneratedPropertyCaller) generatedClass.getConstructor().newInstance();
+        Class<?> declaringClass = member.getDeclaringClass();
+
+        ClassDispatcher classDispatcher;
+        if (this.dispatchers.containsKey(declaringClass)) {
+            classDispatcher = this.dispatchers.get(declaringClass);
+        } else {
+            try {
+                classDispatcher = this.generateDispatcher(declaringClass);
+            } catch (CannotCompileException exception) {
+                // fall back to one class per member for this class, so a single problematic member
+                // does not break all other members
+                classDispatcher = null;
+            }
+
+            this.dispatchers.put(declaringClass, classDispatcher);
+        }
+
+        if (classDispatcher == null) {
+            return null;
+        }
+
+        Integer index = classDispatcher.indices.get(member);
+        return index == null ? null : new DispatchedPropertyCaller(classDispatcher.dispatcher, index);
+    }
+
+    /**
+     * Generates a new {@link GeneratedPropertyDispatcher} for all public members declared by a class.
+     *
+     * @param declaringClass The class to generate the dispatcher for
+     * @return The generated dispatcher and the indices of the members
+     */
+    private ClassDispatcher generateDispatcher(Class<?> declaringClass) throws NotFoundException, CannotCompileException, IOException, NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
+        Map<Member, Integer> indices = new HashMap<>();
+        StringBuilder switchBuilder = new StringBuilder("switch (")
+                .append(INDEX_PARAMETER_NAME)
+                .append(") { ");
+
+        boolean instantiable = !declaringClass.isInterface() && !Modifier.isAbstract(declaringClass.getModifiers());
+        if (instantiable) {
+            for (Constructor<?> constructor : declaringClass.getConstructors()) {
+                this.appendCase(switchBuilder, indices, constructor, this.constructorCallBody(constructor));
+            }
+        }
+
+        for (Method method : declaringClass.getDeclaredMethods()) {
+            if (Modifier.isPublic(method.getModifiers()) && !method.isSynthetic()) {
+                this.appendCase(switchBuilder, indices, method, this.methodCallBody(method));
+            }
+        }
+
+        for (Field field : declaringClass.getDeclaredFields()) {
+            if (Modifier.isPublic(field.getModifiers())) {
+                this.appendCase(switchBuilder, indices, field, this.fieldCallBody(field));
+            }
+        }
+
+        switchBuilder.append("default: throw new IllegalArgumentException(\"No property with index \" + ")
+                .append(INDEX_PARAMETER_NAME)
+                .append("); }");
+
+        CtClass ctClass = this.classPool.makeClass(
+                String.format(DISPATCHER_CLASS_NAME_BASE, UUID.randomUUID().toString().replace("-", "")));
+
+        try {
+            ctClass.addInterface(this.classPool.get(DISPATCHER_INTERFACE.getName()));
+
+            ctClass.addMethod(CtNewMethod.make(String.format(
+                    "public Object %s(int %s, Object %s, Object[] %s) { %s }",
+                    DISPATCH_METHOD.getName(),
+                    INDEX_PARAMETER_NAME,
+                    INSTANCE_PARAMETER_NAME,
+                    PARAMETERS_PARAMETER_NAME,
+                    switchBuilder), ctClass));
+
+            Class<?> generatedClass = this.classLoader.defineClass(ctClass.getName(), ctClass.toBytecode());
+            return new ClassDispatcher(
+                    (GeneratedPropertyDispatcher) generatedClass.getConstructor().newInstance(), indices);
+        } finally {
+            // the class pool would otherwise keep the compiled class forever
+            ctClass.detach();
+        }
+    }
+
+    /**
+     * Appends a case calling a member to the switch of a dispatcher.
+     *
+     * @param builder The string builder containing the switch
+     * @param indices The indices of the members already added to the switch
+     * @param member  The member to add
+     * @param body    The body calling the member
+     */
+    private void appendCase(StringBuilder builder, Map<Member, Integer> indices, Member member, String body) {
+        int index = indices.size();
+        indices.put(member, index);
+
+        builder.append("case ")
+                .append(index)
+                .append(": { ")
+                .append(body)
+                .append(" } ");
     }
 
     /**
@@ -294,6 +502,19 @@ public class PropertyCallerGenerator {
         return builder;
     }
 
+    /**
+     * Tuple of a generated dispatcher and the indices of the members it dispatches to.
+     */
+    private static class ClassDispatcher {
+        private final GeneratedPropertyDispatcher dispatcher;
+        private final Map<Member, Integer> indices;
+
+        private ClassDispatcher(GeneratedPropertyDispatcher dispatcher, Map<Member, Integer> indices) {
+            this.dispatcher = dispatcher;
+            this.indices = indices;
+        }
+    }
+
     /**
      * Class loader making defining new classes possible
      */
@@ -0,0 +1,370 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.codegen.utils;
+
+import com.labymedia.ultralight.databind.utils.BoundJavascriptFunction;
+import com.labymedia.ultralight.databind.utils.FunctionalImplementation;
+import com.labymedia.ultralight.databind.utils.FunctionalImplementationFactory;
+import com.labymedia.ultralight.databind.utils.ProxyFunctionalImplementationFactory;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.SecureClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Implements functional interfaces using generated classes.
+ * <p>
+ * One class is generated per interface and reused for every function bound to it. The generated methods box their
+ * arguments into an array and pass it, together with the invoked method, straight to
+ * {@link BoundJavascriptFunction#call(Method, Object[])}. Default methods are inherited from the interface like in
+ * any other implementation. {@code equals}, {@code hashCode} and {@code toString} identify the implementation by its
+ * bound function, just like the proxies of the {@link ProxyFunctionalImplementationFactory}. Interfaces which can't be implemented by a generated class, for example because they are
+ * not public, are implemented by the fallback factory.
+ */
+public class GeneratedFunctionalImplementationFactory implements FunctionalImplementationFactory {
+
+    private static final String CLASS_NAME_BASE = "GeneratedFunctionalImplementation_%s";
+
+    private static final String FUNCTION_FIELD_NAME = "function";
+
+    private static final String METHODS_FIELD_NAME = "methods";
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_TO_WRAPPER = new HashMap<>();
+
+    static {
+        PRIMITIVE_TO_WRAPPER.put(boolean.class, Boolean.class);
+        PRIMITIVE_TO_WRAPPER.put(byte.class, Byte.class);
+        PRIMITIVE_TO_WRAPPER.put(char.class, Character.class);
+        PRIMITIVE_TO_WRAPPER.put(double.class, Double.class);
+        PRIMITIVE_TO_WRAPPER.put(float.class, Float.class);
+        PRIMITIVE_TO_WRAPPER.put(int.class, Integer.class);
+        PRIMITIVE_TO_WRAPPER.put(long.class, Long.class);
+        PRIMITIVE_TO_WRAPPER.put(short.class, Short.class);
+    }
+
+    private final FunctionalImplementationFactory fallback;
+
+    private final ClassValue<GeneratedImplementation> implementations = new ClassValue<GeneratedImplementation>() {
+        @Override
+        protected GeneratedImplementation computeValue(Class<?> type) {
+            try {
+                return generate(type);
+            } catch (NotFoundException | CannotCompileException | IOException | NoSuchMethodException |
+                    RuntimeException exception) {
+                // Not implementable by a generated class, use the fallback for this interface
+                return new GeneratedImplementation(null, null);
+            }
+        }
+    };
+
+    /**
+     * Constructs a new {@link GeneratedFunctionalImplementationFactory} falling back to proxies.
+     */
+    public GeneratedFunctionalImplementationFactory() {
+        this(new ProxyFunctionalImplementationFactory());
+    }
+
+    /**
+     * Constructs a new {@link GeneratedFunctionalImplementationFactory} using the given fallback.
+     *
+     * @param fallback The factory implementing interfaces which can't be implemented by a generated class
+     */
+    public GeneratedFunctionalImplementationFactory(FunctionalImplementationFactory fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object implement(Class<?> target, BoundJavascriptFunction function) {
+        GeneratedImplementation implementation = this.implementations.get(target);
+        if (implementation.constructor == null) {
+            return this.fallback.implement(target, function);
+        }
+
+        try {
+            return implementation.constructor.newInstance(function, implementation.methods);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException exception) {
+            throw new IllegalStateException("Failed to instantiate implementation of " + target.getName(), exception);
+        }
+    }
+
+    /**
+     * Generates the implementation class of an interface.
+     *
+     * @param target The interface to implement
+     * @return The generated implementation
+     */
+    private GeneratedImplementation generate(Class<?> target) throws NotFoundException, CannotCompileException, IOException, NoSuchMethodException {
+        if (!Modifier.isPublic(target.getModifiers())) {
+            // the generated class lives in its own package
+            return new GeneratedImplementation(null, null);
+        }
+
+        Method[] methods = this.abstractMethods(target);
+
+        ClassLoader parent = target.getClassLoader() != null
+                ? target.getClassLoader()
+                : GeneratedFunctionalImplementationFactory.class.getClassLoader();
+        DefinableClassLoader classLoader = new DefinableClassLoader(parent, this.getClass().getClassLoader());
+
+        // the class pool has to see the interface and the databind classes
+        ClassPool classPool = new ClassPool(true);
+        classPool.appendClassPath(new LoaderClassPath(parent));
+        classPool.appendClassPath(new LoaderClassPath(this.getClass().getClassLoader()));
+
+        CtClass ctClass = classPool.makeClass(
+                String.format(CLASS_NAME_BASE, UUID.randomUUID().toString().replace("-", "")));
+
+        try {
+            ctClass.addInterface(classPool.get(target.getName()));
+            ctClass.addInterface(classPool.get(FunctionalImplementation.class.getName()));
+
+            ctClass.addField(CtField.make(String.format(
+                    "private final %s %s;", BoundJavascriptFunction.class.getName(), FUNCTION_FIELD_NAME), ctClass));
+            ctClass.addField(CtField.make(String.format(
+                    "private final %s[] %s;", Method.class.getName(), METHODS_FIELD_NAME), ctClass));
+
+            ctClass.addConstructor(CtNewConstructor.make(String.format(
+                    "public %s(%s %s, %s[] %s) { this.%s = $1; this.%s = $2; }",
+                    ctClass.getSimpleName(),
+                    BoundJavascriptFunction.class.getName(),
+                    FUNCTION_FIELD_NAME,
+                    Method.class.getName(),
+                    METHODS_FIELD_NAME,
+                    FUNCTION_FIELD_NAME,
+                    METHODS_FIELD_NAME), ctClass));
+
+            ctClass.addMethod(CtNewMethod.make(String.format(
+                    "public %s javascriptFunction() { return this.%s; }",
+                    BoundJavascriptFunction.class.getName(),
+                    FUNCTION_FIELD_NAME), ctClass));
+
+            for (int i = 0; i < methods.length; i++) {
+                ctClass.addMethod(CtNewMethod.make(this.forwardingMethod(methods[i], i), ctClass));
+            }
+
+            // the same identity as the proxies of the fallback, instead of the one inherited from Object
+            ctClass.addMethod(CtNewMethod.make(String.format(
+                    "public boolean equals(Object other) { return this.%s.isImplementedBy(other); }",
+                    FUNCTION_FIELD_NAME), ctClass));
+            ctClass.addMethod(CtNewMethod.make(String.format(
+                    "public int hashCode() { return this.%s.hashCode(); }",
+                    FUNCTION_FIELD_NAME), ctClass));
+            ctClass.addMethod(CtNewMethod.make(String.format(
+                    "public String toString() { return \"Javascript function bound to %s\"; }",
+                    target.getName()), ctClass));
+
+            Class<?> generatedClass = classLoader.defineClass(ctClass.getName(), ctClass.toBytecode());
+            return new GeneratedImplementation(
+                    generatedClass.getConstructor(BoundJavascriptFunction.class, Method[].class), methods);
+        } finally {
+            // the class pool would otherwise keep the compiled class forever
+            ctClass.detach();
+        }
+    }
+
+    /**
+     * Collects the abstract methods of an interface which have to be forwarded to Javascript.
+     *
+     * @param target The interface to collect the methods of
+     * @return The methods to forward, without duplicates and without methods implemented by {@link Object}
+     */
+    private Method[] abstractMethods(Class<?> target) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+
+        for (Method method : target.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers()) || this.isObjectMethod(method)) {
+                continue;
+            }
+
+            // the same method might be inherited from multiple interfaces
+            methods.putIfAbsent(method.getName() + Arrays.toString(method.getParameterTypes()) +
+                    method.getReturnType().getName(), method);
+        }
+
+        List<Method> result = new ArrayList<>(methods.values());
+        return result.toArray(new Method[0]);
+    }
+
+    /**
+     * Determines whether a method is implemented by {@link Object}, such as {@code equals} redeclared by
+     * {@link java.util.Comparator}.
+     *
+     * @param method The method to check
+     * @return {@code true} if the method is implemented by {@link Object}, {@code false} otherwise
+     */
+    private boolean isObjectMethod(Method method) {
+        try {
+            return Modifier.isPublic(Object.class.getMethod(method.getName(), method.getParameterTypes())
+                    .getModifiers());
+        } catch (NoSuchMethodException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Builds a method forwarding to the bound function.
+     *
+     * @param method The interface method to implement
+     * @param index  The index of the method in the methods field
+     * @return The source of the method
+     */
+    private String forwardingMethod(Method method, int index) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Class<?> returnType = method.getReturnType();
+
+        StringBuilder builder = new StringBuilder("public ")
+                .append(this.getTypeName(returnType))
+                .append(" ")
+                .append(method.getName())
+                .append("(");
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+
+            builder.append(this.getTypeName(parameterTypes[i]))
+                    .append(" p")
+                    .append(i);
+        }
+
+        builder.append(") { Object result = this.")
+                .append(FUNCTION_FIELD_NAME)
+                .append(".call(this.")
+                .append(METHODS_FIELD_NAME)
+                .append("[")
+                .append(index)
+                .append("], new Object[]{");
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+
+            Class<?> wrappedType = PRIMITIVE_TO_WRAPPER.get(parameterTypes[i]);
+            if (wrappedType != null) {
+                // the javassist compiler does not box primitives by itself
+                builder.append(wrappedType.getName())
+                        .append(".valueOf(p")
+                        .append(i)
+                        .append(")");
+            } else {
+                builder.append("p").append(i);
+            }
+        }
+
+        builder.append("}); ");
+
+        if (returnType == void.class) {
+            builder.append("return; }");
+        } else if (returnType.isPrimitive()) {
+            // unboxing fails like it would for a proxy if the function did not return a matching value
+            builder.append("return ((")
+                    .append(PRIMITIVE_TO_WRAPPER.get(returnType).getName())
+                    .append(") result).")
+                    .append(returnType.getName())
+                    .append("Value(); }");
+        } else {
+            builder.append("return (")
+                    .append(this.getTypeName(returnType))
+                    .append(") result; }");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Retrieves the source name of a type.
+     *
+     * @param type The type
+     * @return The name of the type as used in source code
+     */
+    private String getTypeName(Class<?> type) {
+        StringBuilder dimensions = new StringBuilder();
+        for (; type.isArray(); type = type.getComponentType()) {
+            dimensions.append("[]");
+        }
+
+        return type.getName() + dimensions;
+    }
+
+    /**
+     * Tuple of a generated constructor and the methods it forwards, both {@code null} if the interface could not be
+     * implemented by a generated class.
+     */
+    private static class GeneratedImplementation {
+        private final Constructor<?> constructor;
+        private final Method[] methods;
+
+        private GeneratedImplementation(Constructor<?> constructor, Method[] methods) {
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+    }
+
+    /**
+     * Class loader making defining new classes possible, seeing the bound interface as well as the databind classes.
+     */
+    private static class DefinableClassLoader extends SecureClassLoader {
+        private final ClassLoader databindClassLoader;
+
+        public DefinableClassLoader(ClassLoader parent, ClassLoader databindClassLoader) {
+            super(parent);
+            this.databindClassLoader = databindClassLoader;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            return this.databindClassLoader.loadClass(name);
+        }
+
+        /**
+         * Defines a new class.
+         *
+         * @param className The name of the class
+         * @param byteCode  The bytecode of the class
+         * @return The new class
+         */
+        public Class<?> defineClass(String className, byte[] byteCode) {
+            return super.defineClass(className, byteCode, 0, byteCode.length);
+        }
+    }
+}
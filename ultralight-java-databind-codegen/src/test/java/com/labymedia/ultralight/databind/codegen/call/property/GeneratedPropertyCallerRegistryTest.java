@@ -0,0 +1,54 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.codegen.call.property;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedPropertyCallerRegistryTest {
+    public static class Target {
+        public int twice(int value) {
+            return value * 2;
+        }
+    }
+
+    @Test
+    void generatesEveryMemberOnce() throws Exception {
+        GeneratedPropertyCallerRegistry registry = new GeneratedPropertyCallerRegistry(CallerGenerationMode.PER_MEMBER);
+        Method twice = Target.class.getMethod("twice", int.class);
+
+        SingleGeneratedPropertyCaller caller = registry.methodCaller(twice);
+        assertSame(caller, registry.methodCaller(twice));
+        assertEquals(1, registry.size());
+        assertEquals(4, caller.callProperty(new Target(), new Object[]{2}));
+    }
+
+    @Test
+    void sharedRegistriesArePerMode() {
+        assertSame(
+                GeneratedPropertyCallerRegistry.shared(CallerGenerationMode.PER_CLASS),
+                GeneratedPropertyCallerRegistry.shared(CallerGenerationMode.PER_CLASS));
+        assertNotSame(
+                GeneratedPropertyCallerRegistry.shared(CallerGenerationMode.PER_CLASS),
+                GeneratedPropertyCallerRegistry.shared(CallerGenerationMode.PER_MEMBER));
+    }
+}
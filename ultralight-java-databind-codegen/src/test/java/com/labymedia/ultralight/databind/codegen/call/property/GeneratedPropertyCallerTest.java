@@ -0,0 +1,69 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.codegen.call.property;
+
+import com.labymedia.ultralight.databind.call.property.PropertyCaller;
+import com.labymedia.ultralight.databind.call.property.ReflectivePropertyCaller;
+import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedPropertyCallerTest {
+    public static class Fields {
+        public final int constant = 1;
+        public int counter = 2;
+    }
+
+    private static PropertyCaller caller(CallerGenerationMode mode) {
+        return new GeneratedPropertyCaller.Factory(new GeneratedPropertyCallerRegistry(mode)).create();
+    }
+
+    @ParameterizedTest
+    @EnumSource(CallerGenerationMode.class)
+    void setsAndGetsMutableFields(CallerGenerationMode mode) throws Exception {
+        PropertyCaller caller = caller(mode);
+        Field counter = Fields.class.getField("counter");
+        Fields instance = new Fields();
+
+        caller.callFieldSet(instance, counter, 5);
+        assertEquals(5, instance.counter);
+        assertEquals(5, caller.callFieldGet(instance, counter));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CallerGenerationMode.class)
+    void rejectsFinalFieldsLikeTheReflectiveCaller(CallerGenerationMode mode) throws Exception {
+        Field constant = Fields.class.getField("constant");
+        Fields instance = new Fields();
+
+        JavascriptInteropException generated = assertThrows(
+                JavascriptInteropException.class, () -> caller(mode).callFieldSet(instance, constant, 5));
+        JavascriptInteropException reflective = assertThrows(
+                JavascriptInteropException.class,
+                () -> new ReflectivePropertyCaller().callFieldSet(instance, constant, 5));
+
+        assertEquals(reflective.getMessage(), generated.getMessage());
+        assertTrue(generated.getCause() instanceof IllegalAccessException);
+        assertEquals(1, caller(mode).callFieldGet(instance, constant));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.codegen.utils;
+
+import com.labymedia.ultralight.databind.Databind;
+import com.labymedia.ultralight.databind.DatabindConfiguration;
+import com.labymedia.ultralight.databind.utils.FunctionalImplementation;
+import com.labymedia.ultralight.databind.utils.FunctionalInterfaceBinder;
+import com.labymedia.ultralight.javascript.TestJavascriptContext;
+import com.labymedia.ultralight.javascript.TestJavascriptObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedFunctionalImplementationFactoryTest {
+    @FunctionalInterface
+    public interface Answer {
+        int answer(int question);
+
+        default int twice(int question) {
+            return answer(question) * 2;
+        }
+    }
+
+    private TestJavascriptContext context;
+    private TestJavascriptObject function;
+    private Databind databind;
+
+    @BeforeEach
+    void setUp() {
+        context = new TestJavascriptContext();
+        function = new TestJavascriptObject(context).function(
+                (thisObject, arguments) -> context.makeNumber(arguments[0].toNumber() + 1));
+        databind = new Databind(DatabindConfiguration.builder()
+                .contextProviderFactory((value) -> (callback) -> callback.accept(context.getLock()))
+                .functionalImplementationFactory(new GeneratedFunctionalImplementationFactory())
+                .build());
+    }
+
+    @Test
+    void forwardsToTheBoundFunction() {
+        Answer answer = (Answer) FunctionalInterfaceBinder.bind(databind, Answer.class, function);
+
+        assertTrue(answer instanceof FunctionalImplementation);
+        assertFalse(Proxy.isProxyClass(answer.getClass()));
+        assertEquals(42, answer.answer(41));
+        assertEquals(84, answer.twice(41));
+    }
+
+    @Test
+    void identifiesImplementationsByTheirFunction() {
+        Object answer = FunctionalInterfaceBinder.bind(databind, Answer.class, function);
+        Object other = FunctionalInterfaceBinder.bind(databind, Answer.class, function);
+
+        assertEquals(answer, answer);
+        assertNotEquals(answer, other);
+        assertEquals(FunctionalInterfaceBinder.function(answer).hashCode(), answer.hashCode());
+        assertTrue(answer.toString().contains(Answer.class.getName()));
+    }
+}
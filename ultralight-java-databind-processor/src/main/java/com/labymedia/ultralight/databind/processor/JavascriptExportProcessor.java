@@ -0,0 +1,409 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Annotation processor generating a {@code JavascriptBinding} for every class annotated with
+ * {@code @JavascriptExport}.
+ * <p>
+ * The generated bindings invoke the public members declared by the annotated classes directly, so databind does
+ * not need reflection or runtime code generation to call them. The processor only emits plain Java sources and
+ * has no dependencies, the generated sources require the databind module on the class path.
+ */
+@SupportedAnnotationTypes(JavascriptExportProcessor.ANNOTATION)
+public final class JavascriptExportProcessor extends AbstractProcessor {
+    static final String ANNOTATION = "com.labymedia.ultralight.databind.api.JavascriptExport";
+
+    private static final String BINDING = "com.labymedia.ultralight.databind.call.property.JavascriptBinding";
+    private static final String SUFFIX = "_JavascriptBinding";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+        if (annotation == null) {
+            // Databind is not on the class path
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (!(element.getKind().isClass() || element.getKind() == ElementKind.INTERFACE)) {
+                error(element, "@JavascriptExport can only be applied to classes and interfaces");
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+            if (!type.getModifiers().contains(Modifier.PUBLIC)) {
+                error(type, "Classes annotated with @JavascriptExport must be public");
+                continue;
+            }
+
+            // The generated binding lives in the same package, but it can't reach members of non public classes
+            TypeElement inaccessible = findNonPublicEnclosingType(type);
+            if (inaccessible != null) {
+                error(type, "Classes annotated with @JavascriptExport must only be nested in public classes, " +
+                        inaccessible.getQualifiedName() + " is not public");
+                continue;
+            }
+
+            try {
+                generate(type);
+            } catch (IOException exception) {
+                error(type, "Failed to write the generated binding: " + exception.getMessage());
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Generates the binding of a class.
+     *
+     * @param type The class to generate the binding for
+     * @throws IOException If writing the generated source fails
+     */
+    private void generate(TypeElement type) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String bindingName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                .replace('$', '_') + SUFFIX;
+        String typeName = sourceName(type.asType());
+
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.PUBLIC)) {
+                methods.add(method);
+            }
+        }
+
+        // Inner classes require an enclosing instance and abstract classes can't be instantiated at all
+        List<ExecutableElement> constructors = new ArrayList<>();
+        if (type.getKind() == ElementKind.CLASS &&
+                !type.getModifiers().contains(Modifier.ABSTRACT) &&
+                (type.getNestingKind() == NestingKind.TOP_LEVEL || type.getModifiers().contains(Modifier.STATIC))) {
+            for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+                if (constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                    constructors.add(constructor);
+                }
+            }
+        }
+
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.PUBLIC)) {
+                fields.add(field);
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        source.append("/**\n")
+                .append(" * Generated binding for {@link ").append(typeName).append("}, do not edit.\n")
+                .append(" */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\", \"deprecation\"})\n")
+                .append("public final class ").append(bindingName)
+                .append(" implements ").append(BINDING).append(" {\n");
+
+        appendTable(source, "METHODS", methods);
+        appendTable(source, "CONSTRUCTORS", constructors);
+
+        source.append("    private static final String[] FIELDS = {");
+        for (int i = 0; i < fields.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append('"').append(fields.get(i).getSimpleName()).append('"');
+        }
+        source.append("};\n\n");
+
+        appendTableGetter(source, "methods", "METHODS");
+        appendTableGetter(source, "constructors", "CONSTRUCTORS");
+        appendTableGetter(source, "fields", "FIELDS");
+
+        // Methods
+        source.append("    @Override\n")
+                .append("    public Object callMethod(String signature, Object instance, Object[] parameters)")
+                .append(" throws Throwable {\n")
+                .append("        switch (signature) {\n");
+
+        for (ExecutableElement method : methods) {
+            String target = method.getModifiers().contains(Modifier.STATIC) ?
+                    typeName : "((" + typeName + ") instance)";
+            String call = target + "." + method.getSimpleName() + "(" + arguments(method) + ")";
+
+            source.append("            case \"").append(signature(method)).append("\":\n");
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                source.append("                ").append(call).append(";\n")
+                        .append("                return null;\n");
+            } else {
+                source.append("                return ").append(call).append(";\n");
+            }
+        }
+
+        appendDefault(source, "method", "signature");
+
+        // Constructors
+        source.append("    @Override\n")
+                .append("    public Object callConstructor(String signature, Object[] parameters) throws Throwable {\n")
+                .append("        switch (signature) {\n");
+
+        for (ExecutableElement constructor : constructors) {
+            source.append("            case \"").append(signature(constructor)).append("\":\n")
+                    .append("                return new ").append(typeName)
+                    .append("(").append(arguments(constructor)).append(");\n");
+        }
+
+        appendDefault(source, "constructor", "signature");
+
+        // Field reads
+        source.append("    @Override\n")
+                .append("    public Object getField(String name, Object instance) {\n")
+                .append("        switch (name) {\n");
+
+        for (VariableElement field : fields) {
+            source.append("            case \"").append(field.getSimpleName()).append("\":\n")
+                    .append("                return ").append(fieldAccess(typeName, field)).append(";\n");
+        }
+
+        appendDefault(source, "field", "name");
+
+        // Field writes
+        source.append("    @Override\n")
+                .append("    public void setField(String name, Object instance, Object value) {\n")
+                .append("        switch (name) {\n");
+
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.FINAL)) {
+                continue;
+            }
+
+            source.append("            case \"").append(field.getSimpleName()).append("\":\n")
+                    .append("                ").append(fieldAccess(typeName, field))
+                    .append(" = (").append(sourceName(field.asType())).append(") value;\n")
+                    .append("                return;\n");
+        }
+
+        source.append("            default:\n")
+                .append("                throw new IllegalArgumentException(\"Unknown or final field \" + name);\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? bindingName : packageName + "." + bindingName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * Appends a constant holding the signatures of a list of executables.
+     *
+     * @param source      The source to append to
+     * @param name        The name of the constant
+     * @param executables The executables to append the signatures of
+     */
+    private void appendTable(StringBuilder source, String name, List<ExecutableElement> executables) {
+        source.append("    private static final String[] ").append(name).append(" = {");
+        for (int i = 0; i < executables.size(); i++) {
+            source.append(i == 0 ? "\n" : ",\n").append("            \"").append(signature(executables.get(i)))
+                    .append('"');
+        }
+
+        source.append(executables.isEmpty() ? "};\n" : "\n    };\n");
+    }
+
+    /**
+     * Appends a method returning a copy of a table constant.
+     *
+     * @param source   The source to append to
+     * @param method   The name of the method
+     * @param constant The name of the constant
+     */
+    private void appendTableGetter(StringBuilder source, String method, String constant) {
+        source.append("    @Override\n")
+                .append("    public String[] ").append(method).append("() {\n")
+                .append("        return ").append(constant).append(".clone();\n")
+                .append("    }\n\n");
+    }
+
+    /**
+     * Appends the default branch of a dispatching switch and closes the method.
+     *
+     * @param source   The source to append to
+     * @param kind     The kind of the members dispatched
+     * @param variable The variable switched on
+     */
+    private void appendDefault(StringBuilder source, String kind, String variable) {
+        source.append("            default:\n")
+                .append("                throw new IllegalArgumentException(\"Unknown ").append(kind).append(" \" + ")
+                .append(variable).append(");\n")
+                .append("        }\n")
+                .append("    }\n\n");
+    }
+
+    /**
+     * Builds the expression accessing a field.
+     *
+     * @param typeName The source name of the class declaring the field
+     * @param field    The field to access
+     * @return The built expression
+     */
+    private String fieldAccess(String typeName, VariableElement field) {
+        String target = field.getModifiers().contains(Modifier.STATIC) ? typeName : "((" + typeName + ") instance)";
+        return target + "." + field.getSimpleName();
+    }
+
+    /**
+     * Builds the argument list passing the parameter array to an executable.
+     *
+     * @param executable The executable to build the arguments for
+     * @return The built argument list
+     */
+    private String arguments(ExecutableElement executable) {
+        StringBuilder arguments = new StringBuilder();
+
+        List<? extends VariableElement> parameters = executable.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i != 0) {
+                arguments.append(", ");
+            }
+
+            // Var args are passed as an already constructed array, primitives are unboxed by the cast
+            arguments.append('(').append(sourceName(parameters.get(i).asType())).append(") parameters[")
+                    .append(i).append(']');
+        }
+
+        return arguments.toString();
+    }
+
+    /**
+     * Builds the signature of an executable, matching {@code PrecompiledPropertyCaller#signatureOf}.
+     *
+     * @param executable The executable to build the signature of
+     * @return The built signature
+     */
+    private String signature(ExecutableElement executable) {
+        StringBuilder signature = new StringBuilder();
+        signature.append(executable.getKind() == ElementKind.CONSTRUCTOR ? "<init>" : executable.getSimpleName());
+        signature.append('(');
+
+        List<? extends VariableElement> parameters = executable.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i != 0) {
+                signature.append(',');
+            }
+
+            signature.append(typeName(parameters.get(i).asType(), true));
+        }
+
+        return signature.append(')').toString();
+    }
+
+    /**
+     * Retrieves the erased name of a type as used in Java sources.
+     *
+     * @param type The type to retrieve the name of
+     * @return The source name of the type
+     */
+    private String sourceName(TypeMirror type) {
+        return typeName(type, false);
+    }
+
+    /**
+     * Retrieves the erased name of a type.
+     *
+     * @param type   The type to retrieve the name of
+     * @param binary If {@code true}, the binary name is used for classes, as returned by
+     *               {@link Class#getTypeName()}, else the canonical name
+     * @return The name of the type
+     */
+    private String typeName(TypeMirror type, boolean binary) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+
+        if (erased.getKind().isPrimitive()) {
+            return erased.getKind().name().toLowerCase(Locale.ROOT);
+        } else if (erased.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) erased).getComponentType(), binary) + "[]";
+        } else if (erased.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+            return binary ?
+                    processingEnv.getElementUtils().getBinaryName(element).toString() :
+                    element.getQualifiedName().toString();
+        }
+
+        return erased.toString();
+    }
+
+    /**
+     * Searches the enclosing types of a class for one which is not public.
+     *
+     * @param type The class to check the enclosing types of
+     * @return The innermost enclosing type which is not public, or {@code null}, if all of them are public
+     */
+    private TypeElement findNonPublicEnclosingType(TypeElement type) {
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing != null && (enclosing.getKind().isClass() || enclosing.getKind().isInterface())) {
+            if (!enclosing.getModifiers().contains(Modifier.PUBLIC)) {
+                return (TypeElement) enclosing;
+            }
+
+            enclosing = enclosing.getEnclosingElement();
+        }
+
+        return null;
+    }
+
+    /**
+     * Reports an error on an element.
+     *
+     * @param element The element the error is located at
+     * @param message The error message
+     */
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
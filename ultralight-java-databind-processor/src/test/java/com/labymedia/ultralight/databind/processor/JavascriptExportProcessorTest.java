@@ -0,0 +1,304 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.processor;
+
+import com.labymedia.ultralight.databind.call.property.JavascriptBinding;
+import com.labymedia.ultralight.databind.call.property.PrecompiledPropertyCaller;
+import com.labymedia.ultralight.databind.call.property.PropertyCaller;
+import com.labymedia.ultralight.databind.call.property.ReflectivePropertyCaller;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavascriptExportProcessorTest {
+    private static final String CALCULATOR = String.join("\n",
+            "package sample;",
+            "",
+            "import com.labymedia.ultralight.databind.api.JavascriptExport;",
+            "",
+            "@JavascriptExport",
+            "public class Calculator {",
+            "    public int value;",
+            "    public final String name = \"calculator\";",
+            "",
+            "    public Calculator() {",
+            "    }",
+            "",
+            "    public Calculator(int value) {",
+            "        this.value = value;",
+            "    }",
+            "",
+            "    public int add(int other) {",
+            "        return value + other;",
+            "    }",
+            "",
+            "    public String add(String other) {",
+            "        return value + other;",
+            "    }",
+            "",
+            "    public int add(int... others) {",
+            "        int sum = value;",
+            "        for (int other : others) {",
+            "            sum += other;",
+            "        }",
+            "        return sum;",
+            "    }",
+            "",
+            "    public static long twice(long value) {",
+            "        return value * 2;",
+            "    }",
+            "",
+            "    public void reset() {",
+            "        value = 0;",
+            "    }",
+            "",
+            "    @JavascriptExport",
+            "    public static class Nested {",
+            "        public String describe(Nested[] others) {",
+            "            return \"nested \" + others.length;",
+            "        }",
+            "    }",
+            "}");
+
+    /**
+     * Property caller failing every call, used to verify that calls are handled by the generated binding.
+     */
+    private static final class FailingPropertyCaller implements PropertyCaller {
+        @Override
+        public Object callMethod(Object instance, Method method, Object[] parameters) {
+            throw new AssertionError("Method " + method + " was not handled by the binding");
+        }
+
+        @Override
+        public Object callConstructor(Constructor<?> constructor, Object[] parameters) {
+            throw new AssertionError("Constructor " + constructor + " was not handled by the binding");
+        }
+
+        @Override
+        public Object callFieldGet(Object instance, Field field) {
+            throw new AssertionError("Field " + field + " was not handled by the binding");
+        }
+
+        @Override
+        public void callFieldSet(Object instance, Field field, Object value) {
+            throw new AssertionError("Field " + field + " was not handled by the binding");
+        }
+    }
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Compiles a source file with the processor enabled.
+     *
+     * @param className The qualified name of the class declared by the source
+     * @param source    The source to compile
+     * @return The errors reported during compilation
+     * @throws IOException If writing the source fails
+     */
+    private List<String> compile(String className, String source) throws IOException {
+        Path sourceFile = directory.resolve("src").resolve(className.replace('.', File.separatorChar) + ".java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+
+        Path output = Files.createDirectories(directory.resolve("classes"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    Arrays.asList(
+                            "-classpath", System.getProperty("java.class.path"),
+                            "-d", output.toString(),
+                            "-s", Files.createDirectories(directory.resolve("generated")).toString()),
+                    null,
+                    fileManager.getJavaFileObjects(sourceFile.toFile()));
+            task.setProcessors(Collections.singletonList(new JavascriptExportProcessor()));
+            task.call();
+        }
+
+        return diagnostics.getDiagnostics().stream()
+                .filter((diagnostic) -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map((diagnostic) -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads the classes compiled by {@link #compile(String, String)}.
+     *
+     * @return The class loader for the compiled classes
+     * @throws IOException If the output directory can't be converted to an URL
+     */
+    private ClassLoader compiledClasses() throws IOException {
+        return new URLClassLoader(
+                new URL[]{directory.resolve("classes").toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    @Test
+    void generatesBindingsForTopLevelAndNestedClasses() throws Exception {
+        assertEquals(Collections.emptyList(), compile("sample.Calculator", CALCULATOR));
+
+        ClassLoader classLoader = compiledClasses();
+        Class<?> calculator = classLoader.loadClass("sample.Calculator");
+        Class<?> nested = classLoader.loadClass("sample.Calculator$Nested");
+
+        assertTrue(JavascriptBinding.class.isAssignableFrom(
+                classLoader.loadClass("sample.Calculator_JavascriptBinding")));
+        assertTrue(PrecompiledPropertyCaller.hasBinding(calculator));
+        assertTrue(PrecompiledPropertyCaller.hasBinding(nested));
+    }
+
+    @Test
+    void bindingTablesMatchReflectiveSignatures() throws Exception {
+        assertEquals(Collections.emptyList(), compile("sample.Calculator", CALCULATOR));
+
+        ClassLoader classLoader = compiledClasses();
+        Class<?> calculator = classLoader.loadClass("sample.Calculator");
+        JavascriptBinding binding = (JavascriptBinding) classLoader.loadClass("sample.Calculator_JavascriptBinding")
+                .getConstructor()
+                .newInstance();
+
+        List<String> methods = new ArrayList<>();
+        for (Method method : calculator.getDeclaredMethods()) {
+            methods.add(PrecompiledPropertyCaller.signatureOf(method));
+        }
+
+        List<String> constructors = new ArrayList<>();
+        for (Constructor<?> constructor : calculator.getDeclaredConstructors()) {
+            constructors.add(PrecompiledPropertyCaller.signatureOf(constructor));
+        }
+
+        assertEquals(methods.stream().sorted().collect(Collectors.toList()),
+                Arrays.stream(binding.methods()).sorted().collect(Collectors.toList()));
+        assertEquals(constructors.stream().sorted().collect(Collectors.toList()),
+                Arrays.stream(binding.constructors()).sorted().collect(Collectors.toList()));
+        assertEquals(Arrays.asList("value", "name"), Arrays.asList(binding.fields()));
+    }
+
+    @Test
+    void dispatchesOverloadsThroughGeneratedSwitch() throws Exception {
+        assertEquals(Collections.emptyList(), compile("sample.Calculator", CALCULATOR));
+
+        ClassLoader classLoader = compiledClasses();
+        Class<?> calculator = classLoader.loadClass("sample.Calculator");
+        PrecompiledPropertyCaller caller = new PrecompiledPropertyCaller(new FailingPropertyCaller());
+
+        Object instance = caller.callConstructor(calculator.getConstructor(int.class), new Object[]{40});
+
+        assertEquals(42, caller.callMethod(instance, calculator.getMethod("add", int.class), new Object[]{2}));
+        assertEquals("40x", caller.callMethod(instance, calculator.getMethod("add", String.class), new Object[]{"x"}));
+        assertEquals(46, caller.callMethod(
+                instance, calculator.getMethod("add", int[].class), new Object[]{new int[]{1, 2, 3}}));
+        assertEquals(8L, caller.callMethod(null, calculator.getMethod("twice", long.class), new Object[]{4L}));
+
+        Field value = calculator.getField("value");
+        caller.callFieldSet(instance, value, 7);
+        assertEquals(7, caller.callFieldGet(instance, value));
+        assertEquals("calculator", caller.callFieldGet(instance, calculator.getField("name")));
+
+        assertNull(caller.callMethod(instance, calculator.getMethod("reset"), new Object[0]));
+        assertEquals(0, caller.callFieldGet(instance, value));
+    }
+
+    @Test
+    void dispatchesNestedClassMembers() throws Exception {
+        assertEquals(Collections.emptyList(), compile("sample.Calculator", CALCULATOR));
+
+        ClassLoader classLoader = compiledClasses();
+        Class<?> nested = classLoader.loadClass("sample.Calculator$Nested");
+        PrecompiledPropertyCaller caller = new PrecompiledPropertyCaller(new FailingPropertyCaller());
+
+        Object instance = caller.callConstructor(nested.getConstructor(), new Object[0]);
+        Object others = Array.newInstance(nested, 2);
+
+        assertEquals("nested 2", caller.callMethod(
+                instance, nested.getMethod("describe", others.getClass()), new Object[]{others}));
+    }
+
+    @Test
+    void membersWithoutBindingUseFallback() throws Exception {
+        assertEquals(Collections.emptyList(), compile("sample.Calculator", CALCULATOR));
+
+        Class<?> calculator = compiledClasses().loadClass("sample.Calculator");
+        PrecompiledPropertyCaller caller = new PrecompiledPropertyCaller(new ReflectivePropertyCaller());
+
+        Object instance = calculator.getConstructor().newInstance();
+        Method hashCode = Object.class.getMethod("hashCode");
+
+        assertEquals(instance.hashCode(), caller.callMethod(instance, hashCode, new Object[0]));
+    }
+
+    @Test
+    void rejectsNonPublicClasses() throws IOException {
+        List<String> errors = compile("sample.Hidden", String.join("\n",
+                "package sample;",
+                "",
+                "@com.labymedia.ultralight.databind.api.JavascriptExport",
+                "class Hidden {",
+                "}"));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("must be public"));
+    }
+
+    @Test
+    void rejectsClassesNestedInNonPublicClasses() throws IOException {
+        List<String> errors = compile("sample.Outer", String.join("\n",
+                "package sample;",
+                "",
+                "public class Outer {",
+                "    static class Hidden {",
+                "        @com.labymedia.ultralight.databind.api.JavascriptExport",
+                "        public static class Exported {",
+                "        }",
+                "    }",
+                "}"));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("sample.Outer.Hidden is not public"));
+    }
+}
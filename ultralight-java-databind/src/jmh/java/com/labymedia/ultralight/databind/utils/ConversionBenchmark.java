@@ -0,0 +1,138 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.utils;
+
+import com.labymedia.ultralight.databind.Databind;
+import com.labymedia.ultralight.databind.DatabindConfiguration;
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptTypedArrayType;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Java side cost of selecting and applying a conversion to Javascript.
+ * <p>
+ * The native value construction is stubbed out, so only the dispatch inside {@link JavascriptConversionUtils} is
+ * measured. Run using {@code ./gradlew :ultralight-java-databind:jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConversionBenchmark {
+    private JavascriptConversionUtils conversionUtils;
+    private JavascriptContext context;
+
+    private Object integer;
+    private Object bool;
+    private Object string;
+    private double[] series;
+    private Double[] boxedSeries;
+
+    @Setup
+    public void setup() {
+        conversionUtils = new Databind(DatabindConfiguration.builder().build()).getConversionUtils();
+        context = new StubContext();
+
+        integer = 42;
+        bool = true;
+        string = "value";
+
+        series = new double[100_000];
+        Arrays.setAll(series, i -> i * 0.5);
+        boxedSeries = Arrays.stream(series).boxed().toArray(Double[]::new);
+    }
+
+    @Benchmark
+    public JavascriptValue intToJavascript() {
+        return conversionUtils.toJavascript(context, integer, int.class);
+    }
+
+    @Benchmark
+    public JavascriptValue integerToJavascript() {
+        return conversionUtils.toJavascript(context, integer);
+    }
+
+    @Benchmark
+    public JavascriptValue booleanToJavascript() {
+        return conversionUtils.toJavascript(context, bool);
+    }
+
+    @Benchmark
+    public JavascriptValue stringToJavascript() {
+        return conversionUtils.toJavascript(context, string);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public JavascriptValue seriesToJavascript() {
+        return conversionUtils.toJavascript(context, series);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public JavascriptValue boxedSeriesToJavascript() {
+        return conversionUtils.toJavascript(context, boxedSeries);
+    }
+
+    /**
+     * Context which does not create any native values.
+     */
+    private static class StubContext extends JavascriptContext {
+        private StubContext() {
+            super(0, null);
+        }
+
+        @Override
+        public JavascriptValue makeBoolean(boolean value) {
+            return null;
+        }
+
+        @Override
+        public JavascriptValue makeNumber(double value) {
+            return null;
+        }
+
+        @Override
+        public JavascriptValue makeString(String value) {
+            return null;
+        }
+
+        @Override
+        public JavascriptObject makeArray(JavascriptValue... arguments) {
+            return null;
+        }
+
+        @Override
+        public JavascriptObject makeTypedArray(JavascriptTypedArrayType type, ByteBuffer buffer) {
+            return null;
+        }
+    }
+}
@@ -20,9 +20,28 @@
 package com.labymedia.ultralight.databind;
 
 import com.labymedia.ultralight.databind.cache.JavascriptClassCache;
+import com.labymedia.ultralight.databind.call.property.PrecompiledPropertyCaller;
+import com.labymedia.ultralight.databind.call.property.PropertyCaller;
 import com.labymedia.ultralight.databind.context.ContextProviderFactory;
 import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
 import com.labymedia.ultralight.javascript.JavascriptClass;
+import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Representation of Databind instances.
@@ -34,6 +53,9 @@ public final class Databind {
 
     private final JavascriptConversionUtils conversionUtils;
 
+    private final ClassValue<AtomicReference<PropertyCaller>> preparedCallers;
+    private final Map<Class<?>, JavascriptClass> collectionClasses;
+
     /**
      * Constructs a new {@link Databind} instance using the given configuration.
      *
@@ -43,7 +65,19 @@ public final class Databind {
         this.configuration = configuration;
         this.classCache = configuration.classCache();
         this.contextProviderFactory = configuration.contextProviderFactory();
-        this.conversionUtils = new JavascriptConversionUtils(this);
+        this.conversionUtils = new JavascriptConversionUtils(
+                this,
+                configuration.converterRegistry(),
+                configuration.wrapperCache(),
+                configuration.marshalValueObjects(),
+                configuration.typedArrays());
+        this.preparedCallers = new ClassValue<AtomicReference<PropertyCaller>>() {
+            @Override
+            protected AtomicReference<PropertyCaller> computeValue(Class<?> type) {
+                return new AtomicReference<>();
+            }
+        };
+        this.collectionClasses = new ConcurrentHashMap<>();
     }
 
     /**
@@ -65,7 +99,7 @@ public final class Databind {
      * @return The converted Javascript class
      */
     public JavascriptClass toJavascript(Class<?> javaClass, boolean ignoreAutomaticPrototypeSetting) {
-        JavascriptClass javascriptClass = classCache.get(javaClass.getName());
+        JavascriptClass javascriptClass = classCache.get(javaClass);
 
         if (javascriptClass == null) {
             if (!ignoreAutomaticPrototypeSetting && configuration.automaticPrototype()) {
@@ -73,14 +107,198 @@ public final class Databind {
             }
 
             javascriptClass = classCache.put(
-                    javaClass.getName(),
-                    DatabindJavascriptClass.create(configuration, conversionUtils, javaClass, classCache)
+                    javaClass,
+                    DatabindJavascriptClass.create(
+                            configuration, conversionUtils, javaClass, classCache, this::propertyCaller)
                             .bake());
         }
 
         return javascriptClass;
     }
 
+    /**
+     * Retrieves the live view class for a Java collection class.
+     *
+     * @param javaClass The Java class of the collection
+     * @return The view class, or {@code null}, if the class is not a list, set or map, or the configuration does
+     * not use collection views
+     * @see DatabindJavascriptCollection
+     */
+    public JavascriptClass toJavascriptCollection(Class<?> javaClass) {
+        if (!configuration.collectionViews() || !DatabindJavascriptCollection.isCollection(javaClass)) {
+            return null;
+        }
+
+        JavascriptClass javascriptClass = collectionClasses.get(javaClass);
+        if (javascriptClass == null) {
+            javascriptClass = DatabindJavascriptCollection.create(
+                    conversionUtils, javaClass, toJavascript(javaClass)).bake();
+
+            JavascriptClass existing = collectionClasses.putIfAbsent(javaClass, javascriptClass);
+            if (existing != null) {
+                javascriptClass = existing;
+            }
+        }
+
+        return javascriptClass;
+    }
+
+    /**
+     * Preloads Java classes on the common fork join pool.
+     *
+     * @param classes The classes to preload
+     * @return A future completed with the result once all classes have been prepared
+     * @see #preload(Collection, Executor)
+     */
+    public CompletableFuture<DatabindPreload> preload(Collection<Class<?>> classes) {
+        return preload(classes, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Preloads Java classes in parallel, so binding them later does not stall the Ultralight thread.
+     * <p>
+     * Reflection, member indexing and the preparation of the property callers for the classes and their
+     * superclasses are done on the given executor. Only creating the native classes is left, which happens
+     * when the classes are first converted or when {@link DatabindPreload#bake()} is called. Callers prepared for
+     * classes which are never bound are kept until {@link DatabindPreload#bake()} is called or this instance is
+     * garbage collected.
+     *
+     * @param classes  The classes to preload
+     * @param executor The executor to prepare the classes on
+     * @return A future completed with the result once all classes have been prepared
+     */
+    public CompletableFuture<DatabindPreload> preload(Collection<Class<?>> classes, Executor executor) {
+        // Superclasses are bound as the parents of their subclasses, so they need to be prepared as well
+        Set<Class<?>> toPrepare = new LinkedHashSet<>();
+        for (Class<?> javaClass : classes) {
+            for (Class<?> current = javaClass; current != null; current = current.getSuperclass()) {
+                if (classCache.contains(current)) {
+                    // Already bound, and so are all of its parents
+                    break;
+                }
+
+                toPrepare.add(current);
+            }
+        }
+
+        Map<Class<?>, Long> timings = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(toPrepare.size());
+
+        for (Class<?> javaClass : toPrepare) {
+            futures.add(CompletableFuture.runAsync(() -> timings.put(javaClass, prepare(javaClass)), executor));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply((ignored) -> new DatabindPreload(this, new ArrayList<>(classes), timings));
+    }
+
+    /**
+     * Indexes the members of a class and prepares a property caller for them.
+     *
+     * @param javaClass The class to prepare
+     * @return The time in nanoseconds spent preparing the class
+     */
+    private long prepare(Class<?> javaClass) {
+        long start = System.nanoTime();
+        if (classCache.contains(javaClass)) {
+            // Bound since the preload has been requested, the caller would never be taken
+            return System.nanoTime() - start;
+        }
+
+        DatabindMemberIndex members = DatabindMemberIndex.of(javaClass);
+        members.prewarm();
+
+        PropertyCaller propertyCaller = createPropertyCaller(javaClass);
+        for (Constructor<?> constructor : members.constructors()) {
+            prepare(propertyCaller, constructor);
+        }
+
+        for (String name : members.methodNames()) {
+            for (Method method : members.methods(name)) {
+                prepare(propertyCaller, method);
+            }
+        }
+
+        for (Field field : members.fields()) {
+            prepare(propertyCaller, field);
+        }
+
+        AtomicReference<PropertyCaller> prepared = preparedCallers.get(javaClass);
+        if (prepared.compareAndSet(null, propertyCaller) && classCache.contains(javaClass)) {
+            // The class has been bound while it was being prepared, drop the caller again
+            prepared.compareAndSet(propertyCaller, null);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Prepares a single member, ignoring failures.
+     *
+     * @param propertyCaller The property caller to prepare the member on
+     * @param member         The member to prepare
+     */
+    private void prepare(PropertyCaller propertyCaller, Member member) {
+        try {
+            propertyCaller.prepare(member);
+        } catch (JavascriptInteropException ignored) {
+            // The failure will be reported once the member is actually used
+        }
+    }
+
+    /**
+     * Retrieves the property caller for a class about to be bound.
+     *
+     * @param javaClass The class being bound
+     * @return The property caller prepared by {@link #preload(Collection, Executor)}, or a new one, if the class
+     * has not been preloaded
+     */
+    PropertyCaller propertyCaller(Class<?> javaClass) {
+        PropertyCaller propertyCaller = preparedCallers.get(javaClass).getAndSet(null);
+        return propertyCaller != null ? propertyCaller : createPropertyCaller(javaClass);
+    }
+
+    /**
+     * Drops the property callers prepared for classes which have not been bound.
+     *
+     * @param classes The classes to drop the prepared callers of
+     */
+    void discardPrepared(Collection<Class<?>> classes) {
+        for (Class<?> javaClass : classes) {
+            preparedCallers.get(javaClass).set(null);
+        }
+    }
+
+    /**
+     * Creates a new property caller for a class.
+     * <p>
+     * The configured caller is only wrapped in a {@link PrecompiledPropertyCaller} if the class or one of its
+     * superclasses has a compile time generated binding, all other classes use the configured caller directly.
+     *
+     * @param javaClass The class to create the caller for
+     * @return The created property caller
+     */
+    private PropertyCaller createPropertyCaller(Class<?> javaClass) {
+        PropertyCaller propertyCaller = configuration.propertyCallerFactory().create();
+
+        for (Class<?> current = javaClass; current != null; current = current.getSuperclass()) {
+            if (PrecompiledPropertyCaller.hasBinding(current)) {
+                return new PrecompiledPropertyCaller(propertyCaller);
+            }
+        }
+
+        return propertyCaller;
+    }
+
+    /**
+     * Retrieves the configuration used by this instance.
+     *
+     * @return The configuration
+     */
+    public DatabindConfiguration getConfiguration() {
+        return configuration;
+    }
+
     /**
      * Retrieves the conversion utilities which can  be used to convert single objects.
      *
@@ -0,0 +1,259 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.databind.api.FireAndForget;
+import com.labymedia.ultralight.databind.context.ContextProvider;
+import com.labymedia.ultralight.databind.context.ContextProviderFactory;
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptContextLock;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptPropertyAttributes;
+import com.labymedia.ultralight.javascript.JavascriptProtectedValue;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Queue of calls to methods annotated with {@link FireAndForget}.
+ * <p>
+ * The queue itself lives inside of Javascript, one per context. Calling a queued method appends the call target, the
+ * argument count and the arguments to the queue without calling into Java. Dispatching reads each queue with a single
+ * native call and invokes the queued calls in order.
+ * <p>
+ * The queue is only reachable through the closures of the queued functions, so scripts of the page can not append
+ * arbitrary entries. The global object of every context is tagged with a hidden, read only property to detect
+ * contexts which have been replaced.
+ * <p>
+ * The queue is a {@link Runnable} running {@link #dispatch()}, so it can be added as an update hook of the renderer
+ * using {@link com.labymedia.ultralight.UltralightRenderer#addUpdateHook(Runnable)} to dispatch once per frame.
+ * Queued calls have no caller to return to, so their failures are passed to a failure handler instead of being thrown.
+ */
+public final class DatabindCallQueue implements Runnable {
+    private static final String TAG_PROPERTY = "__ultralightJavaCallQueue";
+    static final String QUEUE_FACTORY_BODY =
+            "var queue = [];" +
+            "return {" +
+            "stub: function (target) {" +
+            "return function () {" +
+            "queue[queue.length] = target;" +
+            "queue[queue.length] = arguments.length;" +
+            "for (var i = 0; i < arguments.length; i++) {" +
+            "queue[queue.length] = arguments[i];" +
+            "}" +
+            "};" +
+            "}," +
+            "drain: function () {" +
+            "var drained = queue;" +
+            "queue = [];" +
+            "return drained;" +
+            "}" +
+            "};";
+
+    private final Consumer<Throwable> failureHandler;
+    private final Map<Long, ContextQueue> queues;
+    private final AtomicLong nextTag;
+
+    /**
+     * Constructs a new, empty {@link DatabindCallQueue} reporting failures to the uncaught exception handler of the
+     * dispatching thread.
+     */
+    public DatabindCallQueue() {
+        this(DatabindCallQueue::reportUncaught);
+    }
+
+    /**
+     * Constructs a new, empty {@link DatabindCallQueue} reporting failures to the given handler.
+     *
+     * @param failureHandler The handler receiving the failures of queued calls, called on the dispatching thread
+     */
+    public DatabindCallQueue(Consumer<Throwable> failureHandler) {
+        this.failureHandler = failureHandler;
+        this.queues = new ConcurrentHashMap<>();
+        this.nextTag = new AtomicLong(1);
+    }
+
+    /**
+     * Creates a Javascript function queueing calls to the given target.
+     *
+     * @param context                The context to create the function in
+     * @param contextProviderFactory The factory for binding a context provider to the queue of the context
+     * @param target                 The function object to invoke when the queue is dispatched
+     * @return The created function
+     */
+    JavascriptObject makeQueuedFunction(
+            JavascriptContext context, ContextProviderFactory contextProviderFactory, JavascriptObject target) {
+        JavascriptObject globalObject = context.getGlobalObject();
+        long handle = globalObject.getHandle();
+
+        ContextQueue existing = queues.get(handle);
+        if (existing != null && !existing.isTagged(globalObject)) {
+            // The handle is used by a new context, the queue belongs to the one which has been replaced
+            if (queues.remove(handle, existing)) {
+                existing.value.revive(context.getLock());
+            }
+        }
+
+        ContextQueue queue = queues.computeIfAbsent(handle, (key) -> {
+            // First queued function of this context, set up the queue and the functions accessing it
+            JavascriptObject functions = context.makeFunction(null, null, QUEUE_FACTORY_BODY, null, 1)
+                    .callAsFunction(null)
+                    .toObject();
+
+            ContextQueue created = new ContextQueue(
+                    contextProviderFactory.bindProvider(functions), functions.protect(), nextTag.getAndIncrement());
+            globalObject.setProperty(
+                    TAG_PROPERTY,
+                    context.makeNumber(created.tag),
+                    JavascriptPropertyAttributes.DONT_ENUM | JavascriptPropertyAttributes.READ_ONLY |
+                            JavascriptPropertyAttributes.DONT_DELETE);
+            return created;
+        });
+
+        // Reviving consumes the protection, so protect the functions again for the next use
+        JavascriptObject functions = queue.value.revive(context.getLock()).toObject();
+        queue.value = functions.protect();
+
+        return functions.getProperty("stub").toObject().callAsFunction(null, target).toObject();
+    }
+
+    /**
+     * Dispatches the calls queued in all contexts.
+     * <p>
+     * All queued calls are invoked, even if some of them fail. Failures are passed to the failure handler and never
+     * thrown. Malformed entries are skipped. Queues of contexts which have been replaced, for example because the page
+     * has been reloaded, are discarded.
+     */
+    public void dispatch() {
+        for (ContextQueue queue : queues.values()) {
+            try {
+                queue.contextProvider.syncWithJavascript((lock) -> dispatch(queue, lock));
+            } catch (RuntimeException e) {
+                failureHandler.accept(e);
+            }
+        }
+    }
+
+    /**
+     * Dispatches the calls queued in a single context.
+     *
+     * @param queue The queue to dispatch
+     * @param lock  The lock of the context the queue belongs to
+     */
+    private void dispatch(ContextQueue queue, JavascriptContextLock lock) {
+        JavascriptContext context = lock.getContext();
+
+        // Revive the queue, this will effectively invalidate the protected value
+        JavascriptObject functions = queue.value.revive(lock).toObject();
+        if (!queue.isTagged(context.getGlobalObject())) {
+            // The context has been replaced, drop the queue
+            queues.values().remove(queue);
+            return;
+        }
+
+        // Protect the value again
+        queue.value = functions.protect();
+
+        JavascriptValue[] elements =
+                functions.getProperty("drain").toObject().callAsFunction(null).toObject().getElements();
+
+        int index = 0;
+        while (index + 1 < elements.length) {
+            JavascriptValue target = elements[index++];
+            JavascriptValue count = elements[index++];
+
+            double argumentCount = count.isNumber() ? count.toNumber() : -1;
+            if (argumentCount < 0 || argumentCount > elements.length - index || argumentCount % 1 != 0) {
+                // The start of the next entry is unknown, skip the rest of the queue
+                break;
+            }
+
+            JavascriptValue[] arguments = Arrays.copyOfRange(elements, index, index + (int) argumentCount);
+            index += (int) argumentCount;
+
+            Object data = target.isObject() ? target.toObject().getPrivate() : null;
+            if (!(data instanceof DatabindJavascriptMethodHandler.QueuedData)) {
+                // Not a queued call target, skip the entry
+                continue;
+            }
+
+            DatabindJavascriptMethodHandler.QueuedData queuedData = (DatabindJavascriptMethodHandler.QueuedData) data;
+            try {
+                queuedData.handler().dispatch(context, queuedData, arguments);
+            } catch (JavascriptInteropException | RuntimeException e) {
+                failureHandler.accept(new RuntimeException("Exception thrown while invoking queued Java method", e));
+            }
+        }
+    }
+
+    /**
+     * Reports a failure to the uncaught exception handler of the current thread.
+     *
+     * @param failure The failure to report
+     */
+    static void reportUncaught(Throwable failure) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+    }
+
+    @Override
+    public void run() {
+        dispatch();
+    }
+
+    /**
+     * Tuple of a context provider, the protected functions accessing the queue of the context and the tag of the
+     * global object.
+     */
+    private static class ContextQueue {
+        private final ContextProvider contextProvider;
+        private final long tag;
+        private volatile JavascriptProtectedValue value;
+
+        /**
+         * Constructs a new {@link ContextQueue} for a queue and its corresponding context provider.
+         *
+         * @param contextProvider The context provider to use for the queue
+         * @param value           The protected functions accessing the queue
+         * @param tag             The unique tag the global object of the context is marked with
+         */
+        private ContextQueue(ContextProvider contextProvider, JavascriptProtectedValue value, long tag) {
+            this.contextProvider = contextProvider;
+            this.value = value;
+            this.tag = tag;
+        }
+
+        /**
+         * Determines whether a global object is the one this queue has been created for.
+         *
+         * @param globalObject The global object to check
+         * @return {@code true} if the global object is tagged for this queue, {@code false} otherwise
+         */
+        private boolean isTagged(JavascriptObject globalObject) {
+            JavascriptValue property = globalObject.getProperty(TAG_PROPERTY);
+            return property.isNumber() && property.toNumber() == tag;
+        }
+    }
+}
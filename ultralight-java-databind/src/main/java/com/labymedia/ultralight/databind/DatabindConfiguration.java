@@ -19,13 +19,23 @@
 
 package com.labymedia.ultralight.databind;
 
+import com.labymedia.ultralight.databind.api.Async;
+import com.labymedia.ultralight.databind.api.FireAndForget;
+import com.labymedia.ultralight.databind.cache.ConcurrentJavascriptClassCache;
 import com.labymedia.ultralight.databind.cache.JavascriptClassCache;
-import com.labymedia.ultralight.databind.cache.NaiveJavascriptClassCache;
+import com.labymedia.ultralight.databind.cache.JavascriptWrapperCache;
 import com.labymedia.ultralight.databind.call.HeuristicMethodChooser;
 import com.labymedia.ultralight.databind.call.MethodChooser;
 import com.labymedia.ultralight.databind.call.property.PropertyCaller;
 import com.labymedia.ultralight.databind.call.property.ReflectivePropertyCaller;
 import com.labymedia.ultralight.databind.context.ContextProviderFactory;
+import com.labymedia.ultralight.databind.conversion.ConverterRegistry;
+import com.labymedia.ultralight.databind.utils.FunctionalImplementationFactory;
+import com.labymedia.ultralight.databind.utils.ProxyFunctionalImplementationFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * Databind configuration.
@@ -36,31 +46,93 @@ public final class DatabindConfiguration {
     private final PropertyCaller.Factory propertyCallerFactory;
     private final boolean automaticPrototype;
     private final ContextProviderFactory contextProviderFactory;
+    private final ConverterRegistry converterRegistry;
+    private final JavascriptWrapperCache wrapperCache;
+    private final boolean staticMethods;
+    private final boolean staticFields;
+    private final boolean marshalValueObjects;
+    private final boolean typedArrays;
+    private final boolean collectionViews;
+    private final Executor asyncExecutor;
+    private final DatabindCallQueue callQueue;
+    private final boolean queueFunctionalCalls;
+    private final int functionalCallQueueCapacity;
+    private final Consumer<Throwable> functionalCallFailureHandler;
+    private final FunctionalImplementationFactory functionalImplementationFactory;
 
     /**
      * Constructs a new {@link DatabindConfiguration}.
      * Use the {@link Builder} for creating instances outside of this class
      *
-     * @param classCache             The class cache used by this configuration
-     * @param methodChooser          The method chooser used by this configuration
-     * @param propertyCallerFactory  The factory creating the property caller used for calling properties on
-     *                               java objects and classes
-     * @param automaticPrototype     If {@code true}, automatic prototyping is enabled
-     * @param contextProviderFactory The factory for binding context providers, or {@code null}, if this feature
-     *                               is not required
+     * @param classCache                      The class cache used by this configuration
+     * @param methodChooser                   The method chooser used by this configuration
+     * @param propertyCallerFactory           The factory creating the property caller used for calling properties on
+     *                                        java objects and classes
+     * @param automaticPrototype              If {@code true}, automatic prototyping is enabled
+     * @param contextProviderFactory          The factory for binding context providers, or {@code null}, if this
+     *                                        feature is not required
+     * @param converterRegistry               The registry of custom converters
+     * @param wrapperCache                    The cache for identity stable wrappers of Java objects, or {@code null},
+     *                                        if every conversion should create a new wrapper
+     * @param staticMethods                   If {@code true}, methods are installed as static functions of the
+     *                                        Javascript classes instead of being resolved dynamically
+     * @param staticFields                    If {@code true}, fields are installed as static values of the Javascript
+     *                                        classes instead of being resolved dynamically
+     * @param marshalValueObjects             If {@code true}, records, maps and collections are copied to plain
+     *                                        Javascript objects instead of being wrapped
+     * @param typedArrays                     If {@code true}, primitive arrays and buffers are transferred as
+     *                                        Javascript typed arrays instead of plain arrays and wrappers
+     * @param collectionViews                 If {@code true}, lists, sets and maps are exposed through live, array and
+     *                                        object like views
+     * @param asyncExecutor                   The executor invoking methods annotated with {@link Async}
+     * @param callQueue                       The queue for calls to methods annotated with {@link FireAndForget}, or
+     *                                        {@code null}, if these methods should be invoked immediately
+     * @param queueFunctionalCalls            If {@code true}, calls of Java to Javascript functions bound to functional
+     *                                        interfaces are queued and dispatched in batches
+     * @param functionalCallQueueCapacity     The maximum amount of queued calls per bound function
+     * @param functionalCallFailureHandler    The handler receiving the failures of queued calls which return
+     *                                        {@code void}
+     * @param functionalImplementationFactory The factory implementing functional interfaces bound to Javascript
+     *                                        functions
      */
     private DatabindConfiguration(
             JavascriptClassCache classCache,
             MethodChooser methodChooser,
             PropertyCaller.Factory propertyCallerFactory,
             boolean automaticPrototype,
-            ContextProviderFactory contextProviderFactory
+            ContextProviderFactory contextProviderFactory,
+            ConverterRegistry converterRegistry,
+            JavascriptWrapperCache wrapperCache,
+            boolean staticMethods,
+            boolean staticFields,
+            boolean marshalValueObjects,
+            boolean typedArrays,
+            boolean collectionViews,
+            Executor asyncExecutor,
+            DatabindCallQueue callQueue,
+            boolean queueFunctionalCalls,
+            int functionalCallQueueCapacity,
+            Consumer<Throwable> functionalCallFailureHandler,
+            FunctionalImplementationFactory functionalImplementationFactory
     ) {
         this.classCache = classCache;
         this.methodChooser = methodChooser;
         this.propertyCallerFactory = propertyCallerFactory;
         this.automaticPrototype = automaticPrototype;
         this.contextProviderFactory = contextProviderFactory;
+        this.converterRegistry = converterRegistry;
+        this.wrapperCache = wrapperCache;
+        this.staticMethods = staticMethods;
+        this.staticFields = staticFields;
+        this.marshalValueObjects = marshalValueObjects;
+        this.typedArrays = typedArrays;
+        this.collectionViews = collectionViews;
+        this.asyncExecutor = asyncExecutor;
+        this.callQueue = callQueue;
+        this.queueFunctionalCalls = queueFunctionalCalls;
+        this.functionalCallQueueCapacity = functionalCallQueueCapacity;
+        this.functionalCallFailureHandler = functionalCallFailureHandler;
+        this.functionalImplementationFactory = functionalImplementationFactory;
     }
 
     /**
@@ -108,6 +180,125 @@ public final class DatabindConfiguration {
         return contextProviderFactory;
     }
 
+    /**
+     * Retrieves the registry of custom converters of this configuration.
+     *
+     * @return The registry of custom converters
+     */
+    public ConverterRegistry converterRegistry() {
+        return converterRegistry;
+    }
+
+    /**
+     * Retrieves the cache for identity stable wrappers of Java objects of this configuration.
+     *
+     * @return The wrapper cache, or {@code null}, if every conversion creates a new wrapper
+     */
+    public JavascriptWrapperCache wrapperCache() {
+        return wrapperCache;
+    }
+
+    /**
+     * Determines if this configuration installs methods as static functions of the Javascript classes.
+     *
+     * @return {@code true} if methods are static functions, {@code false} if they are resolved dynamically
+     */
+    public boolean staticMethods() {
+        return staticMethods;
+    }
+
+    /**
+     * Determines if this configuration installs fields as static values of the Javascript classes.
+     *
+     * @return {@code true} if fields are static values, {@code false} if they are resolved dynamically
+     */
+    public boolean staticFields() {
+        return staticFields;
+    }
+
+    /**
+     * Determines if this configuration copies records, maps and collections to plain Javascript objects.
+     *
+     * @return {@code true} if value objects are copied, {@code false} if they are wrapped
+     */
+    public boolean marshalValueObjects() {
+        return marshalValueObjects;
+    }
+
+    /**
+     * Determines if this configuration transfers primitive arrays and buffers as Javascript typed arrays.
+     *
+     * @return {@code true} if typed arrays are used, {@code false} if primitive arrays are converted to plain arrays
+     */
+    public boolean typedArrays() {
+        return typedArrays;
+    }
+
+    /**
+     * Determines if this configuration exposes lists, sets and maps through live collection views.
+     *
+     * @return {@code true} if collection views are used, {@code false} if collections are wrapped like other objects
+     */
+    public boolean collectionViews() {
+        return collectionViews;
+    }
+
+    /**
+     * Retrieves the executor invoking methods annotated with {@link Async} of this configuration.
+     *
+     * @return The executor for asynchronous methods
+     */
+    public Executor asyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Retrieves the queue for calls to methods annotated with {@link FireAndForget} of this configuration.
+     *
+     * @return The call queue, or {@code null}, if these methods are invoked immediately
+     */
+    public DatabindCallQueue callQueue() {
+        return callQueue;
+    }
+
+    /**
+     * Determines if this configuration queues calls to Javascript functions bound to functional interfaces.
+     *
+     * @return {@code true} if calls are queued and dispatched in batches, {@code false} if every call is dispatched
+     * on its own
+     */
+    public boolean queueFunctionalCalls() {
+        return queueFunctionalCalls;
+    }
+
+    /**
+     * Retrieves the maximum amount of queued calls per Javascript function bound to a functional interface.
+     *
+     * @return The capacity of the call queue of each bound function
+     */
+    public int functionalCallQueueCapacity() {
+        return functionalCallQueueCapacity;
+    }
+
+    /**
+     * Retrieves the handler receiving the failures of queued calls to Javascript functions bound to functional
+     * interfaces, which return {@code void} and therefore have no caller to report to.
+     *
+     * @return The failure handler of queued functional calls
+     */
+    public Consumer<Throwable> functionalCallFailureHandler() {
+        return functionalCallFailureHandler;
+    }
+
+    /**
+     * Retrieves the factory implementing functional interfaces bound to Javascript functions of this configuration.
+     *
+     * @return The functional implementation factory
+     */
+    public FunctionalImplementationFactory functionalImplementationFactory() {
+        return functionalImplementationFactory;
+    }
+
     /**
      * Creates a new {@link DatabindConfiguration} builder.
      *
@@ -126,16 +317,34 @@ public final class DatabindConfiguration {
         private PropertyCaller.Factory propertyCallerFactory;
         private boolean automaticPrototype;
         private ContextProviderFactory contextProviderFactory;
+        private ConverterRegistry converterRegistry;
+        private JavascriptWrapperCache wrapperCache;
+        private boolean staticMethods;
+        private boolean staticFields;
+        private boolean marshalValueObjects;
+        private boolean typedArrays;
+        private boolean collectionViews;
+        private Executor asyncExecutor;
+        private DatabindCallQueue callQueue;
+        private boolean queueFunctionalCalls;
+        private int functionalCallQueueCapacity;
+        private Consumer<Throwable> functionalCallFailureHandler;
+        private FunctionalImplementationFactory functionalImplementationFactory;
 
         /**
          * Constructs a new {@link Builder} with a default configuration.
          * Use {@link DatabindConfiguration#builder()} to create instances outside of this class.
          */
         private Builder() {
-            this.classCache = new NaiveJavascriptClassCache();
+            this.classCache = new ConcurrentJavascriptClassCache();
             this.methodChooser = new HeuristicMethodChooser();
             this.propertyCallerFactory = new ReflectivePropertyCaller.Factory();
             this.automaticPrototype = true;
+            this.converterRegistry = ConverterRegistry.empty();
+            this.asyncExecutor = ForkJoinPool.commonPool();
+            this.functionalCallQueueCapacity = 1024;
+            this.functionalCallFailureHandler = DatabindCallQueue::reportUncaught;
+            this.functionalImplementationFactory = new ProxyFunctionalImplementationFactory();
         }
 
         /**
@@ -194,6 +403,218 @@ public final class DatabindConfiguration {
             return this;
         }
 
+        /**
+         * Sets the registry of custom converters to be used by the configuration being built.
+         *
+         * @param converterRegistry The registry of custom converters, which take precedence over the built-in
+         *                          conversions
+         * @return this
+         */
+        public Builder converterRegistry(ConverterRegistry converterRegistry) {
+            this.converterRegistry = converterRegistry;
+            return this;
+        }
+
+        /**
+         * Sets the cache for identity stable wrappers of Java objects to be used by the configuration being built.
+         * <p>
+         * With a wrapper cache, converting the same Java object multiple times yields the same Javascript object.
+         *
+         * @param wrapperCache The wrapper cache, or {@code null}, if every conversion should create a new wrapper
+         * @return this
+         */
+        public Builder wrapperCache(JavascriptWrapperCache wrapperCache) {
+            this.wrapperCache = wrapperCache;
+            return this;
+        }
+
+        /**
+         * Configures whether the configuration being built installs methods as static functions of the Javascript
+         * classes.
+         * <p>
+         * Static functions are resolved by Javascript without calling into Java and don't allocate a new function
+         * object per property access. The instance a method is invoked on is taken from the {@code this} value of
+         * the call, which means that detached calls such as {@code const f = obj.method; f();} fail, and the
+         * {@code signature} API for explicitly selecting an overload is not available.
+         *
+         * @param staticMethods If {@code true}, methods will be installed as static functions
+         * @return this
+         */
+        public Builder staticMethods(boolean staticMethods) {
+            this.staticMethods = staticMethods;
+            return this;
+        }
+
+        /**
+         * Configures whether the configuration being built installs fields as static values of the Javascript
+         * classes.
+         * <p>
+         * Static values are resolved by Javascript without probing Java first, only reading and writing the value
+         * calls into Java. If {@link #staticMethods(boolean)} is enabled as well, the classes don't register any
+         * dynamic property callbacks at all.
+         *
+         * @param staticFields If {@code true}, fields will be installed as static values
+         * @return this
+         */
+        public Builder staticFields(boolean staticFields) {
+            this.staticFields = staticFields;
+            return this;
+        }
+
+        /**
+         * Configures whether the configuration being built copies records, maps and collections to plain Javascript
+         * objects.
+         * <p>
+         * Copied objects are created from JSON in a single native operation, so reading their properties from
+         * Javascript does not call into Java. Changes on either side are not reflected on the other one.
+         * Classes annotated with {@link com.labymedia.ultralight.databind.api.JavascriptValueObject} are always
+         * copied.
+         *
+         * @param marshalValueObjects If {@code true}, value objects will be copied instead of wrapped
+         * @return this
+         */
+        public Builder marshalValueObjects(boolean marshalValueObjects) {
+            this.marshalValueObjects = marshalValueObjects;
+            return this;
+        }
+
+        /**
+         * Configures whether the configuration being built transfers primitive arrays and buffers as Javascript
+         * typed arrays.
+         * <p>
+         * {@code double[]}, {@code float[]}, {@code int[]}, {@code short[]} and {@code byte[]} are copied in bulk to
+         * a {@code Float64Array}, {@code Float32Array}, {@code Int32Array}, {@code Int16Array} and {@code Int8Array}
+         * respectively, buffers are exposed as an {@code Uint8Array}. Typed arrays are not plain arrays, scripts
+         * relying on {@code Array.isArray}, {@code push} or the JSON shape of plain arrays should leave this
+         * disabled. Typed arrays passed from Javascript are always accepted for primitive array parameters.
+         *
+         * @param typedArrays If {@code true}, primitive arrays and buffers will be transferred as typed arrays
+         * @return this
+         */
+        public Builder typedArrays(boolean typedArrays) {
+            this.typedArrays = typedArrays;
+            return this;
+        }
+
+        /**
+         * Configures whether the configuration being built exposes lists, sets and maps through live collection
+         * views.
+         * <p>
+         * Views provide the elements of lists and sets by index together with a {@code length}, and the entries of
+         * maps as properties, without calling Java methods through the method chooser or copying the collection.
+         * Methods of the collections remain available and take precedence over map keys. If value objects are
+         * marshalled as well, collections are copied instead.
+         *
+         * @param collectionViews If {@code true}, collections will be exposed through views
+         * @return this
+         * @see DatabindJavascriptCollection
+         */
+        public Builder collectionViews(boolean collectionViews) {
+            this.collectionViews = collectionViews;
+            return this;
+        }
+
+        /**
+         * Sets the executor invoking methods annotated with {@link Async} for the configuration being built.
+         * <p>
+         * Defaults to the common {@link ForkJoinPool}. Methods which block for a long time, for example because
+         * they perform I/O, should use a dedicated executor, such as a cached thread pool or an executor creating
+         * a virtual thread per task.
+         *
+         * @param asyncExecutor The executor for asynchronous methods
+         * @return this
+         */
+        public Builder asyncExecutor(Executor asyncExecutor) {
+            this.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
+        /**
+         * Sets the queue for calls to methods annotated with {@link FireAndForget} for the configuration being built.
+         * <p>
+         * The queue has to be dispatched regularly, usually by adding it as an update hook of the renderer. Queued
+         * calls require a context provider factory to be configured.
+         *
+         * @param callQueue The call queue, or {@code null}, if these methods should be invoked immediately
+         * @return this
+         */
+        public Builder callQueue(DatabindCallQueue callQueue) {
+            this.callQueue = callQueue;
+            return this;
+        }
+
+        /**
+         * Configures whether the configuration being built queues calls to Javascript functions bound to functional
+         * interfaces.
+         * <p>
+         * Queued calls of a function are dispatched in batches, each batch acquires the Javascript context once.
+         * Calls of methods returning {@code void} don't wait for the Javascript function, calls of methods returning
+         * a {@link java.util.concurrent.CompletableFuture} return immediately as well. Calls of other methods still
+         * wait for their result, but are dispatched in order with the queued calls.
+         *
+         * @param queueFunctionalCalls If {@code true}, calls will be queued and dispatched in batches
+         * @return this
+         * @see #functionalCallQueueCapacity(int)
+         */
+        public Builder queueFunctionalCalls(boolean queueFunctionalCalls) {
+            this.queueFunctionalCalls = queueFunctionalCalls;
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of queued calls per Javascript function bound to a functional interface for the
+         * configuration being built.
+         * <p>
+         * A thread appending to a full queue requests a dispatch from the context provider first. If the provider
+         * defers it, only threads which are not the Javascript thread according to
+         * {@link com.labymedia.ultralight.databind.context.ContextProvider#isJavascriptThread()} block, the Javascript
+         * thread never does. Defaults to 1024.
+         *
+         * @param functionalCallQueueCapacity The capacity of the call queue of each bound function
+         * @return this
+         * @see #queueFunctionalCalls(boolean)
+         */
+        public Builder functionalCallQueueCapacity(int functionalCallQueueCapacity) {
+            if (functionalCallQueueCapacity < 1) {
+                throw new IllegalArgumentException("The capacity of the call queue has to be at least 1");
+            }
+
+            this.functionalCallQueueCapacity = functionalCallQueueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the handler receiving the failures of queued calls to Javascript functions bound to functional
+         * interfaces for the configuration being built.
+         * <p>
+         * Queued calls of methods returning {@code void} have no caller to return to, so their failures are passed to
+         * this handler instead, on the dispatching thread. Defaults to reporting them to the uncaught exception
+         * handler of the dispatching thread.
+         *
+         * @param functionalCallFailureHandler The handler receiving the failures of queued calls
+         * @return this
+         * @see #queueFunctionalCalls(boolean)
+         */
+        public Builder functionalCallFailureHandler(Consumer<Throwable> functionalCallFailureHandler) {
+            this.functionalCallFailureHandler = functionalCallFailureHandler;
+            return this;
+        }
+
+        /**
+         * Sets the factory implementing functional interfaces bound to Javascript functions for the configuration
+         * being built.
+         * <p>
+         * Defaults to a {@link ProxyFunctionalImplementationFactory}.
+         *
+         * @param functionalImplementationFactory The functional implementation factory to use
+         * @return this
+         */
+        public Builder functionalImplementationFactory(
+                FunctionalImplementationFactory functionalImplementationFactory) {
+            this.functionalImplementationFactory = functionalImplementationFactory;
+            return this;
+        }
+
         /**
          * Builds a {@link DatabindConfiguration}.
          *
@@ -201,7 +622,25 @@ public final class DatabindConfiguration {
          */
         public DatabindConfiguration build() {
             return new DatabindConfiguration(
-                    classCache, methodChooser, propertyCallerFactory, automaticPrototype, contextProviderFactory);
+                    classCache,
+                    methodChooser,
+                    propertyCallerFactory,
+                    automaticPrototype,
+                    contextProviderFactory,
+                    converterRegistry,
+                    wrapperCache,
+                    staticMethods,
+                    staticFields,
+                    marshalValueObjects,
+                    typedArrays,
+                    collectionViews,
+                    asyncExecutor,
+                    callQueue,
+                    queueFunctionalCalls,
+                    functionalCallQueueCapacity,
+                    functionalCallFailureHandler,
+                    functionalImplementationFactory
+            );
         }
     }
 }
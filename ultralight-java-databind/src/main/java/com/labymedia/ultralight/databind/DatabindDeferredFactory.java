@@ -0,0 +1,129 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptPropertyAttributes;
+import com.labymedia.ultralight.javascript.JavascriptProtectedValue;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates deferred promises for asynchronous calls, exposing the promise together with its resolve and reject
+ * functions.
+ * <p>
+ * The function creating them is compiled once per context and only kept on the Java side, so scripts of the page can
+ * neither reach nor replace it. The global object of every context is tagged with a hidden, read only property to
+ * detect contexts which have been replaced.
+ */
+final class DatabindDeferredFactory {
+    private static final String TAG_PROPERTY = "__ultralightJavaDeferred";
+    static final String FACTORY_BODY =
+            "var deferred = {};" +
+            "deferred.promise = new Promise(function (resolve, reject) {" +
+            "deferred.resolve = resolve;" +
+            "deferred.reject = reject;" +
+            "});" +
+            "return deferred;";
+
+    private final Map<Long, ContextFactory> factories;
+    private final AtomicLong nextTag;
+
+    /**
+     * Constructs a new {@link DatabindDeferredFactory} without any compiled functions.
+     */
+    DatabindDeferredFactory() {
+        this.factories = new ConcurrentHashMap<>();
+        this.nextTag = new AtomicLong(1);
+    }
+
+    /**
+     * Creates a new deferred promise in a context.
+     *
+     * @param context The context to create the promise in
+     * @return An object with the properties {@code promise}, {@code resolve} and {@code reject}
+     */
+    JavascriptObject create(JavascriptContext context) {
+        JavascriptObject globalObject = context.getGlobalObject();
+        long handle = globalObject.getHandle();
+
+        ContextFactory existing = factories.get(handle);
+        if (existing != null && !existing.isTagged(globalObject)) {
+            // The handle is used by a new context, the function belongs to the one which has been replaced
+            if (factories.remove(handle, existing)) {
+                existing.value.revive(context.getLock());
+            }
+        }
+
+        ContextFactory factory = factories.computeIfAbsent(handle, (key) -> {
+            JavascriptObject function = context.makeFunction(null, null, FACTORY_BODY, null, 1);
+
+            ContextFactory created = new ContextFactory(function.protect(), nextTag.getAndIncrement());
+            globalObject.setProperty(
+                    TAG_PROPERTY,
+                    context.makeNumber(created.tag),
+                    JavascriptPropertyAttributes.DONT_ENUM | JavascriptPropertyAttributes.READ_ONLY |
+                            JavascriptPropertyAttributes.DONT_DELETE);
+            return created;
+        });
+
+        JavascriptObject function;
+        synchronized (factory) {
+            // Reviving consumes the protection, so protect the function again for the next use
+            function = factory.value.revive(context.getLock()).toObject();
+            factory.value = function.protect();
+        }
+
+        return function.callAsFunction(null).toObject();
+    }
+
+    /**
+     * Tuple of the protected function creating deferred promises in a context and the tag of the global object.
+     */
+    private static class ContextFactory {
+        private final long tag;
+        private JavascriptProtectedValue value;
+
+        /**
+         * Constructs a new {@link ContextFactory}.
+         *
+         * @param value The protected function creating deferred promises
+         * @param tag   The unique tag the global object of the context is marked with
+         */
+        private ContextFactory(JavascriptProtectedValue value, long tag) {
+            this.value = value;
+            this.tag = tag;
+        }
+
+        /**
+         * Determines whether a global object is the one this function has been compiled for.
+         *
+         * @param globalObject The global object to check
+         * @return {@code true} if the global object is tagged for this function, {@code false} otherwise
+         */
+        private boolean isTagged(JavascriptObject globalObject) {
+            JavascriptValue property = globalObject.getProperty(TAG_PROPERTY);
+            return property.isNumber() && property.toNumber() == tag;
+        }
+    }
+}
@@ -29,24 +29,19 @@ import com.labymedia.ultralight.javascript.JavascriptClassAttributes;
 import com.labymedia.ultralight.javascript.JavascriptClassDefinition;
 import com.labymedia.ultralight.javascript.JavascriptContext;
 import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptPropertyAttributes;
 import com.labymedia.ultralight.javascript.JavascriptValue;
 import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
 
-import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Representation of a translated Java class.
@@ -59,34 +54,36 @@ public final class DatabindJavascriptClass {
     private final MethodChooser methodChooser;
     private final PropertyCaller propertyCaller;
 
-    private final Set<Constructor<?>> constructors = new HashSet<>();
-    private final Map<String, Set<Method>> methods = new HashMap<>();
-    private final Map<String, Field> fields = new HashMap<>();
+    private final DatabindMemberIndex members;
 
-    private final Map<String, JavascriptClass> methodClassCache = new HashMap<>();
+    private final Map<String, DatabindJavascriptMethodHandler> methodHandlerCache;
 
     /**
      * Constructs a new {@link DatabindJavascriptClass}.
      *
-     * @param configuration   The configuration to use
-     * @param conversionUtils The conversion utilities to use for converting objects
-     * @param className       The name of the Javascript class
+     * @param configuration      The configuration to use
+     * @param conversionUtils    The conversion utilities to use for converting objects
+     * @param members            The index of the members of the Java class
+     * @param propertyCaller     The property caller used for calling properties on the Java class
+     * @param definition         The definition of the class, or {@code null}, if it is not going to be baked
+     * @param methodHandlerCache The cache of the method handlers by name
      */
-    private DatabindJavascriptClass(
+    DatabindJavascriptClass(
             DatabindConfiguration configuration,
             JavascriptConversionUtils conversionUtils,
-            String className,
-            JavascriptClass parentClass
+            DatabindMemberIndex members,
+            PropertyCaller propertyCaller,
+            JavascriptClassDefinition definition,
+            Map<String, DatabindJavascriptMethodHandler> methodHandlerCache
     ) {
-        this.definition = new JavascriptClassDefinition()
-                .name(className)
-                .parentClass(parentClass)
-                .attributes(JavascriptClassAttributes.NO_AUTOMATIC_PROTOTYPE);
+        this.definition = definition;
 
         this.configuration = configuration;
         this.conversionUtils = conversionUtils;
+        this.members = members;
         this.methodChooser = configuration.methodChooser();
-        this.propertyCaller = configuration.propertyCallerFactory().create();
+        this.propertyCaller = propertyCaller;
+        this.methodHandlerCache = methodHandlerCache;
     }
 
     /**
@@ -94,56 +91,59 @@ public final class DatabindJavascriptClass {
      */
     private void registerCallbacks() {
         definition.onCallAsConstructor(this::onCallAsConstructor);
+
+        if (configuration.staticMethods() && configuration.staticFields()) {
+            // All members are part of the static tables, there is nothing left to resolve dynamically
+            return;
+        }
+
         definition.onHasProperty(this::onHasProperty);
         definition.onGetProperty(this::onGetProperty);
         definition.onSetProperty(this::onSetProperty);
     }
 
     /**
-     * Indexes constructors into this class.
-     *
-     * @param constructors The constructors to index
-     */
-    private void addConstructors(Collection<Constructor<?>> constructors) {
-        this.constructors.addAll(constructors);
-    }
-
-    /**
-     * Indexes methods into this class.
-     *
-     * @param methods The methods to index
+     * Installs the indexed methods as static functions on the definition.
+     * <p>
+     * Javascript resolves static functions without calling back into Java, the instance is taken from the
+     * {@code this} value of the call.
      */
-    private void addMethods(Collection<Method> methods) {
-        for (Method method : methods) {
-            String name = method.getName();
-
-            if (method.getName().equals("valueOf") && method.getDeclaringClass().isEnum()) {
-                // Skip the valueOf method of enums because it breaks Javascript internals
-                continue;
-            }
-
-            if (this.methods.containsKey(name)) {
-                // Overloaded method, add it to the set of methods with the same name
-                this.methods.get(name).add(method);
-                continue;
-            }
-
-            // Create a set to store possible overloads in and add the found method
-            Set<Method> methodSet = new HashSet<>();
-            methodSet.add(method);
-
-            this.methods.put(name, methodSet);
+    private void registerStaticFunctions() {
+        for (String name : members.methodNames()) {
+            DatabindJavascriptMethodHandler handler = DatabindJavascriptMethodHandler.create(
+                    configuration,
+                    conversionUtils,
+                    propertyCaller,
+                    members.methods(name),
+                    name);
+
+            definition.staticFunction(
+                    name,
+                    handler::onCallAsStaticFunction,
+                    JavascriptPropertyAttributes.READ_ONLY | JavascriptPropertyAttributes.DONT_ENUM);
         }
     }
 
     /**
-     * Indexes fields into this class.
-     *
-     * @param fields The fields to index
+     * Installs the indexed fields as static values on the definition.
+     * <p>
+     * Javascript resolves static values without calling back into Java, only reading and writing the value does.
      */
-    private void addFields(Collection<Field> fields) {
-        for (Field field : fields) {
-            this.fields.put(field.getName(), field);
+    private void registerStaticValues() {
+        for (Field field : members.fields()) {
+            if (Modifier.isFinal(field.getModifiers())) {
+                definition.staticValue(
+                        field.getName(),
+                        this::onGetStaticValue,
+                        null,
+                        JavascriptPropertyAttributes.READ_ONLY | JavascriptPropertyAttributes.DONT_ENUM);
+            } else {
+                definition.staticValue(
+                        field.getName(),
+                        this::onGetStaticValue,
+                        this::onSetStaticValue,
+                        JavascriptPropertyAttributes.DONT_ENUM);
+            }
         }
     }
 
@@ -166,18 +166,22 @@ public final class DatabindJavascriptClass {
             throw new IllegalStateException("Can't call constructor on an already constructed object");
         }
 
-        CallData<Constructor<?>> callData = methodChooser.choose(constructors, arguments);
+        // Array elements fetched for inferring the argument types are reused for the conversion
+        JavascriptValue[][] fetchedElements = new JavascriptValue[arguments.length][];
+        CallData<Constructor<?>> callData =
+                methodChooser.choose(members.constructors(), arguments, fetchedElements, conversionUtils);
 
         // Prepare call
         Constructor<?> method = callData.getTarget();
-        List<Object> parameters = callData.constructArguments(
+        Object[] parameters = callData.constructArgumentArray(
                 context,
                 conversionUtils,
-                arguments
+                arguments,
+                fetchedElements
         );
 
         // Invoke constructor with constructed arguments
-        return context.makeObject(bake(), new Data(this.propertyCaller.callConstructor(method, parameters.toArray()), null));
+        return context.makeObject(bake(), new Data(this.propertyCaller.callConstructor(method, parameters), null));
     }
 
     /**
@@ -188,17 +192,25 @@ public final class DatabindJavascriptClass {
      * @param propertyName The name of the property to check for
      * @return {@code true} if the property could be found, {@code false} otherwise
      */
-    private boolean onHasProperty(JavascriptContext context, JavascriptObject object, String propertyName) {
+    boolean onHasProperty(JavascriptContext context, JavascriptObject object, String propertyName) {
         // Determine whether an instance is available or if the object is static
-        boolean instanceAvailable = ((Data) object.getPrivate()).instance != null;
+        Data privateData = (Data) object.getPrivate();
+        boolean instanceAvailable = privateData.instance != null;
 
-        Field f = fields.get(propertyName);
+        Field f = configuration.staticFields() ? null : members.field(propertyName);
         if (f != null && (Modifier.isStatic(f.getModifiers()) || instanceAvailable)) {
             // Field found and usable
             return true;
         }
 
-        Set<Method> methodsWithName = methods.get(propertyName);
+        if (configuration.staticMethods() || privateData.isMethodBound(propertyName) ||
+                propertyName.equals(privateData.bindingMethod)) {
+            // Methods are resolved by Javascript itself, a method being bound has to be reported as missing as
+            // well, else Javascript takes the plain put path and drops the attributes of the cached function
+            return false;
+        }
+
+        Set<Method> methodsWithName = members.methods(propertyName);
         if (methodsWithName == null || methodsWithName.isEmpty()) {
             // No methods available with that name
             return false;
@@ -228,30 +240,46 @@ public final class DatabindJavascriptClass {
      * @return The value of the property, or {@code null}, if the property does not exist
      * @throws JavascriptInteropException If retrieving the property fails
      */
-    private JavascriptValue onGetProperty(
+    JavascriptValue onGetProperty(
             JavascriptContext context, JavascriptObject object, String propertyName) throws JavascriptInteropException {
         Data privateData = (Data) object.getPrivate();
-        Field field = fields.get(propertyName);
+        Field field = configuration.staticFields() ? null : members.field(propertyName);
 
         if (field != null) {
             return conversionUtils.toJavascript(context, this.propertyCaller.callFieldGet(privateData.instance, field), field.getType());
         }
 
-        Set<Method> methodSet = methods.get(propertyName);
-        if (methodSet == null) {
-            // Property does not exist, delegate to parent
+        Set<Method> methodSet = members.methods(propertyName);
+        if (methodSet == null || configuration.staticMethods() || privateData.isMethodBound(propertyName)) {
+            // Property does not exist or is resolved by Javascript, delegate to parent
             return null;
         }
 
-        return context.makeObject(
-                // caching classes of methods to avoid creating a new class on every call
-                methodClassCache.computeIfAbsent(propertyName, key -> DatabindJavascriptMethodHandler.create(
+        // caching handlers of methods to avoid creating a new class on every call
+        JavascriptObject method = methodHandlerCache.computeIfAbsent(propertyName, key ->
+                DatabindJavascriptMethodHandler.create(
                         configuration,
                         conversionUtils,
                         propertyCaller,
                         methodSet,
-                        propertyName).bake()),
-                new DatabindJavascriptMethodHandler.Data(privateData.instance, null));
+                        propertyName)).bind(context, privateData.instance);
+
+        // Cache the bound method on the object itself, following accesses are resolved by Javascript and the
+        // function is collected together with the object. The property can't be deleted, else the method would
+        // vanish, as it is not resolved by this class anymore once it has been bound.
+        privateData.bindingMethod = propertyName;
+        try {
+            object.setProperty(
+                    propertyName,
+                    method,
+                    JavascriptPropertyAttributes.READ_ONLY | JavascriptPropertyAttributes.DONT_DELETE |
+                            JavascriptPropertyAttributes.DONT_ENUM);
+            privateData.bindMethod(propertyName);
+        } finally {
+            privateData.bindingMethod = null;
+        }
+
+        return method;
     }
 
     /**
@@ -271,20 +299,74 @@ public final class DatabindJavascriptClass {
             JavascriptValue value
     ) throws JavascriptInteropException {
         Data privateData = (Data) object.getPrivate();
-        Field field = fields.get(propertyName);
+        Field field = configuration.staticFields() ? null : members.field(propertyName);
 
         if (field != null) {
             this.propertyCaller.callFieldSet(privateData.instance, field, conversionUtils.fromJavascript(value, field.getType()));
             return true;
         }
 
-        if (methods.containsKey(propertyName)) {
+        if (propertyName.equals(privateData.bindingMethod)) {
+            // The bound method is being cached, let Javascript store it
+            return false;
+        }
+
+        if (members.methods(propertyName) != null) {
             throw new UnsupportedOperationException("Can not set a method");
         }
 
         return false;
     }
 
+    /**
+     * Called by Javascript when a field installed as a static value is read.
+     *
+     * @param context      The context the property is being requested in
+     * @param object       The object the property is being requested on
+     * @param propertyName The name of the requested field
+     * @return The value of the field, or {@code undefined}, if the field requires an instance which is not available
+     * @throws JavascriptInteropException If retrieving the field fails
+     */
+    private JavascriptValue onGetStaticValue(
+            JavascriptContext context, JavascriptObject object, String propertyName) throws JavascriptInteropException {
+        Data privateData = (Data) object.getPrivate();
+        Field field = members.field(propertyName);
+
+        if (privateData.instance == null && !Modifier.isStatic(field.getModifiers())) {
+            // Instance field accessed on the class itself
+            return context.makeUndefined();
+        }
+
+        return conversionUtils.toJavascript(context, this.propertyCaller.callFieldGet(privateData.instance, field), field.getType());
+    }
+
+    /**
+     * Called by Javascript when a field installed as a static value is written.
+     *
+     * @param context      The context the property is being set in
+     * @param object       The object the property is being set on
+     * @param propertyName The name of the field being set
+     * @param value        The new value of the field
+     * @return Always {@code true}
+     * @throws JavascriptInteropException If setting the field fails
+     */
+    private boolean onSetStaticValue(
+            JavascriptContext context,
+            JavascriptObject object,
+            String propertyName,
+            JavascriptValue value
+    ) throws JavascriptInteropException {
+        Data privateData = (Data) object.getPrivate();
+        Field field = members.field(propertyName);
+
+        if (privateData.instance == null && !Modifier.isStatic(field.getModifiers())) {
+            throw new JavascriptInteropException("Field " + propertyName + " requires an instance to be set on");
+        }
+
+        this.propertyCaller.callFieldSet(privateData.instance, field, conversionUtils.fromJavascript(value, field.getType()));
+        return true;
+    }
+
     /**
      * Bakes this class definition.
      *
@@ -301,86 +383,58 @@ public final class DatabindJavascriptClass {
      * @param conversionUtils The conversion utilities to use for converting objects
      * @param javaClass       The java class to create a binding for
      * @param classCache      The class cache to retrieve or cache parent classes with
+     * @param propertyCallers The function providing the property callers for the class and its parents
      * @return The created binding
      */
     static DatabindJavascriptClass create(
             DatabindConfiguration configuration,
             JavascriptConversionUtils conversionUtils,
             Class<?> javaClass,
-            JavascriptClassCache classCache
+            JavascriptClassCache classCache,
+            Function<Class<?>, PropertyCaller> propertyCallers
     ) {
         Class<?> superClass = javaClass.getSuperclass();
 
         JavascriptClass parentClass = null;
         if (superClass != null && javaClass != Object.class) {
-            String parentClassName = superClass.getName();
+            // Look up once, the class might be evicted concurrently between two calls
+            parentClass = classCache.get(superClass);
 
-            if (!classCache.contains(parentClassName)) {
+            if (parentClass == null) {
                 DatabindJavascriptClass databindParent = create(
                         configuration,
                         conversionUtils,
                         superClass,
-                        classCache
+                        classCache,
+                        propertyCallers
                 );
 
-                parentClass = classCache.put(parentClassName, databindParent.bake());
-            } else {
-                parentClass = classCache.get(parentClassName);
+                parentClass = classCache.put(superClass, databindParent.bake());
             }
         }
 
+        // Members are reflected lazily on first access and shared with every other binding of the class
         DatabindJavascriptClass javascriptClass = new DatabindJavascriptClass(
-                configuration, conversionUtils, javaClass.getName(), parentClass);
+                configuration,
+                conversionUtils,
+                DatabindMemberIndex.of(javaClass),
+                propertyCallers.apply(javaClass),
+                new JavascriptClassDefinition()
+                        .name(javaClass.getName())
+                        .parentClass(parentClass)
+                        .attributes(JavascriptClassAttributes.NO_AUTOMATIC_PROTOTYPE),
+                new HashMap<>());
 
         javascriptClass.registerCallbacks();
-
-        javascriptClass.addConstructors(filterAccessible(javaClass.getConstructors()));
-        javascriptClass.addMethods(filterAccessible(javaClass.getMethods()));
-        javascriptClass.addFields(filterAccessible(javaClass.getFields()));
-
-        // Iteratively scan all interfaces
-        Queue<Class<?>> toAdd = new LinkedList<>(Arrays.asList(javaClass.getInterfaces()));
-        while (!toAdd.isEmpty()) {
-            Class<?> iface = toAdd.remove();
-            toAdd.addAll(Arrays.asList(iface.getInterfaces()));
-
-            javascriptClass.addMethods(filterAccessible(iface.getMethods()));
-            javascriptClass.addFields(filterAccessible(iface.getFields()));
+        if (configuration.staticMethods()) {
+            javascriptClass.registerStaticFunctions();
         }
 
-        return javascriptClass;
-    }
-
-    /**
-     * Filters an array of reflection objects by their accessibility.
-     *
-     * @param objects The objects to filter
-     * @param <T>     The type of the objects
-     * @return The filtered objects
-     */
-    private static <T extends AccessibleObject & Member> Set<T> filterAccessible(T[] objects) {
-        Set<T> accessible = new HashSet<>();
-
-        for (T object : objects) {
-            if (!allPublic(object)) {
-                continue;
-            }
-
-            accessible.add(object);
+        if (configuration.staticFields()) {
+            javascriptClass.registerStaticValues();
         }
 
-        return accessible;
-    }
-
-    /**
-     * Determines if a members is accessible by checking if everything is public.
-     *
-     * @param member The member to check
-     * @return {@code true} if the member is accessible using a public path, {@code false} otherwise
-     */
-    private static boolean allPublic(Member member) {
-        Class<?> classToCheck = member.getDeclaringClass();
-        return Modifier.isPublic(classToCheck.getModifiers()) && Modifier.isPublic(member.getModifiers());
+        return javascriptClass;
     }
 
     /**
@@ -390,6 +444,9 @@ public final class DatabindJavascriptClass {
         private final Object instance;
         private final Class<?> javaClass;
 
+        private Set<String> boundMethods;
+        private String bindingMethod;
+
         /**
          * Constructs a new {@link Data} instance.
          *
@@ -418,5 +475,28 @@ public final class DatabindJavascriptClass {
         public Class<?> javaClass() {
             return javaClass;
         }
+
+        /**
+         * Determines whether a bound method has been cached on the object this data belongs to.
+         *
+         * @param name The name of the method
+         * @return {@code true} if the method has been cached as a property of the object, {@code false} otherwise
+         */
+        boolean isMethodBound(String name) {
+            return boundMethods != null && boundMethods.contains(name);
+        }
+
+        /**
+         * Marks a bound method as cached on the object this data belongs to.
+         *
+         * @param name The name of the method
+         */
+        void bindMethod(String name) {
+            if (boundMethods == null) {
+                boundMethods = new HashSet<>();
+            }
+
+            boundMethods.add(name);
+        }
     }
 }
@@ -0,0 +1,453 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
+import com.labymedia.ultralight.javascript.JavascriptClass;
+import com.labymedia.ultralight.javascript.JavascriptClassAttributes;
+import com.labymedia.ultralight.javascript.JavascriptClassDefinition;
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live Javascript view of a Java {@link List}, {@link Set} or {@link Map}.
+ * <p>
+ * Lists and sets expose their elements by index together with a {@code length}, which makes them array like, and
+ * maps expose their entries with string keys as properties. The views enumerate their indices or keys, so
+ * {@code Object.keys}, {@code for...in} and {@code Array.from} work without copying the collection. Elements are
+ * converted on access, written elements are converted to the type of the elements already in the collection (see
+ * {@link #elementType(Object, Collection)}). Everything else, including the methods of the collection, is resolved by the regular binding
+ * of the Java class, which is the parent of the view.
+ */
+public final class DatabindJavascriptCollection {
+    private final JavascriptClassDefinition definition;
+    private final JavascriptConversionUtils conversionUtils;
+    private final DatabindMemberIndex members;
+
+    /**
+     * Constructs a new {@link DatabindJavascriptCollection}.
+     *
+     * @param conversionUtils The conversion utilities to use for converting elements
+     * @param javaClass       The collection class to create the view for
+     * @param parentClass     The regular binding of the collection class
+     */
+    private DatabindJavascriptCollection(
+            JavascriptConversionUtils conversionUtils,
+            Class<?> javaClass,
+            JavascriptClass parentClass
+    ) {
+        this.definition = new JavascriptClassDefinition()
+                .name(javaClass.getName())
+                .parentClass(parentClass)
+                .attributes(JavascriptClassAttributes.NO_AUTOMATIC_PROTOTYPE);
+
+        this.conversionUtils = conversionUtils;
+        this.members = DatabindMemberIndex.of(javaClass);
+    }
+
+    /**
+     * Determines whether a live view can be created for a certain class.
+     *
+     * @param javaClass The class to check
+     * @return {@code true} if the class is a list, set or map, {@code false} otherwise
+     */
+    public static boolean isCollection(Class<?> javaClass) {
+        return List.class.isAssignableFrom(javaClass) ||
+                Set.class.isAssignableFrom(javaClass) ||
+                Map.class.isAssignableFrom(javaClass);
+    }
+
+    /**
+     * Registers the callbacks on the definition.
+     */
+    private void registerCallbacks() {
+        definition.onHasProperty(this::onHasProperty);
+        definition.onGetProperty(this::onGetProperty);
+        definition.onSetProperty(this::onSetProperty);
+        definition.onDeleteProperty(this::onDeleteProperty);
+        definition.onGetPropertyNames(this::onGetPropertyNames);
+    }
+
+    /**
+     * Determines whether a property exists on the view.
+     *
+     * @param context      The context the check is executed in
+     * @param object       The view to check for the property on
+     * @param propertyName The name of the property to check for
+     * @return {@code true} if the view provides the property, {@code false} if the parent should be consulted
+     */
+    private boolean onHasProperty(JavascriptContext context, JavascriptObject object, String propertyName) {
+        Object instance = ((DatabindJavascriptClass.Data) object.getPrivate()).instance();
+
+        if (instance instanceof Map) {
+            return !isMethod(propertyName) && ((Map<?, ?>) instance).containsKey(propertyName);
+        } else if (propertyName.equals("length")) {
+            return true;
+        }
+
+        int index = parseIndex(propertyName);
+        return index >= 0 && index < ((Collection<?>) instance).size();
+    }
+
+    /**
+     * Retrieves a property of the view.
+     *
+     * @param context      The context the property is being requested in
+     * @param object       The view the property is being requested on
+     * @param propertyName The name of the requested property
+     * @return The value of the property, or {@code null}, if the parent should be consulted
+     */
+    private JavascriptValue onGetProperty(JavascriptContext context, JavascriptObject object, String propertyName) {
+        CollectionData data = (CollectionData) object.getPrivate();
+        Object instance = data.instance();
+
+        if (instance instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) instance;
+            if (isMethod(propertyName)) {
+                return null;
+            }
+
+            Object value = map.get(propertyName);
+            if (value == null && !map.containsKey(propertyName)) {
+                return null;
+            }
+
+            return conversionUtils.toJavascript(context, value);
+        } else if (propertyName.equals("length")) {
+            return context.makeNumber(((Collection<?>) instance).size());
+        }
+
+        int index = parseIndex(propertyName);
+        if (index < 0) {
+            return null;
+        }
+
+        if (instance instanceof List) {
+            List<?> list = (List<?>) instance;
+            return index < list.size() ? conversionUtils.toJavascript(context, list.get(index)) : null;
+        }
+
+        return index < ((Collection<?>) instance).size() ?
+                conversionUtils.toJavascript(context, data.elementAt(index)) : null;
+    }
+
+    /**
+     * Sets a property of the view.
+     *
+     * @param context      The context the property is being set in
+     * @param object       The view the property is being set on
+     * @param propertyName The name of the property being set
+     * @param value        The new value of the property
+     * @return {@code true} if the view handled the property, {@code false} if the parent should be consulted
+     * @throws IllegalArgumentException If the value can't be converted to the type of the elements, or a key would
+     *                                  be added to a map with keys which are not strings
+     */
+    @SuppressWarnings("unchecked")
+    private boolean onSetProperty(
+            JavascriptContext context,
+            JavascriptObject object,
+            String propertyName,
+            JavascriptValue value
+    ) {
+        Object instance = ((DatabindJavascriptClass.Data) object.getPrivate()).instance();
+
+        if (instance instanceof Map) {
+            if (isMethod(propertyName)) {
+                return false;
+            }
+
+            Map<String, Object> map = (Map<String, Object>) instance;
+            if (!containsKey(map, propertyName) && !hasStringKeys(map)) {
+                // Adding a string key to a map with other keys would corrupt it
+                throw new IllegalArgumentException(
+                        "Can not add the key " + propertyName + " to a map with keys which are not strings");
+            }
+
+            Class<?> type = elementType(map.get(propertyName), map.values());
+            map.put(propertyName, conversionUtils.fromJavascript(value, type));
+            return true;
+        } else if (!(instance instanceof List)) {
+            // Sets have no stable order to set elements at
+            return false;
+        }
+
+        List<Object> list = (List<Object>) instance;
+
+        int index = parseIndex(propertyName);
+        if (index < 0 || index > list.size()) {
+            return false;
+        }
+
+        Object element = conversionUtils.fromJavascript(
+                value, elementType(index < list.size() ? list.get(index) : null, list));
+        if (index == list.size()) {
+            // Writing past the end appends, just like for Javascript arrays
+            list.add(element);
+        } else {
+            list.set(index, element);
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines whether a map contains a string key, without failing for maps with keys of other types.
+     *
+     * @param map The map to check
+     * @param key The key to look for
+     * @return {@code true} if the map contains the key, {@code false} otherwise
+     */
+    static boolean containsKey(Map<?, ?> map, String key) {
+        try {
+            return map.containsKey(key);
+        } catch (ClassCastException exception) {
+            // Sorted maps compare the key to their own keys
+            return false;
+        }
+    }
+
+    /**
+     * Determines whether string keys can be added to a map.
+     * <p>
+     * The key type of the map is erased, so the keys already in the map are checked instead. Maps without any key
+     * accept string keys, except for enum maps.
+     *
+     * @param map The map to check
+     * @return {@code true} if all keys of the map are strings, {@code false} otherwise
+     */
+    static boolean hasStringKeys(Map<?, ?> map) {
+        if (map instanceof EnumMap) {
+            return false;
+        }
+
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines the type to convert a value written to a view to.
+     * <p>
+     * The element type of the collection is erased, so the runtime class of the element being replaced, or of any
+     * other element when adding one, is used instead. This keeps the view from putting elements of a different type
+     * into the collection, collections holding elements of mixed types have to be modified through their methods.
+     * Only collections without any element other than {@code null} accept any value.
+     *
+     * @param replaced The element being replaced, or {@code null}, if an element is being added
+     * @param elements The elements of the collection
+     * @return The type to convert the written value to
+     */
+    static Class<?> elementType(Object replaced, Collection<?> elements) {
+        if (replaced != null) {
+            return replaced.getClass();
+        }
+
+        for (Object element : elements) {
+            if (element != null) {
+                return element.getClass();
+            }
+        }
+
+        return Object.class;
+    }
+
+    /**
+     * Deletes a property of the view.
+     *
+     * @param context      The context the property is being deleted in
+     * @param object       The view the property is being deleted from
+     * @param propertyName The name of the property to delete
+     * @return {@code true} if the property has been deleted, {@code false} if the parent should be consulted
+     */
+    private boolean onDeleteProperty(JavascriptContext context, JavascriptObject object, String propertyName) {
+        Object instance = ((DatabindJavascriptClass.Data) object.getPrivate()).instance();
+
+        if (!(instance instanceof Map) || isMethod(propertyName)) {
+            return false;
+        }
+
+        Map<?, ?> map = (Map<?, ?>) instance;
+        if (!map.containsKey(propertyName)) {
+            return false;
+        }
+
+        map.remove(propertyName);
+        return true;
+    }
+
+    /**
+     * Collects the names of the properties provided by the view.
+     *
+     * @param context The context the names are being collected in
+     * @param object  The view to collect the names of
+     * @return The indices of the elements, or the string keys of the map
+     */
+    private String[] onGetPropertyNames(JavascriptContext context, JavascriptObject object) {
+        Object instance = ((DatabindJavascriptClass.Data) object.getPrivate()).instance();
+
+        if (instance instanceof Map) {
+            // Only keys which can be looked up by their property name are enumerated, see onHasProperty
+            List<String> names = new ArrayList<>(((Map<?, ?>) instance).size());
+            for (Object key : ((Map<?, ?>) instance).keySet()) {
+                if (key instanceof String && !isMethod((String) key)) {
+                    names.add((String) key);
+                }
+            }
+
+            return names.toArray(new String[0]);
+        }
+
+        String[] names = new String[((Collection<?>) instance).size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = Integer.toString(i);
+        }
+
+        return names;
+    }
+
+    /**
+     * Determines whether a name refers to a method of the collection, which takes precedence over map keys.
+     *
+     * @param name The name to check
+     * @return {@code true} if the collection has a method with the name, {@code false} otherwise
+     */
+    private boolean isMethod(String name) {
+        return members.methods(name) != null;
+    }
+
+    /**
+     * Parses an array index without allocating.
+     *
+     * @param name The property name to parse
+     * @return The parsed index, or {@code -1}, if the name is not a canonical array index
+     */
+    static int parseIndex(String name) {
+        int length = name.length();
+        if (length == 0 || length > 10 || (length > 1 && name.charAt(0) == '0')) {
+            return -1;
+        }
+
+        long index = 0;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            index = index * 10 + (c - '0');
+        }
+
+        return index > Integer.MAX_VALUE ? -1 : (int) index;
+    }
+
+    /**
+     * Bakes this class definition.
+     *
+     * @return The baked definition
+     */
+    public JavascriptClass bake() {
+        return definition.bake();
+    }
+
+    /**
+     * Creates a new live collection view class.
+     *
+     * @param conversionUtils The conversion utilities to use for converting elements
+     * @param javaClass       The collection class to create the view for
+     * @param parentClass     The regular binding of the collection class
+     * @return The created view class
+     */
+    static DatabindJavascriptCollection create(
+            JavascriptConversionUtils conversionUtils,
+            Class<?> javaClass,
+            JavascriptClass parentClass
+    ) {
+        DatabindJavascriptCollection collection = new DatabindJavascriptCollection(
+                conversionUtils, javaClass, parentClass);
+        collection.registerCallbacks();
+        return collection;
+    }
+
+    /**
+     * Private data of collection views, remembering the position of the last access for unordered collections.
+     */
+    public static class CollectionData extends DatabindJavascriptClass.Data {
+        private Iterator<?> cursor;
+        private int cursorIndex;
+
+        /**
+         * Constructs a new {@link CollectionData} instance.
+         *
+         * @param instance  The Java collection
+         * @param javaClass The Java class of the collection
+         */
+        public CollectionData(Object instance, Class<?> javaClass) {
+            super(instance, javaClass);
+        }
+
+        /**
+         * Retrieves an element of a collection by its position in iteration order.
+         * <p>
+         * Sequential access continues the previous iteration, so iterating a set by index is linear. Modifications
+         * are detected through the {@link ConcurrentModificationException} of fail fast iterators, after which the
+         * iteration starts over. Weakly consistent iterators of concurrent collections never throw, if such a
+         * collection is modified between two accesses, the continued iteration silently returns the element at a
+         * shifted position or skips elements.
+         *
+         * @param index The position of the element, must be less than the size of the collection
+         * @return The element at the position
+         */
+        Object elementAt(int index) {
+            Collection<?> collection = (Collection<?>) instance();
+
+            try {
+                if (cursor == null || index < cursorIndex) {
+                    cursor = collection.iterator();
+                    cursorIndex = 0;
+                }
+
+                while (cursorIndex < index) {
+                    cursor.next();
+                    cursorIndex++;
+                }
+
+                cursorIndex++;
+                return cursor.next();
+            } catch (ConcurrentModificationException exception) {
+                // The collection has been modified since the last access, start over
+                cursor = null;
+                return elementAt(index);
+            }
+        }
+    }
+}
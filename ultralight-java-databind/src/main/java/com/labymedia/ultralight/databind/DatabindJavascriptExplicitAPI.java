@@ -74,7 +74,8 @@ public final class DatabindJavascriptExplicitAPI {
 
         // Convert all Javascript arguments to Java arguments
         for (JavascriptValue value : arguments) {
-            Object object = conversionUtils.fromJavascript(value, JavascriptConversionUtils.determineType(value));
+            Object object = conversionUtils.fromJavascript(
+                    value, JavascriptConversionUtils.determineType(value, 0, conversionUtils.supportsTypedArrays()));
             parameterTypes.add((Class<?>) object);
         }
 
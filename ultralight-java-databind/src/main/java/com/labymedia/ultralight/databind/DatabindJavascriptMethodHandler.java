@@ -19,26 +19,39 @@
 
 package com.labymedia.ultralight.databind;
 
+import com.labymedia.ultralight.databind.api.Async;
+import com.labymedia.ultralight.databind.api.FireAndForget;
 import com.labymedia.ultralight.databind.call.CallData;
 import com.labymedia.ultralight.databind.call.MethodChooser;
 import com.labymedia.ultralight.databind.call.property.PropertyCaller;
+import com.labymedia.ultralight.databind.context.ContextProvider;
+import com.labymedia.ultralight.databind.context.ContextProviderFactory;
 import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
 import com.labymedia.ultralight.javascript.JavascriptClass;
 import com.labymedia.ultralight.javascript.JavascriptClassAttributes;
 import com.labymedia.ultralight.javascript.JavascriptClassDefinition;
 import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptContextLock;
 import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptProtectedValue;
 import com.labymedia.ultralight.javascript.JavascriptValue;
 import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
 
 import java.lang.reflect.Method;
-import java.util.List;
+import java.lang.reflect.Modifier;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Method handler for calls inbound from Javascript.
  */
 public final class DatabindJavascriptMethodHandler {
+    // Deferred promises only depend on the context, so every handler shares the functions creating them
+    private static final DatabindDeferredFactory DEFERRED_FACTORY = new DatabindDeferredFactory();
+
     private final JavascriptClassDefinition definition;
     private final String name;
 
@@ -46,8 +59,14 @@ public final class DatabindJavascriptMethodHandler {
     private final JavascriptConversionUtils conversionUtils;
 
     private final PropertyCaller propertyCaller;
+    private final ContextProviderFactory contextProviderFactory;
+    private final Executor asyncExecutor;
+    private final DatabindCallQueue callQueue;
 
     private final Set<Method> methodSet;
+    private final boolean fireAndForget;
+
+    private volatile JavascriptClass bakedClass;
 
     /**
      * Constructs a new {@link DatabindJavascriptMethodHandler}.
@@ -57,23 +76,31 @@ public final class DatabindJavascriptMethodHandler {
      * @param propertyCaller  The property caller used for calling properties on java objects and classes
      * @param methodSet       The methods which can be invoked by this handler
      * @param name            The name of this handler class
+     * @param definition      The definition to bake the class from, or {@code null}, if the class is already baked
+     * @param bakedClass      The already baked class, or {@code null}, if it is baked from the definition
      */
-    private DatabindJavascriptMethodHandler(
+    DatabindJavascriptMethodHandler(
             DatabindConfiguration configuration,
             JavascriptConversionUtils conversionUtils,
             PropertyCaller propertyCaller,
             Set<Method> methodSet,
-            String name
+            String name,
+            JavascriptClassDefinition definition,
+            JavascriptClass bakedClass
     ) {
-        this.definition = new JavascriptClassDefinition()
-                .name(name)
-                .attributes(JavascriptClassAttributes.NO_AUTOMATIC_PROTOTYPE);
+        this.definition = definition;
+        this.bakedClass = bakedClass;
 
         this.name = name;
         this.methodChooser = configuration.methodChooser();
         this.conversionUtils = conversionUtils;
         this.propertyCaller = propertyCaller;
+        this.contextProviderFactory = configuration.contextProviderFactory();
+        this.asyncExecutor = configuration.asyncExecutor();
+        this.callQueue = configuration.callQueue();
         this.methodSet = methodSet;
+        this.fireAndForget = !methodSet.isEmpty() &&
+                methodSet.stream().allMatch((method) -> method.isAnnotationPresent(FireAndForget.class));
     }
 
     /**
@@ -84,6 +111,38 @@ public final class DatabindJavascriptMethodHandler {
         definition.onGetProperty(this::onGetProperty);
     }
 
+    /**
+     * Creates a Javascript function invoking this handler on an instance.
+     * <p>
+     * If all methods of this handler are annotated with {@link FireAndForget} and a call queue is configured, the
+     * returned function queues its calls instead of invoking them immediately.
+     *
+     * @param context  The context to create the function in
+     * @param instance The instance to invoke the methods on, or {@code null}, if the methods are static
+     * @return The created function
+     */
+    JavascriptObject bind(JavascriptContext context, Object instance) {
+        if (fireAndForget && callQueue != null && contextProviderFactory != null) {
+            JavascriptObject target = context.makeObject(bake(), new QueuedData(instance, this));
+            return callQueue.makeQueuedFunction(context, contextProviderFactory, target);
+        }
+
+        return context.makeObject(bake(), new Data(instance, null));
+    }
+
+    /**
+     * Invokes a call which has been queued by Javascript.
+     *
+     * @param context   The context the call has been queued in
+     * @param data      The data of the function the call has been queued for
+     * @param arguments The arguments of the call
+     * @throws JavascriptInteropException If invoking the method fails
+     */
+    void dispatch(JavascriptContext context, Data data, JavascriptValue[] arguments)
+            throws JavascriptInteropException {
+        invoke(context, data.instance(), data.parameterTypes(), arguments);
+    }
+
     /**
      * Called by Javascript when a request is issued to invoke a function matching this handler.
      *
@@ -101,26 +160,89 @@ public final class DatabindJavascriptMethodHandler {
             JavascriptValue[] arguments
     ) throws JavascriptInteropException {
         Data privateData = (Data) function.getPrivate();
+        return invoke(context, privateData.instance(), privateData.parameterTypes(), arguments);
+    }
+
+    /**
+     * Called by Javascript when a method installed as a static function of a databind class is invoked.
+     * <p>
+     * Static functions are not bound to an instance, the instance is taken from the {@code this} value instead.
+     *
+     * @param context    The Javascript context the function is being invoked in
+     * @param function   The function being called
+     * @param thisObject The this parameter of the call
+     * @param arguments  The arguments of the call
+     * @return The result of the call
+     * @throws JavascriptInteropException If invoking the method fails
+     */
+    JavascriptValue onCallAsStaticFunction(
+            JavascriptContext context,
+            JavascriptObject function,
+            JavascriptObject thisObject,
+            JavascriptValue[] arguments
+    ) throws JavascriptInteropException {
+        Object thisData = thisObject != null ? thisObject.getPrivate() : null;
+        if (!(thisData instanceof DatabindJavascriptClass.Data)) {
+            throw new JavascriptInteropException("Method " + name + " has to be invoked on a Java object or class");
+        }
+
+        return invoke(context, ((DatabindJavascriptClass.Data) thisData).instance(), null, arguments);
+    }
+
+    /**
+     * Chooses and invokes a method of this handler.
+     *
+     * @param context        The Javascript context the method is being invoked in
+     * @param instance       The instance to invoke the method on, or {@code null}, if the call is static
+     * @param parameterTypes The requested parameter types, or {@code null}, if not known
+     * @param arguments      The arguments of the call
+     * @return The result of the call
+     * @throws JavascriptInteropException If invoking the method fails
+     */
+    private JavascriptValue invoke(
+            JavascriptContext context,
+            Object instance,
+            Class<?>[] parameterTypes,
+            JavascriptValue[] arguments
+    ) throws JavascriptInteropException {
         CallData<Method> callData;
+        JavascriptValue[][] fetchedElements = null;
 
-        if (privateData.parameterTypes() == null) {
-            // Implicit types
-            callData = methodChooser.choose(methodSet, arguments);
+        if (parameterTypes == null) {
+            // Implicit types, array elements fetched for inferring them are reused for the conversion
+            fetchedElements = new JavascriptValue[arguments.length][];
+            callData = methodChooser.choose(methodSet, arguments, fetchedElements, conversionUtils);
         } else {
             // Explicit types
-            callData = methodChooser.choose(methodSet, privateData.parameterTypes(), arguments);
+            callData = methodChooser.choose(methodSet, parameterTypes, arguments, conversionUtils);
         }
 
         // Prepare the call
         Method method = callData.getTarget();
-        List<Object> parameters = callData.constructArguments(
+        if (!Modifier.isStatic(method.getModifiers())) {
+            if (instance == null) {
+                throw new JavascriptInteropException("Method " + name + " requires an instance to be invoked on");
+            } else if (!method.getDeclaringClass().isInstance(instance)) {
+                // Static functions take the instance from the this value, which can be any databind object
+                throw new JavascriptInteropException(
+                        "Method " + name + " can not be invoked on an instance of " + instance.getClass().getName());
+            }
+        }
+
+        Object[] parameters = callData.constructArgumentArray(
                 context,
                 conversionUtils,
-                arguments
+                arguments,
+                fetchedElements
         );
 
+        if (callData.getPlan().isAsync()) {
+            // Schedule the method and let Javascript wait for the result
+            return invokeAsync(context, instance, method, parameters);
+        }
+
         // Invoke method with constructed arguments
-        Object ret = propertyCaller.callMethod(privateData.instance(), method, parameters.toArray());
+        Object ret = propertyCaller.callMethod(instance, method, parameters);
         Class<?> suggestedReturnType = method.getReturnType();
 
         if (ret != null) {
@@ -130,6 +252,135 @@ public final class DatabindJavascriptMethodHandler {
         return conversionUtils.toJavascript(context, ret, suggestedReturnType);
     }
 
+    /**
+     * Invokes a method annotated with {@link Async} on the configured executor.
+     *
+     * @param context    The Javascript context the method is being invoked in
+     * @param instance   The instance to invoke the method on, or {@code null}, if the method is static
+     * @param method     The method to invoke
+     * @param parameters The already converted parameters of the call
+     * @return A Javascript promise settled with the result of the call
+     * @throws JavascriptInteropException If the call can not be scheduled
+     */
+    private JavascriptValue invokeAsync(
+            JavascriptContext context,
+            Object instance,
+            Method method,
+            Object[] parameters
+    ) throws JavascriptInteropException {
+        if (contextProviderFactory == null) {
+            throw new JavascriptInteropException(
+                    "Method " + name + " is asynchronous, but no context provider factory has been configured");
+        }
+
+        for (Object parameter : parameters) {
+            if (isBoundToJavascriptThread(parameter)) {
+                // These are only valid while the lock of the context is held on the Javascript thread
+                throw new JavascriptInteropException(
+                        "Method " + name + " is asynchronous and can not receive a " + parameter.getClass().getName());
+            }
+        }
+
+        JavascriptObject deferred = DEFERRED_FACTORY.create(context);
+        JavascriptValue promise = deferred.getProperty("promise");
+
+        ContextProvider contextProvider = contextProviderFactory.bindProvider(promise);
+        JavascriptProtectedValue resolve = deferred.getProperty("resolve").protect();
+        JavascriptProtectedValue reject = deferred.getProperty("reject").protect();
+
+        try {
+            asyncExecutor.execute(() -> {
+                Object ret;
+
+                try {
+                    ret = propertyCaller.callMethod(instance, method, parameters);
+                } catch (Throwable t) {
+                    contextProvider.syncWithJavascript((lock) -> settle(lock, resolve, reject, method, null, t));
+                    return;
+                }
+
+                if (ret instanceof CompletionStage) {
+                    // Wait for the returned stage instead of resolving with the stage itself
+                    ((CompletionStage<?>) ret).whenComplete((result, error) -> contextProvider.syncWithJavascript(
+                            (lock) -> settle(lock, resolve, reject, method, result, error)));
+                } else {
+                    contextProvider.syncWithJavascript((lock) -> settle(lock, resolve, reject, method, ret, null));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            resolve.revive(context.getLock());
+            reject.revive(context.getLock());
+            throw new JavascriptInteropException("Failed to schedule asynchronous method " + name, e);
+        }
+
+        return promise;
+    }
+
+    /**
+     * Determines whether a converted parameter can only be used on the Javascript thread.
+     *
+     * @param parameter The parameter to check, arrays of objects are checked element by element
+     * @return {@code true} if the parameter is or contains a Javascript value or context, {@code false} otherwise
+     */
+    private static boolean isBoundToJavascriptThread(Object parameter) {
+        if (parameter instanceof Object[]) {
+            for (Object element : (Object[]) parameter) {
+                if (isBoundToJavascriptThread(element)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        return parameter instanceof JavascriptValue ||
+                parameter instanceof JavascriptContext ||
+                parameter instanceof JavascriptContextLock;
+    }
+
+    /**
+     * Settles the promise of an asynchronous call on the Javascript thread.
+     *
+     * @param lock    The lock of the context the promise belongs to
+     * @param resolve The protected resolve function of the promise
+     * @param reject  The protected reject function of the promise
+     * @param method  The method which has been invoked
+     * @param result  The result of the call, if it succeeded
+     * @param error   The error thrown by the call, or {@code null}, if it succeeded
+     */
+    private void settle(
+            JavascriptContextLock lock,
+            JavascriptProtectedValue resolve,
+            JavascriptProtectedValue reject,
+            Method method,
+            Object result,
+            Throwable error
+    ) {
+        JavascriptContext context = lock.getContext();
+
+        // Reviving both functions also releases them
+        JavascriptObject resolveFunction = resolve.revive(lock).toObject();
+        JavascriptObject rejectFunction = reject.revive(lock).toObject();
+
+        if (error == null) {
+            try {
+                Class<?> suggestedReturnType = result != null ? result.getClass() : method.getReturnType();
+                JavascriptValue value = conversionUtils.toJavascript(context, result, suggestedReturnType);
+                resolveFunction.callAsFunction(null, value);
+                return;
+            } catch (Throwable t) {
+                error = t;
+            }
+        }
+
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+        rejectFunction.callAsFunction(null, context.makeError(context.makeString(message)));
+    }
+
     /**
      * Called by Javascript when a property is requested on the function.
      *
@@ -156,7 +407,14 @@ public final class DatabindJavascriptMethodHandler {
      * @return The baked definition
      */
     public JavascriptClass bake() {
-        return definition.bake();
+        JavascriptClass javascriptClass = bakedClass;
+        if (javascriptClass == null) {
+            // Baking twice concurrently is harmless, both classes behave the same
+            javascriptClass = definition.bake();
+            bakedClass = javascriptClass;
+        }
+
+        return javascriptClass;
     }
 
     /**
@@ -176,7 +434,16 @@ public final class DatabindJavascriptMethodHandler {
             Set<Method> methodSet,
             String name
     ) {
-        DatabindJavascriptMethodHandler javascriptClass = new DatabindJavascriptMethodHandler(configuration, conversionUtils, propertyCaller, methodSet, name);
+        DatabindJavascriptMethodHandler javascriptClass = new DatabindJavascriptMethodHandler(
+                configuration,
+                conversionUtils,
+                propertyCaller,
+                methodSet,
+                name,
+                new JavascriptClassDefinition()
+                        .name(name)
+                        .attributes(JavascriptClassAttributes.NO_AUTOMATIC_PROTOTYPE),
+                null);
         javascriptClass.registerCallbacks();
         return javascriptClass;
     }
@@ -217,4 +484,31 @@ public final class DatabindJavascriptMethodHandler {
             return parameterTypes;
         }
     }
+
+    /**
+     * Data of a call target which is invoked when a call queue is dispatched.
+     */
+    static final class QueuedData extends Data {
+        private final DatabindJavascriptMethodHandler handler;
+
+        /**
+         * Constructs a new {@link QueuedData} instance for a queued call target.
+         *
+         * @param instance The instance the queued calls will be invoked on
+         * @param handler  The handler invoking the queued calls
+         */
+        QueuedData(Object instance, DatabindJavascriptMethodHandler handler) {
+            super(instance, null);
+            this.handler = handler;
+        }
+
+        /**
+         * Retrieves the handler invoking the queued calls.
+         *
+         * @return The handler invoking the queued calls
+         */
+        DatabindJavascriptMethodHandler handler() {
+            return handler;
+        }
+    }
 }
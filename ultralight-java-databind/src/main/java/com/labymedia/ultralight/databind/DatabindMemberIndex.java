@@ -0,0 +1,255 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.databind.call.OverloadSet;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoized index of the members of a Java class which are accessible from Javascript.
+ * <p>
+ * Indexes are computed once per class and shared by every binding of the class, including the bindings of its
+ * subclasses which use it as their parent. Reflection is only performed on first use, overload sets are grouped
+ * lazily per name when they are first requested and bucketed by arity using {@link OverloadSet}s.
+ */
+public final class DatabindMemberIndex {
+    private static final ClassValue<DatabindMemberIndex> INDEXES = new ClassValue<DatabindMemberIndex>() {
+        @Override
+        protected DatabindMemberIndex computeValue(Class<?> type) {
+            return new DatabindMemberIndex(type);
+        }
+    };
+
+    private final Class<?> javaClass;
+
+    private volatile Members members;
+    private final Map<String, OverloadSet<Method>> methodsByName = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@link DatabindMemberIndex}.
+     *
+     * @param javaClass The class to index
+     */
+    private DatabindMemberIndex(Class<?> javaClass) {
+        this.javaClass = javaClass;
+    }
+
+    /**
+     * Retrieves the index of a class.
+     *
+     * @param javaClass The class to retrieve the index for
+     * @return The index of the class
+     */
+    public static DatabindMemberIndex of(Class<?> javaClass) {
+        return INDEXES.get(javaClass);
+    }
+
+    /**
+     * Indexes all members of this class eagerly.
+     */
+    public void prewarm() {
+        for (String name : members().methodNames) {
+            methods(name);
+        }
+    }
+
+    /**
+     * Retrieves the class this index belongs to.
+     *
+     * @return The indexed class
+     */
+    public Class<?> javaClass() {
+        return javaClass;
+    }
+
+    /**
+     * Retrieves the accessible constructors of the class.
+     *
+     * @return The accessible constructors
+     */
+    public Set<Constructor<?>> constructors() {
+        return members().constructorSet;
+    }
+
+    /**
+     * Retrieves the names of all accessible methods of the class.
+     *
+     * @return The names of the accessible methods
+     */
+    public Set<String> methodNames() {
+        return members().methodNames;
+    }
+
+    /**
+     * Retrieves the accessible overloads of a method.
+     *
+     * @param name The name of the method
+     * @return The overloads of the method, or {@code null}, if the class has no accessible method with this name
+     */
+    public Set<Method> methods(String name) {
+        Members members = members();
+        if (!members.methodNames.contains(name)) {
+            return null;
+        }
+
+        return methodsByName.computeIfAbsent(name, (key) -> {
+            Set<Method> overloads = new HashSet<>();
+
+            for (Method method : members.methods) {
+                if (method.getName().equals(key)) {
+                    overloads.add(method);
+                }
+            }
+
+            return new OverloadSet<>(overloads);
+        });
+    }
+
+    /**
+     * Retrieves an accessible field of the class.
+     *
+     * @param name The name of the field
+     * @return The field, or {@code null}, if the class has no accessible field with this name
+     */
+    public Field field(String name) {
+        return members().fields.get(name);
+    }
+
+    /**
+     * Retrieves all accessible fields of the class.
+     *
+     * @return The accessible fields
+     */
+    public Collection<Field> fields() {
+        return members().fields.values();
+    }
+
+    /**
+     * Retrieves the reflected members, reflecting them if required.
+     *
+     * @return The reflected members
+     */
+    private Members members() {
+        Members members = this.members;
+        if (members == null) {
+            synchronized (this) {
+                members = this.members;
+                if (members == null) {
+                    this.members = members = new Members(javaClass);
+                }
+            }
+        }
+
+        return members;
+    }
+
+    /**
+     * Determines if a members is accessible by checking if everything is public.
+     *
+     * @param member The member to check
+     * @return {@code true} if the member is accessible using a public path, {@code false} otherwise
+     */
+    private static boolean allPublic(Member member) {
+        Class<?> classToCheck = member.getDeclaringClass();
+        return Modifier.isPublic(classToCheck.getModifiers()) && Modifier.isPublic(member.getModifiers());
+    }
+
+    /**
+     * The reflected, accessible members of a class.
+     */
+    private static final class Members {
+        private final Set<Constructor<?>> constructors = new HashSet<>();
+        private final Set<Method> methods = new HashSet<>();
+        private final Set<String> methodNames = new HashSet<>();
+        private final Map<String, Field> fields = new HashMap<>();
+        private final OverloadSet<Constructor<?>> constructorSet;
+
+        /**
+         * Reflects the accessible members of a class.
+         *
+         * @param javaClass The class to reflect
+         */
+        private Members(Class<?> javaClass) {
+            for (Constructor<?> constructor : javaClass.getConstructors()) {
+                if (allPublic(constructor)) {
+                    constructors.add(constructor);
+                }
+            }
+
+            constructorSet = new OverloadSet<>(constructors);
+            addMembers(javaClass);
+
+            // Scan all interfaces, visiting interfaces shared by multiple paths only once
+            Set<Class<?>> visited = new HashSet<>();
+            Queue<Class<?>> toAdd = new ArrayDeque<>();
+            Collections.addAll(toAdd, javaClass.getInterfaces());
+
+            while (!toAdd.isEmpty()) {
+                Class<?> iface = toAdd.remove();
+                if (!visited.add(iface)) {
+                    continue;
+                }
+
+                Collections.addAll(toAdd, iface.getInterfaces());
+                addMembers(iface);
+            }
+        }
+
+        /**
+         * Indexes the accessible methods and fields of a class or interface.
+         *
+         * @param type The class or interface to index
+         */
+        private void addMembers(Class<?> type) {
+            for (Method method : type.getMethods()) {
+                if (!allPublic(method)) {
+                    continue;
+                }
+
+                if (method.getName().equals("valueOf") && method.getDeclaringClass().isEnum()) {
+                    // Skip the valueOf method of enums because it breaks Javascript internals
+                    continue;
+                }
+
+                methods.add(method);
+                methodNames.add(method.getName());
+            }
+
+            for (Field field : type.getFields()) {
+                if (allPublic(field)) {
+                    fields.put(field.getName(), field);
+                }
+            }
+        }
+    }
+}
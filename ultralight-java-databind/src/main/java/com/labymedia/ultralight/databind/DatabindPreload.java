@@ -0,0 +1,87 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Result of preloading Java classes using {@link Databind#preload(Collection)}.
+ * <p>
+ * All reflection, member indexing and caller preparation has been done once this result is available. Only the
+ * native classes remain to be created, which is done either lazily on first use or eagerly using {@link #bake()}.
+ */
+public final class DatabindPreload {
+    private final Databind databind;
+    private final Collection<Class<?>> classes;
+    private final Map<Class<?>, Long> timings;
+
+    /**
+     * Constructs a new {@link DatabindPreload}.
+     *
+     * @param databind The databind instance the classes have been preloaded for
+     * @param classes  The classes which have been requested to be preloaded
+     * @param timings  The time in nanoseconds spent preparing each class, including superclasses
+     */
+    DatabindPreload(Databind databind, Collection<Class<?>> classes, Map<Class<?>, Long> timings) {
+        this.databind = databind;
+        this.classes = classes;
+        this.timings = Collections.unmodifiableMap(timings);
+    }
+
+    /**
+     * Retrieves the time spent preparing each class.
+     * <p>
+     * Superclasses are prepared as well, as they are bound as the parents of their subclasses.
+     *
+     * @return The time in nanoseconds spent preparing each class
+     */
+    public Map<Class<?>, Long> timings() {
+        return timings;
+    }
+
+    /**
+     * Retrieves the total time spent preparing all classes, summed up over all threads.
+     *
+     * @return The total time in nanoseconds
+     */
+    public long totalTime() {
+        long total = 0;
+        for (long time : timings.values()) {
+            total += time;
+        }
+
+        return total;
+    }
+
+    /**
+     * Creates the native classes of all preloaded classes.
+     * <p>
+     * This should be called on the Ultralight thread. Afterwards, callers prepared for classes which have not been
+     * bound, for example because they have been bound concurrently, are released.
+     */
+    public void bake() {
+        for (Class<?> javaClass : classes) {
+            databind.toJavascript(javaClass);
+        }
+
+        databind.discardPrepared(timings.keySet());
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.api;
+
+import com.labymedia.ultralight.databind.DatabindConfiguration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the method as being invoked asynchronously when called from Javascript.
+ * <p>
+ * Instead of blocking the Javascript thread, the method is invoked on the executor configured using
+ * {@link DatabindConfiguration.Builder#asyncExecutor(java.util.concurrent.Executor)} and Javascript immediately
+ * receives a {@code Promise}. The promise is settled on the Javascript thread once the method returns, if the method
+ * returns a {@link java.util.concurrent.CompletionStage}, once the stage completes. Arguments are converted before
+ * the method is scheduled, the result is converted when the promise is settled.
+ * <p>
+ * Javascript values, objects and contexts are only valid on the Javascript thread, calls passing them to an
+ * asynchronous method, including an injected {@link com.labymedia.ultralight.javascript.JavascriptContext}, are
+ * rejected.
+ * <p>
+ * Asynchronous methods require a {@link com.labymedia.ultralight.databind.context.ContextProviderFactory} to be
+ * configured.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Async {
+}
@@ -0,0 +1,44 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.api;
+
+import com.labymedia.ultralight.databind.DatabindCallQueue;
+import com.labymedia.ultralight.databind.DatabindConfiguration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the method as being called without waiting for it from Javascript.
+ * <p>
+ * If a {@link DatabindCallQueue} has been configured using
+ * {@link DatabindConfiguration.Builder#callQueue(DatabindCallQueue)}, Javascript receives a function which only
+ * appends its arguments to a queue inside of Javascript, calling it does not call into Java and always returns
+ * {@code undefined}. The {@code signature} API for explicitly selecting an overload is not available on the function.
+ * The queued calls are invoked in order when the queue is dispatched, which usually happens once per
+ * frame. Without a call queue, if not all overloads of the method are annotated or if methods are installed as
+ * static functions, calls are invoked immediately.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FireAndForget {
+}
@@ -0,0 +1,449 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.cache;
+
+import com.labymedia.ultralight.javascript.JavascriptClass;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe {@link JavascriptClassCache} keyed by {@link Class} identity, with an optional size bound.
+ * <p>
+ * Reads are lock free. When the cache is bounded, the least recently used class is evicted once the bound is
+ * exceeded. Classes of the same name from different class loaders are cached separately, and all classes of a class
+ * loader can be invalidated at once when it is discarded, see {@link #invalidate(ClassLoader)}.
+ * <p>
+ * Classes put by name are kept separately from the ones keyed by identity and are never evicted. A lookup by
+ * {@link Class} falls back to the class put under its name, a lookup by name finds classes of both kinds.
+ * <p>
+ * Baked classes strongly reference their Java class through their native callbacks, so weak keys would never be
+ * cleared. Removed classes are instead dropped from the cache and released by the FFI garbage collector once they are
+ * not reachable anymore, or immediately if {@code releaseOnEviction} is enabled.
+ */
+public final class ConcurrentJavascriptClassCache implements JavascriptClassCache {
+    private final int maximumSize;
+    private final boolean releaseOnEviction;
+    private final Map<Class<?>, Entry> cache;
+    private final Map<String, Entry> namedCache;
+    private final Map<String, Set<Class<?>>> classesByName;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * Constructs a new unbounded {@link ConcurrentJavascriptClassCache}.
+     */
+    public ConcurrentJavascriptClassCache() {
+        this(0, false);
+    }
+
+    /**
+     * Constructs a new {@link ConcurrentJavascriptClassCache} with the given bound.
+     *
+     * @param maximumSize The maximum amount of cached classes, or {@code 0}, for an unbounded cache
+     */
+    public ConcurrentJavascriptClassCache(int maximumSize) {
+        this(maximumSize, false);
+    }
+
+    /**
+     * Constructs a new {@link ConcurrentJavascriptClassCache} with the given bound.
+     *
+     * @param maximumSize       The maximum amount of cached classes, or {@code 0}, for an unbounded cache
+     * @param releaseOnEviction If {@code true}, removed classes are released immediately, this is only safe if no
+     *                          other thread might still be using them for creating objects
+     * @throws IllegalArgumentException If the maximum size is negative
+     */
+    public ConcurrentJavascriptClassCache(int maximumSize, boolean releaseOnEviction) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The maximum size of the cache can not be negative");
+        }
+
+        this.maximumSize = maximumSize;
+        this.releaseOnEviction = releaseOnEviction;
+        this.cache = new ConcurrentHashMap<>();
+        this.namedCache = new ConcurrentHashMap<>();
+        this.classesByName = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    @Override
+    public JavascriptClass get(Class<?> javaClass) {
+        Entry entry = cache.get(javaClass);
+
+        if (entry == null && !namedCache.isEmpty()) {
+            // Classes might have been registered by name explicitly
+            entry = namedCache.get(javaClass.getName());
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        if (maximumSize != 0) {
+            // A timestamp avoids contending on a shared counter
+            entry.lastAccess = System.nanoTime();
+        }
+
+        return entry.javascriptClass;
+    }
+
+    @Override
+    public JavascriptClass put(Class<?> javaClass, JavascriptClass javascriptClass) {
+        Entry entry = new Entry(javascriptClass, System.nanoTime());
+        Entry existing = cache.putIfAbsent(javaClass, entry);
+
+        if (existing != null) {
+            // Another thread baked the class concurrently, keep the first one so only a single one is in use
+            return existing.javascriptClass;
+        }
+
+        index(javaClass);
+
+        if (maximumSize != 0) {
+            while (cache.size() > maximumSize && evictLeastRecentlyUsed(javaClass)) {
+                evictions.increment();
+            }
+        }
+
+        return javascriptClass;
+    }
+
+    /**
+     * Removes the class cached for the given Java class, or the class put under its name if there is none.
+     *
+     * @param javaClass The Java class to remove the Javascript class of
+     * @return The previously cached class, or {@code null}, if the class was not cached
+     */
+    @Override
+    public JavascriptClass delete(Class<?> javaClass) {
+        Entry entry = remove(javaClass);
+        if (entry == null) {
+            entry = namedCache.remove(javaClass.getName());
+            if (entry == null) {
+                return null;
+            }
+        }
+
+        release(entry);
+        return entry.javascriptClass;
+    }
+
+    @Override
+    public boolean contains(Class<?> javaClass) {
+        return cache.containsKey(javaClass) || (!namedCache.isEmpty() && namedCache.containsKey(javaClass.getName()));
+    }
+
+    /**
+     * Retrieves a class by name. Classes put by name take precedence, else any class with the given name is returned,
+     * which is ambiguous if classes with the same name have been loaded by different class loaders.
+     *
+     * @param name The name of the class to retrieve
+     * @return The cached class, or {@code null}, if no class with the given name is cached
+     */
+    @Override
+    public JavascriptClass get(String name) {
+        Entry entry = namedCache.get(name);
+        if (entry != null) {
+            hits.increment();
+            return entry.javascriptClass;
+        }
+
+        Class<?> javaClass = findByName(name);
+        if (javaClass == null) {
+            misses.increment();
+            return null;
+        }
+
+        return get(javaClass);
+    }
+
+    /**
+     * Puts a class under the given name, replacing any class previously put under this name. Classes put by name do
+     * not count towards the maximum size and are never evicted.
+     *
+     * @param name            The name of the class to cache
+     * @param javascriptClass The class instance to cache
+     * @return javascriptClass
+     */
+    @Override
+    public JavascriptClass put(String name, JavascriptClass javascriptClass) {
+        Entry previous = namedCache.put(name, new Entry(javascriptClass, System.nanoTime()));
+        if (previous != null && previous.javascriptClass != javascriptClass) {
+            release(previous);
+        }
+
+        return javascriptClass;
+    }
+
+    /**
+     * Removes the class put under the given name and all classes with the given name.
+     *
+     * @param name The name of the classes to remove
+     * @return One of the previously cached classes, or {@code null}, if no class with the given name was cached
+     */
+    @Override
+    public JavascriptClass delete(String name) {
+        JavascriptClass removed = null;
+
+        Entry named = namedCache.remove(name);
+        if (named != null) {
+            release(named);
+            removed = named.javascriptClass;
+        }
+
+        Set<Class<?>> classes = classesByName.get(name);
+        if (classes != null) {
+            for (Class<?> javaClass : classes) {
+                Entry entry = remove(javaClass);
+                if (entry != null) {
+                    release(entry);
+                    removed = entry.javascriptClass;
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    @Override
+    public boolean contains(String name) {
+        return namedCache.containsKey(name) || findByName(name) != null;
+    }
+
+    /**
+     * Removes all classes loaded by the given class loader, for example after a plugin has been unloaded.
+     *
+     * @param classLoader The class loader to remove the classes of
+     * @return The amount of removed classes
+     */
+    public int invalidate(ClassLoader classLoader) {
+        int removed = 0;
+
+        for (Class<?> javaClass : cache.keySet()) {
+            if (javaClass.getClassLoader() != classLoader) {
+                continue;
+            }
+
+            Entry entry = remove(javaClass);
+            if (entry != null) {
+                release(entry);
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Removes all classes from this cache.
+     */
+    public void clear() {
+        for (Class<?> javaClass : cache.keySet()) {
+            Entry entry = remove(javaClass);
+            if (entry != null) {
+                release(entry);
+            }
+        }
+
+        for (String name : namedCache.keySet()) {
+            Entry entry = namedCache.remove(name);
+            if (entry != null) {
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the maximum amount of cached classes.
+     *
+     * @return The maximum amount of cached classes, or {@code 0}, if the cache is unbounded
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Retrieves the amount of currently cached classes, including the ones put by name.
+     *
+     * @return The amount of currently cached classes
+     */
+    public int size() {
+        return cache.size() + namedCache.size();
+    }
+
+    /**
+     * Retrieves the amount of lookups which found a cached class.
+     *
+     * @return The amount of cache hits
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Retrieves the amount of lookups which did not find a cached class.
+     *
+     * @return The amount of cache misses
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Retrieves the amount of classes which have been evicted because the cache was full.
+     *
+     * @return The amount of evictions
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Searches a cached class by its name.
+     *
+     * @param name The name of the class to search
+     * @return The found class, or {@code null}, if no class with the given name is cached
+     */
+    private Class<?> findByName(String name) {
+        Set<Class<?>> classes = classesByName.get(name);
+        if (classes == null) {
+            return null;
+        }
+
+        for (Class<?> javaClass : classes) {
+            // The index might briefly lag behind concurrent removals
+            if (cache.containsKey(javaClass)) {
+                return javaClass;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds a class which has just been cached to the name index.
+     *
+     * @param javaClass The class to add
+     */
+    private void index(Class<?> javaClass) {
+        classesByName.compute(javaClass.getName(), (name, classes) -> {
+            if (classes == null) {
+                classes = ConcurrentHashMap.newKeySet();
+            }
+
+            classes.add(javaClass);
+            return classes;
+        });
+    }
+
+    /**
+     * Removes a class from the cache and the name index.
+     *
+     * @param javaClass The class to remove
+     * @return The removed entry, or {@code null}, if the class was not cached
+     */
+    private Entry remove(Class<?> javaClass) {
+        Entry entry = cache.remove(javaClass);
+        if (entry == null) {
+            return null;
+        }
+
+        classesByName.computeIfPresent(javaClass.getName(), (name, classes) -> {
+            classes.remove(javaClass);
+            return classes.isEmpty() ? null : classes;
+        });
+
+        return entry;
+    }
+
+    /**
+     * Evicts the least recently used class. The search is linear, but only happens when baking a new class, which is
+     * far more expensive anyway.
+     *
+     * @param keep The class which has just been inserted and should not be evicted
+     * @return {@code true} if a class has been evicted, {@code false} otherwise
+     */
+    private boolean evictLeastRecentlyUsed(Class<?> keep) {
+        Class<?> oldestClass = null;
+        long oldestAccess = Long.MAX_VALUE;
+
+        Iterator<Map.Entry<Class<?>, Entry>> it = cache.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Class<?>, Entry> candidate = it.next();
+            if (candidate.getKey() != keep && candidate.getValue().lastAccess < oldestAccess) {
+                oldestClass = candidate.getKey();
+                oldestAccess = candidate.getValue().lastAccess;
+            }
+        }
+
+        if (oldestClass == null) {
+            return false;
+        }
+
+        Entry evicted = remove(oldestClass);
+        if (evicted == null) {
+            // Removed concurrently, but the cache might have shrunk anyway
+            return true;
+        }
+
+        release(evicted);
+        return true;
+    }
+
+    /**
+     * Releases the native handle of a removed class if configured.
+     *
+     * @param entry The entry which has been removed
+     */
+    private void release(Entry entry) {
+        if (releaseOnEviction) {
+            entry.javascriptClass.delete();
+        }
+    }
+
+    /**
+     * A cached class together with the time of its last access.
+     */
+    private static final class Entry {
+        private final JavascriptClass javascriptClass;
+        private volatile long lastAccess;
+
+        /**
+         * Constructs a new {@link Entry}.
+         *
+         * @param javascriptClass The cached class
+         * @param lastAccess      The time of the last access
+         */
+        private Entry(JavascriptClass javascriptClass, long lastAccess) {
+            this.javascriptClass = javascriptClass;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -23,6 +23,9 @@ import com.labymedia.ultralight.javascript.JavascriptClass;
 
 /**
  * Map like cache structure for caching Javascript classes.
+ * <p>
+ * Databind looks up classes using the {@link Class} based methods. By default they delegate to the name based
+ * methods, implementations keyed by class identity should override them.
  */
 public interface JavascriptClassCache {
     /**
@@ -57,4 +60,45 @@ public interface JavascriptClassCache {
      * @return {@code true} if the class is cached, {@code false} otherwise
      */
     boolean contains(String name);
+
+    /**
+     * Retrieves the Javascript class of a Java class from the cache.
+     *
+     * @param javaClass The Java class to retrieve the Javascript class for
+     * @return The cached class, or {@code null}, if the class is not cached
+     */
+    default JavascriptClass get(Class<?> javaClass) {
+        return get(javaClass.getName());
+    }
+
+    /**
+     * Puts the Javascript class of a Java class into the cache.
+     *
+     * @param javaClass       The Java class to cache the Javascript class for
+     * @param javascriptClass The class instance to cache
+     * @return The class now cached for the Java class, usually javascriptClass
+     */
+    default JavascriptClass put(Class<?> javaClass, JavascriptClass javascriptClass) {
+        return put(javaClass.getName(), javascriptClass);
+    }
+
+    /**
+     * Removes the Javascript class of a Java class from the cache.
+     *
+     * @param javaClass The Java class to remove the Javascript class of
+     * @return The previously cached class, or {@code null}, if the class was not cached
+     */
+    default JavascriptClass delete(Class<?> javaClass) {
+        return delete(javaClass.getName());
+    }
+
+    /**
+     * Determines whether the cache contains the Javascript class of a Java class.
+     *
+     * @param javaClass The Java class to test for
+     * @return {@code true} if the class is cached, {@code false} otherwise
+     */
+    default boolean contains(Class<?> javaClass) {
+        return contains(javaClass.getName());
+    }
 }
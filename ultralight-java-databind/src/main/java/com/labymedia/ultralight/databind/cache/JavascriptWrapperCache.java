@@ -0,0 +1,379 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.cache;
+
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptContextLock;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptPropertyAttributes;
+import com.labymedia.ultralight.javascript.JavascriptProtectedValue;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per context identity cache mapping Java instances to the Javascript objects wrapping them. Wrappers are cached per
+ * instance and the class the instance has been exposed as.
+ * <p>
+ * Converting the same Java instance multiple times yields the same Javascript object, which keeps {@code ===}
+ * identity intact and avoids creating a new wrapper and native private data for every conversion.
+ * <p>
+ * Cached wrappers are protected and thereby keep their Java instance alive, as the wrapper references the instance
+ * from native code. To avoid leaking, every context caches a bounded amount of wrappers and evicts the least recently
+ * used one when full.
+ * <p>
+ * Wrappers are cached per global object. Every global object the cache is used with is tagged with a hidden,
+ * read only property. Native handles might be reused once a context has been replaced, for example after a page has
+ * been reloaded, in which case the wrappers of the previous context are dropped automatically. A context can't be
+ * replaced while it is locked, so the tag is only verified on the first lookup under every lock of the context.
+ * Wrappers of a context which is not used anymore at all can be dropped early using
+ * {@link #clear(JavascriptContext)}.
+ * <p>
+ * A wrapper returned from the cache is attached to the lock and unprotected once the lock is released, so the first
+ * lookup of a wrapper under a lock protects it once more. Further lookups under the same lock return the same value.
+ */
+public final class JavascriptWrapperCache {
+    /**
+     * The default maximum amount of cached wrappers per context.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    private static final String TAG_PROPERTY = "__ultralightJavaWrapperCache";
+
+    private final int maximumSize;
+    private final Map<Long, ContextWrappers> contexts;
+    private final AtomicLong nextTag;
+
+    private volatile VerifiedLock lastVerified;
+
+    /**
+     * Constructs a new {@link JavascriptWrapperCache} caching up to {@link #DEFAULT_MAXIMUM_SIZE} wrappers per context.
+     */
+    public JavascriptWrapperCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link JavascriptWrapperCache} with the given bound.
+     *
+     * @param maximumSize The maximum amount of cached wrappers per context
+     * @throws IllegalArgumentException If the maximum size is not positive
+     */
+    public JavascriptWrapperCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of the cache needs to be positive");
+        }
+
+        this.maximumSize = maximumSize;
+        this.contexts = new ConcurrentHashMap<>();
+        this.nextTag = new AtomicLong(1);
+    }
+
+    /**
+     * Retrieves the cached wrapper of a Java instance.
+     *
+     * @param context   The context to retrieve the wrapper in
+     * @param instance  The Java instance to retrieve the wrapper of
+     * @param javaClass The class the instance is exposed as
+     * @return The cached wrapper attached to the lock of the context, or {@code null}, if no wrapper is cached
+     */
+    public JavascriptValue get(JavascriptContext context, Object instance, Class<?> javaClass) {
+        ContextWrappers wrappers = wrappers(context, false);
+        return wrappers != null ? wrappers.get(context.getLock(), new IdentityKey(instance, javaClass)) : null;
+    }
+
+    /**
+     * Caches the wrapper of a Java instance.
+     *
+     * @param context   The context the wrapper belongs to
+     * @param instance  The Java instance wrapped
+     * @param javaClass The class the instance is exposed as
+     * @param wrapper   The Javascript object wrapping the instance
+     */
+    public void put(JavascriptContext context, Object instance, Class<?> javaClass, JavascriptValue wrapper) {
+        wrappers(context, true).put(context.getLock(), new IdentityKey(instance, javaClass), wrapper);
+    }
+
+    /**
+     * Drops all wrappers cached for a context. The wrappers are unprotected once the lock of the context is released.
+     *
+     * @param context The context to drop the wrappers of
+     */
+    public void clear(JavascriptContext context) {
+        lastVerified = null;
+
+        ContextWrappers wrappers = contexts.remove(context.getGlobalObject().getHandle());
+        if (wrappers != null) {
+            wrappers.clear(context.getLock());
+        }
+    }
+
+    /**
+     * Retrieves the wrappers cached for the global object of a context, dropping the wrappers of a replaced context
+     * which used the same native handle.
+     *
+     * @param context The context to retrieve the wrappers for
+     * @param create  If {@code true}, the wrappers are created if the context has none yet
+     * @return The wrappers of the context, or {@code null}, if the context has none and create is {@code false}
+     */
+    private ContextWrappers wrappers(JavascriptContext context, boolean create) {
+        JavascriptContextLock lock = context.getLock();
+
+        VerifiedLock verified = lastVerified;
+        if (verified != null && verified.lock == lock && lock.isLocked()) {
+            // The context can't have been replaced while it is locked
+            return verified.wrappers;
+        }
+
+        JavascriptObject globalObject = context.getGlobalObject();
+        long handle = globalObject.getHandle();
+
+        ContextWrappers wrappers = contexts.get(handle);
+        if (wrappers != null && !wrappers.isTagged(globalObject)) {
+            // The handle is used by a new context, the wrappers belong to the one which has been replaced
+            if (contexts.remove(handle, wrappers)) {
+                wrappers.clear(lock);
+            }
+
+            wrappers = null;
+        }
+
+        if (wrappers == null && create) {
+            wrappers = contexts.computeIfAbsent(handle, (key) -> {
+                ContextWrappers created = new ContextWrappers(maximumSize, nextTag.getAndIncrement());
+                globalObject.setProperty(
+                        TAG_PROPERTY,
+                        context.makeNumber(created.tag),
+                        JavascriptPropertyAttributes.DONT_ENUM | JavascriptPropertyAttributes.READ_ONLY |
+                                JavascriptPropertyAttributes.DONT_DELETE);
+                return created;
+            });
+        }
+
+        if (wrappers != null) {
+            lastVerified = new VerifiedLock(lock, wrappers);
+        }
+
+        return wrappers;
+    }
+
+    /**
+     * Retrieves the maximum amount of cached wrappers per context.
+     *
+     * @return The maximum amount of cached wrappers per context
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Retrieves the amount of wrappers currently cached over all contexts.
+     *
+     * @return The amount of currently cached wrappers
+     */
+    public int size() {
+        int size = 0;
+        for (ContextWrappers wrappers : contexts.values()) {
+            size += wrappers.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Wrappers cached for a single context.
+     */
+    private static final class ContextWrappers {
+        private final int maximumSize;
+        private final long tag;
+        private final LinkedHashMap<IdentityKey, Entry> wrappers;
+
+        /**
+         * Constructs a new {@link ContextWrappers} instance.
+         *
+         * @param maximumSize The maximum amount of cached wrappers
+         * @param tag         The unique tag the global object of the context is marked with
+         */
+        private ContextWrappers(int maximumSize, long tag) {
+            this.maximumSize = maximumSize;
+            this.tag = tag;
+
+            // Access order, so the eldest entry is the least recently used one
+            this.wrappers = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        /**
+         * Determines whether a global object is the one these wrappers have been created for.
+         *
+         * @param globalObject The global object to check
+         * @return {@code true} if the global object is tagged for these wrappers, {@code false} otherwise
+         */
+        private boolean isTagged(JavascriptObject globalObject) {
+            JavascriptValue value = globalObject.getProperty(TAG_PROPERTY);
+            return value.isNumber() && value.toNumber() == tag;
+        }
+
+        /**
+         * Retrieves a cached wrapper.
+         *
+         * @param lock The lock to attach the wrapper to
+         * @param key  The key of the wrapper
+         * @return The cached wrapper, or {@code null}, if no wrapper is cached
+         */
+        private synchronized JavascriptValue get(JavascriptContextLock lock, IdentityKey key) {
+            Entry entry = wrappers.get(key);
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.lock != lock) {
+                // Reviving consumes the protection, so protect the wrapper again for the next lock
+                entry.value = entry.protectedValue.revive(lock);
+                entry.protectedValue = entry.value.protect();
+                entry.lock = lock;
+            }
+
+            return entry.value;
+        }
+
+        /**
+         * Caches a wrapper, evicting the least recently used one if full.
+         *
+         * @param lock    The lock to attach evicted wrappers to, so they are unprotected on unlock
+         * @param key     The key of the wrapper
+         * @param wrapper The Javascript object wrapping the instance
+         */
+        private synchronized void put(JavascriptContextLock lock, IdentityKey key, JavascriptValue wrapper) {
+            Entry previous = wrappers.put(key, new Entry(wrapper.protect(), wrapper, lock));
+            if (previous != null) {
+                previous.protectedValue.revive(lock);
+            }
+
+            if (wrappers.size() > maximumSize) {
+                Iterator<Entry> it = wrappers.values().iterator();
+                it.next().protectedValue.revive(lock);
+                it.remove();
+            }
+        }
+
+        /**
+         * Drops all cached wrappers.
+         *
+         * @param lock The lock to attach the wrappers to, so they are unprotected on unlock
+         */
+        private synchronized void clear(JavascriptContextLock lock) {
+            for (Entry entry : wrappers.values()) {
+                entry.protectedValue.revive(lock);
+            }
+
+            wrappers.clear();
+        }
+
+        /**
+         * Retrieves the amount of cached wrappers.
+         *
+         * @return The amount of cached wrappers
+         */
+        private synchronized int size() {
+            return wrappers.size();
+        }
+    }
+
+    /**
+     * A cached wrapper together with the value last returned for it.
+     */
+    private static final class Entry {
+        private JavascriptProtectedValue protectedValue;
+        private JavascriptValue value;
+        private JavascriptContextLock lock;
+
+        /**
+         * Constructs a new {@link Entry}.
+         *
+         * @param protectedValue The protection held by the cache
+         * @param value          The value attached to the lock
+         * @param lock           The lock the value is attached to
+         */
+        private Entry(JavascriptProtectedValue protectedValue, JavascriptValue value, JavascriptContextLock lock) {
+            this.protectedValue = protectedValue;
+            this.value = value;
+            this.lock = lock;
+        }
+    }
+
+    /**
+     * A lock under which the tag of a context has been verified, together with the wrappers of the context.
+     */
+    private static final class VerifiedLock {
+        private final JavascriptContextLock lock;
+        private final ContextWrappers wrappers;
+
+        /**
+         * Constructs a new {@link VerifiedLock}.
+         *
+         * @param lock     The lock the tag has been verified under
+         * @param wrappers The wrappers of the context the lock belongs to
+         */
+        private VerifiedLock(JavascriptContextLock lock, ContextWrappers wrappers) {
+            this.lock = lock;
+            this.wrappers = wrappers;
+        }
+    }
+
+    /**
+     * Map key comparing instances by identity.
+     */
+    private static final class IdentityKey {
+        private final Object instance;
+        private final Class<?> javaClass;
+        private final int hash;
+
+        /**
+         * Constructs a new {@link IdentityKey}.
+         *
+         * @param instance  The instance to compare by identity
+         * @param javaClass The class the instance is exposed as
+         */
+        private IdentityKey(Object instance, Class<?> javaClass) {
+            this.instance = instance;
+            this.javaClass = javaClass;
+            this.hash = 31 * System.identityHashCode(instance) + javaClass.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof IdentityKey)) {
+                return false;
+            }
+
+            IdentityKey other = (IdentityKey) o;
+            return other.instance == instance && other.javaClass == javaClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
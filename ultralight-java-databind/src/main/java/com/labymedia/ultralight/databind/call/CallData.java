@@ -19,15 +19,12 @@
 
 package com.labymedia.ultralight.databind.call;
 
-import com.labymedia.ultralight.databind.api.InjectJavascriptContext;
 import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
 import com.labymedia.ultralight.javascript.JavascriptContext;
 import com.labymedia.ultralight.javascript.JavascriptValue;
 
-import java.lang.reflect.Array;
 import java.lang.reflect.Executable;
-import java.lang.reflect.Parameter;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -38,16 +35,19 @@ import java.util.List;
 public class CallData<T extends Executable> {
     private final T target;
     private final VarArgsType varArgsType;
+    private final InvocationPlan plan;
 
     /**
      * Constructs a new {@link CallData} for a certain target specifying how to handle var args.
      *
      * @param target      The target of this call
-     * @param varArgsType The type of the var args expansion
+     * @param varArgsType The type of the var args expansion, or {@code null}, if it could not be determined, in which
+     *                    case constructing the arguments for a var args target fails
      */
     public CallData(T target, VarArgsType varArgsType) {
         this.target = target;
         this.varArgsType = varArgsType;
+        this.plan = InvocationPlan.of(target);
     }
 
     /**
@@ -59,6 +59,15 @@ public class CallData<T extends Executable> {
         return target;
     }
 
+    /**
+     * Retrieves the precomputed invocation plan of the target.
+     *
+     * @return The invocation plan of the target
+     */
+    public InvocationPlan getPlan() {
+        return plan;
+    }
+
     /**
      * Constructs the arguments based on the requested call data.
      *
@@ -66,58 +75,45 @@ public class CallData<T extends Executable> {
      * @param conversionUtils The conversion utilities used for converting objects
      * @param arguments       The Javascript arguments
      * @return The List of constructed arguments
+     * @see #constructArgumentArray(JavascriptContext, JavascriptConversionUtils, JavascriptValue[])
      */
     public List<Object> constructArguments(
             JavascriptContext context, JavascriptConversionUtils conversionUtils, JavascriptValue[] arguments) {
-        Parameter[] methodParameters = target.getParameters();
-        List<Object> parameters = new ArrayList<>();
-
-        boolean injectContext = target.isAnnotationPresent(InjectJavascriptContext.class);
-
-        // Convert all parameters to Javascript values
-        for (int i = 0; i < methodParameters.length; i++) {
-            if (i == 0 && injectContext) {
-                parameters.add(context);
-            } else if (i == methodParameters.length - 1 && target.isVarArgs()) {
-                switch (varArgsType) {
-                    case NONE:
-                        // No special handling required
-                        break;
-
-                    case EMPTY:
-                        // Supply empty array
-                        parameters.add(Array.newInstance(methodParameters[i].getType().getComponentType(), 0));
-                        break;
-
-                    case COMPACT:
-                        // Compact remaining variable arguments into an array
-                        int varArgsCount = arguments.length - i;
-                        Class<?> targetType = methodParameters[i].getType().getComponentType();
-
-                        Object args = Array.newInstance(targetType, varArgsCount);
-
-                        for (int x = 0; x < varArgsCount; x++) {
-                            Array.set(args, x, conversionUtils.fromJavascript(
-                                    arguments[(i + x) - (injectContext ? 1 : 0)], targetType));
-                        }
-
-                        parameters.add(args);
-                        break;
+        return Arrays.asList(constructArgumentArray(context, conversionUtils, arguments));
+    }
 
-                    case PASS_THROUGH:
-                        // Pass through the argument one to one
-                        parameters.add(conversionUtils.fromJavascript(
-                                arguments[i - (injectContext ? 1 : 0)], methodParameters[i].getType()));
-                        break;
-                }
-            } else {
-                // Single argument
-                parameters.add(conversionUtils.fromJavascript(
-                        arguments[i - (injectContext ? 1 : 0)], methodParameters[i].getType()));
-            }
-        }
+    /**
+     * Constructs the arguments based on the requested call data, directly as an array which can be passed to
+     * the target.
+     *
+     * @param context         The Javascript context to use for argument construction
+     * @param conversionUtils The conversion utilities used for converting objects
+     * @param arguments       The Javascript arguments
+     * @return The constructed arguments
+     */
+    public Object[] constructArgumentArray(
+            JavascriptContext context, JavascriptConversionUtils conversionUtils, JavascriptValue[] arguments) {
+        return constructArgumentArray(context, conversionUtils, arguments, null);
+    }
 
-        return parameters;
+    /**
+     * Constructs the arguments based on the requested call data, reusing the elements of array arguments which have
+     * been fetched while choosing the target.
+     *
+     * @param context         The Javascript context to use for argument construction
+     * @param conversionUtils The conversion utilities used for converting objects
+     * @param arguments       The Javascript arguments
+     * @param fetchedElements The elements of array arguments recorded by the {@link MethodChooser}, or
+     *                        {@code null}, if none have been recorded
+     * @return The constructed arguments
+     */
+    public Object[] constructArgumentArray(
+            JavascriptContext context,
+            JavascriptConversionUtils conversionUtils,
+            JavascriptValue[] arguments,
+            JavascriptValue[][] fetchedElements
+    ) {
+        return plan.constructArguments(context, conversionUtils, arguments, fetchedElements, varArgsType);
     }
 
     /**
@@ -0,0 +1,310 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.call;
+
+import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+
+import java.lang.reflect.Executable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread safe cache mapping a set of possible executables and the inferred argument types of a call
+ * to the {@link CallData} previously chosen for them.
+ * <p>
+ * Lookups are lock free. When the bound is exceeded, the least recently used resolutions are evicted in a batch
+ * bringing the cache an eighth below its bound, so the scan for them only happens once for many insertions. While
+ * one thread evicts, others keep inserting, so the bound is approximate.
+ */
+public final class CallDataCache {
+    /**
+     * The default maximum amount of cached resolutions.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private final int maximumSize;
+    private final Map<Key, Entry> cache;
+    private final AtomicBoolean evicting;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Constructs a new {@link CallDataCache} with the given bound.
+     *
+     * @param maximumSize The maximum amount of cached resolutions, or {@code 0}, to disable caching
+     * @throws IllegalArgumentException If the maximum size is negative
+     */
+    public CallDataCache(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The maximum size of the cache can not be negative");
+        }
+
+        this.maximumSize = maximumSize;
+        this.cache = new ConcurrentHashMap<>();
+        this.evicting = new AtomicBoolean();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Creates the key for a call.
+     *
+     * @param possibilities    All executables which could possibly be targeted by the call
+     * @param parameterTypes   The inferred types of the arguments
+     * @param javascriptValues The arguments being passed from Javascript
+     * @return The created key, or {@code null}, if the call can not be cached
+     */
+    Key key(Collection<?> possibilities, Class<?>[] parameterTypes, JavascriptValue[] javascriptValues) {
+        return key(possibilities, parameterTypes, javascriptValues, null);
+    }
+
+    /**
+     * Creates the key for a call resolved with the given conversion utilities.
+     *
+     * @param possibilities    All executables which could possibly be targeted by the call
+     * @param parameterTypes   The inferred types of the arguments
+     * @param javascriptValues The arguments being passed from Javascript
+     * @param converters       The conversion utilities the call is resolved with, compared by identity, as their
+     *                         custom converters take part in the resolution, or {@code null}
+     * @return The created key, or {@code null}, if the call can not be cached
+     */
+    Key key(
+            Collection<?> possibilities,
+            Class<?>[] parameterTypes,
+            JavascriptValue[] javascriptValues,
+            JavascriptConversionUtils converters
+    ) {
+        if (maximumSize == 0 || parameterTypes.length > Long.SIZE) {
+            return null;
+        }
+
+        // Plain objects may be converted to functional interfaces, which depends on the value and not on the type.
+        // Overload sets know whether any of their executables accepts a functional interface, which saves the
+        // native call for every object argument when none does.
+        long functionMask = 0;
+        if (!(possibilities instanceof OverloadSet) || ((OverloadSet<?>) possibilities).acceptsFunctionalInterfaces()) {
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (parameterTypes[i] == JavascriptObject.class && javascriptValues[i].toObject().isFunction()) {
+                    functionMask |= 1L << i;
+                }
+            }
+        }
+
+        return new Key(possibilities, parameterTypes, functionMask, converters);
+    }
+
+    /**
+     * Retrieves a previously cached resolution.
+     *
+     * @param key The key of the call
+     * @param <T> The target executable type
+     * @return The cached call data, or {@code null}, if the call has not been resolved yet
+     */
+    @SuppressWarnings("unchecked")
+    <T extends Executable> CallData<T> get(Key key) {
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        entry.lastAccess = System.nanoTime();
+        hits.increment();
+
+        return (CallData<T>) entry.callData;
+    }
+
+    /**
+     * Caches a resolution, evicting the least recently used entries if the cache is full.
+     *
+     * @param key      The key of the call
+     * @param callData The call data which has been chosen for the call
+     */
+    void put(Key key, CallData<?> callData) {
+        cache.put(key, new Entry(callData, System.nanoTime()));
+
+        if (cache.size() > maximumSize && evicting.compareAndSet(false, true)) {
+            // Only a single thread evicts, the others don't need to wait for it
+            try {
+                evictLeastRecentlyUsed();
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used resolutions until the cache is an eighth below its bound.
+     * <p>
+     * The access times are taken from a snapshot, entries accessed after it are kept even if they are among the
+     * oldest ones.
+     */
+    private void evictLeastRecentlyUsed() {
+        List<Map.Entry<Key, Entry>> entries = new ArrayList<>(cache.entrySet());
+
+        int excess = entries.size() - (maximumSize - maximumSize / 8);
+        if (excess <= 0) {
+            return;
+        }
+
+        long[] accesses = new long[entries.size()];
+        for (int i = 0; i < accesses.length; i++) {
+            accesses[i] = entries.get(i).getValue().lastAccess;
+        }
+
+        Arrays.sort(accesses);
+        long newestEvicted = accesses[excess - 1];
+
+        int evicted = 0;
+        for (Map.Entry<Key, Entry> entry : entries) {
+            if (evicted == excess) {
+                break;
+            }
+
+            if (entry.getValue().lastAccess <= newestEvicted && cache.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the maximum amount of cached resolutions.
+     *
+     * @return The maximum amount of cached resolutions, or {@code 0}, if caching is disabled
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Retrieves the amount of currently cached resolutions.
+     *
+     * @return The amount of currently cached resolutions
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Retrieves the amount of calls which could be resolved from the cache.
+     *
+     * @return The amount of cache hits
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Retrieves the amount of calls which had to be resolved by scanning all possible executables.
+     *
+     * @return The amount of cache misses
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes all cached resolutions and resets the statistics.
+     */
+    public void clear() {
+        cache.clear();
+
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * A cached resolution together with the time of its last access.
+     */
+    private static final class Entry {
+        private final CallData<?> callData;
+        private volatile long lastAccess;
+
+        /**
+         * Constructs a new {@link Entry}.
+         *
+         * @param callData   The cached call data
+         * @param lastAccess The time of the last access
+         */
+        private Entry(CallData<?> callData, long lastAccess) {
+            this.callData = callData;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Identity of a call, consisting of the set of possible executables and the argument type vector.
+     */
+    static final class Key {
+        private final Collection<?> possibilities;
+        private final Class<?>[] parameterTypes;
+        private final long functionMask;
+        private final JavascriptConversionUtils converters;
+        private final int hash;
+
+        /**
+         * Constructs a new {@link Key}.
+         *
+         * @param possibilities  All executables which could possibly be targeted by the call, compared by identity
+         * @param parameterTypes The inferred types of the arguments
+         * @param functionMask   Bit mask of the arguments which are Javascript functions
+         * @param converters     The conversion utilities the call is resolved with, compared by identity
+         */
+        private Key(Collection<?> possibilities, Class<?>[] parameterTypes, long functionMask, JavascriptConversionUtils converters) {
+            this.possibilities = possibilities;
+            this.parameterTypes = parameterTypes;
+            this.functionMask = functionMask;
+            this.converters = converters;
+            this.hash = 31 * (31 * System.identityHashCode(possibilities) + Arrays.hashCode(parameterTypes))
+                    + Long.hashCode(functionMask);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return possibilities == other.possibilities &&
+                    converters == other.converters &&
+                    functionMask == other.functionMask &&
+                    Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
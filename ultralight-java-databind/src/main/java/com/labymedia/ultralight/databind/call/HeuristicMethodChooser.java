@@ -31,32 +31,176 @@ import java.util.*;
 
 /**
  * Default implementation of a {@link MethodChooser} selecting methods based on type inference and heuristics.
+ * <p>
+ * When the conversion utilities are passed to the chooser, parameters of types handled by a custom converter accept
+ * any argument, with a higher penalty than types the argument is assignable to.
  */
 public final class HeuristicMethodChooser implements MethodChooser {
+    /**
+     * The penalty of passing an argument to a parameter whose type is handled by a custom converter.
+     */
+    private static final int CONVERTER_PENALTY = 50;
+
+    /**
+     * The distances of all supertypes of a class, memoized per class, as the hierarchy never changes.
+     */
+    private static final ClassValue<Map<Class<?>, Integer>> SUPERTYPE_DISTANCES =
+            new ClassValue<Map<Class<?>, Integer>>() {
+                @Override
+                protected Map<Class<?>, Integer> computeValue(Class<?> type) {
+                    return computeSupertypeDistances(type);
+                }
+            };
+
+    private final CallDataCache cache;
+    private final int arraySampleSize;
+
+    /**
+     * Constructs a new {@link HeuristicMethodChooser} caching up to {@link CallDataCache#DEFAULT_MAXIMUM_SIZE}
+     * resolutions.
+     */
+    public HeuristicMethodChooser() {
+        this(CallDataCache.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link HeuristicMethodChooser} caching up to the given amount of resolutions.
+     *
+     * @param cacheSize The maximum amount of cached resolutions, or {@code 0}, to disable caching
+     */
+    public HeuristicMethodChooser(int cacheSize) {
+        this(cacheSize, 0);
+    }
+
+    /**
+     * Constructs a new {@link HeuristicMethodChooser} caching up to the given amount of resolutions and inferring
+     * the type of Javascript arrays from a limited amount of elements.
+     * <p>
+     * Sampling makes calls with large arrays significantly cheaper, but the type inferred for an array might be too
+     * specific if elements after the sampled ones differ. In that case the conversion of the array fails instead of
+     * choosing a more general overload.
+     *
+     * @param cacheSize       The maximum amount of cached resolutions, or {@code 0}, to disable caching
+     * @param arraySampleSize The maximum amount of elements inspected for inferring the type of an array, or
+     *                        {@code 0}, to inspect all elements
+     */
+    public HeuristicMethodChooser(int cacheSize, int arraySampleSize) {
+        if (arraySampleSize < 0) {
+            throw new IllegalArgumentException("The array sample size must not be negative");
+        }
+
+        this.cache = new CallDataCache(cacheSize);
+        this.arraySampleSize = arraySampleSize;
+    }
+
+    /**
+     * Retrieves the cache of resolutions made by this chooser.
+     *
+     * @return The resolution cache of this chooser
+     */
+    public CallDataCache getCache() {
+        return cache;
+    }
+
     @Override
     public <T extends Executable> CallData<T> choose(
             Collection<? extends T> possibilities, JavascriptValue... javascriptValues) {
+        return choose(possibilities, javascriptValues, null);
+    }
+
+    @Override
+    public <T extends Executable> CallData<T> choose(
+            Collection<? extends T> possibilities,
+            JavascriptValue[] javascriptValues,
+            JavascriptValue[][] fetchedElements
+    ) {
+        return choose(possibilities, javascriptValues, fetchedElements, null);
+    }
+
+    @Override
+    public <T extends Executable> CallData<T> choose(
+            Collection<? extends T> possibilities,
+            JavascriptValue[] javascriptValues,
+            JavascriptValue[][] fetchedElements,
+            JavascriptConversionUtils conversionUtils
+    ) {
         // Make space for all parameter types
         Class<?>[] parameterTypes = new Class<?>[javascriptValues.length];
 
+        // If only a single executable can take this amount of arguments, the elements of arrays don't need to be
+        // inspected, as there is nothing to choose between
+        T onlyCandidate = findOnlyArityMatch(possibilities, javascriptValues.length);
+
+        // Without conversion utilities typed arrays are still inferred, as they can always be read into arrays
+        boolean typedArrays = conversionUtils == null || conversionUtils.supportsTypedArrays();
+
         // Try to find out the Java types of all Javascript parameters
         for (int i = 0; i < parameterTypes.length; i++) {
-            parameterTypes[i] = JavascriptConversionUtils.determineType(javascriptValues[i]);
+            Class<?> declaredArrayType = onlyCandidate != null ?
+                    declaredArrayType(onlyCandidate, i, javascriptValues.length) : null;
+
+            if (declaredArrayType != null && javascriptValues[i].isArray()) {
+                // Trust the declaration, the conversion validates the elements anyway
+                parameterTypes[i] = declaredArrayType;
+            } else if (javascriptValues[i].isArray()) {
+                JavascriptValue[] elements =
+                        JavascriptConversionUtils.sampleElements(javascriptValues[i].toObject(), arraySampleSize);
+                parameterTypes[i] =
+                        JavascriptConversionUtils.determineArrayType(elements, arraySampleSize, typedArrays);
+
+                if (fetchedElements != null && (arraySampleSize == 0 || elements.length < arraySampleSize)) {
+                    // The whole array has been fetched, hand it on to the conversion
+                    fetchedElements[i] = elements;
+                }
+            } else {
+                parameterTypes[i] =
+                        JavascriptConversionUtils.determineType(javascriptValues[i], arraySampleSize, typedArrays);
+            }
+        }
+
+        // The same set of executables called with the same argument types always resolves to the same target
+        CallDataCache.Key key = cache.key(possibilities, parameterTypes, javascriptValues, conversionUtils);
+        if (key != null) {
+            CallData<T> cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
         }
 
         // Hand of the actual selection to the extended call
-        return choose(possibilities, parameterTypes, javascriptValues);
+        CallData<T> callData = choose(possibilities, parameterTypes, javascriptValues, conversionUtils);
+
+        if (key != null) {
+            cache.put(key, callData);
+        }
+
+        return callData;
     }
 
     @Override
     public <T extends Executable> CallData<T> choose(
             Collection<? extends T> possibilities, Class<?>[] sourceParameterTypes, JavascriptValue[] javascriptValues) {
+        return choose(possibilities, sourceParameterTypes, javascriptValues, null);
+    }
+
+    @Override
+    public <T extends Executable> CallData<T> choose(
+            Collection<? extends T> possibilities,
+            Class<?>[] sourceParameterTypes,
+            JavascriptValue[] javascriptValues,
+            JavascriptConversionUtils conversionUtils
+    ) {
         // The default penalty needs to be higher than the maximum penalty produced by the selection process
         int penalty = Integer.MAX_VALUE;
         List<CallData<T>> availableMethods = new ArrayList<>(possibilities.size());
 
+        // Overload sets have been bucketed by arity ahead of time
+        boolean bucketed = possibilities instanceof OverloadSet;
+        Collection<? extends T> candidates = bucketed ?
+                ((OverloadSet<? extends T>) possibilities).withArity(sourceParameterTypes.length) : possibilities;
+
         tryNextMethod:
-        for (T executable : possibilities) {
+        for (T executable : candidates) {
             // It is required to know if we need to shift parameter selection by one if the method
             // needs a Javascript context
             boolean injectContext = executable.isAnnotationPresent(InjectJavascriptContext.class);
@@ -66,13 +210,8 @@ public final class HeuristicMethodChooser implements MethodChooser {
             CallData.VarArgsType varArgsType = null;
 
             Parameter[] parameters = executable.getParameters();
-            if (parameters.length != sourceParameterTypes.length + paramMod) {
-                // Parameter count does not match
-                if (!executable.isVarArgs() || sourceParameterTypes.length < parameters.length - (injectContext ? 0 : 1)) {
-                    // The method is either not a var args executable or even when the var args are not filled, the
-                    // amount of arguments is not enough
-                    continue;
-                }
+            if (!bucketed && !matchesArity(executable, injectContext, sourceParameterTypes.length)) {
+                continue;
             }
 
             for (int i = 0; i < parameters.length - paramMod; i++) {
@@ -111,7 +250,8 @@ public final class HeuristicMethodChooser implements MethodChooser {
                             int argPenalty = calculatePenalty(
                                     parameters[i + paramMod].getType().getComponentType(),
                                     sourceParameterTypes[x],
-                                    javascriptValues[x]
+                                    javascriptValues[x],
+                                    conversionUtils
                             );
                             if (argPenalty < 0) {
                                 // Argument is incompatible, search next method
@@ -128,7 +268,8 @@ public final class HeuristicMethodChooser implements MethodChooser {
                     int argPenalty = calculatePenalty(
                             parameters[i + paramMod].getType(),
                             sourceParameterTypes[i],
-                            javascriptValues[i]
+                            javascriptValues[i],
+                            conversionUtils
                     );
                     if (argPenalty < 0) {
                         // Argument is incompatible, search next method
@@ -139,9 +280,13 @@ public final class HeuristicMethodChooser implements MethodChooser {
                 }
             }
 
-            if (currentPenalty < penalty) {
+            if (currentPenalty > penalty) {
+                // A better matching implementation has already been found
+                continue;
+            } else if (currentPenalty < penalty) {
                 // Found a better matching implementation, clear available ones
                 availableMethods.clear();
+                penalty = currentPenalty;
             }
 
             availableMethods.add(new CallData<>(executable, varArgsType));
@@ -164,6 +309,82 @@ public final class HeuristicMethodChooser implements MethodChooser {
         return availableMethods.iterator().next();
     }
 
+    /**
+     * Determines whether an executable can be called with the given amount of arguments.
+     *
+     * @param executable    The executable to check
+     * @param injectContext Whether the executable receives the Javascript context as additional first argument
+     * @param argumentCount The amount of arguments passed from Javascript
+     * @return {@code true} if the amount of arguments matches, {@code false} otherwise
+     */
+    private static boolean matchesArity(Executable executable, boolean injectContext, int argumentCount) {
+        int parameterCount = executable.getParameterCount();
+        if (parameterCount == argumentCount + (injectContext ? 1 : 0)) {
+            return true;
+        }
+
+        // The method is either not a var args executable or even when the var args are not filled, the
+        // amount of arguments is not enough
+        return executable.isVarArgs() && argumentCount >= parameterCount - (injectContext ? 0 : 1);
+    }
+
+    /**
+     * Finds the only executable which can be called with the given amount of arguments.
+     *
+     * @param possibilities The executables to search
+     * @param argumentCount The amount of arguments passed from Javascript
+     * @param <T>           The type of the executables
+     * @return The only executable matching the amount of arguments, or {@code null}, if none or multiple match
+     */
+    private static <T extends Executable> T findOnlyArityMatch(
+            Collection<? extends T> possibilities, int argumentCount) {
+        if (possibilities instanceof OverloadSet) {
+            List<? extends T> candidates = ((OverloadSet<? extends T>) possibilities).withArity(argumentCount);
+            return candidates.size() == 1 ? candidates.get(0) : null;
+        }
+
+        T match = null;
+
+        for (T executable : possibilities) {
+            if (matchesArity(executable, executable.isAnnotationPresent(InjectJavascriptContext.class), argumentCount)) {
+                if (match != null) {
+                    return null;
+                }
+
+                match = executable;
+            }
+        }
+
+        return match;
+    }
+
+    /**
+     * Retrieves the declared array type an argument is passed to.
+     *
+     * @param executable    The executable the argument is passed to
+     * @param index         The index of the Javascript argument
+     * @param argumentCount The amount of arguments passed from Javascript
+     * @return The declared array type, or {@code null}, if the argument is not passed to an array parameter
+     */
+    private static Class<?> declaredArrayType(Executable executable, int index, int argumentCount) {
+        int paramMod = executable.isAnnotationPresent(InjectJavascriptContext.class) ? 1 : 0;
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        int parameterIndex = index + paramMod;
+
+        Class<?> type;
+        if (executable.isVarArgs() && parameterIndex >= parameterTypes.length - 1) {
+            Class<?> varArgsType = parameterTypes[parameterTypes.length - 1];
+
+            // A single array in the var args position might be passed through as a whole
+            type = parameterIndex == parameterTypes.length - 1 && argumentCount + paramMod == parameterTypes.length ?
+                    varArgsType : varArgsType.getComponentType();
+        } else {
+            type = parameterTypes[parameterIndex];
+        }
+
+        return type.isArray() ? type : null;
+    }
+
     /**
      * Formats the given error message so it contains all the required information for debugging.
      *
@@ -216,7 +437,18 @@ public final class HeuristicMethodChooser implements MethodChooser {
         return builder.toString();
     }
 
-    private int calculatePenalty(Class<?> target, Class<?> source, JavascriptValue value) {
+    /**
+     * Calculates the penalty of passing an argument to a parameter.
+     *
+     * @param target          The type of the parameter
+     * @param source          The inferred type of the argument
+     * @param value           The argument
+     * @param conversionUtils The conversion utilities the argument will be converted with, or {@code null}, if custom
+     *                        converters are not taken into account
+     * @return The penalty, or {@code -1}, if the argument can't be passed to the parameter
+     */
+    private int calculatePenalty(
+            Class<?> target, Class<?> source, JavascriptValue value, JavascriptConversionUtils conversionUtils) {
         if (target == Object.class) {
             // The target accepts any parameter, but higher penalty because there might be methods that are
             // more specific
@@ -239,47 +471,58 @@ public final class HeuristicMethodChooser implements MethodChooser {
             // Functional conversion possible
             return 0;
         } else if (!target.isAssignableFrom(source)) {
-            // Conversion is not possible at all
-            return -1;
+            // Only a custom converter can produce the target from an unrelated type
+            return conversionUtils != null && conversionUtils.hasCustomConverter(target) ? CONVERTER_PENALTY : -1;
         }
 
-        /*
-         * Dijkstra algorithm:
-         * Used for finding the shortest conversion path of Java classes from one to another.
-         *
-         * Initial setup, use the current source as the starting node
-         */
-        HashMap<Class<?>, Integer> dist = new HashMap<>();
-        Queue<ClassWithPriority> queue = new LinkedList<>();
-        queue.add(new ClassWithPriority(source, 0));
+        // Length of the shortest path through the class hierarchy
+        return supertypeDistances(source).get(target);
+    }
+
+    /**
+     * Retrieves the memoized length of the shortest path from a class to each of its supertypes.
+     *
+     * @param source The class to start from
+     * @return The distance of every supertype, including the class itself
+     */
+    static Map<Class<?>, Integer> supertypeDistances(Class<?> source) {
+        return SUPERTYPE_DISTANCES.get(source);
+    }
+
+    /**
+     * Computes the length of the shortest path from a class to each of its supertypes.
+     * <p>
+     * Every step to a direct superclass or interface has a length of one.
+     *
+     * @param source The class to start from
+     * @return The distance of every supertype, including the class itself
+     */
+    private static Map<Class<?>, Integer> computeSupertypeDistances(Class<?> source) {
+        Map<Class<?>, Integer> distances = new HashMap<>();
+        distances.put(source, 0);
+
+        // Breadth first search, the first time a type is reached is over the shortest path
+        Queue<Class<?>> queue = new ArrayDeque<>();
+        queue.add(source);
 
         while (!queue.isEmpty()) {
-            // There are path left, check them
-            ClassWithPriority cwp = queue.remove();
-            List<ClassWithPriority> next = new ArrayList<>();
+            Class<?> current = queue.remove();
+            int distance = distances.get(current) + 1;
 
-            if (cwp.clazz.getSuperclass() != null && target.isAssignableFrom(cwp.clazz.getSuperclass())) {
-                // Found a path, increment length of the path and add it
-                next.add(new ClassWithPriority(cwp.clazz.getSuperclass(), cwp.priority + 1));
+            List<Class<?>> next = new ArrayList<>(Arrays.asList(current.getInterfaces()));
+            if (current.getSuperclass() != null) {
+                next.add(current.getSuperclass());
             }
 
-            // Also check if for all interfaces, incrementing the length by one for each path
-            Arrays.stream(cwp.clazz.getInterfaces())
-                    .filter(target::isAssignableFrom)
-                    .map(clazz -> new ClassWithPriority(clazz, cwp.priority + 1))
-                    .forEach(next::add);
-
-            next.forEach(e -> {
-                // Check if a path is better
-                if (e.priority < dist.getOrDefault(e.clazz, Integer.MAX_VALUE)) {
-                    // Found a better one, select it and put it into the queue
-                    dist.put(e.clazz, e.priority);
-                    queue.add(e);
+            for (Class<?> supertype : next) {
+                if (!distances.containsKey(supertype)) {
+                    distances.put(supertype, distance);
+                    queue.add(supertype);
                 }
-            });
+            }
         }
 
-        return dist.get(target);
+        return Collections.unmodifiableMap(distances);
     }
 
     /**
@@ -305,17 +548,4 @@ public final class HeuristicMethodChooser implements MethodChooser {
             return source == Character.class && target == char.class;
         }
     }
-
-    /**
-     * Helper tuple to combine a class with a priority for the dijkstra algorithm.
-     */
-    private static class ClassWithPriority {
-        Class<?> clazz;
-        int priority;
-
-        public ClassWithPriority(Class<?> clazz, int priority) {
-            this.clazz = clazz;
-            this.priority = priority;
-        }
-    }
 }
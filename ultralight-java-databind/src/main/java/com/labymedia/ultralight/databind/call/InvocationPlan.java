@@ -0,0 +1,364 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.call;
+
+import com.labymedia.ultralight.databind.api.Async;
+import com.labymedia.ultralight.databind.api.InjectJavascriptContext;
+import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Executable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleFunction;
+
+/**
+ * Immutable description of how to construct the Java arguments of an {@link Executable} from Javascript values.
+ * <p>
+ * Plans are computed once per executable and cached per declaring class, so the reflective inspection of parameters
+ * and annotations does not happen on every call. Every parameter is bound to a converter specialized for its type,
+ * which only falls back to {@link JavascriptConversionUtils#fromJavascript(JavascriptValue, Class)} for values of an
+ * unexpected Javascript type, custom converters and types without a fast path.
+ */
+public final class InvocationPlan {
+    private static final ClassValue<Map<Executable, InvocationPlan>> PLANS =
+            new ClassValue<Map<Executable, InvocationPlan>>() {
+                @Override
+                protected Map<Executable, InvocationPlan> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final int parameterCount;
+    private final boolean injectContext;
+    private final boolean async;
+    private final boolean varArgs;
+    private final Class<?>[] parameterTypes;
+    private final Converter[] converters;
+    private final Class<?> varArgsComponentType;
+    private final Converter varArgsComponentConverter;
+
+    /**
+     * Constructs a new {@link InvocationPlan} by inspecting an executable.
+     *
+     * @param target The executable to create the plan for
+     */
+    private InvocationPlan(Executable target) {
+        this.parameterTypes = target.getParameterTypes();
+        this.parameterCount = parameterTypes.length;
+        this.injectContext = target.isAnnotationPresent(InjectJavascriptContext.class);
+        this.async = target.isAnnotationPresent(Async.class);
+        this.varArgs = target.isVarArgs();
+
+        this.converters = new Converter[parameterCount];
+        for (int i = 0; i < parameterCount; i++) {
+            converters[i] = converterFor(parameterTypes[i]);
+        }
+
+        if (varArgs) {
+            this.varArgsComponentType = parameterTypes[parameterCount - 1].getComponentType();
+            this.varArgsComponentConverter = converterFor(varArgsComponentType);
+        } else {
+            this.varArgsComponentType = null;
+            this.varArgsComponentConverter = null;
+        }
+    }
+
+    /**
+     * Retrieves the plan of an executable, computing it if required.
+     *
+     * @param target The executable to retrieve the plan for
+     * @return The plan of the executable
+     */
+    public static InvocationPlan of(Executable target) {
+        Map<Executable, InvocationPlan> plans = PLANS.get(target.getDeclaringClass());
+
+        InvocationPlan plan = plans.get(target);
+        if (plan == null) {
+            plan = new InvocationPlan(target);
+            plans.put(target, plan);
+        }
+
+        return plan;
+    }
+
+    /**
+     * Determines the converter for parameters of a certain type.
+     *
+     * @param type The type of the parameter
+     * @return The converter for the parameter
+     */
+    private static Converter converterFor(Class<?> type) {
+        if (type == JavascriptValue.class) {
+            // No conversion required at all, don't even query the type of the value
+            return (conversionUtils, value) -> value;
+        }
+
+        Converter specialized = specializedConverterFor(type);
+        if (specialized == null) {
+            return (conversionUtils, value) -> conversionUtils.fromJavascript(value, type);
+        }
+
+        // Custom converters take precedence, this check is free if none are registered
+        return (conversionUtils, value) -> conversionUtils.hasCustomConverter(type) ?
+                conversionUtils.fromJavascript(value, type) : specialized.convert(conversionUtils, value);
+    }
+
+    /**
+     * Determines the fast path converter for parameters of a certain type. The fast path handles the Javascript type
+     * which maps to the parameter type directly and falls back to the generic conversion for everything else, which
+     * takes care of null, undefined and error reporting.
+     *
+     * @param type The type of the parameter
+     * @return The fast path converter, or {@code null}, if the type has none
+     */
+    private static Converter specializedConverterFor(Class<?> type) {
+        if (type == int.class || type == Integer.class) {
+            return numberConverter(type, (number) -> (int) number);
+        } else if (type == long.class || type == Long.class) {
+            return numberConverter(type, (number) -> (long) number);
+        } else if (type == double.class || type == Double.class) {
+            return numberConverter(type, (number) -> number);
+        } else if (type == float.class || type == Float.class) {
+            return numberConverter(type, (number) -> (float) number);
+        } else if (type == short.class || type == Short.class) {
+            return numberConverter(type, (number) -> (short) number);
+        } else if (type == byte.class || type == Byte.class) {
+            return numberConverter(type, (number) -> (byte) number);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return (conversionUtils, value) -> value.isBoolean() ?
+                    value.toBoolean() : conversionUtils.fromJavascript(value, type);
+        } else if (type == String.class) {
+            return (conversionUtils, value) -> value.isString() ?
+                    value.toString() : conversionUtils.fromJavascript(value, type);
+        } else if (type == JavascriptObject.class) {
+            return (conversionUtils, value) -> {
+                if (value instanceof JavascriptObject) {
+                    return value;
+                }
+
+                return value.isObject() ? value.toObject() : conversionUtils.fromJavascript(value, type);
+            };
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates a fast path converter for a numeric parameter.
+     *
+     * @param type      The type of the parameter
+     * @param narrowing The function narrowing the Javascript number to the parameter type
+     * @return The created converter
+     */
+    private static Converter numberConverter(Class<?> type, DoubleFunction<Object> narrowing) {
+        return (conversionUtils, value) -> value.isNumber() ?
+                narrowing.apply(value.toNumber()) : conversionUtils.fromJavascript(value, type);
+    }
+
+    /**
+     * Retrieves the amount of parameters of the executable, including an injected context.
+     *
+     * @return The amount of parameters
+     */
+    public int parameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * Determines whether the executable requests the {@link JavascriptContext} as its first parameter.
+     *
+     * @return {@code true} if the context is injected, {@code false} otherwise
+     */
+    public boolean injectsContext() {
+        return injectContext;
+    }
+
+    /**
+     * Determines whether the executable is annotated with {@link Async} and has to be invoked off the Javascript
+     * thread.
+     *
+     * @return {@code true} if the executable is asynchronous, {@code false} otherwise
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Determines whether the executable takes variable arguments.
+     *
+     * @return {@code true} if the executable takes var args, {@code false} otherwise
+     */
+    public boolean isVarArgs() {
+        return varArgs;
+    }
+
+    /**
+     * Constructs the Java arguments from the given Javascript arguments.
+     *
+     * @param context         The Javascript context to use for argument construction
+     * @param conversionUtils The conversion utilities used for converting objects
+     * @param arguments       The Javascript arguments
+     * @param varArgsType     The type of the var args expansion, or {@code null}, if it could not be determined
+     * @return The constructed arguments
+     * @throws IllegalStateException If the executable takes var args, but the type of the expansion is unknown
+     */
+    public Object[] constructArguments(
+            JavascriptContext context,
+            JavascriptConversionUtils conversionUtils,
+            JavascriptValue[] arguments,
+            CallData.VarArgsType varArgsType
+    ) {
+        return constructArguments(context, conversionUtils, arguments, null, varArgsType);
+    }
+
+    /**
+     * Constructs the Java arguments from the given Javascript arguments, reusing the elements of array arguments
+     * which have already been fetched.
+     *
+     * @param context         The Javascript context to use for argument construction
+     * @param conversionUtils The conversion utilities used for converting objects
+     * @param arguments       The Javascript arguments
+     * @param fetchedElements All elements of every array argument which have already been fetched, or {@code null}
+     * @param varArgsType     The type of the var args expansion, or {@code null}, if it could not be determined
+     * @return The constructed arguments
+     * @throws IllegalStateException If the executable takes var args, but the type of the expansion is unknown
+     */
+    public Object[] constructArguments(
+            JavascriptContext context,
+            JavascriptConversionUtils conversionUtils,
+            JavascriptValue[] arguments,
+            JavascriptValue[][] fetchedElements,
+            CallData.VarArgsType varArgsType
+    ) {
+        if (parameterCount == 0) {
+            return NO_ARGUMENTS;
+        }
+
+        Object[] parameters = new Object[parameterCount];
+        int offset = injectContext ? 1 : 0;
+        int last = varArgs ? parameterCount - 1 : parameterCount;
+
+        if (injectContext) {
+            parameters[0] = context;
+        }
+
+        // Convert all fixed parameters to Java values
+        for (int i = offset; i < last; i++) {
+            parameters[i] = convert(
+                    conversionUtils, converters[i], parameterTypes[i], arguments, fetchedElements, i - offset);
+        }
+
+        if (varArgs && last >= offset) {
+            int argumentIndex = last - offset;
+
+            if (varArgsType == null) {
+                // The method chooser could not determine how to expand the var args, for example because the first
+                // var arg is null or undefined
+                throw new IllegalStateException("Unable to determine how to pass the variable arguments");
+            }
+
+            switch (varArgsType) {
+                case NONE:
+                    // No special handling required
+                    break;
+
+                case EMPTY:
+                    // Supply empty array
+                    parameters[last] = Array.newInstance(varArgsComponentType, 0);
+                    break;
+
+                case COMPACT:
+                    // Compact remaining variable arguments into an array
+                    int varArgsCount = Math.max(arguments.length - argumentIndex, 0);
+                    Object args = Array.newInstance(varArgsComponentType, varArgsCount);
+
+                    for (int x = 0; x < varArgsCount; x++) {
+                        Array.set(args, x, convert(
+                                conversionUtils,
+                                varArgsComponentConverter,
+                                varArgsComponentType,
+                                arguments,
+                                fetchedElements,
+                                argumentIndex + x));
+                    }
+
+                    parameters[last] = args;
+                    break;
+
+                case PASS_THROUGH:
+                    // Pass through the argument one to one
+                    parameters[last] = convert(
+                            conversionUtils, converters[last], parameterTypes[last], arguments, fetchedElements,
+                            argumentIndex);
+                    break;
+            }
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Converts a single Javascript argument, preferring already fetched array elements over the bound converter.
+     *
+     * @param conversionUtils The conversion utilities used for converting objects
+     * @param converter       The converter bound to the parameter
+     * @param type            The type of the parameter
+     * @param arguments       The Javascript arguments
+     * @param fetchedElements All elements of every array argument which have already been fetched, or {@code null}
+     * @param index           The index of the argument to convert
+     * @return The converted argument
+     */
+    private static Object convert(
+            JavascriptConversionUtils conversionUtils,
+            Converter converter,
+            Class<?> type,
+            JavascriptValue[] arguments,
+            JavascriptValue[][] fetchedElements,
+            int index
+    ) {
+        JavascriptValue[] elements = fetchedElements != null ? fetchedElements[index] : null;
+        if (elements != null && type != JavascriptValue.class) {
+            return conversionUtils.fromJavascriptArray(arguments[index], elements, type);
+        }
+
+        return converter.convert(conversionUtils, arguments[index]);
+    }
+
+    /**
+     * Converts a single Javascript argument to the Java type of a parameter.
+     */
+    @FunctionalInterface
+    interface Converter {
+        /**
+         * Converts the value.
+         *
+         * @param conversionUtils The conversion utilities used for converting objects
+         * @param value           The Javascript value to convert
+         * @return The converted value
+         */
+        Object convert(JavascriptConversionUtils conversionUtils, JavascriptValue value);
+    }
+}
@@ -19,6 +19,7 @@
 
 package com.labymedia.ultralight.databind.call;
 
+import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
 import com.labymedia.ultralight.javascript.JavascriptValue;
 
 import java.lang.reflect.Executable;
@@ -40,6 +41,54 @@ public interface MethodChooser {
      */
     <T extends Executable> CallData<T> choose(Collection<? extends T> possibilities, JavascriptValue[] javascriptValues);
 
+    /**
+     * Chooses the best matching method based on the arguments incoming from Javascript, recording the elements of
+     * array arguments which had to be fetched for the choice.
+     * <p>
+     * The recorded elements can be passed to
+     * {@link CallData#constructArgumentArray(com.labymedia.ultralight.javascript.JavascriptContext,
+     * com.labymedia.ultralight.databind.utils.JavascriptConversionUtils, JavascriptValue[], JavascriptValue[][])},
+     * so the arrays are not fetched from Javascript a second time. The default implementation records nothing.
+     *
+     * @param possibilities    All executables which could possibly be targeted by this call
+     * @param javascriptValues The arguments being passed from Javascript
+     * @param fetchedElements  An array with the same length as the arguments, receiving all elements of every array
+     *                         argument which have been fetched completely
+     * @param <T>              The target executable type
+     * @return Information on how to call the chosen executable
+     * @throws IllegalStateException If the target executable can not be determined
+     */
+    default <T extends Executable> CallData<T> choose(
+            Collection<? extends T> possibilities,
+            JavascriptValue[] javascriptValues,
+            JavascriptValue[][] fetchedElements
+    ) {
+        return choose(possibilities, javascriptValues);
+    }
+
+    /**
+     * Chooses the best matching method based on the arguments incoming from Javascript, taking the types converted by
+     * custom converters into account. The default implementation ignores the conversion utilities.
+     *
+     * @param possibilities    All executables which could possibly be targeted by this call
+     * @param javascriptValues The arguments being passed from Javascript
+     * @param fetchedElements  An array with the same length as the arguments, receiving all elements of every array
+     *                         argument which have been fetched completely, or {@code null}, to not record them
+     * @param conversionUtils  The conversion utilities the arguments will be converted with
+     * @param <T>              The target executable type
+     * @return Information on how to call the chosen executable
+     * @throws IllegalStateException If the target executable can not be determined
+     * @see #choose(Collection, JavascriptValue[], JavascriptValue[][])
+     */
+    default <T extends Executable> CallData<T> choose(
+            Collection<? extends T> possibilities,
+            JavascriptValue[] javascriptValues,
+            JavascriptValue[][] fetchedElements,
+            JavascriptConversionUtils conversionUtils
+    ) {
+        return choose(possibilities, javascriptValues, fetchedElements);
+    }
+
     /**
      * Chooses the best matching method based on the arguments incoming from Javascript.
      *
@@ -52,4 +101,25 @@ public interface MethodChooser {
      */
     <T extends Executable> CallData<T> choose(
             Collection<? extends T> possibilities, Class<?>[] sourceParameterTypes, JavascriptValue[] javascriptValues);
+
+    /**
+     * Chooses the best matching method based on the arguments incoming from Javascript, taking the types converted by
+     * custom converters into account. The default implementation ignores the conversion utilities.
+     *
+     * @param possibilities        All executables which could possibly be targeted by this call
+     * @param sourceParameterTypes The desired types for the parameters
+     * @param javascriptValues     The arguments being passed from Javascript
+     * @param conversionUtils      The conversion utilities the arguments will be converted with
+     * @param <T>                  The target executable type
+     * @return Information on how to call the chosen executable
+     * @throws IllegalStateException If the target executable can not be determined
+     */
+    default <T extends Executable> CallData<T> choose(
+            Collection<? extends T> possibilities,
+            Class<?>[] sourceParameterTypes,
+            JavascriptValue[] javascriptValues,
+            JavascriptConversionUtils conversionUtils
+    ) {
+        return choose(possibilities, sourceParameterTypes, javascriptValues);
+    }
 }
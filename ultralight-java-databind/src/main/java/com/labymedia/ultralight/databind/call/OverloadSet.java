@@ -0,0 +1,159 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.call;
+
+import com.labymedia.ultralight.databind.api.InjectJavascriptContext;
+
+import java.lang.reflect.Executable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable set of overloaded executables, bucketed by the amount of Javascript arguments they accept.
+ * <p>
+ * {@link HeuristicMethodChooser} only inspects the executables of the matching bucket when passed an overload set,
+ * instead of checking the arity of every overload on every call.
+ *
+ * @param <T> The type of the executables
+ */
+public final class OverloadSet<T extends Executable> extends AbstractSet<T> {
+    private final Set<T> executables;
+    private final Map<Integer, List<T>> fixedArity;
+    private final List<T> varArgs;
+    private final Map<Integer, List<T>> candidates;
+    private final boolean acceptsFunctionalInterfaces;
+
+    /**
+     * Constructs a new {@link OverloadSet}.
+     *
+     * @param executables The overloaded executables
+     */
+    public OverloadSet(Collection<? extends T> executables) {
+        this.executables = Collections.unmodifiableSet(new LinkedHashSet<>(executables));
+        this.fixedArity = new HashMap<>();
+        this.varArgs = new ArrayList<>();
+        this.candidates = new ConcurrentHashMap<>();
+
+        boolean acceptsFunctionalInterfaces = false;
+        for (T executable : this.executables) {
+            acceptsFunctionalInterfaces |= acceptsFunctionalInterface(executable);
+
+            if (executable.isVarArgs()) {
+                varArgs.add(executable);
+            } else {
+                // The Javascript context is not passed from Javascript
+                int argumentCount = executable.getParameterCount() -
+                        (executable.isAnnotationPresent(InjectJavascriptContext.class) ? 1 : 0);
+
+                fixedArity.computeIfAbsent(argumentCount, (key) -> new ArrayList<>()).add(executable);
+            }
+        }
+
+        this.acceptsFunctionalInterfaces = acceptsFunctionalInterfaces;
+    }
+
+    /**
+     * Determines whether an executable has a parameter which Javascript functions can be converted to.
+     *
+     * @param executable The executable to check
+     * @return {@code true} if any parameter, or the var args component, is a functional interface
+     */
+    private static boolean acceptsFunctionalInterface(Executable executable) {
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> type = parameterTypes[i];
+            if (executable.isVarArgs() && i == parameterTypes.length - 1) {
+                type = type.getComponentType();
+            }
+
+            if (type.isAnnotationPresent(FunctionalInterface.class)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether any executable of this set accepts a functional interface, in which case resolutions
+     * depend on whether object arguments are Javascript functions.
+     *
+     * @return {@code true} if any executable has a functional interface parameter, {@code false} otherwise
+     */
+    public boolean acceptsFunctionalInterfaces() {
+        return acceptsFunctionalInterfaces;
+    }
+
+    /**
+     * Retrieves the executables which can be called with the given amount of Javascript arguments.
+     *
+     * @param argumentCount The amount of arguments passed from Javascript
+     * @return The executables accepting the amount of arguments
+     */
+    public List<T> withArity(int argumentCount) {
+        List<T> matching = candidates.get(argumentCount);
+        if (matching == null) {
+            matching = collectCandidates(argumentCount);
+            candidates.putIfAbsent(argumentCount, matching);
+        }
+
+        return matching;
+    }
+
+    /**
+     * Collects the executables which can be called with the given amount of Javascript arguments.
+     *
+     * @param argumentCount The amount of arguments passed from Javascript
+     * @return The executables accepting the amount of arguments
+     */
+    private List<T> collectCandidates(int argumentCount) {
+        List<T> matching = new ArrayList<>(fixedArity.getOrDefault(argumentCount, Collections.emptyList()));
+
+        for (T executable : varArgs) {
+            int parameterCount = executable.getParameterCount();
+            boolean injectContext = executable.isAnnotationPresent(InjectJavascriptContext.class);
+
+            if (parameterCount == argumentCount + (injectContext ? 1 : 0) ||
+                    argumentCount >= parameterCount - (injectContext ? 0 : 1)) {
+                matching.add(executable);
+            }
+        }
+
+        return Collections.unmodifiableList(matching);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return executables.iterator();
+    }
+
+    @Override
+    public int size() {
+        return executables.size();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.call.property;
+
+/**
+ * Compile time generated dispatcher for the public members declared by a single class.
+ * <p>
+ * Implementations are generated for classes annotated with
+ * {@link com.labymedia.ultralight.databind.api.JavascriptExport} into the package of the class, named after the
+ * class with {@code $} replaced by {@code _} and suffixed with {@value #SUFFIX}. Fields are identified by their
+ * name, methods and constructors by their signature. A signature consists of the name, {@code <init>} for
+ * constructors, and the parameter types as returned by {@link Class#getTypeName()}, for example
+ * {@code format(java.lang.String,java.lang.Object[])}.
+ */
+public interface JavascriptBinding {
+    /**
+     * The suffix of the names of generated bindings.
+     */
+    String SUFFIX = "_JavascriptBinding";
+
+    /**
+     * Retrieves the signatures of all methods this binding can invoke.
+     *
+     * @return The signatures of the methods
+     */
+    String[] methods();
+
+    /**
+     * Retrieves the signatures of all constructors this binding can invoke.
+     *
+     * @return The signatures of the constructors
+     */
+    String[] constructors();
+
+    /**
+     * Retrieves the names of all fields this binding can access.
+     *
+     * @return The names of the fields
+     */
+    String[] fields();
+
+    /**
+     * Invokes a method.
+     *
+     * @param signature  The signature of the method
+     * @param instance   The instance to invoke the method on, or {@code null}, if the method is static
+     * @param parameters The parameters to invoke the method with
+     * @return The return value of the method, or {@code null}, if void
+     * @throws Throwable If the method throws
+     */
+    Object callMethod(String signature, Object instance, Object[] parameters) throws Throwable;
+
+    /**
+     * Invokes a constructor.
+     *
+     * @param signature  The signature of the constructor
+     * @param parameters The parameters to invoke the constructor with
+     * @return The constructed instance
+     * @throws Throwable If the constructor throws
+     */
+    Object callConstructor(String signature, Object[] parameters) throws Throwable;
+
+    /**
+     * Reads a field.
+     *
+     * @param name     The name of the field
+     * @param instance The instance to read the field from, or {@code null}, if the field is static
+     * @return The value of the field
+     */
+    Object getField(String name, Object instance);
+
+    /**
+     * Writes a field.
+     *
+     * @param name     The name of the field
+     * @param instance The instance to write the field on, or {@code null}, if the field is static
+     * @param value    The new value of the field
+     * @throws IllegalArgumentException If the field is final
+     */
+    void setField(String name, Object instance, Object value);
+}
@@ -0,0 +1,472 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.call.property;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Spins an implementation of a fixed arity functional interface per method or constructor using the
+ * {@link LambdaMetafactory}, the same way the compiler links method references.
+ * <p>
+ * Each generated class calls its member directly, so the JIT compiles the call like a regular invocation instead of
+ * going through a non-constant {@link MethodHandle}. The generated implementation is adapted to an {@link Invoker}
+ * taking the arguments as an array. Members taking more than 6 arguments, including the receiver, and members
+ * whose types can't be linked from this class loader are not supported.
+ */
+final class LambdaInvokers {
+    /**
+     * The maximum amount of arguments of an implementation, including the receiver of instance methods.
+     */
+    static final int MAXIMUM_ARITY = 6;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final ClassLoader CLASS_LOADER = LambdaInvokers.class.getClassLoader();
+
+    private static final Class<?>[] CALL_TYPES = {
+            Call0.class, Call1.class, Call2.class, Call3.class, Call4.class, Call5.class, Call6.class
+    };
+    private static final Class<?>[] VOID_CALL_TYPES = {
+            VoidCall0.class, VoidCall1.class, VoidCall2.class, VoidCall3.class, VoidCall4.class, VoidCall5.class,
+            VoidCall6.class
+    };
+
+    // Static utility class
+    private LambdaInvokers() {
+    }
+
+    /**
+     * Calls a member with the arguments as an array.
+     */
+    @FunctionalInterface
+    interface Invoker {
+        /**
+         * Calls the member.
+         *
+         * @param instance  The instance to call the member on, ignored for static members and constructors
+         * @param arguments The arguments of the call
+         * @return The result of the call, or {@code null}, if the member is a void method
+         * @throws Throwable Any exception thrown by the member
+         */
+        Object invoke(Object instance, Object[] arguments) throws Throwable;
+    }
+
+    /**
+     * Creates an invoker for a method or constructor.
+     *
+     * @param executable The method or constructor to create the invoker for
+     * @param handle     A direct handle of the executable
+     * @return The created invoker, or {@code null}, if the executable is not supported
+     */
+    static Invoker create(Executable executable, MethodHandle handle) {
+        boolean receiver = executable instanceof Method && !Modifier.isStatic(executable.getModifiers());
+        int arity = executable.getParameterCount() + (receiver ? 1 : 0);
+        if (arity > MAXIMUM_ARITY || !isLinkable(executable)) {
+            return null;
+        }
+
+        boolean returnsVoid = executable instanceof Method && ((Method) executable).getReturnType() == void.class;
+        Class<?> interfaceType = (returnsVoid ? VOID_CALL_TYPES : CALL_TYPES)[arity];
+
+        Class<?> returnType = returnsVoid ? void.class : Object.class;
+        MethodHandle implementationHandle = handle.asFixedArity();
+
+        // The generated class casts the arguments to the boxed parameter types and unboxes them if required
+        MethodType erasedType = MethodType.genericMethodType(arity).changeReturnType(returnType);
+        MethodType instantiatedType = implementationHandle.type().wrap().changeReturnType(returnType);
+
+        Object implementation;
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    LOOKUP,
+                    "call",
+                    MethodType.methodType(interfaceType),
+                    erasedType,
+                    implementationHandle,
+                    instantiatedType);
+            implementation = callSite.getTarget().invoke();
+        } catch (LambdaConversionException | IllegalArgumentException exception) {
+            // The member can't be called from the generated class
+            return null;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to instantiate the generated implementation", t);
+        }
+
+        return returnsVoid ? adaptVoid(implementation, arity, receiver) : adapt(implementation, arity, receiver);
+    }
+
+    /**
+     * Determines whether all types of an executable resolve to the same classes from this class loader, which is
+     * required for the generated class to link against them.
+     *
+     * @param executable The executable to check
+     * @return {@code true} if the executable can be linked, {@code false} otherwise
+     */
+    private static boolean isLinkable(Executable executable) {
+        if (!Modifier.isPublic(executable.getModifiers()) ||
+                !Modifier.isPublic(executable.getDeclaringClass().getModifiers()) ||
+                !isVisible(executable.getDeclaringClass())) {
+            return false;
+        }
+
+        if (executable instanceof Method && !isVisible(((Method) executable).getReturnType())) {
+            return false;
+        }
+
+        for (Class<?> parameterType : executable.getParameterTypes()) {
+            if (!isVisible(parameterType)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines whether a type resolves to the same class from this class loader.
+     *
+     * @param type The type to check
+     * @return {@code true} if the type is visible, {@code false} otherwise
+     */
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+
+        if (type.isPrimitive()) {
+            return true;
+        }
+
+        try {
+            return Class.forName(type.getName(), false, CLASS_LOADER) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Adapts a generated implementation returning a value to an {@link Invoker}.
+     *
+     * @param implementation The generated implementation
+     * @param arity          The amount of arguments of the implementation
+     * @param receiver       Whether the first argument of the implementation is the instance
+     * @return The adapted invoker
+     */
+    private static Invoker adapt(Object implementation, int arity, boolean receiver) {
+        if (receiver) {
+            switch (arity) {
+                case 1: {
+                    Call1 call = (Call1) implementation;
+                    return (instance, arguments) -> call.call(instance);
+                }
+                case 2: {
+                    Call2 call = (Call2) implementation;
+                    return (instance, arguments) -> call.call(instance, arguments[0]);
+                }
+                case 3: {
+                    Call3 call = (Call3) implementation;
+                    return (instance, arguments) -> call.call(instance, arguments[0], arguments[1]);
+                }
+                case 4: {
+                    Call4 call = (Call4) implementation;
+                    return (instance, arguments) -> call.call(instance, arguments[0], arguments[1], arguments[2]);
+                }
+                case 5: {
+                    Call5 call = (Call5) implementation;
+                    return (instance, arguments) ->
+                            call.call(instance, arguments[0], arguments[1], arguments[2], arguments[3]);
+                }
+                case 6: {
+                    Call6 call = (Call6) implementation;
+                    return (instance, arguments) ->
+                            call.call(instance, arguments[0], arguments[1], arguments[2], arguments[3], arguments[4]);
+                }
+                default:
+                    throw new IllegalArgumentException("Unsupported arity " + arity);
+            }
+        }
+
+        switch (arity) {
+            case 0: {
+                Call0 call = (Call0) implementation;
+                return (instance, arguments) -> call.call();
+            }
+            case 1: {
+                Call1 call = (Call1) implementation;
+                return (instance, arguments) -> call.call(arguments[0]);
+            }
+            case 2: {
+                Call2 call = (Call2) implementation;
+                return (instance, arguments) -> call.call(arguments[0], arguments[1]);
+            }
+            case 3: {
+                Call3 call = (Call3) implementation;
+                return (instance, arguments) -> call.call(arguments[0], arguments[1], arguments[2]);
+            }
+            case 4: {
+                Call4 call = (Call4) implementation;
+                return (instance, arguments) -> call.call(arguments[0], arguments[1], arguments[2], arguments[3]);
+            }
+            case 5: {
+                Call5 call = (Call5) implementation;
+                return (instance, arguments) ->
+                        call.call(arguments[0], arguments[1], arguments[2], arguments[3], arguments[4]);
+            }
+            case 6: {
+                Call6 call = (Call6) implementation;
+                return (instance, arguments) ->
+                        call.call(arguments[0], arguments[1], arguments[2], arguments[3], arguments[4], arguments[5]);
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported arity " + arity);
+        }
+    }
+
+    /**
+     * Adapts a generated implementation of a void method to an {@link Invoker}.
+     *
+     * @param implementation The generated implementation
+     * @param arity          The amount of arguments of the implementation
+     * @param receiver       Whether the first argument of the implementation is the instance
+     * @return The adapted invoker
+     */
+    private static Invoker adaptVoid(Object implementation, int arity, boolean receiver) {
+        if (receiver) {
+            switch (arity) {
+                case 1: {
+                    VoidCall1 call = (VoidCall1) implementation;
+                    return (instance, arguments) -> {
+                        call.call(instance);
+                        return null;
+                    };
+                }
+                case 2: {
+                    VoidCall2 call = (VoidCall2) implementation;
+                    return (instance, arguments) -> {
+                        call.call(instance, arguments[0]);
+                        return null;
+                    };
+                }
+                case 3: {
+                    VoidCall3 call = (VoidCall3) implementation;
+                    return (instance, arguments) -> {
+                        call.call(instance, arguments[0], arguments[1]);
+                        return null;
+                    };
+                }
+                case 4: {
+                    VoidCall4 call = (VoidCall4) implementation;
+                    return (instance, arguments) -> {
+                        call.call(instance, arguments[0], arguments[1], arguments[2]);
+                        return null;
+                    };
+                }
+                case 5: {
+                    VoidCall5 call = (VoidCall5) implementation;
+                    return (instance, arguments) -> {
+                        call.call(instance, arguments[0], arguments[1], arguments[2], arguments[3]);
+                        return null;
+                    };
+                }
+                case 6: {
+                    VoidCall6 call = (VoidCall6) implementation;
+                    return (instance, arguments) -> {
+                        call.call(instance, arguments[0], arguments[1], arguments[2], arguments[3], arguments[4]);
+                        return null;
+                    };
+                }
+                default:
+                    throw new IllegalArgumentException("Unsupported arity " + arity);
+            }
+        }
+
+        switch (arity) {
+            case 0: {
+                VoidCall0 call = (VoidCall0) implementation;
+                return (instance, arguments) -> {
+                    call.call();
+                    return null;
+                };
+            }
+            case 1: {
+                VoidCall1 call = (VoidCall1) implementation;
+                return (instance, arguments) -> {
+                    call.call(arguments[0]);
+                    return null;
+                };
+            }
+            case 2: {
+                VoidCall2 call = (VoidCall2) implementation;
+                return (instance, arguments) -> {
+                    call.call(arguments[0], arguments[1]);
+                    return null;
+                };
+            }
+            case 3: {
+                VoidCall3 call = (VoidCall3) implementation;
+                return (instance, arguments) -> {
+                    call.call(arguments[0], arguments[1], arguments[2]);
+                    return null;
+                };
+            }
+            case 4: {
+                VoidCall4 call = (VoidCall4) implementation;
+                return (instance, arguments) -> {
+                    call.call(arguments[0], arguments[1], arguments[2], arguments[3]);
+                    return null;
+                };
+            }
+            case 5: {
+                VoidCall5 call = (VoidCall5) implementation;
+                return (instance, arguments) -> {
+                    call.call(arguments[0], arguments[1], arguments[2], arguments[3], arguments[4]);
+                    return null;
+                };
+            }
+            case 6: {
+                VoidCall6 call = (VoidCall6) implementation;
+                return (instance, arguments) -> {
+                    call.call(arguments[0], arguments[1], arguments[2], arguments[3], arguments[4], arguments[5]);
+                    return null;
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported arity " + arity);
+        }
+    }
+
+    /**
+     * Implementation of a member taking 0 arguments.
+     */
+    @FunctionalInterface
+    interface Call0 {
+        Object call();
+    }
+
+    /**
+     * Implementation of a void method taking 0 arguments.
+     */
+    @FunctionalInterface
+    interface VoidCall0 {
+        void call();
+    }
+
+    /**
+     * Implementation of a member taking 1 argument.
+     */
+    @FunctionalInterface
+    interface Call1 {
+        Object call(Object a0);
+    }
+
+    /**
+     * Implementation of a void method taking 1 argument.
+     */
+    @FunctionalInterface
+    interface VoidCall1 {
+        void call(Object a0);
+    }
+
+    /**
+     * Implementation of a member taking 2 arguments.
+     */
+    @FunctionalInterface
+    interface Call2 {
+        Object call(Object a0, Object a1);
+    }
+
+    /**
+     * Implementation of a void method taking 2 arguments.
+     */
+    @FunctionalInterface
+    interface VoidCall2 {
+        void call(Object a0, Object a1);
+    }
+
+    /**
+     * Implementation of a member taking 3 arguments.
+     */
+    @FunctionalInterface
+    interface Call3 {
+        Object call(Object a0, Object a1, Object a2);
+    }
+
+    /**
+     * Implementation of a void method taking 3 arguments.
+     */
+    @FunctionalInterface
+    interface VoidCall3 {
+        void call(Object a0, Object a1, Object a2);
+    }
+
+    /**
+     * Implementation of a member taking 4 arguments.
+     */
+    @FunctionalInterface
+    interface Call4 {
+        Object call(Object a0, Object a1, Object a2, Object a3);
+    }
+
+    /**
+     * Implementation of a void method taking 4 arguments.
+     */
+    @FunctionalInterface
+    interface VoidCall4 {
+        void call(Object a0, Object a1, Object a2, Object a3);
+    }
+
+    /**
+     * Implementation of a member taking 5 arguments.
+     */
+    @FunctionalInterface
+    interface Call5 {
+        Object call(Object a0, Object a1, Object a2, Object a3, Object a4);
+    }
+
+    /**
+     * Implementation of a void method taking 5 arguments.
+     */
+    @FunctionalInterface
+    interface VoidCall5 {
+        void call(Object a0, Object a1, Object a2, Object a3, Object a4);
+    }
+
+    /**
+     * Implementation of a member taking 6 arguments.
+     */
+    @FunctionalInterface
+    interface Call6 {
+        Object call(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5);
+    }
+
+    /**
+     * Implementation of a void method taking 6 arguments.
+     */
+    @FunctionalInterface
+    interface VoidCall6 {
+        void call(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5);
+    }
+}
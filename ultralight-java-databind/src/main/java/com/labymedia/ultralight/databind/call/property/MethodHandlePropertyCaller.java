@@ -0,0 +1,396 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.call.property;
+
+import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calls properties on java objects or classes without using core reflection.
+ * <p>
+ * Every method and constructor is linked once through the {@link java.lang.invoke.LambdaMetafactory}, which generates
+ * a class calling the member directly, just like a method reference. The JIT therefore sees a constant call target
+ * behind each generated class instead of a non-constant {@link MethodHandle}. Members which can't be linked this way,
+ * for example because they take more than {@link LambdaInvokers#MAXIMUM_ARITY} arguments or are not visible from this
+ * class loader, and fields, which the metafactory does not support, are called through a {@link MethodHandle} of a
+ * uniform type. Var args are expected to be passed as an already constructed array, just like for
+ * {@link ReflectivePropertyCaller}. Contrary to the {@code GeneratedPropertyCaller} of the codegen module, this
+ * implementation does not require any additional dependencies.
+ */
+public class MethodHandlePropertyCaller implements PropertyCaller {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private static final MethodType CALL_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final MethodType CONSTRUCT_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType GET_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SET_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Map<Executable, LambdaInvokers.Invoker> invokers;
+    private final Map<Field, MethodHandle> getterHandles;
+    private final Map<Field, MethodHandle> setterHandles;
+
+    /**
+     * Constructs a new {@link MethodHandlePropertyCaller}.
+     * Use the {@link Factory} to create instances outside of this class.
+     */
+    private MethodHandlePropertyCaller() {
+        this.invokers = new ConcurrentHashMap<>();
+        this.getterHandles = new ConcurrentHashMap<>();
+        this.setterHandles = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object callMethod(Object instance, Method method, Object[] parameters) throws JavascriptInteropException {
+        LambdaInvokers.Invoker invoker = invokers.get(method);
+        if (invoker == null) {
+            try {
+                invoker = createMethodInvoker(method);
+            } catch (IllegalAccessException exception) {
+                throw new JavascriptInteropException("Unable to access method: " + method.getName(), exception);
+            }
+
+            invokers.put(method, invoker);
+        }
+
+        try {
+            return invoker.invoke(instance, parameters);
+        } catch (Throwable t) {
+            checkArguments(method, instance, parameters, t);
+            throw new JavascriptInteropException(method.getName() + " threw an exception", t);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object callConstructor(Constructor<?> constructor, Object[] parameters) throws JavascriptInteropException {
+        LambdaInvokers.Invoker invoker = invokers.get(constructor);
+        if (invoker == null) {
+            try {
+                invoker = createConstructorInvoker(constructor);
+            } catch (IllegalAccessException exception) {
+                throw new JavascriptInteropException(
+                        "Unable to access constructor: " + constructor.getName(), exception);
+            }
+
+            invokers.put(constructor, invoker);
+        }
+
+        try {
+            return invoker.invoke(null, parameters);
+        } catch (Throwable t) {
+            checkArguments(constructor, null, parameters, t);
+            throw new JavascriptInteropException("Constructor threw an exception", t);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object callFieldGet(Object instance, Field field) throws JavascriptInteropException {
+        MethodHandle handle = getterHandles.get(field);
+        if (handle == null) {
+            try {
+                handle = createGetterHandle(field);
+            } catch (IllegalAccessException exception) {
+                throw new JavascriptInteropException("Unable to access field: " + field.getName(), exception);
+            }
+
+            getterHandles.put(field, handle);
+        }
+
+        try {
+            return (Object) handle.invokeExact(instance);
+        } catch (Throwable t) {
+            checkInstance(field, instance, t);
+            throw new JavascriptInteropException("Field get of " + field.getName() + " threw an exception", t);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void callFieldSet(Object instance, Field field, Object value) throws JavascriptInteropException {
+        MethodHandle handle = setterHandles.get(field);
+        if (handle == null) {
+            try {
+                handle = createSetterHandle(field);
+            } catch (IllegalAccessException exception) {
+                throw new JavascriptInteropException("Unable to access field: " + field.getName(), exception);
+            }
+
+            setterHandles.put(field, handle);
+        }
+
+        try {
+            handle.invokeExact(instance, value);
+        } catch (Throwable t) {
+            checkInstance(field, instance, t);
+            if (!accepts(field.getType(), value)) {
+                throw new IllegalArgumentException(
+                        "Can not set field " + field.getName() + " to " + describe(value), t);
+            }
+
+            throw new JavascriptInteropException("Field set of " + field.getName() + " threw an exception", t);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(Member member) throws JavascriptInteropException {
+        try {
+            if (member instanceof Method) {
+                if (!invokers.containsKey(member)) {
+                    invokers.putIfAbsent((Method) member, createMethodInvoker((Method) member));
+                }
+            } else if (member instanceof Constructor) {
+                if (!invokers.containsKey(member)) {
+                    invokers.putIfAbsent((Constructor<?>) member, createConstructorInvoker((Constructor<?>) member));
+                }
+            } else if (member instanceof Field) {
+                Field field = (Field) member;
+
+                if (!getterHandles.containsKey(field)) {
+                    getterHandles.putIfAbsent(field, createGetterHandle(field));
+                }
+
+                if (!Modifier.isFinal(field.getModifiers()) && !setterHandles.containsKey(field)) {
+                    setterHandles.putIfAbsent(field, createSetterHandle(field));
+                }
+            }
+        } catch (IllegalAccessException exception) {
+            throw new JavascriptInteropException("Unable to access member: " + member.getName(), exception);
+        }
+    }
+
+    /**
+     * Translates the failure of a call into an {@link IllegalArgumentException}, if it was caused by the arguments.
+     * <p>
+     * Arguments are cast before the member is called, so a call with arguments not matching the member fails before
+     * reaching it. This is only checked after a call failed, to keep successful calls free of any checks. Primitive
+     * parameters only accept their exact wrapper type, as the linked invokers don't widen.
+     *
+     * @param executable The called method or constructor
+     * @param instance   The instance the member was called on, ignored for static methods and constructors
+     * @param parameters The arguments of the call
+     * @param failure    The failure of the call
+     * @throws IllegalArgumentException If the arguments don't match the member
+     */
+    private static void checkArguments(Executable executable, Object instance, Object[] parameters, Throwable failure) {
+        if (executable instanceof Method) {
+            checkInstance(executable, instance, failure);
+        }
+
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        int count = parameters != null ? parameters.length : 0;
+        if (count != parameterTypes.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + parameterTypes.length + " arguments for " + executable.getName() + ", got " + count,
+                    failure);
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (!accepts(parameterTypes[i], parameters[i])) {
+                throw new IllegalArgumentException("Argument " + i + " of " + executable.getName() + " can not be " +
+                        describe(parameters[i]) + ", expected " + parameterTypes[i].getName(), failure);
+            }
+        }
+    }
+
+    /**
+     * Translates the failure of a call into an {@link IllegalArgumentException}, if it was called on an instance
+     * the member does not belong to.
+     *
+     * @param member   The called member
+     * @param instance The instance the member was called on
+     * @param failure  The failure of the call
+     * @throws IllegalArgumentException If the instance does not match the member
+     */
+    private static void checkInstance(Member member, Object instance, Throwable failure) {
+        if (!Modifier.isStatic(member.getModifiers()) && !member.getDeclaringClass().isInstance(instance)) {
+            throw new IllegalArgumentException(
+                    describe(instance) + " is not an instance of " + member.getDeclaringClass().getName(), failure);
+        }
+    }
+
+    /**
+     * Determines whether a value can be passed as a certain type without any conversion.
+     *
+     * @param type  The type to pass the value as
+     * @param value The value to pass
+     * @return {@code true} if the value can be passed, {@code false} otherwise
+     */
+    private static boolean accepts(Class<?> type, Object value) {
+        if (!type.isPrimitive()) {
+            return value == null || type.isInstance(value);
+        }
+
+        return value != null && MethodType.methodType(type).wrap().returnType() == value.getClass();
+    }
+
+    /**
+     * Describes a value for error messages.
+     *
+     * @param value The value to describe
+     * @return The description of the value
+     */
+    private static String describe(Object value) {
+        return value == null ? "null" : "an instance of " + value.getClass().getName();
+    }
+
+    /**
+     * Creates an invoker for a method, falling back to a handle if the method can't be linked directly.
+     *
+     * @param method The method to create the invoker for
+     * @return The created invoker
+     * @throws IllegalAccessException If the method is not accessible
+     */
+    static LambdaInvokers.Invoker createMethodInvoker(Method method) throws IllegalAccessException {
+        LambdaInvokers.Invoker invoker = LambdaInvokers.create(method, LOOKUP.unreflect(method));
+        if (invoker != null) {
+            return invoker;
+        }
+
+        MethodHandle handle = createMethodHandle(method);
+        return (instance, arguments) -> (Object) handle.invokeExact(instance, arguments);
+    }
+
+    /**
+     * Creates an invoker for a constructor, falling back to a handle if the constructor can't be linked directly.
+     *
+     * @param constructor The constructor to create the invoker for
+     * @return The created invoker, ignoring the instance passed to it
+     * @throws IllegalAccessException If the constructor is not accessible
+     */
+    static LambdaInvokers.Invoker createConstructorInvoker(Constructor<?> constructor) throws IllegalAccessException {
+        LambdaInvokers.Invoker invoker = LambdaInvokers.create(constructor, LOOKUP.unreflectConstructor(constructor));
+        if (invoker != null) {
+            return invoker;
+        }
+
+        MethodHandle handle = createConstructorHandle(constructor);
+        return (instance, arguments) -> (Object) handle.invokeExact(arguments);
+    }
+
+    /**
+     * Creates a handle of the type {@code (Object, Object[])Object} for a method.
+     *
+     * @param method The method to create the handle for
+     * @return The created handle
+     * @throws IllegalAccessException If the method is not accessible
+     */
+    static MethodHandle createMethodHandle(Method method) throws IllegalAccessException {
+        MethodHandle handle = LOOKUP.unreflect(method).asFixedArity();
+
+        if (Modifier.isStatic(method.getModifiers())) {
+            // Static methods don't take an instance, ignore the one passed
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+
+        if (method.getReturnType() == void.class) {
+            // Void methods return null to the caller
+            handle = MethodHandles.filterReturnValue(handle, MethodHandles.constant(Object.class, null));
+        }
+
+        return handle
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(CALL_TYPE);
+    }
+
+    /**
+     * Creates a handle of the type {@code (Object[])Object} for a constructor.
+     *
+     * @param constructor The constructor to create the handle for
+     * @return The created handle
+     * @throws IllegalAccessException If the constructor is not accessible
+     */
+    static MethodHandle createConstructorHandle(Constructor<?> constructor) throws IllegalAccessException {
+        return LOOKUP.unreflectConstructor(constructor).asFixedArity()
+                .asSpreader(Object[].class, constructor.getParameterCount())
+                .asType(CONSTRUCT_TYPE);
+    }
+
+    /**
+     * Creates a handle of the type {@code (Object)Object} reading a field.
+     *
+     * @param field The field to create the handle for
+     * @return The created handle
+     * @throws IllegalAccessException If the field is not accessible
+     */
+    static MethodHandle createGetterHandle(Field field) throws IllegalAccessException {
+        MethodHandle handle = LOOKUP.unreflectGetter(field);
+
+        if (Modifier.isStatic(field.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+
+        return handle.asType(GET_TYPE);
+    }
+
+    /**
+     * Creates a handle of the type {@code (Object, Object)void} writing a field.
+     *
+     * @param field The field to create the handle for
+     * @return The created handle
+     * @throws IllegalAccessException If the field is not accessible or final
+     */
+    static MethodHandle createSetterHandle(Field field) throws IllegalAccessException {
+        MethodHandle handle = LOOKUP.unreflectSetter(field);
+
+        if (Modifier.isStatic(field.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+
+        return handle.asType(SET_TYPE);
+    }
+
+    /**
+     * Factory for {@link MethodHandlePropertyCaller}.
+     */
+    public static class Factory implements PropertyCaller.Factory {
+
+        /**
+         * @return A new {@link MethodHandlePropertyCaller} instance
+         */
+        @Override
+        public MethodHandlePropertyCaller create() {
+            return new MethodHandlePropertyCaller();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.call.property;
+
+import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calls properties on java objects or classes through compile time generated {@link JavascriptBinding}s.
+ * <p>
+ * Members of classes without a generated binding, and members the binding does not know about, are called using
+ * a fallback property caller. Databind uses this caller automatically on top of the configured one.
+ */
+public class PrecompiledPropertyCaller implements PropertyCaller {
+    private static final ClassValue<Optional<LoadedBinding>> BINDINGS = new ClassValue<Optional<LoadedBinding>>() {
+        @Override
+        protected Optional<LoadedBinding> computeValue(Class<?> type) {
+            return Optional.ofNullable(LoadedBinding.load(type));
+        }
+    };
+
+    /**
+     * Marker for members which are not supported by a generated binding.
+     */
+    private static final String UNSUPPORTED = "";
+
+    private final PropertyCaller fallback;
+    private final Map<Member, String> signatures;
+
+    /**
+     * Constructs a new {@link PrecompiledPropertyCaller}.
+     *
+     * @param fallback The property caller to use for members without a generated binding
+     */
+    public PrecompiledPropertyCaller(PropertyCaller fallback) {
+        this.fallback = fallback;
+        this.signatures = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Determines whether a generated binding exists for a class.
+     *
+     * @param javaClass The class to check
+     * @return {@code true} if the class has a generated binding, {@code false} otherwise
+     */
+    public static boolean hasBinding(Class<?> javaClass) {
+        return BINDINGS.get(javaClass).isPresent();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object callMethod(Object instance, Method method, Object[] parameters) throws JavascriptInteropException {
+        String signature = signature(method);
+        if (signature == UNSUPPORTED) {
+            return fallback.callMethod(instance, method, parameters);
+        }
+
+        try {
+            return binding(method).callMethod(signature, instance, parameters);
+        } catch (Throwable t) {
+            throw new JavascriptInteropException(method.getName() + " threw an exception", t);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object callConstructor(Constructor<?> constructor, Object[] parameters) throws JavascriptInteropException {
+        String signature = signature(constructor);
+        if (signature == UNSUPPORTED) {
+            return fallback.callConstructor(constructor, parameters);
+        }
+
+        try {
+            return binding(constructor).callConstructor(signature, parameters);
+        } catch (Throwable t) {
+            throw new JavascriptInteropException("Constructor threw an exception", t);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object callFieldGet(Object instance, Field field) throws JavascriptInteropException {
+        if (signature(field) == UNSUPPORTED) {
+            return fallback.callFieldGet(instance, field);
+        }
+
+        try {
+            return binding(field).getField(field.getName(), instance);
+        } catch (Throwable t) {
+            throw new JavascriptInteropException("Field get of " + field.getName() + " threw an exception", t);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void callFieldSet(Object instance, Field field, Object value) throws JavascriptInteropException {
+        if (signature(field) == UNSUPPORTED) {
+            fallback.callFieldSet(instance, field, value);
+            return;
+        }
+
+        try {
+            binding(field).setField(field.getName(), instance, value);
+        } catch (Throwable t) {
+            throw new JavascriptInteropException("Field set of " + field.getName() + " threw an exception", t);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(Member member) throws JavascriptInteropException {
+        if (signature(member) == UNSUPPORTED) {
+            fallback.prepare(member);
+        }
+    }
+
+    /**
+     * Retrieves the binding of the class declaring a member.
+     *
+     * @param member The member to retrieve the binding for, must be supported by a binding
+     * @return The binding of the declaring class
+     */
+    private static JavascriptBinding binding(Member member) {
+        return BINDINGS.get(member.getDeclaringClass()).get().binding;
+    }
+
+    /**
+     * Retrieves the signature of a member within its binding.
+     *
+     * @param member The member to retrieve the signature of
+     * @return The signature of the member, or {@link #UNSUPPORTED}, if the member is not supported by a binding
+     */
+    private String signature(Member member) {
+        String signature = signatures.get(member);
+        if (signature == null) {
+            signature = resolveSignature(member);
+            signatures.put(member, signature);
+        }
+
+        return signature;
+    }
+
+    /**
+     * Resolves the signature of a member within its binding.
+     *
+     * @param member The member to resolve the signature of
+     * @return The signature of the member, or {@link #UNSUPPORTED}, if the member is not supported by a binding
+     */
+    private static String resolveSignature(Member member) {
+        if (member.isSynthetic() || (member instanceof Method && ((Method) member).isBridge())) {
+            // Compiler generated members are not visible to the annotation processor
+            return UNSUPPORTED;
+        }
+
+        LoadedBinding loaded = BINDINGS.get(member.getDeclaringClass()).orElse(null);
+        if (loaded == null) {
+            return UNSUPPORTED;
+        }
+
+        if (member instanceof Field) {
+            return loaded.fields.contains(member.getName()) ? member.getName() : UNSUPPORTED;
+        }
+
+        String signature = signatureOf((Executable) member);
+        Set<String> known = member instanceof Constructor ? loaded.constructors : loaded.methods;
+
+        return known.contains(signature) ? signature : UNSUPPORTED;
+    }
+
+    /**
+     * Computes the signature of a method or constructor as used by {@link JavascriptBinding}s.
+     *
+     * @param executable The method or constructor to compute the signature of
+     * @return The computed signature
+     */
+    public static String signatureOf(Executable executable) {
+        StringBuilder signature = new StringBuilder();
+        signature.append(executable instanceof Constructor ? "<init>" : executable.getName()).append('(');
+
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i != 0) {
+                signature.append(',');
+            }
+
+            signature.append(parameterTypes[i].getTypeName());
+        }
+
+        return signature.append(')').toString();
+    }
+
+    /**
+     * A generated binding together with the set of members it supports.
+     */
+    private static final class LoadedBinding {
+        private final JavascriptBinding binding;
+        private final Set<String> methods;
+        private final Set<String> constructors;
+        private final Set<String> fields;
+
+        /**
+         * Constructs a new {@link LoadedBinding}.
+         *
+         * @param binding The generated binding
+         */
+        private LoadedBinding(JavascriptBinding binding) {
+            this.binding = binding;
+            this.methods = new HashSet<>(Arrays.asList(binding.methods()));
+            this.constructors = new HashSet<>(Arrays.asList(binding.constructors()));
+            this.fields = new HashSet<>(Arrays.asList(binding.fields()));
+        }
+
+        /**
+         * Loads the generated binding of a class.
+         *
+         * @param type The class to load the binding for
+         * @return The loaded binding, or {@code null}, if the class has no binding
+         */
+        private static LoadedBinding load(Class<?> type) {
+            if (type.isArray() || type.isPrimitive() || !Modifier.isPublic(type.getModifiers())) {
+                return null;
+            }
+
+            String name = type.getName();
+            int packageEnd = name.lastIndexOf('.') + 1;
+            String bindingName = name.substring(0, packageEnd) +
+                    name.substring(packageEnd).replace('$', '_') +
+                    JavascriptBinding.SUFFIX;
+
+            try {
+                Class<?> bindingClass = Class.forName(bindingName, true, type.getClassLoader());
+                if (!JavascriptBinding.class.isAssignableFrom(bindingClass)) {
+                    return null;
+                }
+
+                return new LoadedBinding((JavascriptBinding) bindingClass.getConstructor().newInstance());
+            } catch (ClassNotFoundException | LinkageError exception) {
+                // No binding has been generated
+                return null;
+            } catch (ReflectiveOperationException exception) {
+                throw new IllegalStateException("Failed to instantiate generated binding " + bindingName, exception);
+            }
+        }
+    }
+
+    /**
+     * Factory for {@link PrecompiledPropertyCaller}.
+     */
+    public static class Factory implements PropertyCaller.Factory {
+        private final PropertyCaller.Factory fallback;
+
+        /**
+         * Constructs a new {@link Factory}.
+         *
+         * @param fallback The factory of the property callers to use for members without a generated binding
+         */
+        public Factory(PropertyCaller.Factory fallback) {
+            this.fallback = fallback;
+        }
+
+        /**
+         * @return A new {@link PrecompiledPropertyCaller} instance
+         */
+        @Override
+        public PrecompiledPropertyCaller create() {
+            return new PrecompiledPropertyCaller(fallback.create());
+        }
+    }
+}
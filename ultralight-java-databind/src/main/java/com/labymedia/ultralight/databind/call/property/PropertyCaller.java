@@ -23,6 +23,7 @@ import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 
 /**
@@ -71,6 +72,18 @@ public interface PropertyCaller {
      */
     void callFieldSet(Object instance, Field field, Object value) throws JavascriptInteropException;
 
+    /**
+     * Prepares calling a member ahead of time, for example by generating the code required to call it.
+     * <p>
+     * This is an optional optimization and may be invoked from any thread, callers still have to prepare members
+     * lazily if they have not been prepared. The default implementation does nothing.
+     *
+     * @param member The constructor, method or field to prepare
+     * @throws JavascriptInteropException If the member can't be prepared
+     */
+    default void prepare(Member member) throws JavascriptInteropException {
+    }
+
     /**
      * Factory for {@link PropertyCaller}.
      */
@@ -33,4 +33,20 @@ public interface ContextProvider {
      * @param callback The callback to execute
      */
     void syncWithJavascript(Consumer<JavascriptContextLock> callback);
+
+    /**
+     * Determines whether the current thread might be the one executing the callbacks.
+     * <p>
+     * Threads for which this returns {@code false} may block while waiting for a callback. The default implementation
+     * can't tell and always returns {@code true}.
+     * <p>
+     * Providers executing callbacks right away don't need to implement this, as waiting threads run the callback
+     * themselves. Providers deferring callbacks to another thread should implement this, otherwise the capacity of
+     * queued functional calls can't be enforced.
+     *
+     * @return {@code true} if the current thread might execute the callbacks, {@code false} otherwise
+     */
+    default boolean isJavascriptThread() {
+        return true;
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.conversion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable registry of custom {@link JavascriptConverter}s keyed by the Java type they handle.
+ * <p>
+ * Custom converters take precedence over the built-in conversions of databind. Converters registered for an exact
+ * type are preferred over converters registered for a type hierarchy, hierarchy converters are tried in the order
+ * they have been registered in.
+ */
+public final class ConverterRegistry {
+    private static final ConverterRegistry EMPTY = builder().build();
+
+    private final Map<Class<?>, JavascriptConverter<?>> exactConverters;
+    private final List<HierarchyConverter> hierarchyConverters;
+
+    /**
+     * Constructs a new {@link ConverterRegistry}.
+     * Use the {@link Builder} for creating instances outside of this class.
+     *
+     * @param exactConverters     The converters handling exactly one type
+     * @param hierarchyConverters The converters handling a type and all of its subtypes
+     */
+    private ConverterRegistry(
+            Map<Class<?>, JavascriptConverter<?>> exactConverters,
+            List<HierarchyConverter> hierarchyConverters
+    ) {
+        this.exactConverters = exactConverters;
+        this.hierarchyConverters = hierarchyConverters;
+    }
+
+    /**
+     * Retrieves the registry without any custom converters.
+     *
+     * @return The empty registry
+     */
+    public static ConverterRegistry empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Finds the custom converter responsible for a type.
+     *
+     * @param type The type to find the converter for
+     * @return The converter responsible for the type, or {@code null}, if the type has no custom converter
+     */
+    public JavascriptConverter<?> find(Class<?> type) {
+        JavascriptConverter<?> converter = exactConverters.get(type);
+        if (converter != null) {
+            return converter;
+        }
+
+        for (HierarchyConverter hierarchyConverter : hierarchyConverters) {
+            if (hierarchyConverter.baseType.isAssignableFrom(type)) {
+                return hierarchyConverter.converter;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Determines whether this registry contains any converters.
+     *
+     * @return {@code true} if no converters have been registered, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return exactConverters.isEmpty() && hierarchyConverters.isEmpty();
+    }
+
+    /**
+     * Creates a new {@link ConverterRegistry} builder.
+     *
+     * @return A new {@link ConverterRegistry} builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Tuple of a base type and the converter handling it and all of its subtypes.
+     */
+    private static class HierarchyConverter {
+        private final Class<?> baseType;
+        private final JavascriptConverter<?> converter;
+
+        private HierarchyConverter(Class<?> baseType, JavascriptConverter<?> converter) {
+            this.baseType = baseType;
+            this.converter = converter;
+        }
+    }
+
+    /**
+     * Builder for {@link ConverterRegistry} instances.
+     */
+    public static class Builder {
+        private final Map<Class<?>, JavascriptConverter<?>> exactConverters;
+        private final List<HierarchyConverter> hierarchyConverters;
+
+        /**
+         * Constructs a new, empty {@link Builder}.
+         * Use {@link ConverterRegistry#builder()} to create instances outside of this class.
+         */
+        private Builder() {
+            this.exactConverters = new HashMap<>();
+            this.hierarchyConverters = new ArrayList<>();
+        }
+
+        /**
+         * Registers a converter for exactly the given type.
+         *
+         * @param type      The type the converter handles
+         * @param converter The converter to register
+         * @param <T>       The type the converter handles
+         * @return this
+         */
+        public <T> Builder register(Class<T> type, JavascriptConverter<T> converter) {
+            exactConverters.put(type, converter);
+            return this;
+        }
+
+        /**
+         * Registers a converter for the given type and all of its subtypes.
+         *
+         * @param baseType  The base type the converter handles
+         * @param converter The converter to register
+         * @param <T>       The base type the converter handles
+         * @return this
+         */
+        public <T> Builder registerHierarchy(Class<T> baseType, JavascriptConverter<T> converter) {
+            hierarchyConverters.add(new HierarchyConverter(baseType, converter));
+            return this;
+        }
+
+        /**
+         * Registers all {@link StandardConverters}.
+         *
+         * @return this
+         */
+        public Builder standardConverters() {
+            StandardConverters.registerAll(this);
+            return this;
+        }
+
+        /**
+         * Builds a {@link ConverterRegistry}.
+         *
+         * @return The built {@link ConverterRegistry}
+         */
+        public ConverterRegistry build() {
+            return new ConverterRegistry(new HashMap<>(exactConverters), new ArrayList<>(hierarchyConverters));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.conversion;
+
+import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+
+/**
+ * Converts values of a certain Java type from and to Javascript.
+ *
+ * @param <T> The Java type this converter handles
+ * @see ConverterRegistry
+ */
+public interface JavascriptConverter<T> {
+    /**
+     * Converts a Java object to a Javascript value.
+     *
+     * @param conversionUtils The conversion utilities which can be used to convert nested values
+     * @param context         The Javascript context to use for the conversion
+     * @param object          The Java object to convert, never {@code null}
+     * @return The converted object as a Javascript value
+     */
+    JavascriptValue toJavascript(JavascriptConversionUtils conversionUtils, JavascriptContext context, T object);
+
+    /**
+     * Converts a Javascript value to a Java object. Javascript {@code null} and {@code undefined} are mapped to
+     * {@link #nullValue()} before the converter is invoked.
+     *
+     * @param conversionUtils The conversion utilities which can be used to convert nested values
+     * @param value           The Javascript value to convert
+     * @param type            The type to convert the value to
+     * @return The converted value
+     * @throws IllegalArgumentException If the value can not be converted
+     */
+    T fromJavascript(JavascriptConversionUtils conversionUtils, JavascriptValue value, Class<?> type);
+
+    /**
+     * Retrieves the Java value Javascript {@code null} and {@code undefined} are converted to.
+     *
+     * @return The Java representation of a missing value, {@code null} by default
+     */
+    default T nullValue() {
+        return null;
+    }
+}
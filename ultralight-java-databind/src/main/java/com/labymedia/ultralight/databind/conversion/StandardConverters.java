@@ -0,0 +1,186 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.conversion;
+
+import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Ready to use {@link JavascriptConverter}s for common Java types which have no built-in conversion.
+ *
+ * @see ConverterRegistry.Builder#standardConverters()
+ */
+public final class StandardConverters {
+    /**
+     * Converts enum constants from and to their name.
+     */
+    @SuppressWarnings("rawtypes")
+    public static final JavascriptConverter<Enum> ENUM_BY_NAME = new JavascriptConverter<Enum>() {
+        @Override
+        public JavascriptValue toJavascript(
+                JavascriptConversionUtils conversionUtils, JavascriptContext context, Enum object) {
+            return context.makeString(object.name());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Enum fromJavascript(JavascriptConversionUtils conversionUtils, JavascriptValue value, Class<?> type) {
+            if (!value.isString()) {
+                throw new IllegalArgumentException("Can not convert a non string Javascript value to " + type.getName());
+            }
+
+            return Enum.valueOf((Class<? extends Enum>) type, value.toString());
+        }
+    };
+
+    /**
+     * Converts {@link UUID}s from and to their string representation.
+     */
+    public static final JavascriptConverter<UUID> UUID_AS_STRING = asString(UUID::fromString);
+
+    /**
+     * Converts {@link Optional}s by converting their value, empty optionals are converted to {@code null}.
+     */
+    @SuppressWarnings("rawtypes")
+    public static final JavascriptConverter<Optional> OPTIONAL = new JavascriptConverter<Optional>() {
+        @Override
+        public JavascriptValue toJavascript(
+                JavascriptConversionUtils conversionUtils, JavascriptContext context, Optional object) {
+            return conversionUtils.toJavascript(context, ((Optional<?>) object).orElse(null));
+        }
+
+        @Override
+        public Optional fromJavascript(
+                JavascriptConversionUtils conversionUtils, JavascriptValue value, Class<?> type) {
+            return Optional.ofNullable(conversionUtils.fromJavascript(value, Object.class));
+        }
+
+        @Override
+        public Optional nullValue() {
+            return Optional.empty();
+        }
+    };
+
+    /**
+     * Converts {@link Instant}s from and to Javascript dates, Javascript numbers are interpreted as milliseconds
+     * since the unix epoch.
+     */
+    public static final JavascriptConverter<Instant> INSTANT_AS_DATE = new JavascriptConverter<Instant>() {
+        @Override
+        public JavascriptValue toJavascript(
+                JavascriptConversionUtils conversionUtils, JavascriptContext context, Instant object) {
+            return context.makeDate(context.makeNumber(object.toEpochMilli()));
+        }
+
+        @Override
+        public Instant fromJavascript(
+                JavascriptConversionUtils conversionUtils, JavascriptValue value, Class<?> type) {
+            if (value.isNumber()) {
+                return Instant.ofEpochMilli((long) value.toNumber());
+            }
+
+            return ((Date) conversionUtils.fromJavascript(value, Date.class)).toInstant();
+        }
+    };
+
+    /**
+     * Converts {@link Duration}s from and to a number of milliseconds.
+     */
+    public static final JavascriptConverter<Duration> DURATION_AS_MILLIS = new JavascriptConverter<Duration>() {
+        @Override
+        public JavascriptValue toJavascript(
+                JavascriptConversionUtils conversionUtils, JavascriptContext context, Duration object) {
+            return context.makeNumber(object.toMillis());
+        }
+
+        @Override
+        public Duration fromJavascript(
+                JavascriptConversionUtils conversionUtils, JavascriptValue value, Class<?> type) {
+            if (!value.isNumber()) {
+                throw new IllegalArgumentException("Can not convert a non number Javascript value to " + type.getName());
+            }
+
+            return Duration.ofMillis((long) value.toNumber());
+        }
+    };
+
+    // Prevent instantiation
+    private StandardConverters() {
+    }
+
+    /**
+     * Creates a converter converting objects from and to their string representation.
+     *
+     * @param parser The function parsing the string representation
+     * @param <T>    The type of the objects
+     * @return The created converter
+     */
+    public static <T> JavascriptConverter<T> asString(Function<String, T> parser) {
+        return new JavascriptConverter<T>() {
+            @Override
+            public JavascriptValue toJavascript(
+                    JavascriptConversionUtils conversionUtils, JavascriptContext context, T object) {
+                return context.makeString(object.toString());
+            }
+
+            @Override
+            public T fromJavascript(JavascriptConversionUtils conversionUtils, JavascriptValue value, Class<?> type) {
+                if (!value.isString()) {
+                    throw new IllegalArgumentException(
+                            "Can not convert a non string Javascript value to " + type.getName());
+                }
+
+                return parser.apply(value.toString());
+            }
+        };
+    }
+
+    /**
+     * Registers all standard converters. The {@code java.time} date and time types are converted from and to
+     * their ISO-8601 representation.
+     *
+     * @param builder The builder to register the converters on
+     */
+    static void registerAll(ConverterRegistry.Builder builder) {
+        builder.registerHierarchy(Enum.class, ENUM_BY_NAME)
+                .register(UUID.class, UUID_AS_STRING)
+                .register(Optional.class, OPTIONAL)
+                .register(Instant.class, INSTANT_AS_DATE)
+                .register(Duration.class, DURATION_AS_MILLIS)
+                .register(LocalDate.class, asString(LocalDate::parse))
+                .register(LocalTime.class, asString(LocalTime::parse))
+                .register(LocalDateTime.class, asString(LocalDateTime::parse))
+                .register(OffsetDateTime.class, asString(OffsetDateTime::parse))
+                .register(ZonedDateTime.class, asString(ZonedDateTime::parse));
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.utils;
+
+import com.labymedia.ultralight.databind.Databind;
+import com.labymedia.ultralight.databind.context.ContextProvider;
+import com.labymedia.ultralight.ffi.gc.DeletableObject;
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptContextLock;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptProtectedValue;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Javascript function bound to a functional interface.
+ * <p>
+ * Implementations of the interface, created by a {@link FunctionalImplementationFactory}, forward the invocations of
+ * the bound interface method to {@link #call(Method, Object[])}.
+ */
+public final class BoundJavascriptFunction {
+    private final Object lock;
+    private final ContextProvider contextProvider;
+    private final Databind databind;
+
+    private final DeletableObject<ValueWrapper> protectedValue;
+
+    private final FunctionalCallQueue<PendingCall> pendingCalls;
+    private final FunctionalCallMetrics metrics;
+
+    /**
+     * Creates a new {@link BoundJavascriptFunction}.
+     *
+     * @param function        The bound function
+     * @param contextProvider A context provider for calling into Javascript
+     * @param databind        The databind instance used for translation between Java and Javascript
+     */
+    BoundJavascriptFunction(JavascriptObject function, ContextProvider contextProvider, Databind databind) {
+        this.contextProvider = contextProvider;
+        this.databind = databind;
+        lock = new Object();
+        protectedValue = new DeletableObject<>(
+                new ValueWrapper(contextProvider, function.protect()), BoundJavascriptFunction::delete);
+
+        if (databind.getConfiguration().queueFunctionalCalls()) {
+            pendingCalls = new FunctionalCallQueue<>(
+                    contextProvider, this::dispatch, databind.getConfiguration().functionalCallQueueCapacity());
+        } else {
+            pendingCalls = null;
+        }
+
+        metrics = new FunctionalCallMetrics(pendingCalls);
+    }
+
+    /**
+     * Retrieves the metrics of the calls made to this function.
+     *
+     * @return The metrics of this function
+     */
+    public FunctionalCallMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Determines whether an object is an implementation of a functional interface forwarding to this function.
+     * <p>
+     * Implementations of functional interfaces are equal if they are bound to the same function, regardless of the
+     * {@link FunctionalImplementationFactory} which created them.
+     *
+     * @param implementation The object to check
+     * @return {@code true} if the object forwards to this function, {@code false} otherwise
+     */
+    public boolean isImplementedBy(Object implementation) {
+        return FunctionalInterfaceBinder.function(implementation) == this;
+    }
+
+    /**
+     * Calls the Javascript function for an invocation of an interface method.
+     * <p>
+     * Depending on the configuration and the return type of the method, this either waits for the result of the
+     * Javascript function, returns a future completed with the result, or returns {@code null} right away.
+     *
+     * @param method The invoked interface method
+     * @param args   The arguments of the invocation, or {@code null}, if there are none
+     * @return The converted result of the call
+     * @throws Throwable If the Javascript function throws an exception, the exception is rethrown as is if it is
+     *                   unchecked or declared by the method, and wrapped in a {@link RuntimeException} otherwise
+     */
+    public Object call(Method method, Object[] args) throws Throwable {
+        PendingCall call = new PendingCall(args != null ? args : new Object[0], resultType(method));
+
+        if (pendingCalls != null) {
+            if (method.getReturnType() == void.class) {
+                // Nothing to wait for, but the failure still has to be reported somewhere
+                call.future.whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        databind.getConfiguration().functionalCallFailureHandler().accept(new RuntimeException(
+                                "Exception thrown while invoking queued Javascript function", failure));
+                    }
+                });
+
+                pendingCalls.enqueue(call);
+                return null;
+            } else if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+                pendingCalls.enqueue(call);
+            } else {
+                // Waiting for a dispatch scheduled by another thread could block forever, if that thread is waiting
+                // for the context lock held by this one, so this thread drives the dispatch itself
+                pendingCalls.enqueue(call, false);
+                pendingCalls.dispatchNow();
+            }
+        } else {
+            contextProvider.syncWithJavascript((contextLock) -> {
+                synchronized (lock) {
+                    JavascriptObject object;
+                    try {
+                        object = revive(contextLock);
+                    } catch (Throwable t) {
+                        // Capture exceptions to prevent deadlocking
+                        call.future.completeExceptionally(t);
+                        return;
+                    }
+
+                    call(contextLock.getContext(), object, call);
+                }
+            });
+        }
+
+        CompletableFuture<Object> future = call.future;
+        if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+            // A future is expected so we let the user handle it
+            return future;
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException exception) {
+            Throwable t = exception.getCause();
+
+            if (t instanceof RuntimeException || t instanceof Error) {
+                // Unchecked, rethrow as is
+                throw t;
+            }
+
+            Class<?> throwableClass = t.getClass();
+            for (Class<?> exceptionType : method.getExceptionTypes()) {
+                if (exceptionType.isAssignableFrom(throwableClass)) {
+                    // Declared to be thrown by the interface method
+                    throw t;
+                }
+            }
+
+            // Checked exception which has not been declared as thrown by the interface method
+            throw new RuntimeException("Exception thrown while invoking Javascript method", t);
+        }
+    }
+
+    /**
+     * Dispatches all queued calls using a single acquisition of the Javascript context.
+     *
+     * @param contextLock The lock of the context the function belongs to
+     */
+    private void dispatch(JavascriptContextLock contextLock) {
+        synchronized (lock) {
+            if (pendingCalls.size() == 0) {
+                return;
+            }
+
+            JavascriptObject object;
+            try {
+                object = revive(contextLock);
+            } catch (Throwable t) {
+                // Fail all calls to prevent deadlocking
+                PendingCall call;
+                while ((call = pendingCalls.poll()) != null) {
+                    call.future.completeExceptionally(t);
+                }
+
+                return;
+            }
+
+            JavascriptContext context = contextLock.getContext();
+
+            PendingCall call;
+            while ((call = pendingCalls.poll()) != null) {
+                call(context, object, call);
+            }
+
+            metrics.recordBatch();
+        }
+    }
+
+    /**
+     * Revives the bound function and protects it again right away.
+     * <p>
+     * The returned object stays valid as long as the context is locked.
+     *
+     * @param contextLock The lock of the context the function belongs to
+     * @return The revived function
+     */
+    private JavascriptObject revive(JavascriptContextLock contextLock) {
+        // Revive the Javascript value, this will effectively invalidate the protected value
+        JavascriptObject object = protectedValue.get().value.revive(contextLock).toObject();
+
+        // Protect the value again
+        protectedValue.get().value = object.protect();
+
+        return object;
+    }
+
+    /**
+     * Calls the bound function and completes the future of the call.
+     *
+     * @param context The context the function belongs to
+     * @param object  The revived function
+     * @param call    The call to perform
+     */
+    private void call(JavascriptContext context, JavascriptObject object, PendingCall call) {
+        try {
+            // Convert all Java arguments to Javascript values
+            JavascriptValue[] arguments = new JavascriptValue[call.args.length];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = databind.getConversionUtils().toJavascript(context, call.args[i]);
+            }
+
+            JavascriptValue returnValue = object.callAsFunction(null, arguments);
+            call.future.complete(databind.getConversionUtils().fromJavascript(returnValue, call.resultType));
+            metrics.recordCall(call.submitted, false);
+        } catch (Throwable t) {
+            // Capture exceptions to prevent deadlocking
+            call.future.completeExceptionally(t);
+            metrics.recordCall(call.submitted, true);
+        }
+    }
+
+    /**
+     * Determines the type the result of the Javascript function has to be converted to for an interface method.
+     * <p>
+     * Methods returning a {@link CompletableFuture} receive the result as the type argument of the future, or as
+     * {@link Object} if it can't be resolved.
+     *
+     * @param method The invoked interface method
+     * @return The type to convert the result to
+     */
+    private static Class<?> resultType(Method method) {
+        if (!CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+            return method.getReturnType();
+        }
+
+        Type returnType = method.getGenericReturnType();
+        if (returnType instanceof ParameterizedType) {
+            Type resultType = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+            if (resultType instanceof ParameterizedType) {
+                resultType = ((ParameterizedType) resultType).getRawType();
+            }
+
+            if (resultType instanceof Class) {
+                return (Class<?>) resultType;
+            }
+        }
+
+        return Object.class;
+    }
+
+    /**
+     * A call of the bound function which has not been performed yet.
+     */
+    private static class PendingCall {
+        private final Object[] args;
+        private final Class<?> resultType;
+        private final CompletableFuture<Object> future;
+        private final long submitted;
+
+        /**
+         * Constructs a new {@link PendingCall} with the given arguments.
+         *
+         * @param args       The Java arguments of the call
+         * @param resultType The type to convert the result of the call to
+         */
+        private PendingCall(Object[] args, Class<?> resultType) {
+            this.args = args;
+            this.resultType = resultType;
+            this.future = new CompletableFuture<>();
+            this.submitted = System.nanoTime();
+        }
+    }
+
+    /**
+     * Tuple of a context provider and a protected Javascript value.
+     */
+    private static class ValueWrapper {
+        private final ContextProvider contextProvider;
+        private JavascriptProtectedValue value;
+
+        /**
+         * Constructs a new {@link ValueWrapper} for a value and its corresponding context provider.
+         *
+         * @param contextProvider The context provider to use for the value
+         * @param value           The protected value
+         */
+        private ValueWrapper(ContextProvider contextProvider, JavascriptProtectedValue value) {
+            this.contextProvider = contextProvider;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Deletes a value wrapper when it is not required anymore.
+     *
+     * @param valueWrapper The wrapper to delete
+     */
+    private static void delete(ValueWrapper valueWrapper) {
+        valueWrapper.contextProvider.syncWithJavascript((contextLock) -> valueWrapper.value.revive(contextLock));
+    }
+}
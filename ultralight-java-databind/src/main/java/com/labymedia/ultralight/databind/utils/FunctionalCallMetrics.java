@@ -0,0 +1,133 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the calls to a Javascript function bound to a functional interface.
+ * <p>
+ * The latency of a call is the time from the call of the interface method until the Javascript function returned.
+ * Use {@link FunctionalInterfaceBinder#metrics(Object)} to retrieve the metrics of a bound interface.
+ */
+public final class FunctionalCallMetrics {
+    private final FunctionalCallQueue<?> pendingCalls;
+
+    private final LongAdder calls;
+    private final LongAdder failures;
+    private final LongAdder batches;
+    private final LongAdder totalLatency;
+    private final AtomicLong maxLatency;
+
+    /**
+     * Constructs new, empty {@link FunctionalCallMetrics}.
+     *
+     * @param pendingCalls The queue of pending calls, or {@code null}, if calls are not queued
+     */
+    FunctionalCallMetrics(FunctionalCallQueue<?> pendingCalls) {
+        this.pendingCalls = pendingCalls;
+        this.calls = new LongAdder();
+        this.failures = new LongAdder();
+        this.batches = new LongAdder();
+        this.totalLatency = new LongAdder();
+        this.maxLatency = new AtomicLong();
+    }
+
+    /**
+     * Records a completed call.
+     *
+     * @param submitted The {@link System#nanoTime()} at which the call has been submitted
+     * @param failed    Whether the call failed
+     */
+    void recordCall(long submitted, boolean failed) {
+        long latency = System.nanoTime() - submitted;
+
+        calls.increment();
+        if (failed) {
+            failures.increment();
+        }
+
+        totalLatency.add(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Records a dispatched batch of calls.
+     */
+    void recordBatch() {
+        batches.increment();
+    }
+
+    /**
+     * Retrieves the amount of completed calls.
+     *
+     * @return The amount of completed calls, including failed ones
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * Retrieves the amount of calls which completed exceptionally.
+     *
+     * @return The amount of failed calls
+     */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * Retrieves the amount of times the Javascript context has been acquired for dispatching calls.
+     *
+     * @return The amount of dispatched batches
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * Retrieves the amount of calls waiting to be dispatched.
+     *
+     * @return The amount of pending calls, always {@code 0} if calls are not queued
+     */
+    public int pendingCalls() {
+        return pendingCalls != null ? pendingCalls.size() : 0;
+    }
+
+    /**
+     * Retrieves the average latency of the completed calls.
+     *
+     * @return The average latency in nanoseconds, or {@code 0}, if no call has completed yet
+     */
+    public long averageLatencyNanos() {
+        long count = calls.sum();
+        return count != 0 ? totalLatency.sum() / count : 0;
+    }
+
+    /**
+     * Retrieves the highest latency of the completed calls.
+     *
+     * @return The highest latency in nanoseconds, or {@code 0}, if no call has completed yet
+     */
+    public long maxLatencyNanos() {
+        return maxLatency.get();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.utils;
+
+import com.labymedia.ultralight.databind.context.ContextProvider;
+import com.labymedia.ultralight.javascript.JavascriptContextLock;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue of calls to a Javascript function bound to a functional interface.
+ * <p>
+ * Appending a call schedules a single dispatch using the context provider, calls appended until the dispatch runs are
+ * dispatched with it. If the queue is full, the appending thread drives a dispatch itself. A thread which is running
+ * a dispatch holds the context lock and drains the queue inline, any other thread requests a dispatch from the
+ * context provider. Providers executing the callback right away drain the queue before the call is appended. If the
+ * provider defers the callback, threads which can't execute the dispatch according to
+ * {@link ContextProvider#isJavascriptThread()} block until the queue has been dispatched, any other thread appends the
+ * call beyond the capacity.
+ *
+ * @param <T> The type of the queued calls
+ */
+final class FunctionalCallQueue<T> {
+    private final ContextProvider contextProvider;
+    private final Consumer<JavascriptContextLock> dispatcher;
+    private final int capacity;
+
+    private final Queue<T> calls;
+    private final ReentrantLock lock;
+    private final Condition notFull;
+    private final AtomicBoolean dispatchScheduled;
+
+    private volatile Thread dispatchThread;
+    private JavascriptContextLock dispatchLock;
+
+    /**
+     * Constructs a new, empty {@link FunctionalCallQueue}.
+     *
+     * @param contextProvider The context provider to schedule dispatches with
+     * @param dispatcher      The callback dispatching the queue by polling it
+     * @param capacity        The maximum amount of queued calls
+     */
+    FunctionalCallQueue(ContextProvider contextProvider, Consumer<JavascriptContextLock> dispatcher, int capacity) {
+        this.contextProvider = contextProvider;
+        this.dispatcher = dispatcher;
+        this.capacity = capacity;
+        this.calls = new ArrayDeque<>();
+        this.lock = new ReentrantLock();
+        this.notFull = lock.newCondition();
+        this.dispatchScheduled = new AtomicBoolean();
+    }
+
+    /**
+     * Appends a call to the queue and schedules a dispatch if required.
+     *
+     * @param call The call to append
+     */
+    void enqueue(T call) {
+        enqueue(call, true);
+    }
+
+    /**
+     * Appends a call to the queue.
+     *
+     * @param call     The call to append
+     * @param schedule If {@code true}, a dispatch is scheduled if required, if {@code false}, the caller is responsible
+     *                 for dispatching the queue using {@link #dispatchNow()}
+     */
+    void enqueue(T call, boolean schedule) {
+        while (isFull()) {
+            if (dispatchNow()) {
+                // Drained by this thread, but other threads might have filled the queue again already
+                continue;
+            }
+
+            if (contextProvider.isJavascriptThread()) {
+                // The deferred dispatch might need this thread, waiting for it could block forever
+                break;
+            }
+
+            awaitNotFull();
+        }
+
+        lock.lock();
+        try {
+            calls.add(call);
+        } finally {
+            lock.unlock();
+        }
+
+        if (schedule && dispatchScheduled.compareAndSet(false, true)) {
+            contextProvider.syncWithJavascript(this::dispatch);
+        }
+    }
+
+    /**
+     * Dispatches the queue from the current thread. A thread running a dispatch holds the context lock already and
+     * dispatches inline, any other thread requests a dispatch from the context provider.
+     * <p>
+     * This never relies on a dispatch scheduled by another thread, which might be waiting for the context lock held
+     * by the current thread.
+     *
+     * @return {@code true} if the queue has been dispatched before returning, {@code false} if the context provider
+     * deferred the dispatch
+     */
+    boolean dispatchNow() {
+        if (dispatchThread == Thread.currentThread()) {
+            // Running a dispatch already, the context is locked by this thread
+            dispatcher.accept(dispatchLock);
+            return true;
+        }
+
+        AtomicBoolean dispatched = new AtomicBoolean();
+        contextProvider.syncWithJavascript((contextLock) -> {
+            dispatch(contextLock);
+            dispatched.set(true);
+        });
+
+        return dispatched.get();
+    }
+
+    /**
+     * Waits until the queue is not full anymore.
+     */
+    private void awaitNotFull() {
+        lock.lock();
+        try {
+            while (calls.size() >= capacity) {
+                notFull.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the Javascript call queue", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a dispatch, remembering the running thread and its lock for dispatching inline.
+     *
+     * @param contextLock The lock of the context the queue belongs to
+     */
+    private void dispatch(JavascriptContextLock contextLock) {
+        synchronized (this) {
+            // Calls queued from now on need another dispatch
+            dispatchScheduled.set(false);
+
+            Thread previousThread = dispatchThread;
+            JavascriptContextLock previousLock = dispatchLock;
+
+            dispatchThread = Thread.currentThread();
+            dispatchLock = contextLock;
+            try {
+                dispatcher.accept(contextLock);
+            } finally {
+                dispatchLock = previousLock;
+                dispatchThread = previousThread;
+            }
+        }
+    }
+
+    /**
+     * Removes the next call from the queue.
+     *
+     * @return The next call, or {@code null}, if the queue is empty
+     */
+    T poll() {
+        lock.lock();
+        try {
+            T call = calls.poll();
+            if (call != null) {
+                notFull.signal();
+            }
+
+            return call;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Determines whether the queue has reached its capacity.
+     *
+     * @return {@code true} if the queue is full, {@code false} otherwise
+     */
+    private boolean isFull() {
+        return size() >= capacity;
+    }
+
+    /**
+     * Retrieves the amount of queued calls.
+     *
+     * @return The amount of queued calls
+     */
+    int size() {
+        lock.lock();
+        try {
+            return calls.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.labymedia.ultralight.databind.Databind;
 import com.labymedia.ultralight.databind.context.ContextProvider;
 import com.labymedia.ultralight.javascript.JavascriptObject;
 
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 
@@ -62,8 +63,42 @@ public class FunctionalInterfaceBinder {
 
         // Bind a context provider
         ContextProvider contextProvider = databind.getContextProviderFactory().bindProvider(function);
-        return Proxy.newProxyInstance(target.getClassLoader(), new Class[]{target},
-                new FunctionalInvocationHandler(function, target, contextProvider, databind));
+        BoundJavascriptFunction boundFunction = new BoundJavascriptFunction(function, contextProvider, databind);
+
+        return databind.getConfiguration().functionalImplementationFactory().implement(target, boundFunction);
+    }
+
+    /**
+     * Retrieves the call metrics of an interface bound to a Javascript function.
+     *
+     * @param bound The bound interface
+     * @return The metrics of the calls to the Javascript function, or {@code null}, if the object has not been
+     * created by this binder
+     */
+    public static FunctionalCallMetrics metrics(Object bound) {
+        BoundJavascriptFunction function = function(bound);
+        return function != null ? function.metrics() : null;
+    }
+
+    /**
+     * Retrieves the Javascript function an interface has been bound to.
+     *
+     * @param bound The bound interface
+     * @return The bound function, or {@code null}, if the object has not been created by this binder
+     */
+    public static BoundJavascriptFunction function(Object bound) {
+        if (bound instanceof FunctionalImplementation) {
+            return ((FunctionalImplementation) bound).javascriptFunction();
+        } else if (bound == null || !Proxy.isProxyClass(bound.getClass())) {
+            return null;
+        }
+
+        InvocationHandler handler = Proxy.getInvocationHandler(bound);
+        if (!(handler instanceof FunctionalInvocationHandler)) {
+            return null;
+        }
+
+        return ((FunctionalInvocationHandler) handler).function();
     }
 
 }
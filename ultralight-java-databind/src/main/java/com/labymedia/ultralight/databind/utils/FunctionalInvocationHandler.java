@@ -19,20 +19,15 @@
 
 package com.labymedia.ultralight.databind.utils;
 
-import com.labymedia.ultralight.databind.Databind;
-import com.labymedia.ultralight.databind.context.ContextProvider;
-import com.labymedia.ultralight.ffi.gc.DeletableObject;
-import com.labymedia.ultralight.javascript.JavascriptContext;
-import com.labymedia.ultralight.javascript.JavascriptObject;
-import com.labymedia.ultralight.javascript.JavascriptProtectedValue;
-import com.labymedia.ultralight.javascript.JavascriptValue;
-
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Invocation handler for Javascript functions bound to functional interfaces.
@@ -40,6 +35,66 @@ import java.util.concurrent.Future;
 class FunctionalInvocationHandler implements InvocationHandler {
     private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
+    /**
+     * Handles of the default methods of each interface, taking the proxy and the argument array.
+     */
+    private static final ClassValue<Map<Method, MethodHandle>> DEFAULT_METHODS =
+            new ClassValue<Map<Method, MethodHandle>>() {
+                @Override
+                protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+                    return resolveDefaultMethods(type);
+                }
+            };
+
+    /**
+     * Resolves the handles of all default methods of an interface.
+     *
+     * @param clazz The interface to resolve the default methods of
+     * @return The handles of the default methods which could be resolved
+     */
+    private static Map<Method, MethodHandle> resolveDefaultMethods(Class<?> clazz) {
+        Map<Method, MethodHandle> defaultMethods = new HashMap<>();
+
+        for (Method method : clazz.getMethods()) {
+            if (!method.isDefault()) {
+                continue;
+            }
+
+            try {
+                MethodHandle handle = privateLookup(clazz).unreflectSpecial(method, clazz);
+                defaultMethods.put(method, handle
+                        .asType(MethodType.genericMethodType(method.getParameterCount() + 1))
+                        .asSpreader(Object[].class, method.getParameterCount()));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Resolved again when invoked, which reports the failure to the caller
+            }
+        }
+
+        return Collections.unmodifiableMap(defaultMethods);
+    }
+
+    /**
+     * Creates a lookup with private access to an interface, as required for invoking its default methods.
+     *
+     * @param clazz The interface to create the lookup for
+     * @return The created lookup
+     * @throws ReflectiveOperationException If the lookup can not be created
+     */
+    private static MethodHandles.Lookup privateLookup(Class<?> clazz) throws ReflectiveOperationException {
+        try {
+            // Java 9 and later
+            Method privateLookupIn = MethodHandles.class.getMethod(
+                    "privateLookupIn", Class.class, MethodHandles.Lookup.class);
+            return (MethodHandles.Lookup) privateLookupIn.invoke(null, clazz, LOOKUP);
+        } catch (NoSuchMethodException e) {
+            // Java 8, where Lookup#in drops the private access required for invokespecial
+            Constructor<MethodHandles.Lookup> constructor =
+                    MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(clazz, MethodHandles.Lookup.PRIVATE);
+        }
+    }
+
     /**
      * Invokes a default method on an interface without knowing the implementation.
      *
@@ -52,131 +107,65 @@ class FunctionalInvocationHandler implements InvocationHandler {
      */
     private static Object invokeDefaultMethod(Class<?> clazz, Method method, Object proxy, Object[] args)
             throws Throwable {
-        return LOOKUP.in(clazz).unreflectSpecial(method, clazz).bindTo(proxy).invokeWithArguments(args);
+        return privateLookup(clazz).unreflectSpecial(method, clazz).bindTo(proxy).invokeWithArguments(args);
     }
 
-    private final Object lock;
     private final Class<?> target;
-    private final ContextProvider contextProvider;
-    private final Databind databind;
-
-    private final DeletableObject<ValueWrapper> protectedValue;
+    private final BoundJavascriptFunction function;
+    private final Map<Method, MethodHandle> defaultMethods;
 
     /**
      * Creates a new {@link FunctionalInvocationHandler}.
      *
-     * @param function        The bound function
-     * @param target          The bound interface
-     * @param contextProvider A context provider for calling into Javascript
-     * @param databind        The databind instance used for translation between Java and Javascript
+     * @param target   The bound interface
+     * @param function The bound function
      */
-    public FunctionalInvocationHandler(
-            JavascriptObject function, Class<?> target, ContextProvider contextProvider, Databind databind) {
+    FunctionalInvocationHandler(Class<?> target, BoundJavascriptFunction function) {
         this.target = target;
-        this.contextProvider = contextProvider;
-        this.databind = databind;
-        lock = new Object();
-        protectedValue = new DeletableObject<>(
-                new ValueWrapper(contextProvider, function.protect()), FunctionalInvocationHandler::delete);
+        this.function = function;
+        this.defaultMethods = DEFAULT_METHODS.get(target);
+    }
+
+    /**
+     * Retrieves the function invoked by this handler.
+     *
+     * @return The bound function
+     */
+    BoundJavascriptFunction function() {
+        return function;
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        if (method.isDefault()) {
+        MethodHandle defaultMethod = defaultMethods.get(method);
+        if (defaultMethod != null) {
             // Invoke the default method on the interface
-            return invokeDefaultMethod(target, method, proxy, args);
-        }
-
-        Class<?> methodSource = method.getDeclaringClass();
-        if (methodSource.isInstance(this)) {
-            // Invoke the method on this object
-            return method.invoke(this, args);
+            return defaultMethod.invokeExact(proxy, args);
         }
 
-        CompletableFuture<Object> future = new CompletableFuture<>();
-
-        contextProvider.syncWithJavascript((contextLock) -> {
-            try {
-                synchronized (lock) {
-                    JavascriptContext context = contextLock.getContext();
-
-                    // Revive the Javascript value, this will effectively invalidate the protected value
-                    JavascriptObject object = protectedValue.get().value.revive(contextLock).toObject();
-
-                    // Convert all Java arguments to Javascript values
-                    JavascriptValue[] arguments = new JavascriptValue[args.length];
-                    for (int i = 0; i < arguments.length; i++) {
-                        arguments[i] = databind.getConversionUtils().toJavascript(context, args[i]);
-                    }
-
-                    // Protect the value again
-                    protectedValue.get().value = object.protect();
-
-                    JavascriptValue returnValue = object.callAsFunction(null, arguments);
-                    future.complete(databind.getConversionUtils().fromJavascript(
-                            returnValue,
-                            returnValue.getClass()
-                    ));
-                }
-            } catch (Throwable t) {
-                // Capture exceptions to prevent deadlocking
-                future.completeExceptionally(t);
-            }
-        });
-
-        if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
-            // A future is expected so we let the user handle it
-            return future;
+        if (method.isDefault()) {
+            // Could not be resolved ahead of time
+            return invokeDefaultMethod(target, method, proxy, args);
         }
 
-        try {
-            return future.get();
-        } catch (ExecutionException exception) {
-            Throwable t = exception.getCause();
-
-            if (t instanceof RuntimeException || t instanceof Error) {
-                // Unchecked, rethrow as is
-                throw t;
-            }
-
-            Class<?> throwableClass = t.getClass();
-            for (Class<?> exceptionType : method.getExceptionTypes()) {
-                if (exceptionType.isAssignableFrom(throwableClass)) {
-                    // Declared to be thrown by the interface method
-                    throw t;
-                }
+        Class<?> methodSource = method.getDeclaringClass();
+        if (methodSource == Object.class) {
+            // Only equals, hashCode and toString are passed to the handler, the proxy is identified by its function
+            switch (method.getName()) {
+                case "equals":
+                    return function.isImplementedBy(args[0]);
+                case "hashCode":
+                    return function.hashCode();
+                default:
+                    return "Javascript function bound to " + target.getName();
             }
-
-            // Checked exception which has not been declared as thrown by the interface method
-            throw new RuntimeException("Exception thrown while invoking Javascript method", t);
         }
-    }
 
-    /**
-     * Tuple of a context provider and a protected Javascript value.
-     */
-    private static class ValueWrapper {
-        private final ContextProvider contextProvider;
-        private JavascriptProtectedValue value;
-
-        /**
-         * Constructs a new {@link ValueWrapper} for a value and its corresponding context provider.
-         *
-         * @param contextProvider The context provider to use for the value
-         * @param value           The protected value
-         */
-        private ValueWrapper(ContextProvider contextProvider, JavascriptProtectedValue value) {
-            this.contextProvider = contextProvider;
-            this.value = value;
+        if (methodSource.isInstance(this)) {
+            // Invoke the method on this object
+            return method.invoke(this, args);
         }
-    }
 
-    /**
-     * Deletes a value wrapper when it is not required anymore.
-     *
-     * @param valueWrapper The wrapper to delete
-     */
-    private static void delete(ValueWrapper valueWrapper) {
-        valueWrapper.contextProvider.syncWithJavascript((contextLock) -> valueWrapper.value.revive(contextLock));
+        return function.call(method, args);
     }
 }
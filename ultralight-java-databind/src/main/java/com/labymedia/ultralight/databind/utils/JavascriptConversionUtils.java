@@ -21,20 +21,44 @@ package com.labymedia.ultralight.databind.utils;
 
 import com.labymedia.ultralight.databind.Databind;
 import com.labymedia.ultralight.databind.DatabindJavascriptClass;
+import com.labymedia.ultralight.databind.DatabindJavascriptCollection;
+import com.labymedia.ultralight.databind.cache.JavascriptWrapperCache;
+import com.labymedia.ultralight.databind.conversion.ConverterRegistry;
+import com.labymedia.ultralight.databind.conversion.JavascriptConverter;
 import com.labymedia.ultralight.javascript.JavascriptClass;
 import com.labymedia.ultralight.javascript.JavascriptContext;
 import com.labymedia.ultralight.javascript.JavascriptObject;
 import com.labymedia.ultralight.javascript.JavascriptType;
+import com.labymedia.ultralight.javascript.JavascriptTypedArrayType;
 import com.labymedia.ultralight.javascript.JavascriptValue;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.Date;
 
 /**
  * Helper for converting between Java and Javascript objects and classes.
  */
 public final class JavascriptConversionUtils {
+    private static final JavascriptConverter<?> NO_CONVERTER = new JavascriptConverter<Object>() {
+        @Override
+        public JavascriptValue toJavascript(
+                JavascriptConversionUtils conversionUtils, JavascriptContext context, Object object) {
+            throw new UnsupportedOperationException("Marker converter");
+        }
+
+        @Override
+        public Object fromJavascript(JavascriptConversionUtils conversionUtils, JavascriptValue value, Class<?> type) {
+            throw new UnsupportedOperationException("Marker converter");
+        }
+    };
+
     private final Databind databind;
+    private final ConverterRegistry converterRegistry;
+    private final ClassValue<JavascriptConverter<?>> customConverters;
+    private final JavascriptWrapperCache wrapperCache;
+    private final boolean marshalValueObjects;
+    private final boolean typedArrays;
 
     /**
      * Constructs a new {@link JavascriptConversionUtils} instance using the given {@link Databind} instance for
@@ -43,7 +67,133 @@ public final class JavascriptConversionUtils {
      * @param databind The {@link Databind} instance to use
      */
     public JavascriptConversionUtils(Databind databind) {
+        this(databind, ConverterRegistry.empty());
+    }
+
+    /**
+     * Constructs a new {@link JavascriptConversionUtils} instance using the given {@link Databind} instance for
+     * translating objects and the given registry for custom conversions.
+     *
+     * @param databind          The {@link Databind} instance to use
+     * @param converterRegistry The registry of custom converters, which take precedence over built-in conversions
+     */
+    public JavascriptConversionUtils(Databind databind, ConverterRegistry converterRegistry) {
+        this(databind, converterRegistry, null);
+    }
+
+    /**
+     * Constructs a new {@link JavascriptConversionUtils} instance using the given {@link Databind} instance for
+     * translating objects, the given registry for custom conversions and the given cache for wrappers.
+     *
+     * @param databind          The {@link Databind} instance to use
+     * @param converterRegistry The registry of custom converters, which take precedence over built-in conversions
+     * @param wrapperCache      The cache for identity stable wrappers of Java objects, or {@code null}, if every
+     *                          conversion should create a new wrapper
+     */
+    public JavascriptConversionUtils(
+            Databind databind, ConverterRegistry converterRegistry, JavascriptWrapperCache wrapperCache) {
+        this(databind, converterRegistry, wrapperCache, false);
+    }
+
+    /**
+     * Constructs a new {@link JavascriptConversionUtils} instance using the given {@link Databind} instance for
+     * translating objects, the given registry for custom conversions and the given cache for wrappers.
+     *
+     * @param databind            The {@link Databind} instance to use
+     * @param converterRegistry   The registry of custom converters, which take precedence over built-in conversions
+     * @param wrapperCache        The cache for identity stable wrappers of Java objects, or {@code null}, if every
+     *                            conversion should create a new wrapper
+     * @param marshalValueObjects If {@code true}, records, maps and collections are copied to plain Javascript
+     *                            objects instead of being wrapped
+     */
+    public JavascriptConversionUtils(
+            Databind databind,
+            ConverterRegistry converterRegistry,
+            JavascriptWrapperCache wrapperCache,
+            boolean marshalValueObjects
+    ) {
+        this(databind, converterRegistry, wrapperCache, marshalValueObjects, false);
+    }
+
+    /**
+     * Constructs a new {@link JavascriptConversionUtils} instance using the given {@link Databind} instance for
+     * translating objects, the given registry for custom conversions and the given cache for wrappers.
+     *
+     * @param databind            The {@link Databind} instance to use
+     * @param converterRegistry   The registry of custom converters, which take precedence over built-in conversions
+     * @param wrapperCache        The cache for identity stable wrappers of Java objects, or {@code null}, if every
+     *                            conversion should create a new wrapper
+     * @param marshalValueObjects If {@code true}, records, maps and collections are copied to plain Javascript
+     *                            objects instead of being wrapped
+     * @param typedArrays         If {@code true}, primitive arrays and buffers are transferred as Javascript typed
+     *                            arrays instead of plain arrays and wrappers
+     */
+    public JavascriptConversionUtils(
+            Databind databind,
+            ConverterRegistry converterRegistry,
+            JavascriptWrapperCache wrapperCache,
+            boolean marshalValueObjects,
+            boolean typedArrays
+    ) {
         this.databind = databind;
+        this.converterRegistry = converterRegistry;
+        this.wrapperCache = wrapperCache;
+        this.marshalValueObjects = marshalValueObjects;
+        this.typedArrays = typedArrays;
+
+        // Resolve the custom converter of every class only once
+        this.customConverters = new ClassValue<JavascriptConverter<?>>() {
+            @Override
+            protected JavascriptConverter<?> computeValue(Class<?> type) {
+                JavascriptConverter<?> converter = converterRegistry.find(type);
+                return converter == null ? NO_CONVERTER : converter;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the registry of custom converters used by these conversion utilities.
+     *
+     * @return The registry of custom converters
+     */
+    public ConverterRegistry getConverterRegistry() {
+        return converterRegistry;
+    }
+
+    /**
+     * Determines whether these conversion utilities transfer primitive arrays and buffers as typed arrays.
+     *
+     * @return {@code true} if typed arrays are used, {@code false} otherwise
+     */
+    public boolean supportsTypedArrays() {
+        return typedArrays;
+    }
+
+    /**
+     * Retrieves the custom converter for a certain type.
+     *
+     * @param type The type to retrieve the converter for
+     * @return The custom converter, or {@code null}, if the built-in conversion should be used
+     */
+    @SuppressWarnings("unchecked")
+    private JavascriptConverter<Object> customConverter(Class<?> type) {
+        if (type == null || converterRegistry.isEmpty()) {
+            // Don't pay for the lookup if no custom converters are in use
+            return null;
+        }
+
+        JavascriptConverter<?> converter = customConverters.get(type);
+        return converter == NO_CONVERTER ? null : (JavascriptConverter<Object>) converter;
+    }
+
+    /**
+     * Determines whether a custom converter is registered for a certain type.
+     *
+     * @param type The type to check
+     * @return {@code true} if a custom converter takes care of the type, {@code false} otherwise
+     */
+    public boolean hasCustomConverter(Class<?> type) {
+        return customConverter(type) != null;
     }
 
     /**
@@ -74,6 +224,12 @@ public final class JavascriptConversionUtils {
             return context.makeUndefined();
         }
 
+        JavascriptConverter<Object> customConverter = customConverter(javaClass);
+        if (customConverter != null) {
+            // Custom conversions take precedence over everything else
+            return customConverter.toJavascript(this, context, object);
+        }
+
         javaClass = toWrapperClass(javaClass);
 
         // Decide based on the object's class
@@ -87,6 +243,12 @@ public final class JavascriptConversionUtils {
             // Strings are considered primitives in Javascript
             return context.makeString((String) object);
         } else if (javaClass.isArray()) {
+            JavascriptTypedArrayType typedArrayType = typedArrays ? TypedArrayConversion.typeOf(javaClass) : null;
+            if (typedArrayType != null) {
+                // Primitive arrays are transferred in bulk as typed arrays
+                return TypedArrayConversion.toJavascript(context, object, typedArrayType);
+            }
+
             // Arrays required a recursive conversion
             // Reflective access to handle primitive arrays too
             int length = Array.getLength(object);
@@ -94,11 +256,13 @@ public final class JavascriptConversionUtils {
 
             for (int i = 0; i < length; i++) {
                 // Recursive call
-                Object value = Array.get(object, i);
-                values[i] = toJavascript(context, value, value.getClass());
+                values[i] = toJavascript(context, Array.get(object, i));
             }
 
             return context.makeArray(values);
+        } else if (typedArrays && object instanceof ByteBuffer) {
+            // Buffers are shared as Uint8Array, without copying if possible
+            return TypedArrayConversion.toJavascript(context, object, JavascriptTypedArrayType.UINT8);
         } else if (object instanceof Date) {
             // Dates are considered primitives in Javascript,
             // convert based on the unix epoch
@@ -124,8 +288,31 @@ public final class JavascriptConversionUtils {
             return context.makeObject((JavascriptClass) object, new DatabindJavascriptClass.Data(null, javaClass));
         }
 
-        // Translate the object class
-        return context.makeObject(databind.toJavascript(javaClass), new DatabindJavascriptClass.Data(object, javaClass));
+        if (ValueObjectMarshaller.isValueObject(object.getClass(), marshalValueObjects)) {
+            // Copy the whole object graph at once, reading it won't call back into Java
+            return ValueObjectMarshaller.toJavascript(this, context, object, marshalValueObjects);
+        }
+
+        if (wrapperCache != null) {
+            JavascriptValue wrapper = wrapperCache.get(context, object, javaClass);
+            if (wrapper != null) {
+                // The object has been converted before, keep the identity
+                return wrapper;
+            }
+        }
+
+        // Expose collections through live views if configured, else translate the object class
+        JavascriptClass collectionClass = databind.toJavascriptCollection(javaClass);
+        JavascriptObject wrapper = collectionClass != null ?
+                context.makeObject(collectionClass, new DatabindJavascriptCollection.CollectionData(object, javaClass)) :
+                context.makeObject(
+                        databind.toJavascript(javaClass), new DatabindJavascriptClass.Data(object, javaClass));
+
+        if (wrapperCache != null) {
+            wrapperCache.put(context, object, javaClass, wrapper);
+        }
+
+        return wrapper;
     }
 
     /**
@@ -138,6 +325,16 @@ public final class JavascriptConversionUtils {
     public Object fromJavascript(JavascriptValue value, Class<?> type) {
         JavascriptType javascriptType = value.getType();
 
+        JavascriptConverter<Object> customConverter = customConverter(type);
+        if (customConverter != null) {
+            // Custom conversions take precedence over everything else
+            if (javascriptType == JavascriptType.NULL || javascriptType == JavascriptType.UNDEFINED) {
+                return customConverter.nullValue();
+            }
+
+            return customConverter.fromJavascript(this, value, type);
+        }
+
         if (type == JavascriptValue.class) {
             return value;
         } else if (type == JavascriptObject.class) {
@@ -238,18 +435,24 @@ public final class JavascriptConversionUtils {
                     throw new IllegalArgumentException("Can not convert a Javascript array to " + type.getName());
                 }
 
-                // Prepare an array reflectively
-                int size = (int) object.getProperty("length").toNumber();
                 Class<?> componentType = anyType ? Object.class : type.getComponentType();
-                Object objects = Array.newInstance(componentType, size);
-
-                for (int i = 0; i < size; i++) {
-                    // Recursively convert values
-                    Array.set(objects, i, fromJavascript(object.getPropertyAtIndex(i), componentType));
+                return toJavaArray(object, null, componentType);
+            } else if (TypedArrayConversion.isCandidate(type)) {
+                JavascriptTypedArrayType typedArrayType = value.getTypedArrayType();
+                if (typedArrayType != JavascriptTypedArrayType.NONE) {
+                    // Typed arrays are read in bulk
+                    Object converted = TypedArrayConversion.fromJavascript(object, typedArrayType, type);
+                    if (converted == null) {
+                        throw new IllegalArgumentException(
+                                "Can not convert a Javascript typed array of type " + typedArrayType + " to " +
+                                        type.getName());
+                    }
+
+                    return converted;
                 }
+            }
 
-                return objects;
-            } else if (databind.supportsFunctionalConversion() &&
+            if (databind.supportsFunctionalConversion() &&
                     object.isFunction() &&
                     type.isInterface() &&
                     type.isAnnotationPresent(FunctionalInterface.class)) {
@@ -260,7 +463,13 @@ public final class JavascriptConversionUtils {
             if (privateData == null) {
                 // The Javascript object has not been constructed by java
                 if (type == Object.class) {
-                    return value;
+                    if (!typedArrays) {
+                        return value;
+                    }
+
+                    // Typed arrays are mapped to their primitive array representation if possible
+                    Object converted = TypedArrayConversion.fromJavascript(object, value.getTypedArrayType(), type);
+                    return converted != null ? converted : value;
                 }
 
                 throw new IllegalArgumentException(
@@ -291,6 +500,106 @@ public final class JavascriptConversionUtils {
         throw new IllegalArgumentException("Can not convert Javascript value to " + type.getName());
     }
 
+    /**
+     * Converts a Javascript array to a Java object, reusing elements which have already been fetched, for example
+     * while inferring the type of the array.
+     *
+     * @param value    The Javascript array to convert
+     * @param elements All elements of the array
+     * @param type     The type to convert the array to
+     * @return The converted value
+     */
+    public Object fromJavascriptArray(JavascriptValue value, JavascriptValue[] elements, Class<?> type) {
+        if ((type != Object.class && !type.isArray()) || hasCustomConverter(type)) {
+            return fromJavascript(value, type);
+        }
+
+        Class<?> componentType = type == Object.class ? Object.class : type.getComponentType();
+        return toJavaArray(value.toObject(), elements, componentType);
+    }
+
+    /**
+     * Converts a Javascript array to a Java array, reading all elements at once.
+     *
+     * @param object        The Javascript array to convert
+     * @param elements      All elements of the array if they have been fetched already, or {@code null}
+     * @param componentType The component type of the Java array to create
+     * @return The converted array
+     */
+    private Object toJavaArray(JavascriptObject object, JavascriptValue[] elements, Class<?> componentType) {
+        if (componentType == String.class) {
+            try {
+                return object.toStringArray();
+            } catch (IllegalStateException e) {
+                throw new IllegalArgumentException(
+                        "Can not convert Javascript array to " + componentType.getName() + "[]", e);
+            }
+        } else if (componentType.isPrimitive() && componentType != boolean.class && componentType != char.class) {
+            double[] numbers;
+            try {
+                numbers = object.toDoubleArray();
+            } catch (IllegalStateException e) {
+                throw new IllegalArgumentException(
+                        "Can not convert Javascript array to " + componentType.getName() + "[]", e);
+            }
+
+            return narrowNumbers(numbers, componentType);
+        }
+
+        JavascriptValue[] values = elements != null ? elements : object.getElements();
+        Object objects = Array.newInstance(componentType, values.length);
+
+        for (int i = 0; i < values.length; i++) {
+            // Recursively convert values
+            Array.set(objects, i, fromJavascript(values[i], componentType));
+        }
+
+        return objects;
+    }
+
+    /**
+     * Narrows Javascript numbers to a primitive Java array.
+     *
+     * @param numbers       The numbers to narrow
+     * @param componentType The numeric primitive component type of the array to create
+     * @return The narrowed array
+     */
+    private static Object narrowNumbers(double[] numbers, Class<?> componentType) {
+        if (componentType == double.class) {
+            return numbers;
+        } else if (componentType == float.class) {
+            float[] array = new float[numbers.length];
+            for (int i = 0; i < numbers.length; i++) {
+                array[i] = (float) numbers[i];
+            }
+            return array;
+        } else if (componentType == long.class) {
+            long[] array = new long[numbers.length];
+            for (int i = 0; i < numbers.length; i++) {
+                array[i] = (long) numbers[i];
+            }
+            return array;
+        } else if (componentType == int.class) {
+            int[] array = new int[numbers.length];
+            for (int i = 0; i < numbers.length; i++) {
+                array[i] = (int) numbers[i];
+            }
+            return array;
+        } else if (componentType == short.class) {
+            short[] array = new short[numbers.length];
+            for (int i = 0; i < numbers.length; i++) {
+                array[i] = (short) numbers[i];
+            }
+            return array;
+        } else {
+            byte[] array = new byte[numbers.length];
+            for (int i = 0; i < numbers.length; i++) {
+                array[i] = (byte) numbers[i];
+            }
+            return array;
+        }
+    }
+
     /**
      * Tries to infer the type from a Javascript value.
      *
@@ -298,6 +607,35 @@ public final class JavascriptConversionUtils {
      * @return The inferred type or null if the value is null or undefined
      */
     public static Class<?> determineType(JavascriptValue value) {
+        return determineType(value, 0);
+    }
+
+    /**
+     * Tries to infer the type from a Javascript value, inspecting only a limited amount of array elements.
+     * <p>
+     * The type of arrays is inferred from their first {@code arraySampleSize} elements only. This is significantly
+     * cheaper for large arrays, but the inferred type might be too specific if later elements differ.
+     *
+     * @param value           The value to infer the type from
+     * @param arraySampleSize The maximum amount of array elements to inspect, or {@code 0}, to inspect all elements
+     * @return The inferred type or null if the value is null or undefined
+     */
+    public static Class<?> determineType(JavascriptValue value, int arraySampleSize) {
+        return determineType(value, arraySampleSize, true);
+    }
+
+    /**
+     * Tries to infer the type from a Javascript value, inspecting only a limited amount of array elements.
+     * <p>
+     * If typed arrays are not inspected, they are inferred as plain {@link JavascriptObject}s, which saves a native
+     * call for every object.
+     *
+     * @param value           The value to infer the type from
+     * @param arraySampleSize The maximum amount of array elements to inspect, or {@code 0}, to inspect all elements
+     * @param typedArrays     If {@code true}, typed arrays are inferred as their primitive array representation
+     * @return The inferred type or null if the value is null or undefined
+     */
+    public static Class<?> determineType(JavascriptValue value, int arraySampleSize, boolean typedArrays) {
         JavascriptType type = value.getType();
 
         if (type == JavascriptType.NULL || type == JavascriptType.UNDEFINED) {
@@ -319,21 +657,17 @@ public final class JavascriptConversionUtils {
                 // Date's are primitives in Javascript
                 return Date.class;
             } else if (value.isArray()) {
-                int size = (int) object.getProperty("length").toNumber();
-
-                JavascriptValue[] values = new JavascriptValue[size];
-
-                for (int i = 0; i < size; i++) {
-                    values[i] = object.getPropertyAtIndex(i);
-                }
-
-                // Create an array with the common superclass
-                return Array.newInstance(findCommonSuperclass(values), 0).getClass();
+                return determineArrayType(sampleElements(object, arraySampleSize), arraySampleSize, typedArrays);
             }
 
             if (object.getPrivate() == null) {
-                // Not a Java object
-                return JavascriptObject.class;
+                if (!typedArrays) {
+                    return JavascriptObject.class;
+                }
+
+                // Not a Java object, but possibly a typed array
+                Class<?> typedArrayClass = TypedArrayConversion.classOf(value.getTypedArrayType());
+                return typedArrayClass != null ? typedArrayClass : JavascriptObject.class;
             }
 
             DatabindJavascriptClass.Data privateData = (DatabindJavascriptClass.Data) object.getPrivate();
@@ -350,18 +684,68 @@ public final class JavascriptConversionUtils {
         throw new AssertionError("UNREACHABLE: Could not convert JavascriptValue to any java class");
     }
 
+    /**
+     * Fetches the elements of a Javascript array which are inspected to infer its type.
+     *
+     * @param array           The array to fetch the elements of
+     * @param arraySampleSize The maximum amount of elements to fetch, or {@code 0}, to fetch all elements
+     * @return The fetched elements, all elements of the array if less than {@code arraySampleSize} elements have been
+     * returned
+     */
+    public static JavascriptValue[] sampleElements(JavascriptObject array, int arraySampleSize) {
+        if (arraySampleSize > 0) {
+            // Only inspect the start of the array
+            int size = (int) array.getProperty("length").toNumber();
+            return array.getElements(0, Math.min(size, arraySampleSize));
+        }
+
+        return array.getElements();
+    }
+
+    /**
+     * Infers the type of a Javascript array from its elements.
+     *
+     * @param elements        The elements of the array, as fetched by {@link #sampleElements(JavascriptObject, int)}
+     * @param arraySampleSize The maximum amount of elements to inspect of nested arrays, or {@code 0}, to inspect all
+     * @return The inferred array type
+     */
+    public static Class<?> determineArrayType(JavascriptValue[] elements, int arraySampleSize) {
+        return determineArrayType(elements, arraySampleSize, true);
+    }
+
+    /**
+     * Infers the type of a Javascript array from its elements.
+     *
+     * @param elements        The elements of the array, as fetched by {@link #sampleElements(JavascriptObject, int)}
+     * @param arraySampleSize The maximum amount of elements to inspect of nested arrays, or {@code 0}, to inspect all
+     * @param typedArrays     If {@code true}, typed array elements are inferred as their primitive array
+     *                        representation
+     * @return The inferred array type
+     */
+    public static Class<?> determineArrayType(JavascriptValue[] elements, int arraySampleSize, boolean typedArrays) {
+        // Create an array with the common superclass
+        return Array.newInstance(findCommonSuperclass(arraySampleSize, typedArrays, elements), 0).getClass();
+    }
+
     /**
      * Finds the most common superclass of all values (interfaces are not taken into account).
      *
-     * @param values The values to find the most common superclass of
+     * @param arraySampleSize The maximum amount of elements to inspect of nested arrays, or {@code 0}, to inspect all
+     * @param typedArrays     If {@code true}, typed arrays are inferred as their primitive array representation
+     * @param values          The values to find the most common superclass of
      * @return The most common superclass
      */
-    private static Class<?> findCommonSuperclass(JavascriptValue... values) {
+    private static Class<?> findCommonSuperclass(int arraySampleSize, boolean typedArrays, JavascriptValue... values) {
+        if (values.length == 0) {
+            // Nothing to infer from, an empty array can be anything
+            return Object.class;
+        }
+
         Class<?>[] classes = new Class[values.length];
 
         // Convert all Javascript values to Java classes
         for (int i = 0; i < classes.length; i++) {
-            Class<?> type = determineType(values[i]);
+            Class<?> type = determineType(values[i], arraySampleSize, typedArrays);
             classes[i] = type == null ? Object.class : type;
         }
 
@@ -0,0 +1,38 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.utils;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Implements functional interfaces using {@link Proxy} instances.
+ * <p>
+ * This implementation works for every interface, but every invocation goes through reflection.
+ */
+public class ProxyFunctionalImplementationFactory implements FunctionalImplementationFactory {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object implement(Class<?> target, BoundJavascriptFunction function) {
+        return Proxy.newProxyInstance(target.getClassLoader(), new Class[]{target},
+                new FunctionalInvocationHandler(target, function));
+    }
+}
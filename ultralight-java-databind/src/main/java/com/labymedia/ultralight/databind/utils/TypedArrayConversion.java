@@ -0,0 +1,290 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.labymedia.ultralight.databind.utils;
+
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptTypedArrayType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Helper for transferring primitive arrays and buffers in bulk using Javascript typed arrays.
+ * <p>
+ * Instead of converting every element on its own, the memory is copied once in bulk. Direct buffers are shared
+ * without copying at all.
+ */
+final class TypedArrayConversion {
+    // Prevent instantiation
+    private TypedArrayConversion() {
+    }
+
+    /**
+     * Determines the typed array type a Java class is transferred as.
+     *
+     * @param javaClass The Java class to determine the typed array type for
+     * @return The typed array type, or {@code null}, if the class is not transferred as a typed array
+     */
+    static JavascriptTypedArrayType typeOf(Class<?> javaClass) {
+        if (javaClass == double[].class) {
+            return JavascriptTypedArrayType.FLOAT64;
+        } else if (javaClass == float[].class) {
+            return JavascriptTypedArrayType.FLOAT32;
+        } else if (javaClass == int[].class) {
+            return JavascriptTypedArrayType.INT32;
+        } else if (javaClass == short[].class) {
+            return JavascriptTypedArrayType.INT16;
+        } else if (javaClass == byte[].class) {
+            return JavascriptTypedArrayType.INT8;
+        } else if (ByteBuffer.class.isAssignableFrom(javaClass)) {
+            return JavascriptTypedArrayType.UINT8;
+        }
+
+        return null;
+    }
+
+    /**
+     * Determines the Java class a typed array is represented by.
+     *
+     * @param type The type of the typed array
+     * @return The Java class representing the typed array, or {@code null}, if the typed array has no direct Java
+     * representation
+     */
+    static Class<?> classOf(JavascriptTypedArrayType type) {
+        switch (type) {
+            case FLOAT64:
+                return double[].class;
+
+            case FLOAT32:
+                return float[].class;
+
+            case INT32:
+                return int[].class;
+
+            case INT16:
+                return short[].class;
+
+            case INT8:
+            case UINT8:
+            case UINT8_CLAMPED:
+                // Binary data, the signedness does not matter
+                return byte[].class;
+
+            case BUFFER:
+                return ByteBuffer.class;
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Determines whether a value of the given target type is converted from a typed array specifically.
+     *
+     * @param type The target type of a conversion
+     * @return {@code true} if the target type is a primitive array or buffer which can be converted from a typed array,
+     * {@code false} otherwise
+     */
+    static boolean isCandidate(Class<?> type) {
+        return type == ByteBuffer.class || (type.isArray() && typeOf(type) != null);
+    }
+
+    /**
+     * Converts a primitive array or a buffer to a Javascript typed array.
+     *
+     * @param context The context to create the typed array in
+     * @param object  The primitive array or buffer to convert
+     * @param type    The type of the typed array to create, as determined by {@link #typeOf(Class)}
+     * @return The created typed array
+     */
+    static JavascriptObject toJavascript(JavascriptContext context, Object object, JavascriptTypedArrayType type) {
+        if (object instanceof ByteBuffer) {
+            ByteBuffer source = (ByteBuffer) object;
+
+            if (source.isDirect() && !source.isReadOnly()) {
+                // Share the memory between position and limit without copying
+                return context.makeTypedArray(type, source.slice());
+            }
+
+            byte[] bytes = new byte[source.remaining()];
+            source.duplicate().get(bytes);
+            object = bytes;
+        }
+
+        // Copied natively straight into memory owned by Javascript, no staging buffer required
+        return context.makeTypedArrayCopy(type, object);
+    }
+
+    /**
+     * Converts a Javascript typed array to a primitive array or a buffer.
+     *
+     * @param object     The typed array to convert
+     * @param sourceType The type of the typed array
+     * @param type       The target type of the conversion
+     * @return The converted value, or {@code null}, if the typed array can not be converted to the target type
+     */
+    static Object fromJavascript(JavascriptObject object, JavascriptTypedArrayType sourceType, Class<?> type) {
+        Class<?> sourceClass = classOf(sourceType);
+
+        if (type == Object.class) {
+            if (sourceClass == null) {
+                return null;
+            }
+
+            type = sourceClass;
+        }
+
+        if (sourceType == JavascriptTypedArrayType.NONE || (type != ByteBuffer.class && typeOf(type) == null)) {
+            return null;
+        }
+
+        int byteLength = object.getTypedArrayByteLength();
+
+        if (type == sourceClass) {
+            // Same element layout, copy in bulk
+            Object array;
+            if (type == double[].class) {
+                array = new double[byteLength / Double.BYTES];
+            } else if (type == float[].class) {
+                array = new float[byteLength / Float.BYTES];
+            } else if (type == int[].class) {
+                array = new int[byteLength / Integer.BYTES];
+            } else if (type == short[].class) {
+                array = new short[byteLength / Short.BYTES];
+            } else {
+                array = new byte[byteLength];
+            }
+
+            object.copyTypedArrayBytes(array);
+            return array;
+        }
+
+        // The Javascript memory is only valid temporarily, always copy it
+        byte[] raw = new byte[byteLength];
+        object.copyTypedArrayBytes(raw);
+        ByteBuffer bytes = ByteBuffer.wrap(raw).order(ByteOrder.nativeOrder());
+
+        if (type == ByteBuffer.class) {
+            return bytes;
+        }
+
+        if (sourceType == JavascriptTypedArrayType.BUFFER) {
+            // Raw memory has no element type to convert from
+            return null;
+        }
+
+        // Different element types, convert element by element without leaving Java
+        double[] values = readElements(bytes, sourceType);
+
+        if (type == double[].class) {
+            return values;
+        } else if (type == float[].class) {
+            float[] array = new float[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = (float) values[i];
+            }
+            return array;
+        } else if (type == int[].class) {
+            int[] array = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = (int) values[i];
+            }
+            return array;
+        } else if (type == short[].class) {
+            short[] array = new short[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = (short) values[i];
+            }
+            return array;
+        } else {
+            byte[] array = new byte[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = (byte) values[i];
+            }
+            return array;
+        }
+    }
+
+    /**
+     * Reads all elements of a typed array as doubles.
+     *
+     * @param bytes The memory of the typed array in native byte order
+     * @param type  The type of the typed array
+     * @return The elements of the typed array
+     */
+    private static double[] readElements(ByteBuffer bytes, JavascriptTypedArrayType type) {
+        switch (type) {
+            case INT8: {
+                double[] values = new double[bytes.remaining()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = bytes.get(i);
+                }
+                return values;
+            }
+
+            case UINT8:
+            case UINT8_CLAMPED: {
+                double[] values = new double[bytes.remaining()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = bytes.get(i) & 0xFF;
+                }
+                return values;
+            }
+
+            case INT16:
+            case UINT16: {
+                double[] values = new double[bytes.remaining() / Short.BYTES];
+                for (int i = 0; i < values.length; i++) {
+                    short value = bytes.getShort(i * Short.BYTES);
+                    values[i] = type == JavascriptTypedArrayType.UINT16 ? value & 0xFFFF : value;
+                }
+                return values;
+            }
+
+            case INT32:
+            case UINT32: {
+                double[] values = new double[bytes.remaining() / Integer.BYTES];
+                for (int i = 0; i < values.length; i++) {
+                    int value = bytes.getInt(i * Integer.BYTES);
+                    values[i] = type == JavascriptTypedArrayType.UINT32 ? value & 0xFFFFFFFFL : value;
+                }
+                return values;
+            }
+
+            case FLOAT32: {
+                double[] values = new double[bytes.remaining() / Float.BYTES];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = bytes.getFloat(i * Float.BYTES);
+                }
+                return values;
+            }
+
+            case FLOAT64: {
+                double[] values = new double[bytes.remaining() / Double.BYTES];
+                bytes.asDoubleBuffer().get(values);
+                return values;
+            }
+
+            default:
+                throw new IllegalArgumentException("Can not read elements of typed array type " + type);
+        }
+    }
+}
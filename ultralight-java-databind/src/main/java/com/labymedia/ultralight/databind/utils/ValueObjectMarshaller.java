@@ -0,0 +1,513 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.utils;
+
+import com.labymedia.ultralight.databind.api.JavascriptValueObject;
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copies Java value objects to plain Javascript object graphs in a single native operation.
+ * <p>
+ * The object graph is serialized to JSON and parsed by Javascript at once. Values which can't be represented in
+ * JSON, such as arbitrary Java objects or non finite numbers, are written as {@code null} placeholders and
+ * converted individually after the graph has been created.
+ */
+final class ValueObjectMarshaller {
+    private static final ClassValue<Boolean> ANNOTATED = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isAnnotationPresent(JavascriptValueObject.class);
+        }
+    };
+
+    private static final ClassValue<List<Accessor>> ACCESSORS = new ClassValue<List<Accessor>>() {
+        @Override
+        protected List<Accessor> computeValue(Class<?> type) {
+            return collectAccessors(type);
+        }
+    };
+
+    private final JavascriptConversionUtils conversionUtils;
+    private final boolean marshalCollections;
+
+    private final StringBuilder json = new StringBuilder();
+    private final List<Object> path = new ArrayList<>();
+    private final List<Placeholder> placeholders = new ArrayList<>();
+    private final Set<Object> visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Constructs a new {@link ValueObjectMarshaller}.
+     *
+     * @param conversionUtils    The conversion utilities to convert values with, which can't be represented in JSON
+     * @param marshalCollections If {@code true}, records, maps and collections are treated as value objects
+     */
+    private ValueObjectMarshaller(JavascriptConversionUtils conversionUtils, boolean marshalCollections) {
+        this.conversionUtils = conversionUtils;
+        this.marshalCollections = marshalCollections;
+    }
+
+    /**
+     * Determines whether an object of a certain class is copied as a value object.
+     *
+     * @param type               The class of the object
+     * @param marshalCollections If {@code true}, records, maps and collections are treated as value objects
+     * @return {@code true} if the object is a value object, {@code false} otherwise
+     */
+    static boolean isValueObject(Class<?> type, boolean marshalCollections) {
+        if (ANNOTATED.get(type)) {
+            return true;
+        }
+
+        return marshalCollections &&
+                (Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type) || isRecord(type));
+    }
+
+    /**
+     * Copies a value object to a plain Javascript object.
+     *
+     * @param conversionUtils    The conversion utilities to convert values with, which can't be represented in JSON
+     * @param context            The context to create the object in
+     * @param object             The object to copy
+     * @param marshalCollections If {@code true}, nested records, maps and collections are copied as well
+     * @return The created Javascript object
+     * @throws IllegalArgumentException If the object graph contains a cycle
+     */
+    static JavascriptValue toJavascript(
+            JavascriptConversionUtils conversionUtils,
+            JavascriptContext context,
+            Object object,
+            boolean marshalCollections
+    ) {
+        ValueObjectMarshaller marshaller = new ValueObjectMarshaller(conversionUtils, marshalCollections);
+        marshaller.write(object);
+
+        JavascriptValue root = context.makeFromJSON(marshaller.json.toString());
+        if (root == null) {
+            throw new IllegalStateException("Javascript rejected the JSON of " + object.getClass().getName());
+        }
+
+        for (Placeholder placeholder : marshaller.placeholders) {
+            placeholder.fill(conversionUtils, context, root.toObject());
+        }
+
+        return root;
+    }
+
+    /**
+     * Serializes a value object graph to JSON without creating it in Javascript. Values which can't be represented
+     * in JSON are written as {@code null} placeholders.
+     *
+     * @param conversionUtils    The conversion utilities to look up custom converters with
+     * @param object             The object to serialize
+     * @param marshalCollections If {@code true}, nested records, maps and collections are serialized as well
+     * @return The JSON of the object graph
+     * @throws IllegalArgumentException If the object graph contains a cycle
+     */
+    static String toJson(JavascriptConversionUtils conversionUtils, Object object, boolean marshalCollections) {
+        ValueObjectMarshaller marshaller = new ValueObjectMarshaller(conversionUtils, marshalCollections);
+        marshaller.write(object);
+
+        return marshaller.json.toString();
+    }
+
+    /**
+     * Writes a value to the JSON.
+     *
+     * @param value The value to write
+     */
+    private void write(Object value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+
+        Class<?> type = value.getClass();
+        if (conversionUtils.hasCustomConverter(type)) {
+            // Custom conversions take precedence
+            writePlaceholder(value);
+        } else if (value instanceof Boolean) {
+            json.append(((Boolean) value).booleanValue());
+        } else if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                // Not representable in JSON
+                writePlaceholder(value);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short ||
+                    value instanceof Byte) {
+                json.append(((Number) value).longValue());
+            } else {
+                json.append(number);
+            }
+        } else if (value instanceof String || value instanceof Character) {
+            writeString(value.toString());
+        } else if (type.isArray()) {
+            enter(value);
+            json.append('[');
+
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                writeElement(i, Array.get(value, i));
+            }
+
+            json.append(']');
+            leave(value);
+        } else if (!isValueObject(type, marshalCollections)) {
+            // Will be wrapped or converted by the built-in conversions
+            writePlaceholder(value);
+        } else if (value instanceof Collection) {
+            enter(value);
+            json.append('[');
+
+            int i = 0;
+            for (Object element : (Collection<?>) value) {
+                writeElement(i++, element);
+            }
+
+            json.append(']');
+            leave(value);
+        } else if (value instanceof Map) {
+            enter(value);
+            json.append('{');
+
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writeMember(first, String.valueOf(entry.getKey()), entry.getValue());
+                first = false;
+            }
+
+            json.append('}');
+            leave(value);
+        } else {
+            enter(value);
+            json.append('{');
+
+            boolean first = true;
+            for (Accessor accessor : ACCESSORS.get(type)) {
+                writeMember(first, accessor.name, accessor.get(value));
+                first = false;
+            }
+
+            json.append('}');
+            leave(value);
+        }
+    }
+
+    /**
+     * Writes an element of an array.
+     *
+     * @param index The index of the element
+     * @param value The value of the element
+     */
+    private void writeElement(int index, Object value) {
+        if (index != 0) {
+            json.append(',');
+        }
+
+        path.add(index);
+        write(value);
+        path.remove(path.size() - 1);
+    }
+
+    /**
+     * Writes a member of an object.
+     *
+     * @param first {@code true} if this is the first member of the object
+     * @param name  The name of the member
+     * @param value The value of the member
+     */
+    private void writeMember(boolean first, String name, Object value) {
+        if (!first) {
+            json.append(',');
+        }
+
+        writeString(name);
+        json.append(':');
+
+        path.add(name);
+        write(value);
+        path.remove(path.size() - 1);
+    }
+
+    /**
+     * Writes a placeholder for a value which is converted after the object graph has been created.
+     *
+     * @param value The value to convert later
+     */
+    private void writePlaceholder(Object value) {
+        if (path.isEmpty()) {
+            throw new IllegalArgumentException("The root of a value object graph must be representable in JSON");
+        }
+
+        json.append("null");
+        placeholders.add(new Placeholder(new ArrayList<>(path), value));
+    }
+
+    /**
+     * Writes an escaped JSON string.
+     *
+     * @param value The string to write
+     */
+    private void writeString(String value) {
+        json.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+
+                case '\\':
+                    json.append("\\\\");
+                    break;
+
+                case '\n':
+                    json.append("\\n");
+                    break;
+
+                case '\r':
+                    json.append("\\r");
+                    break;
+
+                case '\t':
+                    json.append("\\t");
+                    break;
+
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+
+        json.append('"');
+    }
+
+    /**
+     * Marks a container as being written, detecting cycles.
+     *
+     * @param value The container being written
+     * @throws IllegalArgumentException If the container is already being written
+     */
+    private void enter(Object value) {
+        if (!visiting.add(value)) {
+            throw new IllegalArgumentException(
+                    "Value object graph contains a cycle through " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Marks a container as written.
+     *
+     * @param value The container which has been written
+     */
+    private void leave(Object value) {
+        visiting.remove(value);
+    }
+
+    /**
+     * Determines whether a class is a record without requiring a Java version supporting records.
+     *
+     * @param type The class to check
+     * @return {@code true} if the class is a record, {@code false} otherwise
+     */
+    private static boolean isRecord(Class<?> type) {
+        Class<?> superClass = type.getSuperclass();
+        return superClass != null && superClass.getName().equals("java.lang.Record");
+    }
+
+    /**
+     * Collects the accessors of the properties of a value object class. Every property is only read once, public
+     * fields take precedence over getters of the same name.
+     *
+     * @param type The class to collect the accessors of
+     * @return The collected accessors
+     */
+    private static List<Accessor> collectAccessors(Class<?> type) {
+        List<Accessor> accessors = new ArrayList<>();
+
+        if (isRecord(type)) {
+            // The components of a record are its instance fields, each having an accessor of the same name
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+
+                try {
+                    accessors.add(new Accessor(field.getName(), null, type.getMethod(field.getName())));
+                } catch (NoSuchMethodException exception) {
+                    throw new IllegalStateException("Record component without accessor: " + field.getName(), exception);
+                }
+            }
+
+            return accessors;
+        }
+
+        Map<String, Accessor> properties = new LinkedHashMap<>();
+        for (Field field : type.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                properties.putIfAbsent(field.getName(), new Accessor(field.getName(), field, null));
+            }
+        }
+
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) ||
+                    method.getParameterCount() != 0 ||
+                    method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+
+            String name = method.getName();
+            String property;
+            if (name.startsWith("get") && name.length() > 3 && method.getReturnType() != void.class) {
+                property = decapitalize(name.substring(3));
+            } else if (name.startsWith("is") && name.length() > 2 && method.getReturnType() == boolean.class) {
+                property = decapitalize(name.substring(2));
+            } else {
+                continue;
+            }
+
+            properties.putIfAbsent(property, new Accessor(property, null, method));
+        }
+
+        accessors.addAll(properties.values());
+        return accessors;
+    }
+
+    /**
+     * Converts the first character of a bean property name to lower case.
+     *
+     * @param name The name to convert
+     * @return The converted name
+     */
+    private static String decapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Reads a single property of a value object.
+     */
+    private static final class Accessor {
+        private final String name;
+        private final Field field;
+        private final Method getter;
+
+        /**
+         * Constructs a new {@link Accessor}.
+         *
+         * @param name   The name of the property
+         * @param field  The field to read, or {@code null}, if the getter is used
+         * @param getter The getter to invoke, or {@code null}, if the field is used
+         */
+        private Accessor(String name, Field field, Method getter) {
+            this.name = name;
+            this.field = field;
+            this.getter = getter;
+        }
+
+        /**
+         * Reads the property from a value object.
+         *
+         * @param instance The value object to read from
+         * @return The value of the property
+         */
+        private Object get(Object instance) {
+            try {
+                return field != null ? field.get(instance) : getter.invoke(instance);
+            } catch (IllegalAccessException exception) {
+                throw new IllegalStateException("Unable to access property " + name, exception);
+            } catch (InvocationTargetException exception) {
+                throw new IllegalStateException("Reading property " + name + " threw an exception", exception);
+            }
+        }
+    }
+
+    /**
+     * A value written as {@code null}, which is converted and set after the object graph has been created.
+     */
+    private static final class Placeholder {
+        private final List<Object> path;
+        private final Object value;
+
+        /**
+         * Constructs a new {@link Placeholder}.
+         *
+         * @param path  The path of the value from the root, consisting of property names and array indices
+         * @param value The value to convert
+         */
+        private Placeholder(List<Object> path, Object value) {
+            this.path = path;
+            this.value = value;
+        }
+
+        /**
+         * Converts the value and sets it in the created object graph.
+         *
+         * @param conversionUtils The conversion utilities to convert the value with
+         * @param context         The context the object graph has been created in
+         * @param root            The root of the created object graph
+         */
+        private void fill(JavascriptConversionUtils conversionUtils, JavascriptContext context, JavascriptObject root) {
+            JavascriptObject parent = root;
+            for (int i = 0; i < path.size() - 1; i++) {
+                parent = get(parent, path.get(i)).toObject();
+            }
+
+            JavascriptValue converted = conversionUtils.toJavascript(context, value);
+
+            Object key = path.get(path.size() - 1);
+            if (key instanceof Integer) {
+                parent.setPropertyAtIndex((Integer) key, converted);
+            } else {
+                parent.setProperty((String) key, converted, 0);
+            }
+        }
+
+        /**
+         * Retrieves a property of an object using a path element.
+         *
+         * @param object The object to retrieve the property from
+         * @param key    The property name or array index
+         * @return The value of the property
+         */
+        private static JavascriptValue get(JavascriptObject object, Object key) {
+            return key instanceof Integer ?
+                    object.getPropertyAtIndex((Integer) key) : object.getProperty((String) key);
+        }
+    }
+}
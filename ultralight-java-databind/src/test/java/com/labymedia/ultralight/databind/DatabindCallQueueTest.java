@@ -0,0 +1,179 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.databind.context.ContextProviderFactory;
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+import com.labymedia.ultralight.javascript.TestJavascriptContext;
+import com.labymedia.ultralight.javascript.TestJavascriptObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.labymedia.ultralight.databind.DatabindTestSupport.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabindCallQueueTest {
+    public static class Recorder {
+        private final List<String> calls = new ArrayList<>();
+
+        public void record(String value) {
+            if (value.equals("fail")) {
+                throw new IllegalStateException(value);
+            }
+
+            calls.add(value);
+        }
+    }
+
+    private final List<Throwable> failures = new ArrayList<>();
+    private final Recorder recorder = new Recorder();
+
+    private TestJavascriptContext context;
+    private ContextProviderFactory contextProviderFactory;
+    private DatabindCallQueue queue;
+    private List<JavascriptValue> entries;
+    private int createdQueues;
+
+    /**
+     * Implements the Javascript queue factory of {@link DatabindCallQueue} for the fake context.
+     *
+     * @return The functions accessing the new queue
+     */
+    private JavascriptValue makeQueueFunctions() {
+        List<JavascriptValue> queued = new ArrayList<>();
+        entries = queued;
+        createdQueues++;
+
+        TestJavascriptObject functions = new TestJavascriptObject(context);
+        functions.setProperty("stub", new TestJavascriptObject(context).function((thisObject, targets) ->
+                new TestJavascriptObject(context).function((callThis, arguments) -> {
+                    queued.add(targets[0]);
+                    queued.add(context.makeNumber(arguments.length));
+                    queued.addAll(Arrays.asList(arguments));
+                    return context.makeUndefined();
+                })), 0);
+        functions.setProperty("drain", new TestJavascriptObject(context).function((thisObject, arguments) -> {
+            JavascriptValue[] drained = queued.toArray(new JavascriptValue[0]);
+            queued.clear();
+            return context.makeArray(drained);
+        }), 0);
+
+        return functions;
+    }
+
+    private JavascriptObject queuedFunction() throws NoSuchMethodException {
+        DatabindJavascriptMethodHandler handler = methodHandler(Recorder.class.getMethod("record", String.class));
+
+        JavascriptObject target = context.makeObject(
+                TestJavascriptContext.makeClass(), new DatabindJavascriptMethodHandler.QueuedData(recorder, handler));
+        return queue.makeQueuedFunction(context, contextProviderFactory, target);
+    }
+
+    @BeforeEach
+    void setUp() {
+        context = new TestJavascriptContext();
+        context.implementFunction(
+                DatabindCallQueue.QUEUE_FACTORY_BODY,
+                (thisObject, arguments) -> makeQueueFunctions());
+        contextProviderFactory = (value) -> (callback) -> callback.accept(context.getLock());
+        queue = new DatabindCallQueue(failures::add);
+    }
+
+    @Test
+    void dispatchInvokesQueuedCallsInOrder() throws NoSuchMethodException {
+        JavascriptObject function = queuedFunction();
+        function.callAsFunction(null, context.makeString("a"));
+        function.callAsFunction(null, context.makeString("b"));
+
+        assertEquals(Collections.emptyList(), recorder.calls);
+
+        queue.dispatch();
+
+        assertEquals(Arrays.asList("a", "b"), recorder.calls);
+        assertEquals(Collections.emptyList(), failures);
+    }
+
+    @Test
+    void failuresAreReportedWithoutStoppingDispatch() throws NoSuchMethodException {
+        JavascriptObject function = queuedFunction();
+        function.callAsFunction(null, context.makeString("a"));
+        function.callAsFunction(null, context.makeString("fail"));
+        function.callAsFunction(null, context.makeString("b"));
+
+        assertDoesNotThrow(queue::dispatch);
+
+        assertEquals(Arrays.asList("a", "b"), recorder.calls);
+        assertEquals(1, failures.size());
+    }
+
+    @Test
+    void contextProviderFailuresAreReported() throws NoSuchMethodException {
+        contextProviderFactory = (value) -> (callback) -> {
+            throw new IllegalStateException("No context");
+        };
+        queuedFunction().callAsFunction(null, context.makeString("a"));
+
+        assertDoesNotThrow(queue::dispatch);
+
+        assertEquals(Collections.emptyList(), recorder.calls);
+        assertEquals(1, failures.size());
+    }
+
+    @Test
+    void malformedEntriesAreSkipped() throws NoSuchMethodException {
+        JavascriptObject function = queuedFunction();
+
+        // Target without queued data, skipped on its own
+        entries.add(context.makeArray());
+        entries.add(context.makeNumber(0));
+        function.callAsFunction(null, context.makeString("a"));
+
+        // Invalid argument count, the rest of the queue is skipped
+        entries.add(context.makeArray());
+        entries.add(context.makeNumber(1.5));
+        function.callAsFunction(null, context.makeString("b"));
+
+        queue.dispatch();
+
+        assertEquals(Collections.singletonList("a"), recorder.calls);
+        assertEquals(Collections.emptyList(), failures);
+    }
+
+    @Test
+    void queueOfReplacedContextIsDropped() throws NoSuchMethodException {
+        queuedFunction().callAsFunction(null, context.makeString("a"));
+        context.replaceGlobalObject();
+
+        queue.dispatch();
+
+        assertEquals(Collections.emptyList(), recorder.calls);
+
+        queuedFunction().callAsFunction(null, context.makeString("b"));
+        queue.dispatch();
+
+        assertEquals(Collections.singletonList("b"), recorder.calls);
+        assertEquals(2, createdQueues);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+import com.labymedia.ultralight.javascript.TestJavascriptContext;
+import com.labymedia.ultralight.javascript.TestJavascriptObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabindDeferredFactoryTest {
+    private TestJavascriptContext context;
+    private DatabindDeferredFactory factory;
+    private int factoryCalls;
+
+    @BeforeEach
+    void setUp() {
+        context = new TestJavascriptContext();
+        factory = new DatabindDeferredFactory();
+        context.implementFunction(DatabindDeferredFactory.FACTORY_BODY, (thisObject, arguments) -> {
+            factoryCalls++;
+
+            TestJavascriptObject deferred = new TestJavascriptObject(context);
+            deferred.setProperty("promise", new TestJavascriptObject(context), 0);
+            return deferred;
+        });
+    }
+
+    private static boolean exposesFunction(JavascriptObject globalObject) {
+        for (String name : globalObject.copyPropertyNames()) {
+            JavascriptValue value = globalObject.getProperty(name);
+            if (value.isObject() && value.toObject().isFunction()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Test
+    void createsDeferredWithoutPublishingFactory() {
+        JavascriptObject deferred = factory.create(context);
+        factory.create(context);
+
+        assertTrue(deferred.getProperty("promise").isObject());
+        assertEquals(2, factoryCalls);
+        assertFalse(exposesFunction(context.getGlobalObject()));
+    }
+
+    @Test
+    void ignoresFunctionsDefinedByPage() {
+        context.implementFunction("page", (thisObject, arguments) -> {
+            throw new AssertionError("The function of the page must not be called");
+        });
+        context.getGlobalObject().setProperty(
+                "__ultralightJavaDeferred", context.makeFunction(null, null, "page", null, 1), 0);
+
+        factory.create(context);
+        assertEquals(1, factoryCalls);
+    }
+
+    @Test
+    void recompilesForReplacedContext() {
+        factory.create(context);
+
+        context.replaceGlobalObject();
+        context.relock();
+
+        factory.create(context);
+        assertEquals(2, factoryCalls);
+        assertTrue(context.getGlobalObject().getProperty("__ultralightJavaDeferred").isNumber());
+    }
+}
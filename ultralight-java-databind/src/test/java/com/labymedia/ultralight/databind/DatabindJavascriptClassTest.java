@@ -0,0 +1,96 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.javascript.JavascriptPropertyAttributes;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+import com.labymedia.ultralight.javascript.TestJavascriptContext;
+import com.labymedia.ultralight.javascript.TestJavascriptObject;
+import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static com.labymedia.ultralight.databind.DatabindTestSupport.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabindJavascriptClassTest {
+    public static class Greeter {
+        public String greet() {
+            return "hello";
+        }
+    }
+
+    private TestJavascriptContext context;
+    private DatabindJavascriptClass javascriptClass;
+    private TestJavascriptObject object;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        javascriptClass = javascriptClass(
+                Greeter.class, Collections.singletonMap("greet", methodHandler(Greeter.class.getMethod("greet"))));
+
+        context = new TestJavascriptContext();
+        object = context.makeObject(
+                TestJavascriptContext.makeClass(), new DatabindJavascriptClass.Data(new Greeter(), Greeter.class));
+        object.hasPropertyCallback(this::hasProperty);
+    }
+
+    private boolean hasProperty(String name) {
+        return javascriptClass.onHasProperty(context, object, name);
+    }
+
+    private JavascriptValue getProperty(String name) throws JavascriptInteropException {
+        return javascriptClass.onGetProperty(context, object, name);
+    }
+
+    @Test
+    void reportsUnboundMethods() throws Exception {
+        assertTrue(hasProperty("greet"));
+        assertFalse(hasProperty("missing"));
+    }
+
+    @Test
+    void cachesBoundMethodWithAttributes() throws Exception {
+        JavascriptValue method = getProperty("greet");
+
+        assertTrue(method.isObject());
+        assertSame(method, object.getProperty("greet"));
+        assertEquals(
+                JavascriptPropertyAttributes.READ_ONLY | JavascriptPropertyAttributes.DONT_DELETE |
+                        JavascriptPropertyAttributes.DONT_ENUM,
+                object.getPropertyAttributes("greet"));
+
+        // Cached methods are resolved by Javascript from now on
+        assertFalse(hasProperty("greet"));
+        assertNull(getProperty("greet"));
+    }
+
+    @Test
+    void cachedBoundMethodCanNotBeRemoved() throws Exception {
+        JavascriptValue method = getProperty("greet");
+
+        assertFalse(object.deleteProperty("greet"));
+        object.setProperty("greet", context.makeNumber(1), JavascriptPropertyAttributes.NONE);
+
+        assertSame(method, object.getProperty("greet"));
+        assertEquals(0, object.copyPropertyNames().length);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabindJavascriptCollectionTest {
+    @Test
+    void parsesCanonicalIndices() {
+        assertEquals(0, DatabindJavascriptCollection.parseIndex("0"));
+        assertEquals(7, DatabindJavascriptCollection.parseIndex("7"));
+        assertEquals(1234, DatabindJavascriptCollection.parseIndex("1234"));
+        assertEquals(Integer.MAX_VALUE, DatabindJavascriptCollection.parseIndex("2147483647"));
+    }
+
+    @Test
+    void rejectsNonCanonicalIndices() {
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex(""));
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex("01"));
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex("-1"));
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex("+1"));
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex("1.0"));
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex(" 1"));
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex("length"));
+    }
+
+    @Test
+    void rejectsIndicesOutOfRange() {
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex("2147483648"));
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex("9999999999"));
+        assertEquals(-1, DatabindJavascriptCollection.parseIndex("12345678901"));
+    }
+
+    @Test
+    void detectsCollections() {
+        assertTrue(DatabindJavascriptCollection.isCollection(ArrayList.class));
+        assertTrue(DatabindJavascriptCollection.isCollection(LinkedHashSet.class));
+        assertTrue(DatabindJavascriptCollection.isCollection(HashMap.class));
+        assertFalse(DatabindJavascriptCollection.isCollection(String.class));
+    }
+
+    @Test
+    void retrievesSetElementsByPosition() {
+        Set<String> set = new LinkedHashSet<>(Arrays.asList("a", "b", "c"));
+        DatabindJavascriptCollection.CollectionData data =
+                new DatabindJavascriptCollection.CollectionData(set, LinkedHashSet.class);
+
+        // Sequential access
+        assertEquals("a", data.elementAt(0));
+        assertEquals("b", data.elementAt(1));
+        assertEquals("c", data.elementAt(2));
+
+        // Going backwards restarts the iteration
+        assertEquals("b", data.elementAt(1));
+
+        // Skipping ahead
+        assertEquals("a", data.elementAt(0));
+        assertEquals("c", data.elementAt(2));
+    }
+
+    @Test
+    void restartsIterationAfterModification() {
+        Set<String> set = new LinkedHashSet<>(Arrays.asList("a", "b", "c"));
+        DatabindJavascriptCollection.CollectionData data =
+                new DatabindJavascriptCollection.CollectionData(set, LinkedHashSet.class);
+
+        assertEquals("a", data.elementAt(0));
+
+        set.remove("b");
+        assertEquals("c", data.elementAt(1));
+    }
+
+    @Test
+    void writesUseTypeOfExistingElements() {
+        assertEquals(Integer.class, DatabindJavascriptCollection.elementType(1, Arrays.asList("a", 1)));
+        assertEquals(String.class, DatabindJavascriptCollection.elementType(null, Arrays.asList(null, "a")));
+        assertEquals(Object.class, DatabindJavascriptCollection.elementType(null, Collections.singletonList(null)));
+        assertEquals(Object.class, DatabindJavascriptCollection.elementType(null, Collections.emptyList()));
+    }
+
+    @Test
+    void addsKeysOnlyToMapsWithStringKeys() {
+        Map<Object, Object> strings = new HashMap<>();
+        strings.put("a", 1);
+        Map<Object, Object> mixed = new HashMap<>(strings);
+        mixed.put(1, 1);
+
+        assertTrue(DatabindJavascriptCollection.hasStringKeys(strings));
+        assertTrue(DatabindJavascriptCollection.hasStringKeys(new HashMap<>()));
+        assertFalse(DatabindJavascriptCollection.hasStringKeys(mixed));
+        assertFalse(DatabindJavascriptCollection.hasStringKeys(new EnumMap<>(TimeUnit.class)));
+    }
+
+    @Test
+    void looksUpStringKeysInMapsWithOtherKeys() {
+        Map<Integer, String> sorted = new TreeMap<>(Collections.singletonMap(1, "a"));
+
+        assertFalse(DatabindJavascriptCollection.containsKey(sorted, "1"));
+        assertTrue(DatabindJavascriptCollection.containsKey(Collections.singletonMap("1", "a"), "1"));
+    }
+}
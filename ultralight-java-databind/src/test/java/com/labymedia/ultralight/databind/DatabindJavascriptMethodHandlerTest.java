@@ -0,0 +1,85 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.javascript.JavascriptObject;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+import com.labymedia.ultralight.javascript.TestJavascriptContext;
+import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.labymedia.ultralight.databind.DatabindTestSupport.methodHandler;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabindJavascriptMethodHandlerTest {
+    public static class Named {
+        public String name() {
+            return "named";
+        }
+    }
+
+    public static class Unrelated {
+    }
+
+    private TestJavascriptContext context;
+    private DatabindJavascriptMethodHandler handler;
+
+    private JavascriptObject databindObject(Object instance) {
+        return context.makeObject(
+                TestJavascriptContext.makeClass(),
+                new DatabindJavascriptClass.Data(instance, instance != null ? instance.getClass() : null));
+    }
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        context = new TestJavascriptContext();
+        handler = methodHandler(Named.class.getMethod("name"));
+    }
+
+    @Test
+    void staticFunctionInvokesOnThisValue() throws JavascriptInteropException {
+        JavascriptValue result = handler.onCallAsStaticFunction(
+                context, null, databindObject(new Named()), new JavascriptValue[0]);
+
+        assertEquals("named", result.toStringCopy());
+    }
+
+    @Test
+    void staticFunctionRejectsForeignThisValue() {
+        JavascriptInteropException exception = assertThrows(JavascriptInteropException.class, () ->
+                handler.onCallAsStaticFunction(context, null, databindObject(new Unrelated()), new JavascriptValue[0]));
+
+        assertTrue(exception.getMessage().contains(Unrelated.class.getName()));
+    }
+
+    @Test
+    void staticFunctionRejectsNonDatabindThisValue() {
+        assertThrows(JavascriptInteropException.class, () ->
+                handler.onCallAsStaticFunction(context, null, context.makeArray(), new JavascriptValue[0]));
+        assertThrows(JavascriptInteropException.class, () ->
+                handler.onCallAsStaticFunction(context, null, null, new JavascriptValue[0]));
+    }
+
+    @Test
+    void staticFunctionRequiresInstance() {
+        assertThrows(JavascriptInteropException.class, () ->
+                handler.onCallAsStaticFunction(context, null, databindObject(null), new JavascriptValue[0]));
+    }
+}
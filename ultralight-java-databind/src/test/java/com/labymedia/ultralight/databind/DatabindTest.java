@@ -0,0 +1,152 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.databind.cache.JavascriptClassCache;
+import com.labymedia.ultralight.databind.call.property.PrecompiledPropertyCaller;
+import com.labymedia.ultralight.databind.call.property.PropertyCaller;
+import com.labymedia.ultralight.databind.call.property.ReflectivePropertyCaller;
+import com.labymedia.ultralight.javascript.JavascriptClass;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabindTest {
+    public static class Plain {
+    }
+
+    public static class Bound {
+    }
+
+    public static class BoundSubclass extends Bound {
+    }
+
+    private final Databind databind = new Databind(DatabindConfiguration.builder().build());
+
+    /**
+     * Preloads a class and takes its caller the same way binding it does.
+     *
+     * @param javaClass The class to preload
+     * @return The caller the class would be bound with
+     */
+    private PropertyCaller preloadedCaller(Class<?> javaClass) throws Exception {
+        databind.preload(Collections.singletonList(javaClass)).get();
+        return databind.propertyCaller(javaClass);
+    }
+
+    @Test
+    void classesWithoutBindingUseConfiguredCaller() throws Exception {
+        assertTrue(preloadedCaller(Plain.class) instanceof ReflectivePropertyCaller);
+    }
+
+    @Test
+    void classesWithBindingUsePrecompiledCaller() throws Exception {
+        assertTrue(preloadedCaller(Bound.class) instanceof PrecompiledPropertyCaller);
+        assertTrue(preloadedCaller(BoundSubclass.class) instanceof PrecompiledPropertyCaller);
+    }
+
+    @Test
+    void preparedCallerIsTakenOnce() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        Databind databind = new Databind(DatabindConfiguration.builder()
+                .propertyCallerFactory(countingFactory(created))
+                .build());
+
+        databind.preload(Collections.singletonList(Plain.class)).get();
+        int prepared = created.get();
+
+        databind.propertyCaller(Plain.class);
+        assertEquals(prepared, created.get());
+
+        databind.propertyCaller(Plain.class);
+        assertEquals(prepared + 1, created.get());
+    }
+
+    @Test
+    void preloadSkipsBoundClasses() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        NameCache classCache = new NameCache();
+        Databind databind = new Databind(DatabindConfiguration.builder()
+                .propertyCallerFactory(countingFactory(created))
+                .classCache(classCache)
+                .build());
+
+        classCache.put(Plain.class, null);
+        databind.preload(Collections.singletonList(Plain.class)).get();
+
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void discardDropsPreparedCallers() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        Databind databind = new Databind(DatabindConfiguration.builder()
+                .propertyCallerFactory(countingFactory(created))
+                .build());
+
+        databind.preload(Collections.singletonList(Plain.class)).get();
+        databind.discardPrepared(Collections.singletonList(Plain.class));
+        int prepared = created.get();
+
+        databind.propertyCaller(Plain.class);
+        assertEquals(prepared + 1, created.get());
+    }
+
+    private static PropertyCaller.Factory countingFactory(AtomicInteger created) {
+        PropertyCaller.Factory delegate = new ReflectivePropertyCaller.Factory();
+        return () -> {
+            created.incrementAndGet();
+            return delegate.create();
+        };
+    }
+
+    /**
+     * Class cache only remembering which classes have been put.
+     */
+    private static class NameCache implements JavascriptClassCache {
+        private final Set<String> names = new HashSet<>();
+
+        @Override
+        public JavascriptClass get(String name) {
+            return null;
+        }
+
+        @Override
+        public JavascriptClass put(String name, JavascriptClass javascriptClass) {
+            names.add(name);
+            return javascriptClass;
+        }
+
+        @Override
+        public JavascriptClass delete(String name) {
+            names.remove(name);
+            return null;
+        }
+
+        @Override
+        public boolean contains(String name) {
+            return names.contains(name);
+        }
+    }
+}
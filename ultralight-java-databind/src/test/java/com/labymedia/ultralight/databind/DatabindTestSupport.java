@@ -0,0 +1,73 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.databind.call.property.ReflectivePropertyCaller;
+import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
+import com.labymedia.ultralight.javascript.TestJavascriptContext;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fixtures for tests of classes which can't be created without the native library.
+ */
+public final class DatabindTestSupport {
+    private DatabindTestSupport() {
+    }
+
+    /**
+     * Creates a method handler for a single method using the default configuration.
+     * <p>
+     * The functions of the handler are instances of a fake class, so they can be created without the native library.
+     *
+     * @param method The method to create the handler for
+     * @return The created handler
+     */
+    public static DatabindJavascriptMethodHandler methodHandler(Method method) {
+        return new DatabindJavascriptMethodHandler(
+                DatabindConfiguration.builder().build(),
+                new JavascriptConversionUtils(null),
+                new ReflectivePropertyCaller(),
+                Collections.singleton(method),
+                method.getName(),
+                null,
+                TestJavascriptContext.makeClass());
+    }
+
+    /**
+     * Creates a bound class using the default configuration.
+     *
+     * @param javaClass      The Java class to bind
+     * @param methodHandlers The handlers resolving the methods of the class by name
+     * @return The created class
+     */
+    public static DatabindJavascriptClass javascriptClass(
+            Class<?> javaClass, Map<String, DatabindJavascriptMethodHandler> methodHandlers) {
+        return new DatabindJavascriptClass(
+                DatabindConfiguration.builder().build(),
+                new JavascriptConversionUtils(null),
+                DatabindMemberIndex.of(javaClass),
+                new ReflectivePropertyCaller(),
+                null,
+                new HashMap<>(methodHandlers));
+    }
+}
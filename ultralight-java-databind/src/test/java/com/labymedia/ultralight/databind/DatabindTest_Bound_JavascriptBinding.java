@@ -0,0 +1,61 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind;
+
+import com.labymedia.ultralight.databind.call.property.JavascriptBinding;
+
+/**
+ * Hand written stand-in for the binding the annotation processor would generate for {@link DatabindTest.Bound}.
+ */
+public final class DatabindTest_Bound_JavascriptBinding implements JavascriptBinding {
+    @Override
+    public String[] methods() {
+        return new String[0];
+    }
+
+    @Override
+    public String[] constructors() {
+        return new String[0];
+    }
+
+    @Override
+    public String[] fields() {
+        return new String[0];
+    }
+
+    @Override
+    public Object callMethod(String signature, Object instance, Object[] parameters) {
+        throw new IllegalArgumentException(signature);
+    }
+
+    @Override
+    public Object callConstructor(String signature, Object[] parameters) {
+        throw new IllegalArgumentException(signature);
+    }
+
+    @Override
+    public Object getField(String name, Object instance) {
+        throw new IllegalArgumentException(name);
+    }
+
+    @Override
+    public void setField(String name, Object instance, Object value) {
+        throw new IllegalArgumentException(name);
+    }
+}
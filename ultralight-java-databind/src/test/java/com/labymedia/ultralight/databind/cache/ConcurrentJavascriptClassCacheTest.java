@@ -0,0 +1,189 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.cache;
+
+import com.labymedia.ultralight.javascript.JavascriptClass;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentJavascriptClassCacheTest {
+    // Keeps the fake classes reachable, so the FFI garbage collector never tries to release them natively
+    private static final List<JavascriptClass> CLASSES = new ArrayList<>();
+
+    private static JavascriptClass javascriptClass() {
+        try {
+            Constructor<JavascriptClass> constructor = JavascriptClass.class.getDeclaredConstructor(long.class);
+            constructor.setAccessible(true);
+
+            JavascriptClass javascriptClass = constructor.newInstance(CLASSES.size() + 1L);
+            CLASSES.add(javascriptClass);
+            return javascriptClass;
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void advanceClock() {
+        long now = System.nanoTime();
+        while (System.nanoTime() == now) {
+            Thread.yield();
+        }
+    }
+
+    @Test
+    void keysClassesByIdentity() {
+        ConcurrentJavascriptClassCache cache = new ConcurrentJavascriptClassCache();
+        JavascriptClass javascriptClass = javascriptClass();
+
+        assertSame(javascriptClass, cache.put(String.class, javascriptClass));
+        assertSame(javascriptClass, cache.get(String.class));
+        assertTrue(cache.contains(String.class));
+        assertFalse(cache.contains(Integer.class));
+
+        // The first class put wins, so only a single one is ever in use
+        assertSame(javascriptClass, cache.put(String.class, javascriptClass()));
+        assertSame(javascriptClass, cache.get(String.class));
+
+        assertSame(javascriptClass, cache.delete(String.class));
+        assertNull(cache.get(String.class));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void supportsNameKeyedEntries() {
+        ConcurrentJavascriptClassCache cache = new ConcurrentJavascriptClassCache();
+        JavascriptClass named = javascriptClass();
+
+        assertSame(named, cache.put("java.lang.String", named));
+        assertSame(named, cache.get("java.lang.String"));
+        assertTrue(cache.contains("java.lang.String"));
+
+        // Lookups by class fall back to the class put under its name
+        assertSame(named, cache.get(String.class));
+        assertTrue(cache.contains(String.class));
+
+        assertSame(named, cache.delete("java.lang.String"));
+        assertFalse(cache.contains("java.lang.String"));
+        assertNull(cache.get(String.class));
+    }
+
+    @Test
+    void findsIdentityKeyedEntriesByName() {
+        ConcurrentJavascriptClassCache cache = new ConcurrentJavascriptClassCache();
+        JavascriptClass javascriptClass = javascriptClass();
+
+        cache.put(Integer.class, javascriptClass);
+
+        assertSame(javascriptClass, cache.get("java.lang.Integer"));
+        assertTrue(cache.contains("java.lang.Integer"));
+        assertFalse(cache.contains("java.lang.Long"));
+
+        assertSame(javascriptClass, cache.delete("java.lang.Integer"));
+        assertFalse(cache.contains(Integer.class));
+        assertFalse(cache.contains("java.lang.Integer"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedClass() {
+        ConcurrentJavascriptClassCache cache = new ConcurrentJavascriptClassCache(2);
+        JavascriptClass first = javascriptClass();
+        JavascriptClass second = javascriptClass();
+        JavascriptClass third = javascriptClass();
+
+        cache.put(String.class, first);
+        advanceClock();
+        cache.put(Integer.class, second);
+        advanceClock();
+
+        // Touch the first class, so the second one is the least recently used
+        assertSame(first, cache.get(String.class));
+        advanceClock();
+        cache.put(Long.class, third);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        assertTrue(cache.contains(String.class));
+        assertFalse(cache.contains(Integer.class));
+        assertFalse(cache.contains("java.lang.Integer"));
+        assertTrue(cache.contains(Long.class));
+    }
+
+    @Test
+    void neverEvictsNameKeyedEntries() {
+        ConcurrentJavascriptClassCache cache = new ConcurrentJavascriptClassCache(1);
+        JavascriptClass named = javascriptClass();
+
+        cache.put("named", named);
+        cache.put(String.class, javascriptClass());
+        cache.put(Integer.class, javascriptClass());
+
+        assertSame(named, cache.get("named"));
+        assertFalse(cache.contains(String.class));
+        assertTrue(cache.contains(Integer.class));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        ConcurrentJavascriptClassCache cache = new ConcurrentJavascriptClassCache();
+        cache.put(String.class, javascriptClass());
+
+        cache.get(String.class);
+        cache.get(String.class);
+        cache.get(Integer.class);
+
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void invalidatesClassesOfClassLoader() {
+        ConcurrentJavascriptClassCache cache = new ConcurrentJavascriptClassCache();
+        cache.put(String.class, javascriptClass());
+        cache.put(ConcurrentJavascriptClassCacheTest.class, javascriptClass());
+
+        assertEquals(1, cache.invalidate(ConcurrentJavascriptClassCacheTest.class.getClassLoader()));
+        assertTrue(cache.contains(String.class));
+        assertFalse(cache.contains(ConcurrentJavascriptClassCacheTest.class));
+        assertFalse(cache.contains(ConcurrentJavascriptClassCacheTest.class.getName()));
+    }
+
+    @Test
+    void clearRemovesAllEntries() {
+        ConcurrentJavascriptClassCache cache = new ConcurrentJavascriptClassCache();
+        cache.put(String.class, javascriptClass());
+        cache.put("named", javascriptClass());
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertFalse(cache.contains("java.lang.String"));
+        assertFalse(cache.contains("named"));
+    }
+
+    @Test
+    void rejectsNegativeMaximumSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentJavascriptClassCache(-1));
+    }
+}
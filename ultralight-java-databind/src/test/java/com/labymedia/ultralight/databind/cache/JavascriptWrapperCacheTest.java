@@ -0,0 +1,106 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.cache;
+
+import com.labymedia.ultralight.javascript.JavascriptValue;
+import com.labymedia.ultralight.javascript.TestJavascriptContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavascriptWrapperCacheTest {
+    private TestJavascriptContext context;
+    private JavascriptWrapperCache cache;
+
+    @BeforeEach
+    void setUp() {
+        context = new TestJavascriptContext();
+        cache = new JavascriptWrapperCache(2);
+    }
+
+    @Test
+    void returnsCachedWrapperByIdentity() {
+        Object instance = new Object();
+        JavascriptValue wrapper = context.makeObject(null, instance);
+
+        cache.put(context, instance, Object.class, wrapper);
+
+        assertSame(wrapper, cache.get(context, instance, Object.class));
+        assertNull(cache.get(context, new Object(), Object.class));
+        assertNull(cache.get(context, instance, String.class));
+    }
+
+    @Test
+    void protectsWrapperOncePerLock() {
+        Object instance = new Object();
+        cache.put(context, instance, Object.class, context.makeObject(null, instance));
+        int protectCount = context.protectCount();
+
+        JavascriptValue first = cache.get(context, instance, Object.class);
+        assertSame(first, cache.get(context, instance, Object.class));
+        assertEquals(protectCount, context.protectCount());
+
+        context.relock();
+
+        JavascriptValue revived = cache.get(context, instance, Object.class);
+        assertSame(revived, cache.get(context, instance, Object.class));
+        assertEquals(protectCount + 1, context.protectCount());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWrapper() {
+        Object first = new Object();
+        Object second = new Object();
+        Object third = new Object();
+
+        cache.put(context, first, Object.class, context.makeObject(null, first));
+        cache.put(context, second, Object.class, context.makeObject(null, second));
+        cache.get(context, first, Object.class);
+        cache.put(context, third, Object.class, context.makeObject(null, third));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(context, first, Object.class));
+        assertNull(cache.get(context, second, Object.class));
+        assertNotNull(cache.get(context, third, Object.class));
+    }
+
+    @Test
+    void dropsWrappersOfReplacedContext() {
+        Object instance = new Object();
+        cache.put(context, instance, Object.class, context.makeObject(null, instance));
+
+        context.replaceGlobalObject();
+        context.relock();
+
+        assertNull(cache.get(context, instance, Object.class));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void clearDropsWrappers() {
+        Object instance = new Object();
+        cache.put(context, instance, Object.class, context.makeObject(null, instance));
+
+        cache.clear(context);
+
+        assertNull(cache.get(context, instance, Object.class));
+        assertEquals(0, cache.size());
+    }
+}
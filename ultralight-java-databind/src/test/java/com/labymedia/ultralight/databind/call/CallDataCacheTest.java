@@ -0,0 +1,122 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.call;
+
+import com.labymedia.ultralight.javascript.JavascriptValue;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallDataCacheTest {
+    private static final Collection<Method> POSSIBILITIES = Collections.singletonList(method());
+
+    private static Method method() {
+        try {
+            return String.class.getMethod("length");
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static CallDataCache.Key key(CallDataCache cache, Class<?>... parameterTypes) {
+        return cache.key(POSSIBILITIES, parameterTypes, new JavascriptValue[parameterTypes.length]);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        CallDataCache cache = new CallDataCache(2);
+        CallData<Method> callData = new CallData<>(method(), null);
+
+        cache.put(key(cache, String.class), callData);
+        cache.put(key(cache, Number.class), callData);
+
+        // Touch the first entry, so the second one is the least recently used
+        assertSame(callData, cache.get(key(cache, String.class)));
+        cache.put(key(cache, Boolean.class), callData);
+
+        assertEquals(2, cache.size());
+        assertSame(callData, cache.get(key(cache, String.class)));
+        assertNull(cache.get(key(cache, Number.class)));
+        assertSame(callData, cache.get(key(cache, Boolean.class)));
+    }
+
+    @Test
+    void evictsInBatches() {
+        CallDataCache cache = new CallDataCache(16);
+        CallData<Method> callData = new CallData<>(method(), null);
+        Class<?>[] types = {
+                String.class, Number.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+                Long.class, Float.class, Double.class, Object.class, Class.class, Void.class, Thread.class,
+                Runnable.class, Iterable.class
+        };
+
+        for (Class<?> type : types) {
+            cache.put(key(cache, type), callData);
+        }
+
+        assertEquals(16, cache.size());
+
+        // Exceeding the bound evicts an eighth of it, the oldest entries first
+        cache.put(key(cache, Collection.class), callData);
+
+        assertEquals(14, cache.size());
+        assertNull(cache.get(key(cache, String.class)));
+        assertNull(cache.get(key(cache, Number.class)));
+        assertNull(cache.get(key(cache, Boolean.class)));
+        assertSame(callData, cache.get(key(cache, Collection.class)));
+    }
+
+    @Test
+    void keysDependOnTypesAndPossibilities() {
+        CallDataCache cache = new CallDataCache(4);
+
+        assertEquals(key(cache, String.class), key(cache, String.class));
+        assertNotEquals(key(cache, String.class), key(cache, Number.class));
+        assertNotEquals(
+                key(cache, String.class),
+                cache.key(Collections.singletonList(method()), new Class<?>[]{String.class}, new JavascriptValue[1]));
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        CallDataCache cache = new CallDataCache(4);
+        cache.get(key(cache, String.class));
+        cache.put(key(cache, String.class), new CallData<>(method(), null));
+        cache.get(key(cache, String.class));
+        cache.get(key(cache, String.class));
+
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.hits());
+        assertEquals(0, cache.misses());
+    }
+
+    @Test
+    void disabledCacheDoesNotCreateKeys() {
+        assertNull(key(new CallDataCache(0), String.class));
+        assertThrows(IllegalArgumentException.class, () -> new CallDataCache(-1));
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.call;
+
+import com.labymedia.ultralight.databind.conversion.ConverterRegistry;
+import com.labymedia.ultralight.databind.utils.JavascriptConversionUtils;
+import com.labymedia.ultralight.javascript.JavascriptTypedArrayType;
+import com.labymedia.ultralight.javascript.JavascriptValue;
+import com.labymedia.ultralight.javascript.TestJavascriptContext;
+import com.labymedia.ultralight.javascript.TestJavascriptObject;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeuristicMethodChooserTest {
+    interface Root {
+    }
+
+    interface Child extends Root {
+    }
+
+    static class Base implements Root {
+    }
+
+    static class Derived extends Base implements Child {
+    }
+
+    static class Shortcut extends Base implements Root {
+    }
+
+    static class Target {
+        public void setId(UUID id) {
+        }
+
+        public void setMode(Mode mode) {
+        }
+
+        public void convert(String value) {
+        }
+
+        public void convert(UUID value) {
+        }
+
+        public void fixed(String value) {
+        }
+
+        public void fixed(String... values) {
+        }
+
+        public void specific(Object value) {
+        }
+
+        public void specific(String value) {
+        }
+
+        public void ambiguous(Base value) {
+        }
+
+        public void ambiguous(Child value) {
+        }
+    }
+
+    enum Mode {
+        FAST
+    }
+
+    private static final JavascriptConversionUtils CONVERSION_UTILS = new JavascriptConversionUtils(
+            null, ConverterRegistry.builder().standardConverters().build());
+
+    private static List<Method> methods(String name) {
+        return Arrays.stream(Target.class.getMethods())
+                .filter((method) -> method.getName().equals(name))
+                .collect(Collectors.toList());
+    }
+
+    private static JavascriptValue[] string(String value) {
+        return new JavascriptValue[]{new TestJavascriptContext().makeString(value)};
+    }
+
+    @Test
+    void computesSupertypeDistances() {
+        Map<Class<?>, Integer> distances = HeuristicMethodChooser.supertypeDistances(Derived.class);
+
+        assertEquals(0, distances.get(Derived.class));
+        assertEquals(1, distances.get(Base.class));
+        assertEquals(1, distances.get(Child.class));
+        assertEquals(2, distances.get(Root.class));
+        assertEquals(2, distances.get(Object.class));
+        assertEquals(5, distances.size());
+    }
+
+    @Test
+    void usesShortestPathThroughHierarchy() {
+        Map<Class<?>, Integer> distances = HeuristicMethodChooser.supertypeDistances(Shortcut.class);
+
+        // Reachable over the superclass as well, but directly implemented
+        assertEquals(1, distances.get(Root.class));
+        assertEquals(1, distances.get(Base.class));
+        assertEquals(2, distances.get(Object.class));
+    }
+
+    @Test
+    void excludesUnrelatedTypes() {
+        Map<Class<?>, Integer> distances = HeuristicMethodChooser.supertypeDistances(Base.class);
+
+        assertNull(distances.get(Derived.class));
+        assertNull(distances.get(Child.class));
+    }
+
+    @Test
+    void memoizesDistancesPerClass() {
+        Map<Class<?>, Integer> distances = HeuristicMethodChooser.supertypeDistances(Derived.class);
+
+        assertSame(distances, HeuristicMethodChooser.supertypeDistances(Derived.class));
+        assertThrows(UnsupportedOperationException.class, () -> distances.put(String.class, 0));
+    }
+
+    @Test
+    void passesArgumentsToConvertedParameterTypes() throws NoSuchMethodException {
+        HeuristicMethodChooser chooser = new HeuristicMethodChooser();
+        Class<?>[] types = {String.class};
+
+        CallData<Method> callData = chooser.choose(methods("setId"), types, string("id"), CONVERSION_UTILS);
+        assertEquals(Target.class.getMethod("setId", UUID.class), callData.getTarget());
+
+        // Without the conversion utilities, the converter is not known to the chooser
+        assertThrows(IllegalStateException.class, () -> chooser.choose(methods("setId"), types, string("id")));
+    }
+
+    @Test
+    void passesArgumentsToConvertedHierarchies() throws NoSuchMethodException {
+        CallData<Method> callData = new HeuristicMethodChooser().choose(
+                methods("setMode"), new Class<?>[]{String.class}, string("FAST"), CONVERSION_UTILS);
+
+        assertEquals(Target.class.getMethod("setMode", Mode.class), callData.getTarget());
+    }
+
+    @Test
+    void prefersAssignableOverConvertedParameterTypes() throws NoSuchMethodException {
+        Method expected = Target.class.getMethod("convert", String.class);
+        List<Method> methods = methods("convert");
+
+        for (int i = 0; i < 2; i++) {
+            Collections.reverse(methods);
+
+            assertEquals(expected, new HeuristicMethodChooser().choose(
+                    methods, new Class<?>[]{String.class}, string("a"), CONVERSION_UTILS).getTarget());
+        }
+    }
+
+    @Test
+    void prefersFixedArityOverVarArgs() throws NoSuchMethodException {
+        Method expected = Target.class.getMethod("fixed", String.class);
+        List<Method> methods = methods("fixed");
+
+        // Regardless of the order the overloads are tried in
+        for (int i = 0; i < 2; i++) {
+            Collections.reverse(methods);
+
+            assertEquals(expected, new HeuristicMethodChooser().choose(
+                    new OverloadSet<>(methods), new Class<?>[]{String.class}, string("a"), null).getTarget());
+            assertEquals(expected, new HeuristicMethodChooser().choose(
+                    new ArrayList<>(methods), new Class<?>[]{String.class}, string("a"), null).getTarget());
+        }
+    }
+
+    @Test
+    void prefersSpecificOverObjectParameters() throws NoSuchMethodException {
+        Method expected = Target.class.getMethod("specific", String.class);
+        List<Method> methods = methods("specific");
+
+        for (int i = 0; i < 2; i++) {
+            Collections.reverse(methods);
+
+            assertEquals(expected, new HeuristicMethodChooser().choose(
+                    methods, new Class<?>[]{String.class}, string("a"), null).getTarget());
+        }
+    }
+
+    @Test
+    void rejectsEquallyMatchingOverloads() {
+        JavascriptValue[] values = {new TestJavascriptContext().makeNull()};
+
+        assertThrows(IllegalStateException.class, () -> new HeuristicMethodChooser().choose(
+                methods("ambiguous"), new Class<?>[]{Derived.class}, values, null));
+    }
+
+    @Test
+    void skipsTypedArrayInspectionWhenDisabled() throws NoSuchMethodException {
+        JavascriptValue[] values = {new TestJavascriptObject(new TestJavascriptContext()) {
+            @Override
+            public JavascriptTypedArrayType getTypedArrayType() {
+                throw new AssertionError("Typed arrays are disabled");
+            }
+        }};
+
+        CallData<Method> callData = new HeuristicMethodChooser().choose(
+                methods("specific"), values, null, CONVERSION_UTILS);
+
+        assertEquals(Target.class.getMethod("specific", Object.class), callData.getTarget());
+    }
+
+    @Test
+    void rejectsNegativeArraySampleSize() {
+        assertThrows(IllegalArgumentException.class, () -> new HeuristicMethodChooser(16, -1));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.call;
+
+import com.labymedia.ultralight.databind.api.InjectJavascriptContext;
+import com.labymedia.ultralight.javascript.JavascriptContext;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverloadSetTest {
+    static void none() {
+    }
+
+    static void one(int a) {
+    }
+
+    static void two(int a, int b) {
+    }
+
+    static void varArgs(int a, String... rest) {
+    }
+
+    @InjectJavascriptContext
+    static void injected(JavascriptContext context, int a) {
+    }
+
+    static void functional(Supplier<String> supplier) {
+    }
+
+    static void functionalVarArgs(Runnable... runnables) {
+    }
+
+    private static Method method(String name, Class<?>... parameterTypes) {
+        try {
+            return OverloadSetTest.class.getDeclaredMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static OverloadSet<Method> overloads() {
+        return new OverloadSet<>(Arrays.asList(
+                method("none"),
+                method("one", int.class),
+                method("two", int.class, int.class),
+                method("varArgs", int.class, String[].class),
+                method("injected", JavascriptContext.class, int.class)
+        ));
+    }
+
+    @Test
+    void bucketsExecutablesByArity() {
+        OverloadSet<Method> overloads = overloads();
+
+        assertEquals(Collections.singletonList(method("none")), overloads.withArity(0));
+        assertEquals(Arrays.asList(
+                method("one", int.class),
+                method("injected", JavascriptContext.class, int.class),
+                method("varArgs", int.class, String[].class)
+        ), overloads.withArity(1));
+        assertEquals(Arrays.asList(
+                method("two", int.class, int.class),
+                method("varArgs", int.class, String[].class)
+        ), overloads.withArity(2));
+        assertEquals(Collections.singletonList(method("varArgs", int.class, String[].class)), overloads.withArity(5));
+    }
+
+    @Test
+    void memoizesBuckets() {
+        OverloadSet<Method> overloads = overloads();
+        List<Method> bucket = overloads.withArity(1);
+
+        assertSame(bucket, overloads.withArity(1));
+        assertThrows(UnsupportedOperationException.class, () -> bucket.add(method("none")));
+    }
+
+    @Test
+    void actsAsSetOfAllExecutables() {
+        OverloadSet<Method> overloads = overloads();
+
+        assertEquals(5, overloads.size());
+        assertTrue(overloads.contains(method("two", int.class, int.class)));
+        assertEquals(method("none"), overloads.iterator().next());
+    }
+
+    @Test
+    void detectsFunctionalInterfaceParameters() {
+        assertFalse(overloads().acceptsFunctionalInterfaces());
+        assertTrue(new OverloadSet<>(Collections.singletonList(method("functional", Supplier.class)))
+                .acceptsFunctionalInterfaces());
+        assertTrue(new OverloadSet<>(Collections.singletonList(method("functionalVarArgs", Runnable[].class)))
+                .acceptsFunctionalInterfaces());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.call.property;
+
+import com.labymedia.ultralight.javascript.interop.JavascriptInteropException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodHandlePropertyCallerTest {
+    private final PropertyCaller caller = new MethodHandlePropertyCaller.Factory().create();
+
+    @Test
+    void linksPublicMethodsThroughMetafactory() throws Exception {
+        Method method = Target.class.getMethod("add", int.class, long.class);
+
+        assertNotNull(LambdaInvokers.create(method, MethodHandles.publicLookup().unreflect(method)));
+        assertEquals(5L, caller.callMethod(new Target(), method, new Object[]{2, 3L}));
+    }
+
+    @Test
+    void callsStaticAndVoidMethods() throws Exception {
+        Target target = new Target();
+
+        assertEquals("ab", caller.callMethod(null, Target.class.getMethod("concat", String.class, String.class),
+                new Object[]{"a", "b"}));
+        assertNull(caller.callMethod(target, Target.class.getMethod("set", int.class), new Object[]{7}));
+        assertEquals(7, target.value);
+    }
+
+    @Test
+    void callsConstructors() throws Exception {
+        Object created = caller.callConstructor(Target.class.getConstructor(int.class), new Object[]{4});
+
+        assertEquals(4, ((Target) created).value);
+    }
+
+    @Test
+    void fallsBackToHandlesForWideMethods() throws Exception {
+        Method method = Target.class.getMethod("sum", int.class, int.class, int.class, int.class, int.class,
+                int.class, int.class);
+
+        assertNull(LambdaInvokers.create(method, MethodHandles.publicLookup().unreflect(method)));
+        assertEquals(28, caller.callMethod(new Target(), method, new Object[]{1, 2, 3, 4, 5, 6, 7}));
+    }
+
+    @Test
+    void wrapsThrownExceptions() throws Exception {
+        Method method = Target.class.getMethod("fail");
+
+        assertThrows(JavascriptInteropException.class, () -> caller.callMethod(new Target(), method, new Object[0]));
+    }
+
+    @Test
+    void rejectsMismatchingArguments() throws Exception {
+        Method linked = Target.class.getMethod("add", int.class, long.class);
+        Method wide = Target.class.getMethod("sum", int.class, int.class, int.class, int.class, int.class,
+                int.class, int.class);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> caller.callMethod(new Target(), linked, new Object[]{"2", 3L}));
+        assertThrows(IllegalArgumentException.class,
+                () -> caller.callMethod(new Target(), linked, new Object[]{null, 3L}));
+        assertThrows(IllegalArgumentException.class,
+                () -> caller.callMethod("not a target", linked, new Object[]{2, 3L}));
+        assertThrows(IllegalArgumentException.class,
+                () -> caller.callMethod(new Target(), wide, new Object[]{1, 2, 3}));
+        assertThrows(IllegalArgumentException.class,
+                () -> caller.callConstructor(Target.class.getConstructor(int.class), new Object[]{"4"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> caller.callFieldSet(new Target(), Target.class.getField("value"), "7"));
+    }
+
+    @Test
+    void wrapsClassCastExceptionsOfTheTarget() throws Exception {
+        Method method = Target.class.getMethod("cast", Object.class);
+
+        JavascriptInteropException exception = assertThrows(JavascriptInteropException.class,
+                () -> caller.callMethod(new Target(), method, new Object[]{1}));
+        assertTrue(exception.getCause() instanceof ClassCastException);
+    }
+
+    public static class Target {
+        public int value;
+
+        public Target() {
+        }
+
+        public Target(int value) {
+            this.value = value;
+        }
+
+        public long add(int a, long b) {
+            return a + b;
+        }
+
+        public static String concat(String a, String b) {
+            return a + b;
+        }
+
+        public void set(int value) {
+            this.value = value;
+        }
+
+        public int sum(int a, int b, int c, int d, int e, int f, int g) {
+            return a + b + c + d + e + f + g;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        public String cast(Object value) {
+            return (String) value;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.utils;
+
+import com.labymedia.ultralight.databind.Databind;
+import com.labymedia.ultralight.databind.DatabindConfiguration;
+import com.labymedia.ultralight.databind.context.ContextProvider;
+import com.labymedia.ultralight.javascript.TestJavascriptContext;
+import com.labymedia.ultralight.javascript.TestJavascriptObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundJavascriptFunctionTest {
+    public interface Results {
+        int number();
+
+        double decimal();
+
+        CompletableFuture<Integer> later();
+
+        void run();
+    }
+
+    private TestJavascriptContext context;
+    private TestJavascriptObject function;
+    private ContextProvider contextProvider;
+
+    @BeforeEach
+    void setUp() {
+        context = new TestJavascriptContext();
+        function = new TestJavascriptObject(context).function((thisObject, arguments) -> context.makeNumber(42));
+        contextProvider = (callback) -> callback.accept(context.getLock());
+    }
+
+    private Object call(boolean queued, String methodName) throws Throwable {
+        Databind databind = new Databind(DatabindConfiguration.builder().queueFunctionalCalls(queued).build());
+        Method method = Results.class.getMethod(methodName);
+
+        return new BoundJavascriptFunction(function, contextProvider, databind).call(method, null);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void convertsResultToReturnType(boolean queued) throws Throwable {
+        assertEquals(42, call(queued, "number"));
+        assertEquals(42.0, call(queued, "decimal"));
+        assertNull(call(queued, "run"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void convertsFutureResultToTypeArgument(boolean queued) throws Throwable {
+        CompletableFuture<?> future = (CompletableFuture<?>) call(queued, "later");
+
+        assertEquals(42, future.get());
+    }
+
+    @Test
+    void reportsFailuresOfQueuedVoidCalls() throws Throwable {
+        IllegalStateException thrown = new IllegalStateException("Failed in Javascript");
+        function = new TestJavascriptObject(context).function((thisObject, arguments) -> {
+            throw thrown;
+        });
+
+        List<Throwable> failures = new ArrayList<>();
+        Databind databind = new Databind(DatabindConfiguration.builder()
+                .queueFunctionalCalls(true)
+                .functionalCallFailureHandler(failures::add)
+                .build());
+
+        assertNull(new BoundJavascriptFunction(function, contextProvider, databind)
+                .call(Results.class.getMethod("run"), null));
+
+        assertEquals(1, failures.size());
+        assertSame(thrown, failures.get(0).getCause());
+    }
+
+    @Test
+    void identifiesProxiesByTheirFunction() throws Throwable {
+        Databind databind = new Databind(DatabindConfiguration.builder().build());
+        BoundJavascriptFunction bound = new BoundJavascriptFunction(function, contextProvider, databind);
+        ProxyFunctionalImplementationFactory factory = new ProxyFunctionalImplementationFactory();
+
+        Object implementation = factory.implement(Results.class, bound);
+        Object other = factory.implement(Results.class, new BoundJavascriptFunction(function, contextProvider, databind));
+
+        assertEquals(implementation, factory.implement(Results.class, bound));
+        assertNotEquals(implementation, other);
+        assertEquals(bound.hashCode(), implementation.hashCode());
+        assertTrue(implementation.toString().contains(Results.class.getName()));
+    }
+}
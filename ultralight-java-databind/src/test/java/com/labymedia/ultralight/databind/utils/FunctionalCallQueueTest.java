@@ -0,0 +1,226 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.utils;
+
+import com.labymedia.ultralight.databind.context.ContextProvider;
+import com.labymedia.ultralight.javascript.JavascriptContextLock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FunctionalCallQueueTest {
+    /**
+     * Context provider collecting the callbacks and running them only when requested. The thread constructing the
+     * provider is the Javascript thread.
+     */
+    private static final class TestContextProvider implements ContextProvider {
+        private final List<Consumer<JavascriptContextLock>> deferred = new CopyOnWriteArrayList<>();
+        private final Thread javascriptThread = Thread.currentThread();
+
+        @Override
+        public void syncWithJavascript(Consumer<JavascriptContextLock> callback) {
+            deferred.add(callback);
+        }
+
+        @Override
+        public boolean isJavascriptThread() {
+            return Thread.currentThread() == javascriptThread;
+        }
+
+        private void runDeferred() {
+            List<Consumer<JavascriptContextLock>> callbacks = new ArrayList<>(deferred);
+            deferred.removeAll(callbacks);
+            for (Consumer<JavascriptContextLock> callback : callbacks) {
+                callback.accept(null);
+            }
+        }
+    }
+
+    private final TestContextProvider contextProvider = new TestContextProvider();
+    private final List<String> dispatched = new CopyOnWriteArrayList<>();
+
+    private FunctionalCallQueue<String> queue(ContextProvider contextProvider, int capacity, Consumer<String> handler) {
+        List<FunctionalCallQueue<String>> holder = new ArrayList<>();
+        holder.add(new FunctionalCallQueue<>(contextProvider, (lock) -> {
+            String call;
+            while ((call = holder.get(0).poll()) != null) {
+                dispatched.add(call);
+                handler.accept(call);
+            }
+        }, capacity));
+
+        return holder.get(0);
+    }
+
+    private FunctionalCallQueue<String> queue(int capacity) {
+        return queue(contextProvider, capacity, (call) -> {
+        });
+    }
+
+    @Test
+    void schedulesOneDispatchPerBatch() {
+        FunctionalCallQueue<String> queue = queue(8);
+
+        queue.enqueue("a");
+        queue.enqueue("b");
+        queue.enqueue("c");
+        assertEquals(1, contextProvider.deferred.size());
+        assertEquals(3, queue.size());
+
+        contextProvider.runDeferred();
+        assertEquals(Arrays.asList("a", "b", "c"), dispatched);
+        assertEquals(0, queue.size());
+
+        queue.enqueue("d");
+        assertEquals(1, contextProvider.deferred.size());
+    }
+
+    @Test
+    void fullQueueBlocksOtherThreadsUntilDispatched() throws InterruptedException {
+        FunctionalCallQueue<String> queue = queue(1);
+        queue.enqueue("a");
+
+        Thread producer = new Thread(() -> queue.enqueue("b"));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+
+        contextProvider.runDeferred();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+
+        contextProvider.runDeferred();
+        assertEquals(Arrays.asList("a", "b"), dispatched);
+    }
+
+    @Test
+    void fullQueueNeverBlocksJavascriptThread() {
+        FunctionalCallQueue<String> queue = queue(1);
+
+        // No dispatch has happened yet, which used to block forever
+        queue.enqueue("a");
+        queue.enqueue("b");
+        queue.enqueue("c");
+        assertEquals(3, queue.size());
+
+        contextProvider.runDeferred();
+        assertEquals(Arrays.asList("a", "b", "c"), dispatched);
+    }
+
+    @Test
+    void fullQueueDrainsInlineWhileDispatching() {
+        List<FunctionalCallQueue<String>> holder = new ArrayList<>();
+        holder.add(queue(contextProvider, 1, (call) -> {
+            if (call.equals("a")) {
+                // Javascript calling back into Java which calls the function again
+                holder.get(0).enqueue("b");
+                holder.get(0).enqueue("c");
+                assertEquals(1, holder.get(0).size());
+            }
+        }));
+
+        FunctionalCallQueue<String> queue = holder.get(0);
+        queue.enqueue("a");
+        contextProvider.runDeferred();
+
+        assertEquals(Arrays.asList("a", "b", "c"), dispatched);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void dispatchesNowInlineOnlyWhileDispatching() {
+        List<FunctionalCallQueue<String>> holder = new ArrayList<>();
+        List<Boolean> inline = new ArrayList<>();
+        holder.add(queue(contextProvider, 8, (call) -> {
+            if (call.equals("a")) {
+                holder.get(0).enqueue("b");
+                inline.add(holder.get(0).dispatchNow());
+            }
+        }));
+
+        FunctionalCallQueue<String> queue = holder.get(0);
+        queue.enqueue("a");
+        // Outside of a dispatch, the provider defers the requested dispatch
+        assertFalse(queue.dispatchNow());
+        assertTrue(dispatched.isEmpty());
+
+        contextProvider.runDeferred();
+        assertEquals(Arrays.asList(true), inline);
+        assertEquals(Arrays.asList("a", "b"), dispatched);
+    }
+
+    @Test
+    void providersWithoutThreadAffinityNeverBlock() throws InterruptedException {
+        List<Consumer<JavascriptContextLock>> deferred = new ArrayList<>();
+        FunctionalCallQueue<String> queue = queue(deferred::add, 1, (call) -> {
+        });
+
+        Thread producer = new Thread(() -> {
+            queue.enqueue("a");
+            queue.enqueue("b");
+        });
+        producer.start();
+        producer.join(5000);
+
+        assertFalse(producer.isAlive());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void fullQueueIsDrainedBySynchronousProviders() {
+        FunctionalCallQueue<String> queue = queue((callback) -> callback.accept(null), 2, (call) -> {
+        });
+
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue(Integer.toString(i), false);
+            assertTrue(queue.size() <= 2);
+        }
+
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7"), dispatched);
+    }
+
+    @Test
+    void dispatchNowDoesNotWaitForDispatchScheduledByOtherThread() throws InterruptedException {
+        // Runs callbacks right away on the Javascript thread, other threads wait for the lock forever
+        ContextProvider contextProvider = (callback) -> {
+            if (this.contextProvider.isJavascriptThread()) {
+                callback.accept(null);
+            } else {
+                this.contextProvider.deferred.add(callback);
+            }
+        };
+        FunctionalCallQueue<String> queue = queue(contextProvider, 8, (call) -> {
+        });
+
+        Thread other = new Thread(() -> queue.enqueue("a"));
+        other.start();
+        other.join(5000);
+
+        // The dispatch scheduled by the other thread is pending, the Javascript thread must not wait for it
+        queue.enqueue("b", false);
+        assertTrue(queue.dispatchNow());
+        assertEquals(Arrays.asList("a", "b"), dispatched);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.databind.utils;
+
+import com.labymedia.ultralight.databind.api.JavascriptValueObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueObjectMarshallerTest {
+    private static final JavascriptConversionUtils CONVERSION_UTILS = new JavascriptConversionUtils(null);
+
+    @JavascriptValueObject
+    public static class Named {
+        public String name = "field";
+
+        public String getName() {
+            return "getter";
+        }
+    }
+
+    @JavascriptValueObject
+    public static class Flag {
+        public boolean isEnabled() {
+            return true;
+        }
+    }
+
+    @JavascriptValueObject
+    public static class Nested {
+        public Flag flag = new Flag();
+        public int[] values = {1, 2};
+    }
+
+    private static String toJson(Object object) {
+        return ValueObjectMarshaller.toJson(CONVERSION_UTILS, object, true);
+    }
+
+    @Test
+    void writesFieldAndGetterOfSamePropertyOnce() {
+        assertEquals("{\"name\":\"field\"}", ValueObjectMarshaller.toJson(CONVERSION_UTILS, new Named(), false));
+    }
+
+    @Test
+    void writesBooleanGetters() {
+        assertEquals("{\"enabled\":true}", toJson(new Flag()));
+    }
+
+    @Test
+    void writesNestedValueObjects() {
+        assertEquals("{\"flag\":{\"enabled\":true},\"values\":[1,2]}", toJson(new Nested()));
+    }
+
+    @Test
+    void writesPrimitives() {
+        assertEquals("[1,2.5,true,null,\"c\"]", toJson(Arrays.asList(1, 2.5, true, null, 'c')));
+    }
+
+    @Test
+    void writesNonFiniteNumbersAsPlaceholders() {
+        assertEquals("[null,null]", toJson(Arrays.asList(Double.NaN, Double.POSITIVE_INFINITY)));
+    }
+
+    @Test
+    void writesMapKeysAsStrings() {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put("a", 1);
+        map.put(2, "b");
+
+        assertEquals("{\"a\":1,\"2\":\"b\"}", toJson(map));
+    }
+
+    @Test
+    void escapesStrings() {
+        assertEquals(
+                "[\"quote \\\" backslash \\\\ newline \\n return \\r tab \\t control \\u0001\"]",
+                toJson(new String[]{"quote \" backslash \\ newline \n return \r tab \t control \u0001"}));
+    }
+
+    @Test
+    void escapesMemberNames() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("\"key\"", null);
+
+        assertEquals("{\"\\\"key\\\"\":null}", toJson(map));
+    }
+
+    @Test
+    void rejectsCycles() {
+        List<Object> list = new ArrayList<>();
+        list.add(list);
+
+        assertThrows(IllegalArgumentException.class, () -> toJson(list));
+    }
+
+    @Test
+    void allowsSharedNonCyclicReferences() {
+        List<Object> shared = Arrays.asList(1, 2);
+
+        assertEquals("[[1,2],[1,2]]", toJson(Arrays.asList(shared, shared)));
+    }
+
+    @Test
+    void rejectsRootsNotRepresentableInJson() {
+        assertThrows(IllegalArgumentException.class, () -> toJson(new Object()));
+    }
+
+    @Test
+    void detectsValueObjects() {
+        assertTrue(ValueObjectMarshaller.isValueObject(Named.class, false));
+        assertFalse(ValueObjectMarshaller.isValueObject(ArrayList.class, false));
+        assertTrue(ValueObjectMarshaller.isValueObject(ArrayList.class, true));
+        assertFalse(ValueObjectMarshaller.isValueObject(Object.class, true));
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.javascript;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * In memory Javascript context for tests which can't load the native library.
+ * <p>
+ * Functions created with {@link #makeFunction(String, String[], String, String, int)} can't be compiled, their
+ * implementation has to be registered for the body using {@link #implementFunction(String, BiFunction)}.
+ * <p>
+ * The lock of the context is a {@link TestJavascriptContextLock}, which returns this context from
+ * {@link JavascriptContextLock#getContext()} and never unlocks.
+ */
+public class TestJavascriptContext extends JavascriptContext {
+    private static final AtomicLong NEXT_HANDLE = new AtomicLong(1);
+
+    // Keeps the fake classes reachable, so the FFI garbage collector never tries to release them natively
+    private static final List<JavascriptClass> CLASSES = new ArrayList<>();
+
+    private final long handle;
+    private final Map<String, BiFunction<JavascriptObject, JavascriptValue[], JavascriptValue>> functions;
+
+    private JavascriptContextLock lock;
+    private TestJavascriptObject globalObject;
+    private int protectCount;
+
+    /**
+     * Constructs a new {@link TestJavascriptContext} with an empty global object.
+     */
+    public TestJavascriptContext() {
+        super(0, null);
+        this.handle = nextHandle();
+        this.functions = new HashMap<>();
+        this.globalObject = new TestJavascriptObject(this);
+        relock();
+    }
+
+    /**
+     * Retrieves a new, unique handle.
+     *
+     * @return The handle
+     */
+    static long nextHandle() {
+        return NEXT_HANDLE.getAndIncrement();
+    }
+
+    /**
+     * Creates a Javascript class without a native counterpart.
+     *
+     * @return The created class
+     */
+    public static synchronized JavascriptClass makeClass() {
+        JavascriptClass javascriptClass = new JavascriptClass(nextHandle());
+        CLASSES.add(javascriptClass);
+        return javascriptClass;
+    }
+
+    /**
+     * Replaces the global object with an empty one using the same handle, like a reloaded page might do.
+     */
+    public void replaceGlobalObject() {
+        this.globalObject = new TestJavascriptObject(this, globalObject.getHandle());
+    }
+
+    /**
+     * Replaces the lock of this context with a new one, as if the context has been unlocked and locked again.
+     */
+    public void relock() {
+        this.lock = new TestJavascriptContextLock(this);
+    }
+
+    /**
+     * Retrieves the amount of values which have been protected in this context.
+     *
+     * @return The amount of protected values
+     */
+    public int protectCount() {
+        return protectCount;
+    }
+
+    /**
+     * Records that a value has been protected in this context.
+     */
+    void recordProtect() {
+        protectCount++;
+    }
+
+    /**
+     * Registers the implementation of functions created with the given body.
+     *
+     * @param body     The body of the functions
+     * @param function The implementation, receiving {@code this} and the arguments
+     */
+    public void implementFunction(
+            String body, BiFunction<JavascriptObject, JavascriptValue[], JavascriptValue> function) {
+        functions.put(body, function);
+    }
+
+    @Override
+    public TestJavascriptObject getGlobalObject() {
+        return globalObject;
+    }
+
+    @Override
+    public JavascriptValue makeUndefined() {
+        return new TestJavascriptValue(JavascriptType.UNDEFINED, null);
+    }
+
+    @Override
+    public JavascriptValue makeNull() {
+        return new TestJavascriptValue(JavascriptType.NULL, null);
+    }
+
+    @Override
+    public JavascriptValue makeBoolean(boolean value) {
+        return new TestJavascriptValue(JavascriptType.BOOLEAN, value);
+    }
+
+    @Override
+    public JavascriptValue makeNumber(double value) {
+        return new TestJavascriptValue(JavascriptType.NUMBER, value);
+    }
+
+    @Override
+    public JavascriptValue makeString(String value) {
+        return new TestJavascriptValue(JavascriptType.STRING, value);
+    }
+
+    @Override
+    public TestJavascriptObject makeObject(JavascriptClass clazz, Object privateData) {
+        return new TestJavascriptObject(this).classInstance(clazz, privateData);
+    }
+
+    @Override
+    public TestJavascriptObject makeArray(JavascriptValue... arguments) {
+        return new TestJavascriptObject(this).array(arguments);
+    }
+
+    @Override
+    public TestJavascriptObject makeDate(JavascriptValue... arguments) {
+        return new TestJavascriptObject(this).date(
+                arguments.length > 0 ? arguments[0].toNumber() : (double) System.currentTimeMillis());
+    }
+
+    @Override
+    public TestJavascriptObject makeTypedArray(JavascriptTypedArrayType type, ByteBuffer buffer) {
+        return new TestJavascriptObject(this).typedArray(type, buffer);
+    }
+
+    @Override
+    public TestJavascriptObject makeTypedArrayCopy(JavascriptTypedArrayType type, Object array) {
+        ByteBuffer bytes;
+        if (array instanceof byte[]) {
+            bytes = ByteBuffer.allocate(((byte[]) array).length).put((byte[]) array);
+        } else if (array instanceof short[]) {
+            bytes = allocate(((short[]) array).length * 2);
+            bytes.asShortBuffer().put((short[]) array);
+        } else if (array instanceof char[]) {
+            bytes = allocate(((char[]) array).length * 2);
+            bytes.asCharBuffer().put((char[]) array);
+        } else if (array instanceof int[]) {
+            bytes = allocate(((int[]) array).length * 4);
+            bytes.asIntBuffer().put((int[]) array);
+        } else if (array instanceof float[]) {
+            bytes = allocate(((float[]) array).length * 4);
+            bytes.asFloatBuffer().put((float[]) array);
+        } else if (array instanceof long[]) {
+            bytes = allocate(((long[]) array).length * 8);
+            bytes.asLongBuffer().put((long[]) array);
+        } else if (array instanceof double[]) {
+            bytes = allocate(((double[]) array).length * 8);
+            bytes.asDoubleBuffer().put((double[]) array);
+        } else {
+            throw new IllegalArgumentException("Expected a numeric primitive array, got " + array);
+        }
+
+        bytes.clear();
+        return new TestJavascriptObject(this).typedArray(type, bytes);
+    }
+
+    /**
+     * Allocates a heap buffer in native byte order.
+     *
+     * @param size The size of the buffer in bytes
+     * @return The allocated buffer
+     */
+    private static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public TestJavascriptObject makeFunction(
+            String name,
+            String[] parameterNames,
+            String body,
+            String sourceUrl,
+            int startingLineNumber
+    ) {
+        BiFunction<JavascriptObject, JavascriptValue[], JavascriptValue> function = functions.get(body);
+        if (function == null) {
+            throw new UnsupportedOperationException("No implementation registered for function body " + body);
+        }
+
+        return new TestJavascriptObject(this).function(function);
+    }
+
+    @Override
+    public void garbageCollect() {
+    }
+
+    @Override
+    public JavascriptContextLock getLock() {
+        return lock;
+    }
+
+    @Override
+    public long getHandle() {
+        return handle;
+    }
+}
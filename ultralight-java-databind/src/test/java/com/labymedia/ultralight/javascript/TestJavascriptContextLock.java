@@ -0,0 +1,51 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.javascript;
+
+/**
+ * Lock of a {@link TestJavascriptContext}, which is always held and does not require the native library.
+ */
+public final class TestJavascriptContextLock extends JavascriptContextLock {
+    private final TestJavascriptContext context;
+
+    /**
+     * Constructs a new {@link TestJavascriptContextLock}.
+     *
+     * @param context The context this lock belongs to
+     */
+    TestJavascriptContextLock(TestJavascriptContext context) {
+        super(1);
+        this.context = context;
+    }
+
+    @Override
+    public TestJavascriptContext getContext() {
+        return context;
+    }
+
+    @Override
+    public void addDependency(JavascriptLockedObject object) {
+        // Objects stay valid, as the lock is never released
+    }
+
+    @Override
+    public void unlock() {
+        // The context is never unlocked
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.javascript;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * In memory Javascript object for tests which can't load the native library.
+ * <p>
+ * Properties are stored together with their attributes. Like JavaScriptCore, setting a property which is reported as
+ * existing by the {@link #hasPropertyCallback(Predicate) has property callback} of the class of the object takes the
+ * plain put path and discards the requested attributes.
+ */
+public class TestJavascriptObject extends JavascriptObject {
+    private final long handle;
+    private final TestJavascriptContext context;
+    private final Map<String, Property> properties;
+
+    private JavascriptClass javascriptClass;
+    private Object privateData;
+    private Predicate<String> hasPropertyCallback;
+
+    private List<JavascriptValue> elements;
+    private Double date;
+    private JavascriptTypedArrayType typedArrayType;
+    private ByteBuffer typedArrayBytes;
+    private BiFunction<JavascriptObject, JavascriptValue[], JavascriptValue> function;
+
+    /**
+     * Constructs a new, plain {@link TestJavascriptObject}.
+     *
+     * @param context The context the object belongs to
+     */
+    public TestJavascriptObject(TestJavascriptContext context) {
+        this(context, TestJavascriptContext.nextHandle());
+    }
+
+    /**
+     * Constructs a new, plain {@link TestJavascriptObject} with an explicit handle.
+     *
+     * @param context The context the object belongs to
+     * @param handle  The handle of the object
+     */
+    TestJavascriptObject(TestJavascriptContext context, long handle) {
+        super(0, null);
+        this.handle = handle;
+        this.context = context;
+        this.properties = new LinkedHashMap<>();
+        this.typedArrayType = JavascriptTypedArrayType.NONE;
+    }
+
+    /**
+     * Makes this object an instance of a class.
+     *
+     * @param javascriptClass The class of the object
+     * @param privateData     The private data of the object
+     * @return this
+     */
+    public TestJavascriptObject classInstance(JavascriptClass javascriptClass, Object privateData) {
+        this.javascriptClass = javascriptClass;
+        this.privateData = privateData;
+        return this;
+    }
+
+    /**
+     * Sets the callback reporting the properties the class of this object resolves itself.
+     *
+     * @param hasPropertyCallback The callback, or {@code null}, if the class resolves no properties
+     * @return this
+     */
+    public TestJavascriptObject hasPropertyCallback(Predicate<String> hasPropertyCallback) {
+        this.hasPropertyCallback = hasPropertyCallback;
+        return this;
+    }
+
+    /**
+     * Makes this object an array.
+     *
+     * @param elements The elements of the array
+     * @return this
+     */
+    public TestJavascriptObject array(JavascriptValue... elements) {
+        this.elements = new ArrayList<>(Arrays.asList(elements));
+        return this;
+    }
+
+    /**
+     * Makes this object a date.
+     *
+     * @param time The time of the date in milliseconds since the epoch
+     * @return this
+     */
+    public TestJavascriptObject date(double time) {
+        this.date = time;
+        return this;
+    }
+
+    /**
+     * Makes this object a typed array.
+     *
+     * @param type  The type of the typed array
+     * @param bytes The bytes backing the typed array
+     * @return this
+     */
+    public TestJavascriptObject typedArray(JavascriptTypedArrayType type, ByteBuffer bytes) {
+        this.typedArrayType = type;
+        this.typedArrayBytes = bytes;
+        return this;
+    }
+
+    /**
+     * Makes this object a function.
+     *
+     * @param function The implementation of the function, receiving {@code this} and the arguments
+     * @return this
+     */
+    public TestJavascriptObject function(BiFunction<JavascriptObject, JavascriptValue[], JavascriptValue> function) {
+        this.function = function;
+        return this;
+    }
+
+    /**
+     * Retrieves the attributes of an own property.
+     *
+     * @param propertyName The name of the property
+     * @return The attributes of the property, or {@code -1}, if the object has no such own property
+     */
+    public int getPropertyAttributes(String propertyName) {
+        Property property = properties.get(propertyName);
+        return property != null ? property.attributes : -1;
+    }
+
+    /**
+     * Retrieves the typed array bytes backing this object.
+     *
+     * @return The typed array bytes, or {@code null}, if this object is not a typed array
+     */
+    public ByteBuffer typedArrayBytes() {
+        return typedArrayBytes;
+    }
+
+    @Override
+    public JavascriptProtectedValue protect() {
+        context.recordProtect();
+        return new TestJavascriptProtectedValue(this);
+    }
+
+    @Override
+    public JavascriptType getType() {
+        return JavascriptType.OBJECT;
+    }
+
+    @Override
+    public boolean isUndefined() {
+        return false;
+    }
+
+    @Override
+    public boolean isNull() {
+        return false;
+    }
+
+    @Override
+    public boolean isBoolean() {
+        return false;
+    }
+
+    @Override
+    public boolean isNumber() {
+        return false;
+    }
+
+    @Override
+    public boolean isString() {
+        return false;
+    }
+
+    @Override
+    public boolean isSymbol() {
+        return false;
+    }
+
+    @Override
+    public boolean isObject() {
+        return true;
+    }
+
+    @Override
+    public boolean isOfClass(JavascriptClass clazz) {
+        return javascriptClass != null && javascriptClass == clazz;
+    }
+
+    @Override
+    public boolean isArray() {
+        return elements != null;
+    }
+
+    @Override
+    public boolean isDate() {
+        return date != null;
+    }
+
+    @Override
+    public JavascriptTypedArrayType getTypedArrayType() {
+        return typedArrayType;
+    }
+
+    @Override
+    public boolean isEqual(JavascriptValue other) {
+        return other == this;
+    }
+
+    @Override
+    public boolean isStrictEqual(JavascriptValue other) {
+        return other == this;
+    }
+
+    @Override
+    public boolean toBoolean() {
+        return true;
+    }
+
+    @Override
+    public double toNumber() {
+        return date != null ? date : Double.NaN;
+    }
+
+    @Override
+    public String toStringCopy() {
+        return isArray() ? elements.toString() : "[object Object]";
+    }
+
+    @Override
+    public JavascriptObject toObject() {
+        return this;
+    }
+
+    @Override
+    public boolean hasProperty(String propertyName) {
+        return properties.containsKey(propertyName) ||
+                (hasPropertyCallback != null && hasPropertyCallback.test(propertyName));
+    }
+
+    @Override
+    public JavascriptValue getProperty(String propertyName) {
+        if (isArray() && propertyName.equals("length")) {
+            return context.makeNumber(elements.size());
+        }
+
+        Property property = properties.get(propertyName);
+        return property != null ? property.value : context.makeUndefined();
+    }
+
+    @Override
+    public void setProperty(String propertyName, JavascriptValue value, int attributes) {
+        if (isArray() && propertyName.equals("length")) {
+            int length = (int) value.toNumber();
+            while (elements.size() > length) {
+                elements.remove(elements.size() - 1);
+            }
+
+            return;
+        }
+
+        Property existing = properties.get(propertyName);
+        if (existing != null && (existing.attributes & JavascriptPropertyAttributes.READ_ONLY) != 0) {
+            // Read only properties are silently kept
+            return;
+        }
+
+        if (existing != null || (hasPropertyCallback != null && hasPropertyCallback.test(propertyName))) {
+            // The property exists already, JavaScriptCore takes the plain put path and drops the attributes
+            properties.put(propertyName, new Property(value, existing != null ? existing.attributes : 0));
+        } else {
+            properties.put(propertyName, new Property(value, attributes));
+        }
+    }
+
+    @Override
+    public boolean deleteProperty(String propertyName) {
+        Property existing = properties.get(propertyName);
+        if (existing != null && (existing.attributes & JavascriptPropertyAttributes.DONT_DELETE) != 0) {
+            return false;
+        }
+
+        properties.remove(propertyName);
+        return true;
+    }
+
+    @Override
+    public JavascriptValue getPropertyAtIndex(long propertyIndex) {
+        if (isArray() && propertyIndex < elements.size()) {
+            return elements.get((int) propertyIndex);
+        }
+
+        return getProperty(Long.toString(propertyIndex));
+    }
+
+    @Override
+    public void setPropertyAtIndex(long propertyIndex, JavascriptValue value) {
+        if (!isArray()) {
+            setProperty(Long.toString(propertyIndex), value, JavascriptPropertyAttributes.NONE);
+            return;
+        }
+
+        while (elements.size() <= propertyIndex) {
+            elements.add(context.makeUndefined());
+        }
+
+        elements.set((int) propertyIndex, value);
+    }
+
+    @Override
+    public int getTypedArrayByteLength() {
+        if (typedArrayBytes == null) {
+            throw new IllegalStateException("The object is not a typed array or ArrayBuffer");
+        }
+
+        return typedArrayBytes.remaining();
+    }
+
+    @Override
+    public void copyTypedArrayBytes(Object array) {
+        ByteBuffer bytes = typedArrayBytes.duplicate().order(ByteOrder.nativeOrder());
+
+        if (array instanceof byte[]) {
+            bytes.get((byte[]) array);
+        } else if (array instanceof short[]) {
+            bytes.asShortBuffer().get((short[]) array);
+        } else if (array instanceof int[]) {
+            bytes.asIntBuffer().get((int[]) array);
+        } else if (array instanceof float[]) {
+            bytes.asFloatBuffer().get((float[]) array);
+        } else if (array instanceof double[]) {
+            bytes.asDoubleBuffer().get((double[]) array);
+        } else {
+            throw new IllegalArgumentException("Unsupported array " + array);
+        }
+    }
+
+    @Override
+    public JavascriptValue[] getElements() {
+        return isArray() ? elements.toArray(new JavascriptValue[0]) : new JavascriptValue[0];
+    }
+
+    @Override
+    public JavascriptValue[] getElements(int fromIndex, int toIndex) {
+        JavascriptValue[] all = getElements();
+        return Arrays.copyOfRange(all, Math.min(fromIndex, all.length), Math.min(toIndex, all.length));
+    }
+
+    @Override
+    public double[] toDoubleArray() {
+        JavascriptValue[] all = getElements();
+        double[] result = new double[all.length];
+        for (int i = 0; i < all.length; i++) {
+            result[i] = all[i].toNumber();
+        }
+
+        return result;
+    }
+
+    @Override
+    public String[] toStringArray() {
+        JavascriptValue[] all = getElements();
+        String[] result = new String[all.length];
+        for (int i = 0; i < all.length; i++) {
+            result[i] = all[i].toStringCopy();
+        }
+
+        return result;
+    }
+
+    @Override
+    public Object getPrivate() {
+        return privateData;
+    }
+
+    @Override
+    public void setPrivate(Object data) {
+        if (javascriptClass == null) {
+            throw new UnsupportedOperationException("Only objects with a class can have private data");
+        }
+
+        this.privateData = data;
+    }
+
+    @Override
+    public boolean isFunction() {
+        return function != null;
+    }
+
+    @Override
+    public JavascriptValue callAsFunction(JavascriptObject thisObject, JavascriptValue... arguments) {
+        if (function == null) {
+            throw new JavascriptException("Object is not a function", this);
+        }
+
+        return function.apply(thisObject, arguments);
+    }
+
+    @Override
+    public boolean isConstructor() {
+        return false;
+    }
+
+    @Override
+    public String[] copyPropertyNames() {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, Property> entry : properties.entrySet()) {
+            if ((entry.getValue().attributes & JavascriptPropertyAttributes.DONT_ENUM) == 0) {
+                names.add(entry.getKey());
+            }
+        }
+
+        return names.toArray(new String[0]);
+    }
+
+    @Override
+    public long getHandle() {
+        return handle;
+    }
+
+    @Override
+    public void contextUnlocking() {
+    }
+
+    @Override
+    public String toString() {
+        return toStringCopy();
+    }
+
+    /**
+     * Tuple of the value and the attributes of a property.
+     */
+    private static final class Property {
+        private final JavascriptValue value;
+        private final int attributes;
+
+        /**
+         * Constructs a new {@link Property}.
+         *
+         * @param value      The value of the property
+         * @param attributes The attributes of the property
+         */
+        private Property(JavascriptValue value, int attributes) {
+            this.value = value;
+            this.attributes = attributes;
+        }
+    }
+}
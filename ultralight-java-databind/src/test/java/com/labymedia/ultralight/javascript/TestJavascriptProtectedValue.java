@@ -0,0 +1,57 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.javascript;
+
+/**
+ * Protected {@link TestJavascriptValue} or {@link TestJavascriptObject}.
+ */
+public class TestJavascriptProtectedValue extends JavascriptProtectedValue {
+    private JavascriptValue value;
+
+    /**
+     * Constructs a new {@link TestJavascriptProtectedValue}.
+     *
+     * @param value The protected value
+     */
+    TestJavascriptProtectedValue(JavascriptValue value) {
+        super(1);
+        this.value = value;
+    }
+
+    @Override
+    public JavascriptValue revive(JavascriptContextLock lock) {
+        if (value == null) {
+            throw new IllegalStateException("The value has been revived already");
+        }
+
+        JavascriptValue revived = value;
+        value = null;
+
+        return revived;
+    }
+
+    /**
+     * Determines whether this value has been revived already.
+     *
+     * @return {@code true} if this value has been revived, {@code false} otherwise
+     */
+    public boolean isRevived() {
+        return value == null;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2020 - 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.labymedia.ultralight.javascript;
+
+import java.util.Objects;
+
+/**
+ * In memory Javascript primitive for tests which can't load the native library.
+ */
+public class TestJavascriptValue extends JavascriptValue {
+    private final long handle;
+    private final JavascriptType type;
+    private final Object value;
+
+    /**
+     * Constructs a new {@link TestJavascriptValue}.
+     *
+     * @param type  The type of the value, must not be {@link JavascriptType#OBJECT}
+     * @param value The Java representation of the value, a {@link Boolean}, {@link Double} or {@link String}
+     */
+    public TestJavascriptValue(JavascriptType type, Object value) {
+        super(0, null);
+        this.handle = TestJavascriptContext.nextHandle();
+        this.type = type;
+        this.value = value;
+    }
+
+    @Override
+    public JavascriptProtectedValue protect() {
+        return new TestJavascriptProtectedValue(this);
+    }
+
+    @Override
+    public JavascriptType getType() {
+        return type;
+    }
+
+    @Override
+    public boolean isUndefined() {
+        return type == JavascriptType.UNDEFINED;
+    }
+
+    @Override
+    public boolean isNull() {
+        return type == JavascriptType.NULL;
+    }
+
+    @Override
+    public boolean isBoolean() {
+        return type == JavascriptType.BOOLEAN;
+    }
+
+    @Override
+    public boolean isNumber() {
+        return type == JavascriptType.NUMBER;
+    }
+
+    @Override
+    public boolean isString() {
+        return type == JavascriptType.STRING;
+    }
+
+    @Override
+    public boolean isSymbol() {
+        return false;
+    }
+
+    @Override
+    public boolean isObject() {
+        return false;
+    }
+
+    @Override
+    public boolean isOfClass(JavascriptClass clazz) {
+        return false;
+    }
+
+    @Override
+    public boolean isArray() {
+        return false;
+    }
+
+    @Override
+    public boolean isDate() {
+        return false;
+    }
+
+    @Override
+    public JavascriptTypedArrayType getTypedArrayType() {
+        return JavascriptTypedArrayType.NONE;
+    }
+
+    @Override
+    public boolean isEqual(JavascriptValue other) {
+        return isStrictEqual(other);
+    }
+
+    @Override
+    public boolean isStrictEqual(JavascriptValue other) {
+        return other instanceof TestJavascriptValue &&
+                ((TestJavascriptValue) other).type == type &&
+                Objects.equals(((TestJavascriptValue) other).value, value);
+    }
+
+    @Override
+    public boolean toBoolean() {
+        switch (type) {
+            case BOOLEAN:
+                return (Boolean) value;
+
+            case NUMBER:
+                double number = (Double) value;
+                return number != 0 && !Double.isNaN(number);
+
+            case STRING:
+                return !((String) value).isEmpty();
+
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public double toNumber() {
+        switch (type) {
+            case BOOLEAN:
+                return (Boolean) value ? 1 : 0;
+
+            case NUMBER:
+                return (Double) value;
+
+            case STRING:
+                try {
+                    return Double.parseDouble((String) value);
+                } catch (NumberFormatException e) {
+                    return Double.NaN;
+                }
+
+            case NULL:
+                return 0;
+
+            default:
+                return Double.NaN;
+        }
+    }
+
+    @Override
+    public String toStringCopy() {
+        switch (type) {
+            case UNDEFINED:
+                return "undefined";
+
+            case NULL:
+                return "null";
+
+            case NUMBER:
+                double number = (Double) value;
+                return number == (long) number ? Long.toString((long) number) : Double.toString(number);
+
+            default:
+                return String.valueOf(value);
+        }
+    }
+
+    @Override
+    public JavascriptObject toObject() {
+        throw new JavascriptException("Can't convert " + type + " to an object", this);
+    }
+
+    @Override
+    public long getHandle() {
+        return handle;
+    }
+
+    @Override
+    public void contextUnlocking() {
+    }
+
+    @Override
+    public String toString() {
+        return toStringCopy();
+    }
+}
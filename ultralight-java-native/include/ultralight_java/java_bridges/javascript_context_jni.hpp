@@ -135,6 +135,28 @@ namespace ultralight_java {
          */
         static jobject make_array(JNIEnv *env, jobject java_instance, jobjectArray java_arguments);
 
+        /**
+         * Creates a new javascript typed array sharing the memory of a direct java buffer.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this context
+         * @param java_type The type of the typed array to create
+         * @param java_buffer The direct buffer containing the memory of the array
+         * @return The created typed array
+         */
+        static jobject make_typed_array(JNIEnv *env, jobject java_instance, jobject java_type, jobject java_buffer);
+
+        /**
+         * Creates a new javascript typed array containing a copy of the elements of a java primitive array.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this context
+         * @param java_type The type of the typed array to create
+         * @param java_array The primitive array to copy, its element size needs to match the one of the type
+         * @return The created typed array
+         */
+        static jobject make_typed_array_copy(JNIEnv *env, jobject java_instance, jobject java_type, jobject java_array);
+
         /**
          * Creates a new javascript Date.
          *
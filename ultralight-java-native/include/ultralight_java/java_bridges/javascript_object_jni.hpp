@@ -87,6 +87,48 @@ namespace ultralight_java {
          */
         static jboolean delete_property(JNIEnv *env, jobject java_instance, jstring java_property_name);
 
+        /**
+         * Determines whether this object has a property using a prepared property name.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_key The prepared name of the property to check for
+         * @return true if this object has a property with the given name, false otherwise
+         */
+        static jboolean has_property_interned(JNIEnv *env, jobject java_instance, jobject java_property_key);
+
+        /**
+         * Retrieves a property of this object using a prepared property name.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_key The prepared name of the property to retrieve
+         * @return The value of the property as a java object
+         */
+        static jobject get_property_interned(JNIEnv *env, jobject java_instance, jobject java_property_key);
+
+        /**
+         * Sets a property of this object using a prepared property name.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_key The prepared name of the property to set
+         * @param java_value The new value of the property as a java object
+         * @param attributes The new attributes of the property
+         */
+        static void set_property_interned(
+            JNIEnv *env, jobject java_instance, jobject java_property_key, jobject java_value, jint attributes);
+
+        /**
+         * Deletes a property of this object using a prepared property name.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_key The prepared name of the property to delete
+         * @return true if the deletion succeeded, false if it failed
+         */
+        static jboolean delete_property_interned(JNIEnv *env, jobject java_instance, jobject java_property_key);
+
         /**
          * Determines whether this object has a property for the given key.
          *
@@ -149,6 +191,193 @@ namespace ultralight_java {
          */
         static void set_property_at_index(JNIEnv *env, jobject java_instance, jlong property_index, jobject java_value);
 
+        /**
+         * Retrieves a property of this object converted to a number.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_name The name of the property as a java string or JavascriptPropertyKey
+         * @return The value of the property converted to a number
+         */
+        static jdouble get_number_property(JNIEnv *env, jobject java_instance, jobject java_property_name);
+
+        /**
+         * Retrieves a property of this object converted to a boolean.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_name The name of the property as a java string or JavascriptPropertyKey
+         * @return The value of the property converted to a boolean
+         */
+        static jboolean get_boolean_property(JNIEnv *env, jobject java_instance, jobject java_property_name);
+
+        /**
+         * Retrieves a property of this object converted to a string.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_name The name of the property as a java string or JavascriptPropertyKey
+         * @return The value of the property converted to a string
+         */
+        static jstring get_string_property(JNIEnv *env, jobject java_instance, jobject java_property_name);
+
+        /**
+         * Sets a property of this object to a number.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_name The name of the property as a java string or JavascriptPropertyKey
+         * @param java_value The new value of the property
+         * @param attributes The attributes of the property
+         */
+        static void set_number_property(
+            JNIEnv *env, jobject java_instance, jobject java_property_name, jdouble java_value, jint attributes);
+
+        /**
+         * Sets a property of this object to a boolean.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_name The name of the property as a java string or JavascriptPropertyKey
+         * @param java_value The new value of the property
+         * @param attributes The attributes of the property
+         */
+        static void set_boolean_property(
+            JNIEnv *env, jobject java_instance, jobject java_property_name, jboolean java_value, jint attributes);
+
+        /**
+         * Sets a property of this object to a string.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_property_name The name of the property as a java string or JavascriptPropertyKey
+         * @param java_value The new value of the property
+         * @param attributes The attributes of the property
+         */
+        static void set_string_property(
+            JNIEnv *env, jobject java_instance, jobject java_property_name, jstring java_value, jint attributes);
+
+        /**
+         * Retrieves a property of this object using the given index converted to a number.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param property_index The index of the property to retrieve
+         * @return The value of the property converted to a number
+         */
+        static jdouble get_number_property_at_index(JNIEnv *env, jobject java_instance, jlong property_index);
+
+        /**
+         * Retrieves a property of this object using the given index converted to a boolean.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param property_index The index of the property to retrieve
+         * @return The value of the property converted to a boolean
+         */
+        static jboolean get_boolean_property_at_index(JNIEnv *env, jobject java_instance, jlong property_index);
+
+        /**
+         * Retrieves a property of this object using the given index converted to a string.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param property_index The index of the property to retrieve
+         * @return The value of the property converted to a string
+         */
+        static jstring get_string_property_at_index(JNIEnv *env, jobject java_instance, jlong property_index);
+
+        /**
+         * Sets a property of this object using the given index to a number.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param property_index The index of the property to set
+         * @param java_value The new value of the property
+         */
+        static void set_number_property_at_index(
+            JNIEnv *env, jobject java_instance, jlong property_index, jdouble java_value);
+
+        /**
+         * Sets a property of this object using the given index to a boolean.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param property_index The index of the property to set
+         * @param java_value The new value of the property
+         */
+        static void set_boolean_property_at_index(
+            JNIEnv *env, jobject java_instance, jlong property_index, jboolean java_value);
+
+        /**
+         * Sets a property of this object using the given index to a string.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param property_index The index of the property to set
+         * @param java_value The new value of the property
+         */
+        static void set_string_property_at_index(
+            JNIEnv *env, jobject java_instance, jlong property_index, jstring java_value);
+
+        /**
+         * Retrieves the size of the memory backing this typed array or ArrayBuffer.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @return The size of the memory in bytes
+         */
+        static jint get_typed_array_byte_length(JNIEnv *env, jobject java_instance);
+
+        /**
+         * Copies the memory backing this typed array or ArrayBuffer into a java primitive array.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param java_array The primitive array to copy into
+         * @param java_byte_length The size of the primitive array in bytes
+         */
+        static void copy_typed_array_bytes(
+            JNIEnv *env, jobject java_instance, jobject java_array, jint java_byte_length);
+
+        /**
+         * Retrieves all elements of this array like object.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @return The elements as java values
+         */
+        static jobjectArray get_elements(JNIEnv *env, jobject java_instance);
+
+        /**
+         * Retrieves a range of elements of this array like object.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @param from_index The index of the first element to retrieve
+         * @param to_index The index after the last element to retrieve
+         * @return The elements as java values
+         */
+        static jobjectArray get_elements_in_range(JNIEnv *env, jobject java_instance, jint from_index, jint to_index);
+
+        /**
+         * Retrieves all elements of this array like object as numbers.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @return The elements as doubles
+         */
+        static jdoubleArray to_double_array(JNIEnv *env, jobject java_instance);
+
+        /**
+         * Retrieves all elements of this array like object as strings.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param java_instance The java instance of this JSObjectRef
+         * @return The elements as java strings
+         */
+        static jobjectArray to_string_array(JNIEnv *env, jobject java_instance);
+
         /**
          * Retrieves the private data of this object.
          *
@@ -0,0 +1,49 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+#pragma once
+
+#include <jni.h>
+
+namespace ultralight_java {
+    /**
+     * Class for interfacing with reusable JSStringRef property keys from java
+     */
+    class JavascriptPropertyKeyJNI {
+    public:
+        /**
+         * Creates a retained javascript string from a java string.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param caller_class The java class calling the method, should always be JavascriptPropertyKey
+         * @param name The name of the property key
+         * @return The handle of the created JSStringRef
+         */
+        static jlong create(JNIEnv *env, jclass caller_class, jstring name);
+
+        /**
+         * Releases a javascript string created by create.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param caller_class The java class calling the method, should always be JavascriptPropertyKey
+         * @param handle The handle of the JSStringRef to release
+         */
+        static void release(JNIEnv *env, jclass caller_class, jlong handle);
+    };
+} // namespace ultralight_java
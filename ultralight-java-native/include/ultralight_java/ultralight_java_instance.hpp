@@ -679,7 +679,7 @@ namespace ultralight_java {
             /**
              * Natives method that should be bound
              */
-            std::array<JNINativeMethod, 16> native_methods;
+            std::array<JNINativeMethod, 18> native_methods;
         } javascript_context;
 
         struct {
@@ -783,7 +783,7 @@ namespace ultralight_java {
             /**
              * Native methods that should be bound
              */
-            std::array<JNINativeMethod, 19> native_methods;
+            std::array<JNINativeMethod, 46> native_methods;
         } javascript_object;
 
         struct {
@@ -827,6 +827,18 @@ namespace ultralight_java {
             std::array<JNINativeMethod, 1> native_methods;
         } javascript_class;
 
+        struct {
+            /**
+             * The java class itself
+             */
+            jclass clazz;
+
+            /**
+             * Native methods that should be bound
+             */
+            std::array<JNINativeMethod, 2> native_methods;
+        } javascript_property_key;
+
         struct {
             /**
              * The java class itself
@@ -158,6 +158,24 @@ namespace ultralight_java {
          */
         static jstring create_jstring_from_jsstring_ref(JNIEnv *env, JSStringRef javascript_string);
 
+        /**
+         * Converts a javascript string to a java string, reusing a previously created java string if the same
+         * (short) string has been converted before. This is meant for property names passed to callbacks, which
+         * tend to repeat a lot and would otherwise cause a new java string to be allocated for every access.
+         *
+         * @param env The JNI environment to use for accessing java
+         * @param javascript_string The javascript string to convert
+         * @return The converted string as a new local reference to a java string
+         */
+        static jstring create_interned_jstring_from_jsstring_ref(JNIEnv *env, JSStringRef javascript_string);
+
+        /**
+         * Releases all java strings cached by create_interned_jstring_from_jsstring_ref.
+         *
+         * @param env The JNI environment to use for accessing java
+         */
+        static void clear_interned_jstrings(JNIEnv *env);
+
         /**
          * Converts a java string to a javascript string.
          *
@@ -20,10 +20,12 @@
 #include "ultralight_java/java_bridges/javascript_context_jni.hpp"
 
 #include <JavaScriptCore/JavaScript.h>
+#include <cstring>
 #include <ultralight_java/ultralight_java_instance.hpp>
 
 #include "ultralight_java/platform/managed_javascript_class.hpp"
 #include "ultralight_java/ultralight_java_instance.hpp"
+#include "ultralight_java/util/temporary_jni.hpp"
 #include "ultralight_java/util/util.hpp"
 
 namespace ultralight_java {
@@ -216,6 +218,43 @@ namespace ultralight_java {
             lock);
     }
 
+    /**
+     * Deallocator for memory shared with javascript typed arrays, releases the global reference
+     * keeping the java buffer alive.
+     *
+     * @param bytes The memory which is not used by javascript anymore
+     * @param deallocator_context The global reference to the java buffer owning the memory
+     */
+    static void release_typed_array_buffer(void *bytes, void *deallocator_context) {
+        TemporaryJNI env;
+        env->DeleteGlobalRef(reinterpret_cast<jobject>(deallocator_context));
+    }
+
+    /**
+     * Retrieves the size in bytes of a single element of a typed array type.
+     *
+     * @param type The typed array type to retrieve the element size for
+     * @return The size of a single element in bytes
+     */
+    static size_t typed_array_element_size(JSTypedArrayType type) {
+        switch(type) {
+            case kJSTypedArrayTypeInt16Array:
+            case kJSTypedArrayTypeUint16Array:
+                return 2;
+
+            case kJSTypedArrayTypeInt32Array:
+            case kJSTypedArrayTypeUint32Array:
+            case kJSTypedArrayTypeFloat32Array:
+                return 4;
+
+            case kJSTypedArrayTypeFloat64Array:
+                return 8;
+
+            default:
+                return 1;
+        }
+    }
+
     jobject JavascriptContextJNI::make_array(JNIEnv *env, jobject java_instance, jobjectArray java_arguments) {
         auto [ok, context, lock] = extract(env, java_instance);
         if(!ok) {
@@ -242,6 +281,123 @@ namespace ultralight_java {
             lock);
     }
 
+    jobject JavascriptContextJNI::make_typed_array(
+        JNIEnv *env, jobject java_instance, jobject java_type, jobject java_buffer) {
+        auto [ok, context, lock] = extract(env, java_instance);
+        if(!ok) {
+            return nullptr;
+        }
+
+        if(!java_buffer) {
+            env->ThrowNew(runtime.null_pointer_exception.clazz, "buffer can't be null");
+            return nullptr;
+        }
+
+        JSTypedArrayType type;
+        if(!runtime.javascript_typed_array_type.constants.from_java(env, java_type, &type)) {
+            return nullptr;
+        }
+
+        if(type == kJSTypedArrayTypeNone) {
+            env->ThrowNew(runtime.illegal_argument_exception.clazz, "Can't create a typed array of type NONE");
+            return nullptr;
+        }
+
+        void *bytes = env->GetDirectBufferAddress(java_buffer);
+        if(!bytes) {
+            env->ThrowNew(runtime.illegal_argument_exception.clazz, "The buffer needs to be a direct one");
+            return nullptr;
+        }
+
+        size_t byte_length = env->GetDirectBufferCapacity(java_buffer);
+        if(byte_length % typed_array_element_size(type) != 0) {
+            env->ThrowNew(
+                runtime.illegal_argument_exception.clazz,
+                "The buffer capacity needs to be a multiple of the typed array element size");
+            return nullptr;
+        }
+
+        // Javascript views the memory of the buffer directly, so the buffer needs to stay alive
+        // until the deallocator has been invoked
+        jobject buffer_ref = env->NewGlobalRef(java_buffer);
+
+        JSValueRef exception = nullptr;
+        JSObjectRef array;
+        if(type == kJSTypedArrayTypeArrayBuffer) {
+            array = JSObjectMakeArrayBufferWithBytesNoCopy(
+                context, bytes, byte_length, release_typed_array_buffer, buffer_ref, &exception);
+        } else {
+            array = JSObjectMakeTypedArrayWithBytesNoCopy(
+                context, type, bytes, byte_length, release_typed_array_buffer, buffer_ref, &exception);
+        }
+
+        if(exception) {
+            // The deallocator takes care of the global reference, even if the creation failed
+            Util::throw_jssvalue_ref_as_java_exception(
+                "Error while creating typed array", context, exception, env, lock);
+            return nullptr;
+        }
+
+        JSValueProtect(context, array);
+
+        return env->NewObject(
+            runtime.javascript_object.clazz,
+            runtime.javascript_object.constructor,
+            reinterpret_cast<jlong>(array),
+            lock);
+    }
+
+    jobject JavascriptContextJNI::make_typed_array_copy(
+        JNIEnv *env, jobject java_instance, jobject java_type, jobject java_array) {
+        auto [ok, context, lock] = extract(env, java_instance);
+        if(!ok) {
+            return nullptr;
+        }
+
+        JSTypedArrayType type;
+        if(!runtime.javascript_typed_array_type.constants.from_java(env, java_type, &type)) {
+            return nullptr;
+        }
+
+        // The java side has already validated that the element sizes match
+        auto array = reinterpret_cast<jarray>(java_array);
+        size_t length = env->GetArrayLength(array);
+
+        JSValueRef exception = nullptr;
+        auto typed_array = JSObjectMakeTypedArray(context, type, length, &exception);
+        if(exception) {
+            Util::throw_jssvalue_ref_as_java_exception(
+                "Error while creating typed array", context, exception, env, lock);
+            return nullptr;
+        }
+
+        void *bytes = JSObjectGetTypedArrayBytesPtr(context, typed_array, &exception);
+        if(exception) {
+            Util::throw_jssvalue_ref_as_java_exception(
+                "Error while accessing typed array", context, exception, env, lock);
+            return nullptr;
+        }
+
+        if(length > 0) {
+            void *elements = env->GetPrimitiveArrayCritical(array, nullptr);
+            if(!elements) {
+                // OutOfMemoryError has been thrown
+                return nullptr;
+            }
+
+            std::memcpy(bytes, elements, length * typed_array_element_size(type));
+            env->ReleasePrimitiveArrayCritical(array, elements, JNI_ABORT);
+        }
+
+        JSValueProtect(context, typed_array);
+
+        return env->NewObject(
+            runtime.javascript_object.clazz,
+            runtime.javascript_object.constructor,
+            reinterpret_cast<jlong>(typed_array),
+            lock);
+    }
+
     jobject JavascriptContextJNI::make_date(JNIEnv *env, jobject java_instance, jobjectArray java_arguments) {
         auto [ok, context, lock] = extract(env, java_instance);
         if(!ok) {
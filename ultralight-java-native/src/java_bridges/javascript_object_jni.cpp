@@ -20,6 +20,9 @@
 #include "ultralight_java/java_bridges/javascript_object_jni.hpp"
 
 #include <JavaScriptCore/JavaScript.h>
+#include <cmath>
+#include <cstdint>
+#include <cstring>
 #include <tuple>
 #include <ultralight_java/ultralight_java_instance.hpp>
 
@@ -63,6 +66,394 @@ namespace ultralight_java {
         return std::tuple_cat(std::move(extract(env, java_instance)), std::tie(lock));
     }
 
+    static std::tuple<bool, JSStringRef> extract_key(JNIEnv *env, jobject java_property_key) {
+        if(!java_property_key) {
+            env->ThrowNew(runtime.null_pointer_exception.clazz, "propertyKey");
+            return {false, nullptr};
+        }
+
+        auto key = reinterpret_cast<JSStringRef>(
+            env->CallLongMethod(java_property_key, runtime.object_with_handle.get_handle_method));
+        if(env->ExceptionCheck()) {
+            return {false, nullptr};
+        }
+
+        return {true, key};
+    }
+
+    /**
+     * Javascript property name resolved from a java string or a JavascriptPropertyKey.
+     * Releases the javascript string again if it has been created only for the current call.
+     */
+    struct ResolvedPropertyName {
+        JSStringRef name = nullptr;
+        bool owned = false;
+
+        ResolvedPropertyName() = default;
+        ResolvedPropertyName(const ResolvedPropertyName &) = delete;
+        ResolvedPropertyName &operator=(const ResolvedPropertyName &) = delete;
+
+        ~ResolvedPropertyName() {
+            if(owned) {
+                JSStringRelease(name);
+            }
+        }
+    };
+
+    /**
+     * Resolves a property name passed from java, which may either be a java string or a JavascriptPropertyKey.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param java_property_name The java string or JavascriptPropertyKey to resolve
+     * @param out The resolved name to write to
+     * @return Whether the name could be resolved, if not, a java exception is pending
+     */
+    static bool resolve_property_name(JNIEnv *env, jobject java_property_name, ResolvedPropertyName &out) {
+        if(!java_property_name) {
+            env->ThrowNew(runtime.null_pointer_exception.clazz, "propertyName");
+            return false;
+        }
+
+        if(env->IsInstanceOf(java_property_name, runtime.javascript_property_key.clazz)) {
+            auto [key_ok, key] = extract_key(env, java_property_name);
+            out.name = key;
+            return key_ok;
+        }
+
+        out.name = Util::create_jsstring_ref_from_jstring(env, reinterpret_cast<jstring>(java_property_name));
+        out.owned = true;
+        return true;
+    }
+
+    /**
+     * Translates a javascript exception into a java exception. Unlike the other functions of this bridge, the java
+     * lock is only retrieved when it is actually required, which keeps the primitive accessors free of any
+     * additional java calls in the common case.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param java_instance The java instance of the JSObjectRef the exception occurred on
+     * @param message The message of the java exception
+     * @param context The context the exception occurred in
+     * @param exception The javascript exception to translate
+     */
+    static void throw_with_lock(
+        JNIEnv *env, jobject java_instance, const std::string &message, JSContextRef context, JSValueRef exception) {
+        jobject lock = env->CallObjectMethod(java_instance, runtime.javascript_locked_object.get_lock_method);
+        if(env->ExceptionCheck()) {
+            return;
+        }
+
+        Util::throw_jssvalue_ref_as_java_exception(message, context, exception, env, lock);
+    }
+
+    /**
+     * Reads a property by name without wrapping it into a java object.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param java_instance The java instance of the JSObjectRef to read from
+     * @param java_property_name The name of the property as a java string or JavascriptPropertyKey
+     * @return The context and the read value, if the first element is false, a java exception is pending
+     */
+    static std::tuple<bool, JSContextRef, JSValueRef> read_property(
+        JNIEnv *env, jobject java_instance, jobject java_property_name) {
+        auto [ok, context, object] = extract(env, java_instance);
+        ResolvedPropertyName name;
+        if(!ok || !resolve_property_name(env, java_property_name, name)) {
+            return {false, nullptr, nullptr};
+        }
+
+        JSValueRef exception = nullptr;
+        JSValueRef property = JSObjectGetProperty(context, object, name.name, &exception);
+        if(exception) {
+            throw_with_lock(env, java_instance, "Error while retrieving javascript property", context, exception);
+            return {false, nullptr, nullptr};
+        }
+
+        return {true, context, property};
+    }
+
+    /**
+     * Reads a property by index without wrapping it into a java object.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param java_instance The java instance of the JSObjectRef to read from
+     * @param property_index The index of the property
+     * @return The context and the read value, if the first element is false, a java exception is pending
+     */
+    static std::tuple<bool, JSContextRef, JSValueRef> read_property_at_index(
+        JNIEnv *env, jobject java_instance, jlong property_index) {
+        auto [ok, context, object] = extract(env, java_instance);
+        if(!ok) {
+            return {false, nullptr, nullptr};
+        }
+
+        JSValueRef exception = nullptr;
+        JSValueRef property = JSObjectGetPropertyAtIndex(context, object, property_index, &exception);
+        if(exception) {
+            throw_with_lock(
+                env, java_instance, "Error while retrieving javascript property using index", context, exception);
+            return {false, nullptr, nullptr};
+        }
+
+        return {true, context, property};
+    }
+
+    /**
+     * Writes a property by name using a value created by the given function.
+     *
+     * @tparam F The type of the function creating the value
+     * @param env The JNI environment to use for accessing java
+     * @param java_instance The java instance of the JSObjectRef to write to
+     * @param java_property_name The name of the property as a java string or JavascriptPropertyKey
+     * @param attributes The attributes of the property
+     * @param make_value Function creating the javascript value from the context
+     */
+    template <typename F>
+    static void write_property(
+        JNIEnv *env, jobject java_instance, jobject java_property_name, jint attributes, F &&make_value) {
+        auto [ok, context, object] = extract(env, java_instance);
+        ResolvedPropertyName name;
+        if(!ok || !resolve_property_name(env, java_property_name, name)) {
+            return;
+        }
+
+        JSValueRef exception = nullptr;
+        JSObjectSetProperty(context, object, name.name, make_value(context), attributes, &exception);
+        if(exception) {
+            throw_with_lock(env, java_instance, "Error while setting javascript property", context, exception);
+        }
+    }
+
+    /**
+     * Writes a property by index using a value created by the given function.
+     *
+     * @tparam F The type of the function creating the value
+     * @param env The JNI environment to use for accessing java
+     * @param java_instance The java instance of the JSObjectRef to write to
+     * @param property_index The index of the property
+     * @param make_value Function creating the javascript value from the context
+     */
+    template <typename F>
+    static void write_property_at_index(JNIEnv *env, jobject java_instance, jlong property_index, F &&make_value) {
+        auto [ok, context, object] = extract(env, java_instance);
+        if(!ok) {
+            return;
+        }
+
+        JSValueRef exception = nullptr;
+        JSObjectSetPropertyAtIndex(context, object, property_index, make_value(context), &exception);
+        if(exception) {
+            throw_with_lock(
+                env, java_instance, "Error while setting javascript property using index", context, exception);
+        }
+    }
+
+    /**
+     * Converts a javascript value to a number, translating conversion errors into java exceptions.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param java_instance The java instance of the JSObjectRef the value has been read from
+     * @param context The context the value belongs to
+     * @param value The value to convert
+     * @return The converted number, 0 if a java exception is pending
+     */
+    static jdouble value_to_number(JNIEnv *env, jobject java_instance, JSContextRef context, JSValueRef value) {
+        JSValueRef exception = nullptr;
+        jdouble java_double = JSValueToNumber(context, value, &exception);
+        if(exception) {
+            throw_with_lock(
+                env, java_instance, "Exception while converting the property to a number", context, exception);
+            return 0;
+        }
+
+        return java_double;
+    }
+
+    /**
+     * Converts a javascript value to a java string, translating conversion errors into java exceptions.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param java_instance The java instance of the JSObjectRef the value has been read from
+     * @param context The context the value belongs to
+     * @param value The value to convert
+     * @return The converted string, nullptr if a java exception is pending
+     */
+    static jstring value_to_jstring(JNIEnv *env, jobject java_instance, JSContextRef context, JSValueRef value) {
+        JSValueRef exception = nullptr;
+        JSStringRef string_ref = JSValueToStringCopy(context, value, &exception);
+        if(exception) {
+            throw_with_lock(
+                env, java_instance, "Exception while converting the property to a string", context, exception);
+            return nullptr;
+        }
+
+        auto java_string = Util::create_jstring_from_jsstring_ref(env, string_ref);
+        JSStringRelease(string_ref);
+
+        return java_string;
+    }
+
+    /**
+     * Creates a javascript string value from a java string.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param context The context to create the value in
+     * @param java_value The java string to convert, may be null
+     * @return The created javascript value, a javascript null if the java string is null
+     */
+    static JSValueRef make_string_value(JNIEnv *env, JSContextRef context, jstring java_value) {
+        if(!java_value) {
+            return JSValueMakeNull(context);
+        }
+
+        JSStringRef string_ref = Util::create_jsstring_ref_from_jstring(env, java_value);
+        JSValueRef value = JSValueMakeString(context, string_ref);
+        JSStringRelease(string_ref);
+
+        return value;
+    }
+
+    /**
+     * Retrieves the length of an array like javascript object.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param context The context the object belongs to
+     * @param object The object to retrieve the length of
+     * @param lock The java lock of the context
+     * @param out A pointer to write the length to
+     * @return Whether the length could be retrieved, if not, a java exception is pending
+     *
+     * The length is controlled by the page, for example `a = []; a.length = 2 ** 32 - 1`. It is rejected with an
+     * IllegalArgumentException when it doesn't fit into a java array, before anything is allocated for it.
+     */
+    static bool get_array_length(JNIEnv *env, JSContextRef context, JSObjectRef object, jobject lock, size_t *out) {
+        JSStringRef length_name = JSStringCreateWithUTF8CString("length");
+        JSValueRef exception = nullptr;
+        JSValueRef length = JSObjectGetProperty(context, object, length_name, &exception);
+        JSStringRelease(length_name);
+
+        double numeric_length = exception ? 0 : JSValueToNumber(context, length, &exception);
+        if(exception) {
+            Util::throw_jssvalue_ref_as_java_exception(
+                "Error while retrieving javascript array length", context, exception, env, lock);
+            return false;
+        }
+
+        if(std::isinf(numeric_length) || numeric_length > INT32_MAX - 8) {
+            env->ThrowNew(
+                runtime.illegal_argument_exception.clazz, "The javascript array is too large to be converted");
+            return false;
+        }
+
+        // Also catches NaN, which is the length of objects without a length property
+        *out = numeric_length > 0 ? static_cast<size_t>(numeric_length) : 0;
+        return true;
+    }
+
+    /**
+     * Retrieves the memory backing a typed array or ArrayBuffer.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param context The context the object belongs to
+     * @param object The typed array or ArrayBuffer to retrieve the memory of
+     * @param lock The java lock of the context
+     * @param bytes A pointer to write the start of the memory to
+     * @param byte_length A pointer to write the size of the memory to
+     * @return Whether the memory could be retrieved, if not, a java exception is pending
+     *
+     * The memory is owned by the javascript garbage collector and must not be accessed after the lock is released.
+     */
+    static bool get_typed_array_memory(
+        JNIEnv *env, JSContextRef context, JSObjectRef object, jobject lock, uint8_t **bytes, size_t *byte_length) {
+        JSValueRef exception = nullptr;
+        auto type = JSValueGetTypedArrayType(context, object, &exception);
+        if(exception) {
+            Util::throw_jssvalue_ref_as_java_exception(
+                "Error while retrieving typed array type", context, exception, env, lock);
+            return false;
+        }
+
+        if(type == kJSTypedArrayTypeNone) {
+            env->ThrowNew(runtime.illegal_state_exception.clazz, "The object is not a typed array or ArrayBuffer");
+            return false;
+        }
+
+        void *start;
+        size_t byte_offset = 0;
+
+        if(type == kJSTypedArrayTypeArrayBuffer) {
+            start = JSObjectGetArrayBufferBytesPtr(context, object, &exception);
+            *byte_length = exception ? 0 : JSObjectGetArrayBufferByteLength(context, object, &exception);
+        } else {
+            // The returned pointer points to the start of the underlying ArrayBuffer,
+            // the typed array might only view a part of it
+            start = JSObjectGetTypedArrayBytesPtr(context, object, &exception);
+            byte_offset = exception ? 0 : JSObjectGetTypedArrayByteOffset(context, object, &exception);
+            *byte_length = exception ? 0 : JSObjectGetTypedArrayByteLength(context, object, &exception);
+        }
+
+        if(exception) {
+            Util::throw_jssvalue_ref_as_java_exception(
+                "Error while retrieving typed array bytes", context, exception, env, lock);
+            return false;
+        }
+
+        if(*byte_length > INT32_MAX - 8) {
+            env->ThrowNew(runtime.illegal_argument_exception.clazz, "The typed array is too large to be copied");
+            return false;
+        }
+
+        *bytes = reinterpret_cast<uint8_t *>(start) + byte_offset;
+        return true;
+    }
+
+    /**
+     * Reads a range of elements of an array like javascript object in one go.
+     *
+     * @param env The JNI environment to use for accessing java
+     * @param context The context the object belongs to
+     * @param object The object to read the elements of
+     * @param lock The java lock of the context
+     * @param from_index The index of the first element to read
+     * @param to_index The index after the last element to read
+     * @return The read elements as java values, or nullptr, if a java exception is pending
+     */
+    static jobjectArray read_elements(
+        JNIEnv *env, JSContextRef context, JSObjectRef object, jobject lock, size_t from_index, size_t to_index) {
+        jobjectArray java_elements =
+            env->NewObjectArray(static_cast<jsize>(to_index - from_index), runtime.javascript_value.clazz, nullptr);
+        if(env->ExceptionCheck()) {
+            return nullptr;
+        }
+
+        for(size_t i = from_index; i < to_index; i++) {
+            JSValueRef exception = nullptr;
+            JSValueRef element = JSObjectGetPropertyAtIndex(context, object, static_cast<unsigned>(i), &exception);
+            if(exception) {
+                Util::throw_jssvalue_ref_as_java_exception(
+                    "Error while retrieving javascript array element", context, exception, env, lock);
+                return nullptr;
+            }
+
+            JSValueProtect(context, element);
+            jobject java_element = env->NewObject(
+                runtime.javascript_value.clazz,
+                runtime.javascript_value.constructor,
+                reinterpret_cast<jlong>(element),
+                lock);
+            if(env->ExceptionCheck()) {
+                JSValueUnprotect(context, element);
+                return nullptr;
+            }
+
+            // Free the local reference immediately, arrays might be larger than the local reference table
+            env->SetObjectArrayElement(java_elements, static_cast<jsize>(i - from_index), java_element);
+            env->DeleteLocalRef(java_element);
+        }
+
+        return java_elements;
+    }
+
     jobject JavascriptObjectJNI::get_prototype(JNIEnv *env, jobject java_instance) {
         auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
         if(!ok) {
@@ -168,6 +559,95 @@ namespace ultralight_java {
         return did_delete;
     }
 
+    jboolean JavascriptObjectJNI::has_property_interned(JNIEnv *env, jobject java_instance, jobject java_property_key) {
+        auto [ok, context, value] = extract(env, java_instance);
+        if(!ok) {
+            return false;
+        }
+
+        auto [key_ok, key] = extract_key(env, java_property_key);
+        if(!key_ok) {
+            return false;
+        }
+
+        return JSObjectHasProperty(context, value, key);
+    }
+
+    jobject JavascriptObjectJNI::get_property_interned(JNIEnv *env, jobject java_instance, jobject java_property_key) {
+        auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
+        if(!ok) {
+            return nullptr;
+        }
+
+        auto [key_ok, key] = extract_key(env, java_property_key);
+        if(!key_ok) {
+            return nullptr;
+        }
+
+        JSValueRef exception = nullptr;
+        JSValueRef property = JSObjectGetProperty(context, object, key, &exception);
+
+        if(exception) {
+            Util::throw_jssvalue_ref_as_java_exception(
+                "Error while retrieving javascript property", context, exception, env, lock);
+            return nullptr;
+        }
+
+        JSValueProtect(context, property);
+        return env->NewObject(
+            runtime.javascript_value.clazz,
+            runtime.javascript_value.constructor,
+            reinterpret_cast<jlong>(property),
+            lock);
+    }
+
+    void JavascriptObjectJNI::set_property_interned(
+        JNIEnv *env, jobject java_instance, jobject java_property_key, jobject java_value, jint attributes) {
+        auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
+        auto [value_ok, value] = extract_secondary(env, java_value);
+
+        if(!ok || !value_ok) {
+            return;
+        }
+
+        auto [key_ok, key] = extract_key(env, java_property_key);
+        if(!key_ok) {
+            return;
+        }
+
+        JSValueRef exception = nullptr;
+        JSObjectSetProperty(context, object, key, value, attributes, &exception);
+
+        if(exception) {
+            Util::throw_jssvalue_ref_as_java_exception(
+                "Error while setting javascript property", context, exception, env, lock);
+        }
+    }
+
+    jboolean JavascriptObjectJNI::delete_property_interned(
+        JNIEnv *env, jobject java_instance, jobject java_property_key) {
+        auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
+        if(!ok) {
+            return false;
+        }
+
+        auto [key_ok, key] = extract_key(env, java_property_key);
+        if(!key_ok) {
+            return false;
+        }
+
+        JSValueRef exception = nullptr;
+        bool did_delete = JSObjectDeleteProperty(context, object, key, &exception);
+
+        if(exception) {
+            Util::throw_jssvalue_ref_as_java_exception(
+                "Error while deleting javascript property", context, exception, env, lock);
+            return false;
+        }
+
+        return did_delete;
+    }
+
     jboolean JavascriptObjectJNI::has_property_for_key(JNIEnv *env, jobject java_instance, jobject java_property_key) {
         auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
         auto [key_ok, key] = extract_secondary(env, java_property_key);
@@ -290,6 +770,262 @@ namespace ultralight_java {
         }
     }
 
+    jdouble JavascriptObjectJNI::get_number_property(JNIEnv *env, jobject java_instance, jobject java_property_name) {
+        auto [ok, context, property] = read_property(env, java_instance, java_property_name);
+        if(!ok) {
+            return 0;
+        }
+
+        return value_to_number(env, java_instance, context, property);
+    }
+
+    jboolean JavascriptObjectJNI::get_boolean_property(JNIEnv *env, jobject java_instance, jobject java_property_name) {
+        auto [ok, context, property] = read_property(env, java_instance, java_property_name);
+        if(!ok) {
+            return false;
+        }
+
+        return JSValueToBoolean(context, property);
+    }
+
+    jstring JavascriptObjectJNI::get_string_property(JNIEnv *env, jobject java_instance, jobject java_property_name) {
+        auto [ok, context, property] = read_property(env, java_instance, java_property_name);
+        if(!ok) {
+            return nullptr;
+        }
+
+        return value_to_jstring(env, java_instance, context, property);
+    }
+
+    void JavascriptObjectJNI::set_number_property(
+        JNIEnv *env, jobject java_instance, jobject java_property_name, jdouble java_value, jint attributes) {
+        write_property(env, java_instance, java_property_name, attributes, [&](JSContextRef context) {
+            return JSValueMakeNumber(context, java_value);
+        });
+    }
+
+    void JavascriptObjectJNI::set_boolean_property(
+        JNIEnv *env, jobject java_instance, jobject java_property_name, jboolean java_value, jint attributes) {
+        write_property(env, java_instance, java_property_name, attributes, [&](JSContextRef context) {
+            return JSValueMakeBoolean(context, java_value);
+        });
+    }
+
+    void JavascriptObjectJNI::set_string_property(
+        JNIEnv *env, jobject java_instance, jobject java_property_name, jstring java_value, jint attributes) {
+        write_property(env, java_instance, java_property_name, attributes, [&](JSContextRef context) {
+            return make_string_value(env, context, java_value);
+        });
+    }
+
+    jdouble JavascriptObjectJNI::get_number_property_at_index(
+        JNIEnv *env, jobject java_instance, jlong property_index) {
+        auto [ok, context, property] = read_property_at_index(env, java_instance, property_index);
+        if(!ok) {
+            return 0;
+        }
+
+        return value_to_number(env, java_instance, context, property);
+    }
+
+    jboolean JavascriptObjectJNI::get_boolean_property_at_index(
+        JNIEnv *env, jobject java_instance, jlong property_index) {
+        auto [ok, context, property] = read_property_at_index(env, java_instance, property_index);
+        if(!ok) {
+            return false;
+        }
+
+        return JSValueToBoolean(context, property);
+    }
+
+    jstring JavascriptObjectJNI::get_string_property_at_index(
+        JNIEnv *env, jobject java_instance, jlong property_index) {
+        auto [ok, context, property] = read_property_at_index(env, java_instance, property_index);
+        if(!ok) {
+            return nullptr;
+        }
+
+        return value_to_jstring(env, java_instance, context, property);
+    }
+
+    void JavascriptObjectJNI::set_number_property_at_index(
+        JNIEnv *env, jobject java_instance, jlong property_index, jdouble java_value) {
+        write_property_at_index(env, java_instance, property_index, [&](JSContextRef context) {
+            return JSValueMakeNumber(context, java_value);
+        });
+    }
+
+    void JavascriptObjectJNI::set_boolean_property_at_index(
+        JNIEnv *env, jobject java_instance, jlong property_index, jboolean java_value) {
+        write_property_at_index(env, java_instance, property_index, [&](JSContextRef context) {
+            return JSValueMakeBoolean(context, java_value);
+        });
+    }
+
+    void JavascriptObjectJNI::set_string_property_at_index(
+        JNIEnv *env, jobject java_instance, jlong property_index, jstring java_value) {
+        write_property_at_index(env, java_instance, property_index, [&](JSContextRef context) {
+            return make_string_value(env, context, java_value);
+        });
+    }
+
+    jint JavascriptObjectJNI::get_typed_array_byte_length(JNIEnv *env, jobject java_instance) {
+        auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
+        if(!ok) {
+            return 0;
+        }
+
+        uint8_t *bytes;
+        size_t byte_length;
+        if(!get_typed_array_memory(env, context, object, lock, &bytes, &byte_length)) {
+            return 0;
+        }
+
+        return static_cast<jint>(byte_length);
+    }
+
+    void JavascriptObjectJNI::copy_typed_array_bytes(
+        JNIEnv *env, jobject java_instance, jobject java_array, jint java_byte_length) {
+        auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
+        if(!ok) {
+            return;
+        }
+
+        uint8_t *bytes;
+        size_t byte_length;
+        if(!get_typed_array_memory(env, context, object, lock, &bytes, &byte_length)) {
+            return;
+        }
+
+        if(byte_length != static_cast<size_t>(java_byte_length)) {
+            env->ThrowNew(
+                runtime.illegal_argument_exception.clazz,
+                "The size of the array does not match the size of the typed array");
+            return;
+        }
+
+        // Copied while the lock is held, the javascript memory may be moved or freed as soon as it is released
+        void *target = env->GetPrimitiveArrayCritical(reinterpret_cast<jarray>(java_array), nullptr);
+        if(!target) {
+            return;
+        }
+
+        std::memcpy(target, bytes, byte_length);
+        env->ReleasePrimitiveArrayCritical(reinterpret_cast<jarray>(java_array), target, 0);
+    }
+
+    jobjectArray JavascriptObjectJNI::get_elements(JNIEnv *env, jobject java_instance) {
+        auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
+        if(!ok) {
+            return nullptr;
+        }
+
+        size_t length;
+        if(!get_array_length(env, context, object, lock, &length)) {
+            return nullptr;
+        }
+
+        return read_elements(env, context, object, lock, 0, length);
+    }
+
+    jobjectArray JavascriptObjectJNI::get_elements_in_range(
+        JNIEnv *env, jobject java_instance, jint from_index, jint to_index) {
+        auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
+        if(!ok) {
+            return nullptr;
+        }
+
+        if(from_index < 0 || to_index < from_index) {
+            env->ThrowNew(runtime.illegal_argument_exception.clazz, "Invalid element range");
+            return nullptr;
+        }
+
+        return read_elements(env, context, object, lock, from_index, to_index);
+    }
+
+    jdoubleArray JavascriptObjectJNI::to_double_array(JNIEnv *env, jobject java_instance) {
+        auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
+        if(!ok) {
+            return nullptr;
+        }
+
+        size_t length;
+        if(!get_array_length(env, context, object, lock, &length)) {
+            return nullptr;
+        }
+
+        jdoubleArray java_values = env->NewDoubleArray(static_cast<jsize>(length));
+        if(env->ExceptionCheck()) {
+            return nullptr;
+        }
+
+        for(size_t i = 0; i < length; i++) {
+            JSValueRef exception = nullptr;
+            JSValueRef element = JSObjectGetPropertyAtIndex(context, object, static_cast<unsigned>(i), &exception);
+            if(exception) {
+                Util::throw_jssvalue_ref_as_java_exception(
+                    "Error while retrieving javascript array element", context, exception, env, lock);
+                return nullptr;
+            }
+
+            if(!JSValueIsNumber(context, element)) {
+                env->ThrowNew(
+                    runtime.illegal_state_exception.clazz, "The array contains an element which is not a number");
+                return nullptr;
+            }
+
+            jdouble value = JSValueToNumber(context, element, nullptr);
+            env->SetDoubleArrayRegion(java_values, static_cast<jsize>(i), 1, &value);
+        }
+
+        return java_values;
+    }
+
+    jobjectArray JavascriptObjectJNI::to_string_array(JNIEnv *env, jobject java_instance) {
+        auto [ok, context, object, lock] = extract_with_lock(env, java_instance);
+        if(!ok) {
+            return nullptr;
+        }
+
+        size_t length;
+        if(!get_array_length(env, context, object, lock, &length)) {
+            return nullptr;
+        }
+
+        jobjectArray java_values = env->NewObjectArray(static_cast<jsize>(length), runtime.string.clazz, nullptr);
+        if(env->ExceptionCheck()) {
+            return nullptr;
+        }
+
+        for(size_t i = 0; i < length; i++) {
+            JSValueRef exception = nullptr;
+            JSValueRef element = JSObjectGetPropertyAtIndex(context, object, static_cast<unsigned>(i), &exception);
+            if(exception) {
+                Util::throw_jssvalue_ref_as_java_exception(
+                    "Error while retrieving javascript array element", context, exception, env, lock);
+                return nullptr;
+            }
+
+            if(JSValueIsNull(context, element) || JSValueIsUndefined(context, element)) {
+                // Keep the array element null
+                continue;
+            } else if(!JSValueIsString(context, element)) {
+                env->ThrowNew(
+                    runtime.illegal_state_exception.clazz, "The array contains an element which is not a string");
+                return nullptr;
+            }
+
+            JSStringRef string_ref = JSValueToStringCopy(context, element, nullptr);
+            jstring java_string = Util::create_jstring_from_jsstring_ref(env, string_ref);
+            JSStringRelease(string_ref);
+
+            env->SetObjectArrayElement(java_values, static_cast<jsize>(i), java_string);
+            env->DeleteLocalRef(java_string);
+        }
+
+        return java_values;
+    }
+
     jobject JavascriptObjectJNI::get_private(JNIEnv *env, jobject java_instance) {
         auto [ok, object] = extract_secondary(env, java_instance);
         if(!ok) {
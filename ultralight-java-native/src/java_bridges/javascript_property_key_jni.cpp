@@ -0,0 +1,34 @@
+/*
+ * Ultralight Java - Java wrapper for the Ultralight web engine
+ * Copyright (C) 2022 LabyMedia and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+#include "ultralight_java/java_bridges/javascript_property_key_jni.hpp"
+
+#include "JavaScriptCore/JavaScript.h"
+#include "ultralight_java/util/util.hpp"
+
+namespace ultralight_java {
+    jlong JavascriptPropertyKeyJNI::create(JNIEnv *env, jclass, jstring name) {
+        // The created string is already retained and will be released by release
+        return reinterpret_cast<jlong>(Util::create_jsstring_ref_from_jstring(env, name));
+    }
+
+    void JavascriptPropertyKeyJNI::release(JNIEnv *, jclass, jlong handle) {
+        JSStringRelease(reinterpret_cast<JSStringRef>(handle));
+    }
+} // namespace ultralight_java
\ No newline at end of file
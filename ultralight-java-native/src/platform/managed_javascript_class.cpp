@@ -190,7 +190,7 @@ namespace ultralight_java {
         ProxiedJavaException::throw_if_any(env);
 
         LocalJNIReferenceWrapper<jstring>
-            java_property_name(env, Util::create_jstring_from_jsstring_ref(env, property_name));
+            java_property_name(env, Util::create_interned_jstring_from_jsstring_ref(env, property_name));
 
         jboolean ret = env->CallBooleanMethod(
             class_data->functions.java_has_property_tester,
@@ -215,7 +215,7 @@ namespace ultralight_java {
         auto java_context = WRAP_CONTEXT(env, ctx, java_lock);
         auto java_object = WRAP_OBJECT(env, ctx, object, java_lock);
         LocalJNIReferenceWrapper<jstring>
-            java_property_name(env, Util::create_jstring_from_jsstring_ref(env, property_name));
+            java_property_name(env, Util::create_interned_jstring_from_jsstring_ref(env, property_name));
 
         if(env->ExceptionCheck()) {
             *exception = Util::create_jssvalue_from_jthrowable(env, env->ExceptionOccurred(), ctx);
@@ -264,7 +264,7 @@ namespace ultralight_java {
         auto java_context = WRAP_CONTEXT(env, ctx, java_lock);
         auto java_object = WRAP_OBJECT(env, ctx, object, java_lock);
         LocalJNIReferenceWrapper<jstring>
-            java_property_name(env, Util::create_jstring_from_jsstring_ref(env, property_name));
+            java_property_name(env, Util::create_interned_jstring_from_jsstring_ref(env, property_name));
 
         if(env->ExceptionCheck()) {
             *exception = Util::create_jssvalue_from_jthrowable(env, env->ExceptionOccurred(), ctx);
@@ -329,7 +329,7 @@ namespace ultralight_java {
         auto java_object = WRAP_OBJECT(env, ctx, object, java_lock);
         auto java_value = WRAP_VALUE(env, ctx, value, java_lock);
         LocalJNIReferenceWrapper<jstring>
-            java_property_name(env, Util::create_jstring_from_jsstring_ref(env, property_name));
+            java_property_name(env, Util::create_interned_jstring_from_jsstring_ref(env, property_name));
 
         if(env->ExceptionCheck()) {
             *exception = Util::create_jssvalue_from_jthrowable(env, env->ExceptionOccurred(), ctx);
@@ -374,7 +374,7 @@ namespace ultralight_java {
         auto java_object = WRAP_OBJECT(env, ctx, object, java_lock);
         auto java_value = WRAP_VALUE(env, ctx, value, java_lock);
         LocalJNIReferenceWrapper<jstring>
-            java_property_name(env, Util::create_jstring_from_jsstring_ref(env, property_name));
+            java_property_name(env, Util::create_interned_jstring_from_jsstring_ref(env, property_name));
 
         if(env->ExceptionCheck()) {
             *exception = Util::create_jssvalue_from_jthrowable(env, env->ExceptionOccurred(), ctx);
@@ -421,7 +421,7 @@ namespace ultralight_java {
         auto java_context = WRAP_CONTEXT(env, ctx, java_lock);
         auto java_object = WRAP_OBJECT(env, ctx, object, java_lock);
         LocalJNIReferenceWrapper<jstring>
-            java_property_name(env, Util::create_jstring_from_jsstring_ref(env, property_name));
+            java_property_name(env, Util::create_interned_jstring_from_jsstring_ref(env, property_name));
 
         if(env->ExceptionCheck()) {
             *exception = Util::create_jssvalue_from_jthrowable(env, env->ExceptionOccurred(), ctx);
@@ -25,6 +25,7 @@
 #include "ultralight_java/java_bridges/javascript_context_lock_jni.hpp"
 #include "ultralight_java/java_bridges/javascript_global_context_jni.hpp"
 #include "ultralight_java/java_bridges/javascript_object_jni.hpp"
+#include "ultralight_java/java_bridges/javascript_property_key_jni.hpp"
 #include "ultralight_java/java_bridges/javascript_value_jni.hpp"
 #include "ultralight_java/java_bridges/ultralight_bitmap_jni.hpp"
 #include "ultralight_java/java_bridges/ultralight_bitmap_surface_jni.hpp"
@@ -102,7 +103,7 @@ namespace ultralight_java {
                  "createView",
                  "(JJLcom/labymedia/ultralight/config/UltralightViewConfig;)Lcom/labymedia/ultralight/UltralightView;",
                  UltralightRendererJNI::create_view),
-             NATIVE_METHOD("update", "()V", UltralightRendererJNI::update),
+             NATIVE_METHOD("nativeUpdate", "()V", UltralightRendererJNI::update),
              NATIVE_METHOD("render", "()V", UltralightRendererJNI::render),
              NATIVE_METHOD("purgeMemory", "()V", UltralightRendererJNI::purgeMemory),
              NATIVE_METHOD("logMemoryUsage", "()V", UltralightRendererJNI::logMemoryUsage)};
@@ -498,6 +499,20 @@ namespace ultralight_java {
                  "[Lcom/labymedia/ultralight/javascript/JavascriptValue;"
                  ")Lcom/labymedia/ultralight/javascript/JavascriptObject;",
                  JavascriptContextJNI::make_array),
+             NATIVE_METHOD(
+                 "makeTypedArray",
+                 "("
+                 "Lcom/labymedia/ultralight/javascript/JavascriptTypedArrayType;"
+                 "Ljava/nio/ByteBuffer;"
+                 ")Lcom/labymedia/ultralight/javascript/JavascriptObject;",
+                 JavascriptContextJNI::make_typed_array),
+             NATIVE_METHOD(
+                 "nativeMakeTypedArrayCopy",
+                 "("
+                 "Lcom/labymedia/ultralight/javascript/JavascriptTypedArrayType;"
+                 "Ljava/lang/Object;"
+                 ")Lcom/labymedia/ultralight/javascript/JavascriptObject;",
+                 JavascriptContextJNI::make_typed_array_copy),
              NATIVE_METHOD(
                  "makeDate",
                  "("
@@ -602,6 +617,24 @@ namespace ultralight_java {
                  "(Ljava/lang/String;Lcom/labymedia/ultralight/javascript/JavascriptValue;I)V",
                  JavascriptObjectJNI::set_property),
              NATIVE_METHOD("deleteProperty", "(Ljava/lang/String;)Z", JavascriptObjectJNI::delete_property),
+             NATIVE_METHOD(
+                 "hasProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;)Z",
+                 JavascriptObjectJNI::has_property_interned),
+             NATIVE_METHOD(
+                 "getProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;)"
+                 "Lcom/labymedia/ultralight/javascript/JavascriptValue;",
+                 JavascriptObjectJNI::get_property_interned),
+             NATIVE_METHOD(
+                 "setProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;"
+                 "Lcom/labymedia/ultralight/javascript/JavascriptValue;I)V",
+                 JavascriptObjectJNI::set_property_interned),
+             NATIVE_METHOD(
+                 "deleteProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;)Z",
+                 JavascriptObjectJNI::delete_property_interned),
              NATIVE_METHOD(
                  "hasPropertyForKey",
                  "(Lcom/labymedia/ultralight/javascript/JavascriptValue;)Z",
@@ -632,6 +665,69 @@ namespace ultralight_java {
                  "setPropertyAtIndex",
                  "(JLcom/labymedia/ultralight/javascript/JavascriptValue;)V",
                  JavascriptObjectJNI::set_property_at_index),
+             NATIVE_METHOD("getNumberProperty", "(Ljava/lang/String;)D", JavascriptObjectJNI::get_number_property),
+             NATIVE_METHOD(
+                 "getNumberProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;)D",
+                 JavascriptObjectJNI::get_number_property),
+             NATIVE_METHOD("getBooleanProperty", "(Ljava/lang/String;)Z", JavascriptObjectJNI::get_boolean_property),
+             NATIVE_METHOD(
+                 "getBooleanProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;)Z",
+                 JavascriptObjectJNI::get_boolean_property),
+             NATIVE_METHOD(
+                 "getStringProperty",
+                 "(Ljava/lang/String;)Ljava/lang/String;",
+                 JavascriptObjectJNI::get_string_property),
+             NATIVE_METHOD(
+                 "getStringProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;)Ljava/lang/String;",
+                 JavascriptObjectJNI::get_string_property),
+             NATIVE_METHOD("setNumberProperty", "(Ljava/lang/String;DI)V", JavascriptObjectJNI::set_number_property),
+             NATIVE_METHOD(
+                 "setNumberProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;DI)V",
+                 JavascriptObjectJNI::set_number_property),
+             NATIVE_METHOD("setBooleanProperty", "(Ljava/lang/String;ZI)V", JavascriptObjectJNI::set_boolean_property),
+             NATIVE_METHOD(
+                 "setBooleanProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;ZI)V",
+                 JavascriptObjectJNI::set_boolean_property),
+             NATIVE_METHOD(
+                 "setStringProperty",
+                 "(Ljava/lang/String;Ljava/lang/String;I)V",
+                 JavascriptObjectJNI::set_string_property),
+             NATIVE_METHOD(
+                 "setStringProperty",
+                 "(Lcom/labymedia/ultralight/javascript/JavascriptPropertyKey;Ljava/lang/String;I)V",
+                 JavascriptObjectJNI::set_string_property),
+             NATIVE_METHOD("getNumberPropertyAtIndex", "(J)D", JavascriptObjectJNI::get_number_property_at_index),
+             NATIVE_METHOD("getBooleanPropertyAtIndex", "(J)Z", JavascriptObjectJNI::get_boolean_property_at_index),
+             NATIVE_METHOD(
+                 "getStringPropertyAtIndex",
+                 "(J)Ljava/lang/String;",
+                 JavascriptObjectJNI::get_string_property_at_index),
+             NATIVE_METHOD("setNumberPropertyAtIndex", "(JD)V", JavascriptObjectJNI::set_number_property_at_index),
+             NATIVE_METHOD("setBooleanPropertyAtIndex", "(JZ)V", JavascriptObjectJNI::set_boolean_property_at_index),
+             NATIVE_METHOD(
+                 "setStringPropertyAtIndex",
+                 "(JLjava/lang/String;)V",
+                 JavascriptObjectJNI::set_string_property_at_index),
+             NATIVE_METHOD("getTypedArrayByteLength", "()I", JavascriptObjectJNI::get_typed_array_byte_length),
+             NATIVE_METHOD(
+                 "nativeCopyTypedArrayBytes",
+                 "(Ljava/lang/Object;I)V",
+                 JavascriptObjectJNI::copy_typed_array_bytes),
+             NATIVE_METHOD(
+                 "getElements",
+                 "()[Lcom/labymedia/ultralight/javascript/JavascriptValue;",
+                 JavascriptObjectJNI::get_elements),
+             NATIVE_METHOD(
+                 "getElements",
+                 "(II)[Lcom/labymedia/ultralight/javascript/JavascriptValue;",
+                 JavascriptObjectJNI::get_elements_in_range),
+             NATIVE_METHOD("toDoubleArray", "()[D", JavascriptObjectJNI::to_double_array),
+             NATIVE_METHOD("toStringArray", "()[Ljava/lang/String;", JavascriptObjectJNI::to_string_array),
              NATIVE_METHOD("getPrivate", "()Ljava/lang/Object;", JavascriptObjectJNI::get_private),
              NATIVE_METHOD("setPrivate", "(Ljava/lang/Object;)V", JavascriptObjectJNI::set_private),
              NATIVE_METHOD("isFunction", "()Z", JavascriptObjectJNI::is_function),
@@ -693,6 +789,10 @@ namespace ultralight_java {
 
         runtime.javascript_class.native_methods = {NATIVE_METHOD("release", "(J)V", JavascriptClassJNI::release)};
 
+        runtime.javascript_property_key.native_methods =
+            {NATIVE_METHOD("create", "(Ljava/lang/String;)J", JavascriptPropertyKeyJNI::create),
+             NATIVE_METHOD("release", "(J)V", JavascriptPropertyKeyJNI::release)};
+
         runtime.javascript_class_definition.native_methods =
             {NATIVE_METHOD(
                  "name",
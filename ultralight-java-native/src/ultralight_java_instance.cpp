@@ -22,6 +22,7 @@
 #include "ultralight_java/java_bridges/bridged_logger.hpp"
 #include "ultralight_java/java_bridges/ultralight_view_jni.hpp"
 #include "ultralight_java/ultralight_initializer.hpp"
+#include "ultralight_java/util/util.hpp"
 
 /**
  * Called by the JavaVM when the library is being loaded.
@@ -732,6 +733,16 @@ namespace ultralight_java {
             runtime.javascript_class.native_methods.data(),
             runtime.javascript_class.native_methods.size());
 
+        // Retrieve information about the JavascriptPropertyKey class
+        runtime.javascript_property_key.clazz = reinterpret_cast<jclass>(
+            env->NewGlobalRef(env->FindClass("com/labymedia/ultralight/javascript/JavascriptPropertyKey")));
+
+        // Register native methods for the JavascriptPropertyKey class
+        env->RegisterNatives(
+            runtime.javascript_property_key.clazz,
+            runtime.javascript_property_key.native_methods.data(),
+            runtime.javascript_property_key.native_methods.size());
+
         // Retrieve information about the JavascriptClassDefinition class
         runtime.javascript_class_definition.clazz = reinterpret_cast<jclass>(
             env->NewGlobalRef(env->FindClass("com/labymedia/ultralight/javascript/JavascriptClassDefinition")));
@@ -930,6 +941,9 @@ namespace ultralight_java {
         env->DeleteGlobalRef(runtime.javascript_object_constructor.clazz);
         env->UnregisterNatives(runtime.javascript_class_definition.clazz);
         env->DeleteGlobalRef(runtime.javascript_class_definition.clazz);
+        Util::clear_interned_jstrings(env);
+        env->UnregisterNatives(runtime.javascript_property_key.clazz);
+        env->DeleteGlobalRef(runtime.javascript_property_key.clazz);
         env->UnregisterNatives(runtime.javascript_class.clazz);
         env->DeleteGlobalRef(runtime.javascript_class.clazz);
         runtime.javascript_typed_array_type.constants.clear(env);
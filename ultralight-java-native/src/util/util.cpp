@@ -19,6 +19,11 @@
 
 #include "ultralight_java/util/util.hpp"
 
+#include <algorithm>
+#include <array>
+#include <mutex>
+#include <vector>
+
 #include <ultralight_java/ultralight_java_instance.hpp>
 
 #include "ultralight_java/ultralight_java_instance.hpp"
@@ -245,6 +250,80 @@ namespace ultralight_java {
         return env->NewString(to_jchar_ptr(javascript_chars), javascript_chars_length);
     }
 
+    namespace {
+        /**
+         * Maximum length of strings which are considered for interning
+         */
+        constexpr size_t max_interned_jstring_length = 64;
+
+        /**
+         * Single slot of the interned string cache
+         */
+        struct InternedJString {
+            std::vector<JSChar> chars;
+            jstring java_string = nullptr;
+        };
+
+        std::array<InternedJString, 256> interned_jstrings;
+        std::mutex interned_jstrings_mutex;
+
+        size_t hash_jschars(const JSChar *chars, size_t length) {
+            // FNV-1a over the UTF-16 code units
+            size_t hash = 2166136261u;
+            for(size_t i = 0; i < length; i++) {
+                hash = (hash ^ chars[i]) * 16777619u;
+            }
+
+            return hash;
+        }
+    } // namespace
+
+    jstring Util::create_interned_jstring_from_jsstring_ref(JNIEnv *env, JSStringRef javascript_string) {
+        const JSChar *javascript_chars = JSStringGetCharactersPtr(javascript_string);
+        size_t javascript_chars_length = JSStringGetLength(javascript_string);
+
+        if(javascript_chars_length > max_interned_jstring_length) {
+            return env->NewString(to_jchar_ptr(javascript_chars), javascript_chars_length);
+        }
+
+        std::lock_guard<std::mutex> lock(interned_jstrings_mutex);
+
+        size_t hash = hash_jschars(javascript_chars, javascript_chars_length);
+        auto &slot = interned_jstrings[hash % interned_jstrings.size()];
+        if(slot.java_string && slot.chars.size() == javascript_chars_length &&
+           std::equal(slot.chars.begin(), slot.chars.end(), javascript_chars)) {
+            return reinterpret_cast<jstring>(env->NewLocalRef(slot.java_string));
+        }
+
+        jstring java_string = env->NewString(to_jchar_ptr(javascript_chars), javascript_chars_length);
+        if(!java_string) {
+            return nullptr;
+        }
+
+        // Replace whatever occupied the slot before
+        if(slot.java_string) {
+            env->DeleteGlobalRef(slot.java_string);
+        }
+
+        slot.chars.assign(javascript_chars, javascript_chars + javascript_chars_length);
+        slot.java_string = reinterpret_cast<jstring>(env->NewGlobalRef(java_string));
+
+        return java_string;
+    }
+
+    void Util::clear_interned_jstrings(JNIEnv *env) {
+        std::lock_guard<std::mutex> lock(interned_jstrings_mutex);
+
+        for(auto &slot : interned_jstrings) {
+            if(slot.java_string) {
+                env->DeleteGlobalRef(slot.java_string);
+                slot.java_string = nullptr;
+            }
+
+            slot.chars.clear();
+        }
+    }
+
     JSStringRef Util::create_jsstring_ref_from_jstring(JNIEnv *env, jstring java_string) {
         const jchar *java_chars = env->GetStringChars(java_string, nullptr);
         size_t java_chars_length = env->GetStringLength(java_string);